@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation overriding the {@link org.springframework.data.semantic.cache.EntityCacheSettings} for an entity type.
+ * Negative values keep the configured settings.
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Cached {
+
+	int maximumSize() default -1;
+
+	long expireAfterWrite() default -1;
+
+	long refreshAfterWrite() default -1;
+
+	/**
+	 * Store the entities of the type as shared snapshots, see {@link org.springframework.data.semantic.cache.EntityCacheSettings#setSnapshots(boolean)}.
+	 * Every cache hit returns the same instance, so the returned entities are read-only: a change made by one caller is seen by all the others
+	 * and is not written to the database. Copy an entity before changing it.
+	 */
+	boolean snapshots() default false;
+
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.data.semantic.cache;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.eclipse.rdf4j.model.IRI;
 
 public interface EntityCache {
@@ -23,8 +26,42 @@ public interface EntityCache {
 	
 	<T> T get(IRI id, Class<? extends T> clazz);
 	
+	/**
+	 * Return the entity with the given id, loading and caching it on a miss. Concurrent misses of the same entity wait for a single load.
+	 * @param id
+	 * @param clazz
+	 * @param loader
+	 * @return the entity or null if it does not exist
+	 */
+	<T> T get(IRI id, Class<? extends T> clazz, EntityLoader loader);
+	
 	<T> void put(T entity);
 	
+	/**
+	 * @param ids
+	 * @param clazz
+	 * @return the cached entities by id; the ids which are not cached are absent from the map
+	 */
+	<T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz);
+	
+	/**
+	 * Return the entities with the given ids, loading all cache misses with a single call of the loader and caching the loaded entities.
+	 * Misses which are already being loaded by a concurrent call are waited for instead of being loaded again.
+	 * @param ids
+	 * @param clazz
+	 * @param loader
+	 * @return the entities by id; the ids of missing entities are absent from the map
+	 */
+	<T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz, EntityLoader loader);
+	
+	<T> void putAll(Collection<T> entities);
+	
+	/**
+	 * Drop the entities with the given ids from the caches of all types.
+	 * @param ids
+	 */
+	void evict(Collection<IRI> ids);
+	
 	<T> void clear(Class<? extends T> clazz);
 	
 	void clearAll();
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.cache;
+
+/**
+ * The settings of an in-process entity cache. A bean of this type in the application context enables the
+ * {@link org.springframework.data.semantic.support.cache.StripedEntityCache}; the settings apply to all entity types,
+ * unless overridden with {@link org.springframework.data.semantic.annotation.Cached}.
+ *
+ */
+public class EntityCacheSettings {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	private long expireAfterWrite = 0;
+
+	private long refreshAfterWrite = 0;
+
+	private boolean snapshots = false;
+
+	public EntityCacheSettings() {
+	}
+
+	public EntityCacheSettings(int maximumSize, long expireAfterWrite, long refreshAfterWrite, boolean snapshots) {
+		setMaximumSize(maximumSize);
+		setExpireAfterWrite(expireAfterWrite);
+		setRefreshAfterWrite(refreshAfterWrite);
+		setSnapshots(snapshots);
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * The maximum number of cached entities per type; the least recently used entities are evicted first.
+	 * @param maximumSize
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if(maximumSize < 1){
+			throw new IllegalArgumentException("The maximum cache size must be positive: "+maximumSize);
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	public long getExpireAfterWrite() {
+		return expireAfterWrite;
+	}
+
+	/**
+	 * The milliseconds after which a cached entity is dropped, 0 to keep it until it is evicted.
+	 * @param expireAfterWrite
+	 */
+	public void setExpireAfterWrite(long expireAfterWrite) {
+		if(expireAfterWrite < 0){
+			throw new IllegalArgumentException("The expiration time must not be negative: "+expireAfterWrite);
+		}
+		this.expireAfterWrite = expireAfterWrite;
+	}
+
+	public long getRefreshAfterWrite() {
+		return refreshAfterWrite;
+	}
+
+	/**
+	 * The milliseconds after which a hit reloads the entity in the background; the hit returns the cached entity. 0 disables the refresh.
+	 * @param refreshAfterWrite
+	 */
+	public void setRefreshAfterWrite(long refreshAfterWrite) {
+		if(refreshAfterWrite < 0){
+			throw new IllegalArgumentException("The refresh time must not be negative: "+refreshAfterWrite);
+		}
+		this.refreshAfterWrite = refreshAfterWrite;
+	}
+
+	public boolean isSnapshots() {
+		return snapshots;
+	}
+
+	/**
+	 * Store the entities by reference and return them from the cache without copying. The cached entities are shared
+	 * snapshots and must not be modified; otherwise the entities are serialized on put and a copy is returned on each hit.
+	 * @param snapshots
+	 */
+	public void setSnapshots(boolean snapshots) {
+		this.snapshots = snapshots;
+	}
+
+}
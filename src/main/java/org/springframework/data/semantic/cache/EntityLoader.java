@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * Reads entities from the store, bypassing the cache, to refresh the cached entities or to fill the cache on a miss.
+ *
+ */
+public interface EntityLoader {
+
+	<T> T load(IRI id, Class<T> clazz);
+
+	/**
+	 * Read the entities with the given ids with as few store queries as possible.
+	 * @param ids
+	 * @param clazz
+	 * @return the loaded entities by id; the ids of missing entities are absent from the map
+	 */
+	<T> Map<IRI, T> loadAll(Collection<IRI> ids, Class<T> clazz);
+
+}
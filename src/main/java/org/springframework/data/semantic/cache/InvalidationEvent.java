@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A batch of cache invalidations exchanged between the nodes sharing a database: the resources whose cached entities and molecules
+ * are stale and the rdf:types whose cached query results are stale, or all cached data.
+ *
+ */
+public class InvalidationEvent {
+
+	private final String origin;
+	private final Set<IRI> subjects;
+	private final Set<IRI> types;
+	private final boolean all;
+
+	/**
+	 * 
+	 * @param origin - the id of the publishing node, whose own events are ignored on receipt
+	 * @param subjects
+	 * @param types
+	 */
+	public InvalidationEvent(String origin, Collection<IRI> subjects, Collection<IRI> types) {
+		this(origin, subjects, types, false);
+	}
+
+	private InvalidationEvent(String origin, Collection<IRI> subjects, Collection<IRI> types, boolean all) {
+		if(origin == null){
+			throw new IllegalArgumentException("The origin of an invalidation event must not be null.");
+		}
+		this.origin = origin;
+		this.subjects = Collections.unmodifiableSet(new LinkedHashSet<IRI>(subjects));
+		this.types = Collections.unmodifiableSet(new LinkedHashSet<IRI>(types));
+		this.all = all;
+	}
+
+	/**
+	 * 
+	 * @param origin
+	 * @return an event invalidating all cached data, e.g. after writes of unknown statements
+	 */
+	public static InvalidationEvent all(String origin) {
+		return new InvalidationEvent(origin, Collections.<IRI>emptySet(), Collections.<IRI>emptySet(), true);
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public Set<IRI> getSubjects() {
+		return subjects;
+	}
+
+	public Set<IRI> getTypes() {
+		return types;
+	}
+
+	public boolean isAll() {
+		return all;
+	}
+
+	@Override
+	public String toString() {
+		return all ? "InvalidationEvent [origin=" + origin + ", all]" : "InvalidationEvent [origin=" + origin + ", subjects=" + subjects + ", types=" + types + "]";
+	}
+
+}
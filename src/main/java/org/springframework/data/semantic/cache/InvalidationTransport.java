@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.cache;
+
+/**
+ * Carries the {@link InvalidationEvent}s between the nodes sharing a database, so that the caches of each node drop the data
+ * written by the others. A bean of this type in the application context enables the invalidation of the template caches across nodes.
+ * The delivery may be best effort; the nodes receive their own events as well.
+ *
+ */
+public interface InvalidationTransport {
+
+	/**
+	 * Start delivering the events published by the nodes to the given listener.
+	 * @param listener
+	 */
+	void start(InvalidationListener listener);
+
+	void publish(InvalidationEvent event);
+
+	/**
+	 * Stop delivering the events and release the resources of the transport.
+	 */
+	void close();
+
+}
@@ -15,6 +15,10 @@
  */
 package org.springframework.data.semantic.config;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +32,8 @@ import org.springframework.data.semantic.convert.StringToXMLGregorianCalendarCon
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.core.SemanticExceptionTranslator;
 import org.springframework.data.semantic.support.SemanticTemplateCRUD;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class SemanticConfiguration {
@@ -36,6 +42,36 @@ public class SemanticConfiguration {
 	
 	private boolean explicitSupertypes = true;
 	
+	private boolean selectMaterialization = false;
+	
+	private int commitSize = SemanticTemplateCRUD.DEFAULT_COMMIT_SIZE;
+	
+	private int conversionThreads = 0;
+	
+	private int batchSize = SemanticTemplateCRUD.DEFAULT_BATCH_SIZE;
+	
+	private long writeBehindDelay = SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_DELAY;
+	
+	private int writeBehindCapacity = SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_CAPACITY;
+	
+	private int moleculeCacheSize = 0;
+	
+	private int queryCacheSize = 0;
+	
+	private long negativeCacheTtl = 0;
+	
+	private int negativeCacheSize = SemanticTemplateCRUD.DEFAULT_NEGATIVE_CACHE_SIZE;
+	
+	private boolean membershipFilters = false;
+	
+	private String hotKeysFile;
+	
+	private long hotKeysDumpInterval = SemanticTemplateCRUD.DEFAULT_HOT_KEYS_DUMP_INTERVAL;
+	
+	private int maximumHotKeys = SemanticTemplateCRUD.DEFAULT_MAXIMUM_HOT_KEYS;
+	
+	private Class<?>[] preloadedTypes = new Class<?>[0];
+	
 	@Autowired(required=false)
 	public void setSemanticDatabase(SemanticDatabase semanticDatabase) {
 		this.semanticDatabase = semanticDatabase;
@@ -45,10 +81,87 @@ public class SemanticConfiguration {
 		this.explicitSupertypes = explicitSupertypes;
 	}
 	
+	public void setSelectMaterialization(boolean selectMaterialization) {
+		this.selectMaterialization = selectMaterialization;
+	}
+	
+	public void setCommitSize(int commitSize) {
+		this.commitSize = commitSize;
+	}
+	
+	public void setConversionThreads(int conversionThreads) {
+		this.conversionThreads = conversionThreads;
+	}
+	
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+	
+	public void setWriteBehindDelay(long writeBehindDelay) {
+		this.writeBehindDelay = writeBehindDelay;
+	}
+	
+	public void setWriteBehindCapacity(int writeBehindCapacity) {
+		this.writeBehindCapacity = writeBehindCapacity;
+	}
+	
+	public void setMoleculeCacheSize(int moleculeCacheSize) {
+		this.moleculeCacheSize = moleculeCacheSize;
+	}
+	
+	public void setQueryCacheSize(int queryCacheSize) {
+		this.queryCacheSize = queryCacheSize;
+	}
+	
+	public void setNegativeCacheTtl(long negativeCacheTtl) {
+		this.negativeCacheTtl = negativeCacheTtl;
+	}
+	
+	public void setNegativeCacheSize(int negativeCacheSize) {
+		this.negativeCacheSize = negativeCacheSize;
+	}
+	
+	public void setMembershipFilters(boolean membershipFilters) {
+		this.membershipFilters = membershipFilters;
+	}
+	
+	public void setHotKeysFile(String hotKeysFile) {
+		this.hotKeysFile = hotKeysFile;
+	}
+	
+	public void setHotKeysDumpInterval(long hotKeysDumpInterval) {
+		this.hotKeysDumpInterval = hotKeysDumpInterval;
+	}
+	
+	public void setMaximumHotKeys(int maximumHotKeys) {
+		this.maximumHotKeys = maximumHotKeys;
+	}
+	
+	public void setPreloadedTypes(Class<?>[] preloadedTypes) {
+		this.preloadedTypes = preloadedTypes;
+	}
+	
 	
 	@Bean
 	public SemanticTemplateCRUD semanticTemplateCRUD() {
-		return new SemanticTemplateCRUD(semanticDatabase, conversionService(), explicitSupertypes);
+		SemanticTemplateCRUD semanticTemplateCRUD = new SemanticTemplateCRUD(semanticDatabase, conversionService(), explicitSupertypes);
+		semanticTemplateCRUD.setSelectMaterialization(selectMaterialization);
+		semanticTemplateCRUD.setCommitSize(commitSize);
+		semanticTemplateCRUD.setBatchSize(batchSize);
+		semanticTemplateCRUD.setWriteBehind(writeBehindDelay, writeBehindCapacity);
+		semanticTemplateCRUD.setMoleculeCacheSize(moleculeCacheSize);
+		semanticTemplateCRUD.setQueryCacheSize(queryCacheSize);
+		semanticTemplateCRUD.setNegativeCache(negativeCacheTtl, negativeCacheSize, membershipFilters);
+		if(StringUtils.hasText(hotKeysFile)){
+			semanticTemplateCRUD.setWarmUp(new File(hotKeysFile), hotKeysDumpInterval, maximumHotKeys);
+		}
+		semanticTemplateCRUD.setPreloadedTypes(Arrays.<Class<?>>asList(preloadedTypes));
+		if(conversionThreads > 0){
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-conversion-");
+			threadFactory.setDaemon(true);
+			semanticTemplateCRUD.setConversionExecutor(Executors.newFixedThreadPool(conversionThreads, threadFactory), conversionThreads);
+		}
+		return semanticTemplateCRUD;
 	}
 	
 	@Bean
@@ -39,6 +39,51 @@ public class SemanticConfigurationBeanDefinitionParser extends
 		if(element.hasAttribute("explicit-supertypes")){
 			builder.addPropertyValue("explicitSupertypes", element.getAttribute("explicit-supertypes"));
 		}
+		if(element.hasAttribute("select-materialization")){
+			builder.addPropertyValue("selectMaterialization", element.getAttribute("select-materialization"));
+		}
+		if(element.hasAttribute("commit-size")){
+			builder.addPropertyValue("commitSize", element.getAttribute("commit-size"));
+		}
+		if(element.hasAttribute("conversion-threads")){
+			builder.addPropertyValue("conversionThreads", element.getAttribute("conversion-threads"));
+		}
+		if(element.hasAttribute("batch-size")){
+			builder.addPropertyValue("batchSize", element.getAttribute("batch-size"));
+		}
+		if(element.hasAttribute("write-behind-delay")){
+			builder.addPropertyValue("writeBehindDelay", element.getAttribute("write-behind-delay"));
+		}
+		if(element.hasAttribute("write-behind-capacity")){
+			builder.addPropertyValue("writeBehindCapacity", element.getAttribute("write-behind-capacity"));
+		}
+		if(element.hasAttribute("molecule-cache-size")){
+			builder.addPropertyValue("moleculeCacheSize", element.getAttribute("molecule-cache-size"));
+		}
+		if(element.hasAttribute("query-cache-size")){
+			builder.addPropertyValue("queryCacheSize", element.getAttribute("query-cache-size"));
+		}
+		if(element.hasAttribute("negative-cache-ttl")){
+			builder.addPropertyValue("negativeCacheTtl", element.getAttribute("negative-cache-ttl"));
+		}
+		if(element.hasAttribute("negative-cache-size")){
+			builder.addPropertyValue("negativeCacheSize", element.getAttribute("negative-cache-size"));
+		}
+		if(element.hasAttribute("membership-filters")){
+			builder.addPropertyValue("membershipFilters", element.getAttribute("membership-filters"));
+		}
+		if(element.hasAttribute("hot-keys-file")){
+			builder.addPropertyValue("hotKeysFile", element.getAttribute("hot-keys-file"));
+		}
+		if(element.hasAttribute("hot-keys-dump-interval")){
+			builder.addPropertyValue("hotKeysDumpInterval", element.getAttribute("hot-keys-dump-interval"));
+		}
+		if(element.hasAttribute("hot-keys-size")){
+			builder.addPropertyValue("maximumHotKeys", element.getAttribute("hot-keys-size"));
+		}
+		if(element.hasAttribute("preloaded-types")){
+			builder.addPropertyValue("preloadedTypes", element.getAttribute("preloaded-types"));
+		}
 		
 		builder.setAutowireMode(Autowire.BY_TYPE.value());
 		setupConfigurationClassPostProcessor(parserContext);
@@ -18,6 +18,8 @@ package org.springframework.data.semantic.convert;
 import java.util.Map;
 
 import org.springframework.data.convert.EntityConverter;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
@@ -25,6 +27,25 @@ import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 
 public interface SemanticEntityConverter extends EntityConverter<SemanticPersistentEntity<?>, SemanticPersistentProperty, Object, RDFState> {
 
+	/**
+	 * Reads an entity from the given state, reusing the instances already created during the same load.
+	 * @param type
+	 * @param source
+	 * @param identityMap - the instances created during the current load
+	 * @return
+	 */
+	<R> R read(Class<R> type, RDFState source, EntityIdentityMap identityMap);
+	
+	/**
+	 * Reads an entity from the given state, which has been retrieved with the given fetch plan. 
+	 * @param type
+	 * @param source
+	 * @param identityMap - the instances created during the current load
+	 * @param fetchPlan - the plan the state has been retrieved with; if null the fetch strategies of the mapping apply
+	 * @return
+	 */
+	<R> R read(Class<R> type, RDFState source, EntityIdentityMap identityMap, FetchPlan fetchPlan);
+
 	/**
 	 * Loads data from state into the properties of the given entities.
 	 * @param entity
@@ -35,10 +56,39 @@ public interface SemanticEntityConverter extends EntityConverter<SemanticPersist
 	 */
 	<R> R loadEntity(R entity, RDFState source, MappingPolicy mappingPolicy, SemanticPersistentEntity<R> persistentEntity);
 	
+	/**
+	 * Loads data from state into the properties of the given entities, reusing the instances already created during the same load.
+	 * @param entity
+	 * @param source
+	 * @param mappingPolicy
+	 * @param persistentEntity
+	 * @param identityMap - the instances created during the current load
+	 * @return
+	 */
+	<R> R loadEntity(R entity, RDFState source, MappingPolicy mappingPolicy, SemanticPersistentEntity<R> persistentEntity, EntityIdentityMap identityMap);
+	
+	/**
+	 * Loads data from state into a single property of the given entity. Associated entities are loaded on first access.
+	 * @param entity
+	 * @param source
+	 * @param property
+	 * @param persistentEntity
+	 * @param identityMap - the instances created during the current load
+	 */
+	<R> void loadProperty(R entity, RDFState source, SemanticPersistentProperty property, SemanticPersistentEntity<R> persistentEntity, EntityIdentityMap identityMap);
+	
 	/**
 	 * Updates the existing state for each entity with the given object's new state.
 	 * @param objectsAndState
 	 */
 	void write(Map<Object, RDFState> objectsAndState);
 	
+	/**
+	 * Computes the statements to add and to remove in order to update the existing state of the given object with its new state, without writing them.
+	 * @param source
+	 * @param dbStatements - the existing state of the object
+	 * @return
+	 */
+	RDFState getPersistentState(Object source, RDFState dbStatements);
+	
 }
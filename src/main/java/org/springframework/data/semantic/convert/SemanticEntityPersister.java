@@ -19,6 +19,8 @@ import java.util.Map;
 
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.query.GraphQueryResult;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 
 
@@ -37,6 +39,25 @@ public interface SemanticEntityPersister {
 	 */
 	<T> T createEntityFromState(RDFState statements, Class<T> type);
 	
+	/**
+	 * Creates a DAO entity from a given state, sharing the instances of associated resources with the other entities of the same load.
+	 * @param statements
+	 * @param type
+	 * @param identityMap - the instances created during the current load
+	 * @return
+	 */
+	<T> T createEntityFromState(RDFState statements, Class<T> type, EntityIdentityMap identityMap);
+	
+	/**
+	 * Creates a DAO entity from a given state, which has been retrieved with the given fetch plan.
+	 * @param statements
+	 * @param type
+	 * @param identityMap - the instances created during the current load
+	 * @param fetchPlan - the plan the state has been retrieved with
+	 * @return
+	 */
+	<T> T createEntityFromState(RDFState statements, Class<T> type, EntityIdentityMap identityMap, FetchPlan fetchPlan);
+	
 	/**
 	 * Persist the given entity's state.
 	 * @param entity
@@ -50,4 +71,12 @@ public interface SemanticEntityPersister {
 	 * @return
 	 */
 	<T> Iterable<T> persistEntities(Map<T, RDFState> entitiesToExistingState);
+	
+	/**
+	 * Compute the statements to add and to remove in order to persist the given entity's state, without writing them.
+	 * @param entity
+	 * @param existing
+	 * @return
+	 */
+	<T> RDFState getPersistentState(T entity, RDFState existing);
 }
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+/**
+ * The aggregates which can be computed over a property of the entities of a type, see {@link SemanticOperationsCRUD#aggregate(Class, java.util.Map, AggregateFunction, String, Class)}.
+ */
+public enum AggregateFunction {
+	
+	/**
+	 * The number of values of the property, or the number of distinct entities if no property is given.
+	 */
+	COUNT, 
+	
+	SUM, 
+	
+	AVG, 
+	
+	MIN, 
+	
+	MAX;
+
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+/**
+ * Receives the progress of a bulk write, see {@link SemanticOperationsCRUD#create(java.util.Iterator, BulkWriteListener)}.
+ */
+public interface BulkWriteListener {
+	
+	/**
+	 * Called after each commit of a bulk write.
+	 * @param progress - the totals since the start of the bulk write
+	 */
+	void committed(BulkWriteProgress progress);
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+/**
+ * A snapshot of the progress of a bulk write, taken after each commit.
+ */
+public class BulkWriteProgress {
+	
+	private final long entities;
+	private final long statements;
+	private final int commits;
+	private final long elapsedMillis;
+	
+	public BulkWriteProgress(long entities, long statements, int commits, long elapsedMillis) {
+		this.entities = entities;
+		this.statements = statements;
+		this.commits = commits;
+		this.elapsedMillis = elapsedMillis;
+	}
+	
+	/**
+	 * 
+	 * @return the number of entities written so far
+	 */
+	public long getEntities() {
+		return entities;
+	}
+	
+	/**
+	 * 
+	 * @return the number of statements added and removed so far
+	 */
+	public long getStatements() {
+		return statements;
+	}
+	
+	/**
+	 * 
+	 * @return the number of commits so far
+	 */
+	public int getCommits() {
+		return commits;
+	}
+	
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	/**
+	 * 
+	 * @return the average number of entities written per second
+	 */
+	public double getEntitiesPerSecond() {
+		return elapsedMillis > 0 ? entities * 1000.0 / elapsedMillis : entities;
+	}
+	
+	/**
+	 * 
+	 * @return the average number of statements written per second
+	 */
+	public double getStatementsPerSecond() {
+		return elapsedMillis > 0 ? statements * 1000.0 / elapsedMillis : statements;
+	}
+	
+	@Override
+	public String toString() {
+		return entities+" entities, "+statements+" statements in "+commits+" commits, "+elapsedMillis+" ms ("+Math.round(getEntitiesPerSecond())+" entities/s)";
+	}
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import java.util.Collection;
+
+import org.eclipse.rdf4j.model.Statement;
+
+/**
+ * Receives the changes of the statements of a {@link SemanticDatabase}, see {@link SemanticDatabase#addChangeListener(DatabaseChangeListener)}.
+ * The listeners are called on the writing thread, after the write.
+ */
+public interface DatabaseChangeListener {
+	
+	/**
+	 * Called after statements have been written.
+	 * @param added - the added statements
+	 * @param removed - the removed statements, possibly including statements which did not exist
+	 */
+	void statementsChanged(Collection<? extends Statement> added, Collection<? extends Statement> removed);
+	
+	/**
+	 * Called after a write whose statements are not known, e.g. a SPARQL update against a remote store, or a write of another
+	 * application to the same store.
+	 */
+	void databaseChanged();
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingBatch;
+
+/**
+ * Keeps track of the entities created during a single load operation, so that each resource is instantiated only once per type
+ * and shared between all entities referring to it. Not thread-safe; a new instance should be used for each load.
+ * 
+ */
+public class EntityIdentityMap {
+	
+	private final Map<Key, Object> entities = new HashMap<Key, Object>();
+	
+	private final Set<Key> loaded = new HashSet<Key>();
+	
+	private final Map<SemanticPersistentProperty, LazyLoadingBatch> batches = new HashMap<SemanticPersistentProperty, LazyLoadingBatch>();
+	
+	private final Map<SemanticPersistentProperty, LazyLoadingBatch> propertyBatches = new HashMap<SemanticPersistentProperty, LazyLoadingBatch>();
+	
+	/**
+	 * Retrieve the instance of the given type created for the given resource.
+	 * @param id
+	 * @param type
+	 * @return the instance or null if none was created during this load
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(IRI id, Class<T> type){
+		return (T) entities.get(new Key(id, type));
+	}
+	
+	/**
+	 * Register an instance for the given resource and type.
+	 * @param id
+	 * @param type
+	 * @param entity
+	 */
+	public void put(IRI id, Class<?> type, Object entity){
+		entities.put(new Key(id, type), entity);
+	}
+	
+	/**
+	 * Check if the properties of the registered instance have already been populated.
+	 * @param id
+	 * @param type
+	 * @return
+	 */
+	public boolean isLoaded(IRI id, Class<?> type){
+		return loaded.contains(new Key(id, type));
+	}
+	
+	/**
+	 * Mark the properties of the registered instance as populated.
+	 * @param id
+	 * @param type
+	 */
+	public void markLoaded(IRI id, Class<?> type){
+		loaded.add(new Key(id, type));
+	}
+	
+	/**
+	 * Retrieve the batch of lazily loaded values of the given association created during this load.
+	 * @param property
+	 * @return the batch or null if none was created during this load
+	 */
+	public LazyLoadingBatch getBatch(SemanticPersistentProperty property){
+		return batches.get(property);
+	}
+	
+	/**
+	 * Register the batch of lazily loaded values of the given association.
+	 * @param property
+	 * @param batch
+	 */
+	public void putBatch(SemanticPersistentProperty property, LazyLoadingBatch batch){
+		batches.put(property, batch);
+	}
+	
+	/**
+	 * Retrieve the batch of instances, whose value of the given property is loaded on first access, created during this load.
+	 * @param property
+	 * @return the batch or null if none was created during this load
+	 */
+	public LazyLoadingBatch getPropertyBatch(SemanticPersistentProperty property){
+		return propertyBatches.get(property);
+	}
+	
+	/**
+	 * Register the batch of instances, whose value of the given property is loaded on first access.
+	 * @param property
+	 * @param batch
+	 */
+	public void putPropertyBatch(SemanticPersistentProperty property, LazyLoadingBatch batch){
+		propertyBatches.put(property, batch);
+	}
+	
+	public int size(){
+		return entities.size();
+	}
+	
+	private static final class Key {
+		
+		private final IRI id;
+		private final Class<?> type;
+		
+		Key(IRI id, Class<?> type){
+			this.id = id;
+			this.type = type;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + type.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj){
+				return true;
+			}
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key) obj;
+			return id.equals(other.id) && type.equals(other.type);
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * Describes which part of the molecule of an entity is retrieved by a single find operation, overriding the fetch strategies of its associations. 
+ * Properties are named by dot-separated paths relative to the entity, e.g. "name" or "owner.name". If no path is given for an entity, all of its 
+ * properties are included, otherwise only the named ones. An included association is fetched together with the entity as long as the maximum 
+ * depth is not exceeded; otherwise it holds lazily loaded instances. Properties which are not included are loaded on first access.
+ *
+ */
+public class FetchPlan implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final int maxDepth;
+	
+	private final Map<String, Set<String>> propertyToSubPaths = new LinkedHashMap<String, Set<String>>();
+	
+	/**
+	 * 
+	 * @param maxDepth - how many levels of associations are fetched together with the entity; 0 retrieves only the entity itself
+	 * @param propertyPaths - the properties to include; if none are given all properties are included
+	 */
+	public FetchPlan(int maxDepth, String... propertyPaths){
+		this(maxDepth, Arrays.asList(propertyPaths));
+	}
+	
+	private FetchPlan(int maxDepth, Iterable<String> propertyPaths){
+		if(maxDepth < 0){
+			throw new IllegalArgumentException("The maximum depth of a fetch plan must not be negative.");
+		}
+		this.maxDepth = maxDepth;
+		for(String path : propertyPaths){
+			if(!StringUtils.hasText(path)){
+				throw new IllegalArgumentException("Empty property path in fetch plan.");
+			}
+			int separator = path.indexOf('.');
+			String property = separator < 0 ? path : path.substring(0, separator);
+			Set<String> subPaths = propertyToSubPaths.get(property);
+			if(subPaths == null){
+				subPaths = new LinkedHashSet<String>();
+				propertyToSubPaths.put(property, subPaths);
+			}
+			if(separator >= 0){
+				subPaths.add(path.substring(separator + 1));
+			}
+		}
+	}
+	
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+	
+	/**
+	 * 
+	 * @return the names of the included properties of the entity, or an empty set if all are included
+	 */
+	public Set<String> getProperties(){
+		return Collections.unmodifiableSet(propertyToSubPaths.keySet());
+	}
+	
+	/**
+	 * 
+	 * @param property
+	 * @return true if the given property is retrieved together with the entity
+	 */
+	public boolean includes(SemanticPersistentProperty property){
+		return propertyToSubPaths.isEmpty() || propertyToSubPaths.containsKey(property.getName());
+	}
+	
+	/**
+	 * 
+	 * @param association
+	 * @return true if the associated entities are retrieved together with the entity
+	 */
+	public boolean fetches(SemanticPersistentProperty association){
+		return maxDepth > 0 && includes(association);
+	}
+	
+	/**
+	 * 
+	 * @param association
+	 * @return the plan for the entities of the given association
+	 */
+	public FetchPlan getAssociationPlan(SemanticPersistentProperty association){
+		Set<String> subPaths = propertyToSubPaths.get(association.getName());
+		return new FetchPlan(Math.max(maxDepth - 1, 0), subPaths != null ? subPaths : Collections.<String>emptySet());
+	}
+	
+	/**
+	 * Check that the included properties exist in the given entity and its associations.
+	 * @param persistentEntity
+	 * @param mappingContext
+	 * @throws IllegalArgumentException if a property path cannot be resolved
+	 */
+	public void validate(SemanticPersistentEntity<?> persistentEntity, SemanticMappingContext mappingContext){
+		for(Map.Entry<String, Set<String>> entry : propertyToSubPaths.entrySet()){
+			SemanticPersistentProperty property = persistentEntity.getPersistentProperty(entry.getKey());
+			if(property == null){
+				throw new IllegalArgumentException("No property "+entry.getKey()+" found for type "+persistentEntity.getType().getName()+" in fetch plan.");
+			}
+			if(!entry.getValue().isEmpty()){
+				if(!property.isAssociation()){
+					throw new IllegalArgumentException("Property "+entry.getKey()+" of type "+persistentEntity.getType().getName()+" in fetch plan is not an association.");
+				}
+				getAssociationPlan(property).validate(mappingContext.getPersistentEntity(property.getActualType()), mappingContext);
+			}
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * maxDepth + propertyToSubPaths.hashCode();
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj){
+			return true;
+		}
+		if(!(obj instanceof FetchPlan)){
+			return false;
+		}
+		FetchPlan other = (FetchPlan) obj;
+		return maxDepth == other.maxDepth && propertyToSubPaths.equals(other.propertyToSubPaths);
+	}
+	
+	@Override
+	public String toString() {
+		return "FetchPlan [maxDepth=" + maxDepth + ", properties=" + propertyToSubPaths + "]";
+	}
+
+}
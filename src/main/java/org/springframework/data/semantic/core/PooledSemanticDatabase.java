@@ -19,8 +19,10 @@ import java.io.File;
 import java.io.IOException;
 import java.security.InvalidParameterException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.model.IRI;
@@ -37,15 +39,21 @@ import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.QueryInterruptedException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.eclipse.rdf4j.query.Update;
 import org.eclipse.rdf4j.query.UpdateExecutionException;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.sail.NotifyingSail;
+import org.eclipse.rdf4j.sail.Sail;
+import org.eclipse.rdf4j.sail.SailChangedEvent;
+import org.eclipse.rdf4j.sail.SailChangedListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -53,12 +61,18 @@ import org.springframework.data.repository.query.QueryCreationException;
 import org.springframework.data.semantic.query.BooleanSparqlQuery;
 import org.springframework.data.semantic.query.GraphSparqlQuery;
 import org.springframework.data.semantic.query.TupleSparqlQuery;
+import org.springframework.data.semantic.support.database.ExtendedRepositoryConnection;
 import org.springframework.data.semantic.support.database.Rdf4jConnectionPool;
+import org.springframework.data.semantic.support.database.StatementCapture;
 import org.springframework.data.semantic.support.exceptions.SemanticDatabaseAccessException;
 import org.springframework.data.semantic.support.exceptions.UncategorizedSemanticDataAccessException;
 
 /**
  * An implementation of {@link SemanticDatabase} that uses connection pooling.
+ * <p>
+ * The changes of each write are reported to the {@link DatabaseChangeListener}s: the statements are captured from the connection
+ * if the repository is a {@link SailRepository} over a {@link NotifyingSail}, otherwise the written statements are reported, if known.
+ * With a notifying sail, the writes to the same sail bypassing this database are reported as unknown changes.
  * 
  * @author konstantin.pentchev
  *
@@ -67,6 +81,10 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	private Rdf4jConnectionPool connectionPool;
 	
+	private final List<DatabaseChangeListener> changeListeners = new CopyOnWriteArrayList<DatabaseChangeListener>();
+	
+	private final ThreadLocal<Boolean> writing = new ThreadLocal<Boolean>();
+	
 	private Logger logger = LoggerFactory.getLogger(PooledSemanticDatabase.class);
 
 	public PooledSemanticDatabase(Repository repository, int maxConnections){
@@ -75,6 +93,20 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public PooledSemanticDatabase(Rdf4jConnectionPool pool){
 		this.connectionPool = pool;
+		if(pool.getRepository() instanceof SailRepository){
+			Sail sail = ((SailRepository) pool.getRepository()).getSail();
+			if(sail instanceof NotifyingSail){
+				((NotifyingSail) sail).addSailChangedListener(new SailChangedListener() {
+					@Override
+					public void sailChanged(SailChangedEvent event) {
+						//the writes of this database are reported with their statements
+						if(writing.get() == null && (event.statementsAdded() || event.statementsRemoved())){
+							fireDatabaseChanged();
+						}
+					}
+				});
+			}
+		}
 	}
 
 	public List<Namespace> getNamespaces() throws RepositoryException {
@@ -132,6 +164,19 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 		}
 	}
 
+	@Override
+	public void getQueryResults(String source, TupleQueryResultHandler handler)
+			throws RepositoryException, QueryEvaluationException, MalformedQueryException {
+		logger.debug("Executing query \""+source+"\"");
+		RepositoryConnection con = connectionPool.getConnection();
+		try{
+			TupleSparqlQuery query = new TupleSparqlQuery(source, con);
+			query.evaluate(handler);
+		} finally {
+			con.close();
+		}
+	}
+
 	@Override
 	public boolean getBooleanQueryResult(String source) throws RepositoryException, QueryCreationException, QueryEvaluationException,
 			QueryInterruptedException, MalformedQueryException {
@@ -189,6 +234,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public void addStatement(Statement statement) {
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.add(statement);
 			con.commit();
@@ -201,6 +247,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new SemanticDatabaseAccessException(e);
 		}finally {
+			endWrite(con, Collections.singleton(statement), null);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -220,6 +267,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public void addStatements(Collection<? extends Statement> statements) {
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.add(statements);
 			con.commit();
@@ -232,6 +280,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new SemanticDatabaseAccessException(e);
 		} finally {
+			endWrite(con, statements, null);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -247,6 +296,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			throw new InvalidParameterException("File should be in a valid RDF format; cannot determine one from the file extension.");
 		}
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.add(rdfSource, null, format.get(), new Resource[]{});
 		} catch (RDFParseException e) {
@@ -274,6 +324,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new UncategorizedSemanticDataAccessException(e.getMessage(), e);
 		} finally {
+			endWrite(con, null, null);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -284,6 +335,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 
 	public void removeStatement(Statement statement) {
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.remove(statement);
 			con.commit();
@@ -296,6 +348,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new SemanticDatabaseAccessException(e);
 		}finally {
+			endWrite(con, null, Collections.singleton(statement));
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -311,6 +364,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	public void removeStatements(Resource subject, IRI predicate, Value object,
 			Resource context) {
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.begin();
 			con.remove(subject, predicate, object, context);
@@ -324,6 +378,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new SemanticDatabaseAccessException(e);
 		} finally {
+			endWrite(con, null, null);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -335,6 +390,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	@Override
 	public void removeStatements(Collection<? extends Statement> statements) {
 		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			con.begin();
 			con.remove(statements);
@@ -348,6 +404,34 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			}
 			throw new SemanticDatabaseAccessException(e);
 		} finally {
+			endWrite(con, null, statements);
+			try {
+				con.close();
+			} catch (RepositoryException e) {
+				logger.error(e.getMessage(),e);
+			}
+		}
+	}
+
+	@Override
+	public void updateStatements(Collection<? extends Statement> removed, Collection<? extends Statement> added) {
+		RepositoryConnection con = connectionPool.getConnection();
+		beginWrite(con);
+		try {
+			con.begin();
+			con.remove(removed);
+			con.add(added);
+			con.commit();
+		} catch (RepositoryException e) {
+			logger.error(e.getMessage(),e);
+			try {
+				con.rollback();
+			} catch (RepositoryException e1) {
+				logger.error(e.getMessage(),e);
+			}
+			throw new SemanticDatabaseAccessException(e);
+		} finally {
+			endWrite(con, added, removed);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -426,6 +510,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	@Override
 	public void clear() {
 		RepositoryConnection con = connectionPool.getConnection();
+		writing.set(Boolean.TRUE);
 		try {
 			con.remove(null, null, null, new Resource[0]);
 			con.commit();
@@ -439,6 +524,8 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			logger.error(e.getMessage(),e);
 			throw new SemanticDatabaseAccessException(e);
 		} finally{
+			writing.remove();
+			fireDatabaseChanged();
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -451,6 +538,7 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 	@Override
 	public void executeUpdateStatement(String update) {
 		RepositoryConnection con = this.connectionPool.getConnection();
+		beginWrite(con);
 		try {
 			Update updateQuery = con.prepareUpdate(QueryLanguage.SPARQL, update);
 			updateQuery.execute();
@@ -464,6 +552,8 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 			logger.error(e.getMessage(),e);
 			throw new SemanticDatabaseAccessException(e);
 		} finally {
+			//reported once the update has run, a failed update may have changed the data as well
+			endWrite(con, null, null);
 			try {
 				con.close();
 			} catch (RepositoryException e) {
@@ -474,5 +564,61 @@ public class PooledSemanticDatabase implements SemanticDatabase{
 		
 	}
 
+	@Override
+	public void addChangeListener(DatabaseChangeListener listener) {
+		changeListeners.add(listener);
+	}
+	
+	@Override
+	public void removeChangeListener(DatabaseChangeListener listener) {
+		changeListeners.remove(listener);
+	}
+	
+	private void beginWrite(RepositoryConnection con){
+		writing.set(Boolean.TRUE);
+		if(!changeListeners.isEmpty() && con instanceof ExtendedRepositoryConnection){
+			((ExtendedRepositoryConnection) con).startCapture();
+		}
+	}
+	
+	/*
+	 * Reports the statements captured from the connection, or else the given statements; both are null if the written statements are not known.
+	 */
+	private void endWrite(RepositoryConnection con, Collection<? extends Statement> added, Collection<? extends Statement> removed){
+		writing.remove();
+		StatementCapture capture = con instanceof ExtendedRepositoryConnection ? ((ExtendedRepositoryConnection) con).stopCapture() : null;
+		if(changeListeners.isEmpty()){
+			return;
+		}
+		if(capture != null && capture.isComplete()){
+			fireStatementsChanged(capture.getAdded(), capture.getRemoved());
+		}
+		else if(capture == null && (added != null || removed != null)){
+			fireStatementsChanged(added != null ? added : Collections.<Statement>emptyList(), removed != null ? removed : Collections.<Statement>emptyList());
+		}
+		else{
+			fireDatabaseChanged();
+		}
+	}
+	
+	private void fireStatementsChanged(Collection<? extends Statement> added, Collection<? extends Statement> removed){
+		for(DatabaseChangeListener listener : changeListeners){
+			try{
+				listener.statementsChanged(added, removed);
+			} catch(RuntimeException e){
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+	
+	private void fireDatabaseChanged(){
+		for(DatabaseChangeListener listener : changeListeners){
+			try{
+				listener.databaseChanged();
+			} catch(RuntimeException e){
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
 
 }
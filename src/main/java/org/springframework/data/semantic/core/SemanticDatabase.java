@@ -31,6 +31,7 @@ import org.eclipse.rdf4j.query.GraphQuery;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
@@ -91,6 +92,18 @@ public interface SemanticDatabase {
 	
 	List<BindingSet> getQueryResults(String source, Long offset, Long limit) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
 	
+	/**
+	 * Evaluate the given tuple query and stream its results to the {@link TupleQueryResultHandler} without buffering them.
+	 * @param source
+	 * @param handler
+	 * @throws RepositoryException
+	 * @throws QueryCreationException
+	 * @throws QueryEvaluationException
+	 * @throws QueryInterruptedException
+	 * @throws MalformedQueryException
+	 */
+	void getQueryResults(String source, TupleQueryResultHandler handler) throws RepositoryException, QueryCreationException, QueryEvaluationException, QueryInterruptedException, MalformedQueryException;
+	
 	/**
 	 * Create a {@link GraphQuery} from the given source {@link String} and return the results from its execution.
 	 * @param graphQuery
@@ -244,12 +257,28 @@ public interface SemanticDatabase {
 	 */
 	void executeUpdateStatement(String update);
 	
+	/**
+	 * Register a listener to be notified of the statements changed by the writes of this database and, if they can be detected, 
+	 * of other writes to the same store.
+	 * @param listener
+	 */
+	void addChangeListener(DatabaseChangeListener listener);
+	
+	void removeChangeListener(DatabaseChangeListener listener);
+	
 	/**
 	 * Delete the given {@link Collection} of {@link Statement}s from the repository.
 	 * @param statements
 	 */
 	void removeStatements(Collection<? extends Statement> statements);
 	
+	/**
+	 * Delete and add the given {@link Collection}s of {@link Statement}s in a single transaction.
+	 * @param removed - the statements to delete
+	 * @param added - the statements to add
+	 */
+	void updateStatements(Collection<? extends Statement> removed, Collection<? extends Statement> added);
+	
 	
 	/**
 	 * Clear all connections and other resources in use.
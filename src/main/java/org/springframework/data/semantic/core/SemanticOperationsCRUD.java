@@ -16,6 +16,7 @@
 package org.springframework.data.semantic.core;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -29,7 +30,7 @@ public interface SemanticOperationsCRUD {
 	SemanticMappingContext getSemanticMappingContext();
 	
 	/**
-	 * Store the given entities in the rdf store. Similar to save, but no checking/removing of existing statements occurs. Attached relationships will be cascaded. The operation occurs in a single transaction.
+	 * Store the given entities in the rdf store. Similar to save, but no checking/removing of existing statements occurs. Attached relationships will be cascaded. The statements are committed in chunks of the configured commit size.
      * This method is also provided by the appropriate repository.
 	 * @param entities
 	 * @return
@@ -44,19 +45,53 @@ public interface SemanticOperationsCRUD {
 	
 	/**
 	 * Store the given entities in the rdf store. If the subject {@link IRI} of an entity is already present in the store, the statements for it are updated, otherwise
-     * statements are just added. Attached relationships will be cascaded. The operation occurs in a single transaction.
+     * statements are just added. Attached relationships will be cascaded. The statements are committed in chunks of the configured commit size.
      * This method is also provided by the appropriate repository.
 	 * @param entities
 	 * @return
 	 */
 	<T> Iterable<T> save(Iterable<T> entities);
 	
+	/**
+	 * Store the entities of the given iterator as they are produced, like {@link #create(Iterable)}. 
+	 * The entities are not retained, so the iterator may stream an arbitrary number of them.
+	 * @param entities
+	 * @param listener - notified after each commit; may be null
+	 * @return the totals of the bulk write
+	 */
+	<T> BulkWriteProgress create(Iterator<T> entities, BulkWriteListener listener);
+	
+	/**
+	 * Store the entities of the given iterator as they are produced, like {@link #save(Iterable)}. 
+	 * The entities are not retained, so the iterator may stream an arbitrary number of them.
+	 * @param entities
+	 * @param listener - notified after each commit; may be null
+	 * @return the totals of the bulk write
+	 */
+	<T> BulkWriteProgress save(Iterator<T> entities, BulkWriteListener listener);
+	
 	 /**
      * Stores the given entity in the rdf store. If the subject {@link IRI} is already present in the store, the statements are updated, otherwise
      * statements are just added. Attached relationships will be cascaded.
      * This method is also provided by the appropriate repository.
      */
     <T> T save(T entity);
+    
+    /**
+     * Stores the given entity in the rdf store with a single update, which replaces the stored values of its properties and associations without reading them first. 
+     * Attached relationships will be cascaded, but the stored values of the associated entities are only added to.
+     * This method is also provided by the appropriate repository.
+     * @param entity
+     * @return
+     */
+    <T> T upsert(T entity);
+    
+    /**
+     * Stores the given entities like {@link #upsert(Object)}, sending the updates of a batch of entities in a single request.
+     * @param entities
+     * @return
+     */
+    <T> Iterable<T> upsert(Iterable<T> entities);
 
     /**
      * Removes the given statements from the rdf store, the entity is first removed
@@ -85,6 +120,24 @@ public interface SemanticOperationsCRUD {
      */
     <T> T find(IRI resourceId, Class<? extends T> clazz);
     
+    /**
+     * Retrieves an entity of the given type T that is identified by the given {@link IRI}, together with the properties and associations of the given {@link FetchPlan}.
+     * @param resourceId
+     * @param clazz
+     * @param fetchPlan - if null the fetch strategies of the mapping apply
+     * @return
+     */
+    <T> T find(IRI resourceId, Class<? extends T> clazz, FetchPlan fetchPlan);
+    
+    /**
+     * Retrieves the entities of the given type T that are identified by the given {@link IRI}s, in the order of the ids.
+     * The entities which are not cached are read together with one query per chunk of resources.
+     * @param resourceIds
+     * @param clazz
+     * @return the existing entities
+     */
+    <T> List<T> findAll(Iterable<IRI> resourceIds, Class<? extends T> clazz);
+    
     /**
      * Retrieve all entities of the given type T.
      * @param clazz
@@ -92,6 +145,14 @@ public interface SemanticOperationsCRUD {
      */
     <T> List<T> findAll(Class<? extends T> clazz);
     
+    /**
+     * Retrieve all entities of the given type T, together with the properties and associations of the given {@link FetchPlan}.
+     * @param clazz
+     * @param fetchPlan - if null the fetch strategies of the mapping apply
+     * @return
+     */
+    <T> List<T> findAll(Class<? extends T> clazz, FetchPlan fetchPlan);
+    
     <T> List<T> findAll(Class<? extends T> clazz, Pageable pageRequest);
     
     /**
@@ -117,6 +178,16 @@ public interface SemanticOperationsCRUD {
 	 */
 	<T> boolean exists(IRI resourceId, Class<? extends T> clazz);
 	
+	/**
+	 * Retrieve the entities reachable from the given resource through one or more hops along an association, e.g. all ancestors in a hierarchy, with a single query.
+	 * @param start - the id of the resource to start from; it is not part of the result
+	 * @param clazz
+	 * @param property - the name of an association of the given type to the same type
+	 * @param maxDepth - the maximum number of hops; 0 or less for no limit
+	 * @return
+	 */
+	<T> List<T> findReachable(IRI start, Class<? extends T> clazz, String property, int maxDepth);
+	
 	/**
 	 * Retrieve a collection of entities of the given type that fulfill the parameter requirements.
 	 * @param clazz
@@ -125,6 +196,25 @@ public interface SemanticOperationsCRUD {
 	 */
 	<T> Collection<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue);
 	
+	/**
+	 * Retrieve a collection of entities of the given type that fulfill the parameter requirements, together with the properties and associations of the given {@link FetchPlan}.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param fetchPlan - if null the fetch strategies of the mapping apply
+	 * @return
+	 */
+	<T> Collection<T> findByProperty(Class<? extends T> clazz, Map<String, Object> parameterToValue, FetchPlan fetchPlan);
+	
+	/**
+	 * Retrieve projections of the entities of the given type that fulfill the parameter requirements. 
+	 * Only the projected properties are retrieved and no entities are instantiated.
+	 * @param clazz - the entity type
+	 * @param parameterToValue
+	 * @param projectionType - an interface or a class whose properties are named after properties of the entity type
+	 * @return
+	 */
+	<P> List<P> findProjectionsByProperty(Class<?> clazz, Map<String, Object> parameterToValue, Class<P> projectionType);
+	
 	/**
 	 * Count the number of entities of the given class that fulfill the parameter requirements.
 	 * @param clazz
@@ -133,4 +223,38 @@ public interface SemanticOperationsCRUD {
 	 */
 	Long countByProperty(Class<?> clazz, Map<String, Object> parameterToValue);
 	
+	/**
+	 * Compute an aggregate over a property of the entities of the given class that fulfill the parameter requirements.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param function
+	 * @param property - the aggregated property; may be null for {@link AggregateFunction#COUNT}, which then counts the entities
+	 * @param resultType - the type to which the aggregate is converted
+	 * @return the aggregate or null if there are no values to aggregate
+	 */
+	<R> R aggregate(Class<?> clazz, Map<String, Object> parameterToValue, AggregateFunction function, String property, Class<R> resultType);
+	
+	/**
+	 * Compute an aggregate over a property of the entities of the given class that fulfill the parameter requirements, per value of another property.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param groupByProperty - the property whose values form the groups
+	 * @param keyType - the type to which the values of the group property are converted
+	 * @param function
+	 * @param property - the aggregated property; may be null for {@link AggregateFunction#COUNT}, which then counts the entities
+	 * @param resultType - the type to which the aggregates are converted
+	 * @return the aggregates per group, ordered by descending aggregate
+	 */
+	<K, R> Map<K, R> aggregateGroupedBy(Class<?> clazz, Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType, AggregateFunction function, String property, Class<R> resultType);
+	
+	/**
+	 * Count the entities of the given class that fulfill the parameter requirements per value of a property, e.g. the facets of a search.
+	 * @param clazz
+	 * @param parameterToValue
+	 * @param groupByProperty
+	 * @param keyType - the type to which the values of the group property are converted
+	 * @return the number of entities per value, ordered by descending count
+	 */
+	<K> Map<K, Long> countGroupedBy(Class<?> clazz, Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType);
+	
 }
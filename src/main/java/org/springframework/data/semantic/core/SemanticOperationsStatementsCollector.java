@@ -16,10 +16,13 @@
 package org.springframework.data.semantic.core;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 
@@ -33,13 +36,35 @@ public interface SemanticOperationsStatementsCollector {
 
 	<T> Model getStatementsForResourceOriginalPredicates(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy);
 	
+	<T> Map<IRI, Model> getStatementsForResourcesOriginalPredicates(Class<? extends T> clazz, Collection<IRI> resources, MappingPolicy globalMappingPolicy);
+	
 	<T> Model getStatementsForResource(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy);
 	
+	<T> Model getStatementsForResource(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy, FetchPlan fetchPlan);
+	
 	<T> Collection<Model> getStatementsForResources(Class<? extends T> clazz);
 	
 	<T> Collection<Model> getStatementsForResources(Class<? extends T> clazz, Long offset, Long limit);
 	
 	<T> Collection<Model> getStatementsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, Long offset, Long limit);
 	
+	<T> Collection<Model> getStatementsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, Long offset, Long limit, FetchPlan fetchPlan);
+	
 	<T> Collection<IRI> getUrisForOffsetAndLimit(Class<? extends T> clazz, Integer offset, Integer limit);
+	
+	<T> List<IRI> getIdsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue);
+	
+	<T> void getBindingsForResources(Class<? extends T> clazz, Collection<IRI> resources, TupleQueryResultHandler handler);
+	
+	<T> Value getAggregateForResourceAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, AggregateFunction function, String property);
+	
+	<T> Map<Value, Value> getGroupedAggregateForResourceAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, String groupByProperty, AggregateFunction function, String property);
+	
+	<T> void getBindingsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, Collection<String> properties, TupleQueryResultHandler handler);
+	
+	<T> Map<IRI, Model> getStatementsForResourceIds(Class<? extends T> clazz, Collection<IRI> resources);
+	
+	<T> Map<IRI, Model> getStatementsForReachableResources(IRI start, Class<? extends T> clazz, String property, int maxDepth);
+	
+	<T> Model getStatementsForResourcesProperty(Class<? extends T> clazz, SemanticPersistentProperty property, Collection<IRI> resources);
 } 
@@ -125,4 +125,19 @@ public interface SemanticPersistentProperty extends PersistentProperty<SemanticP
 	 */
 	MappingPolicy getMappingPolicy();
 
+	/**
+	 * Return the number of entities whose association or lazy property is loaded together, when accessing it on one of them. 
+	 * By default only the accessed association is loaded, while lazy properties are loaded for all entities of the same load.
+	 * 
+	 * @return
+	 */
+	int getBatchSize();
+	
+	/**
+	 * Check if the property is excluded from the retrieval of its entity and loaded on first access.
+	 * 
+	 * @return
+	 */
+	boolean isLazy();
+
 }
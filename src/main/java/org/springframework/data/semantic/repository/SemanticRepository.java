@@ -16,12 +16,16 @@
 package org.springframework.data.semantic.repository;
 
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 
 @NoRepositoryBean
 public interface SemanticRepository<T> extends PagingAndSortingRepository<T, IRI> {
@@ -44,6 +48,61 @@ public interface SemanticRepository<T> extends PagingAndSortingRepository<T, IRI
 	 */
 	List<T> findAll(Iterable<IRI> ids);
 	
+	/**
+	 * Retrieves an entity by its id, together with the properties and associations of the given {@link FetchPlan}.
+	 * @param id
+	 * @param fetchPlan
+	 * @return
+	 */
+	T findOne(IRI id, FetchPlan fetchPlan);
+	
+	/**
+	 * Returns all instances of the type, together with the properties and associations of the given {@link FetchPlan}.
+	 * @param fetchPlan
+	 * @return
+	 */
+	List<T> findAll(FetchPlan fetchPlan);
+	
+	/**
+	 * Returns the instances reachable from the given one through one or more hops along an association, with a single query.
+	 * @param start - the id of the instance to start from; it is not part of the result
+	 * @param property - the name of an association of the type to the same type
+	 * @param maxDepth - the maximum number of hops; 0 or less for no limit
+	 * @return
+	 */
+	List<T> findReachable(IRI start, String property, int maxDepth);
+	
+	/**
+	 * Computes an aggregate over a property of the instances of the type that have the given property values.
+	 * @param parameterToValue - the required property values, empty for all instances
+	 * @param function
+	 * @param property - the aggregated property; may be null for {@link AggregateFunction#COUNT}, which then counts the instances
+	 * @param resultType
+	 * @return
+	 */
+	<R> R aggregate(Map<String, Object> parameterToValue, AggregateFunction function, String property, Class<R> resultType);
+	
+	/**
+	 * Computes an aggregate over a property of the instances of the type that have the given property values, per value of another property.
+	 * @param parameterToValue - the required property values, empty for all instances
+	 * @param groupByProperty
+	 * @param keyType
+	 * @param function
+	 * @param property - the aggregated property; may be null for {@link AggregateFunction#COUNT}, which then counts the instances
+	 * @param resultType
+	 * @return the aggregates per group, ordered by descending aggregate
+	 */
+	<K, R> Map<K, R> aggregateGroupedBy(Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType, AggregateFunction function, String property, Class<R> resultType);
+	
+	/**
+	 * Counts the instances of the type that have the given property values per value of a property, e.g. the facets of a search.
+	 * @param parameterToValue - the required property values, empty for all instances
+	 * @param groupByProperty
+	 * @param keyType
+	 * @return the number of instances per value, ordered by descending count
+	 */
+	<K> Map<K, Long> countGroupedBy(Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType);
+	
 	/**
 	 * Persists a new entity in a {@link SemanticDatabase}. Similar to save, but without checking/removing existing statements.
 	 * @param entity
@@ -58,4 +117,18 @@ public interface SemanticRepository<T> extends PagingAndSortingRepository<T, IRI
 	 */
 	Iterable<T> create(Iterable<T> entities);
 	
+	/**
+	 * Persists an entity, replacing the stored values of its properties and associations without reading them first, see {@link SemanticOperationsCRUD#upsert(Object)}.
+	 * @param entity
+	 * @return
+	 */
+	<S extends T> S upsert(S entity);
+	
+	/**
+	 * Persists entities, replacing the stored values of their properties and associations without reading them first, see {@link SemanticOperationsCRUD#upsert(Iterable)}.
+	 * @param entities
+	 * @return
+	 */
+	<S extends T> Iterable<S> upsert(Iterable<S> entities);
+	
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import org.springframework.data.semantic.core.BulkWriteListener;
+import org.springframework.data.semantic.core.BulkWriteProgress;
+import org.springframework.data.semantic.core.RDFState;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+
+/**
+ * Accumulates the states of entities and writes them to a {@link SemanticDatabase} in chunks, 
+ * so that neither the entities nor their statements have to be held in memory all at once.
+ * A chunk is committed as soon as it holds at least the commit size of statements; the states of single entities are never split.
+ */
+public class SemanticBulkWriter {
+	
+	private final SemanticDatabase semanticDatabase;
+	private final int commitSize;
+	private final BulkWriteListener listener;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
+	private final long start = System.currentTimeMillis();
+	
+	private RDFState chunk = new RDFState();
+	private int chunkStatements = 0;
+	private int chunkEntities = 0;
+	private long entities = 0;
+	private long statements = 0;
+	private int commits = 0;
+	
+	/**
+	 * 
+	 * @param semanticDatabase
+	 * @param commitSize - the number of statements after which a chunk is committed
+	 * @param listener - notified after each commit; may be null
+	 */
+	public SemanticBulkWriter(SemanticDatabase semanticDatabase, int commitSize, BulkWriteListener listener) {
+		if(commitSize < 1){
+			throw new IllegalArgumentException("The commit size must be positive.");
+		}
+		this.semanticDatabase = semanticDatabase;
+		this.commitSize = commitSize;
+		this.listener = listener;
+	}
+	
+	/**
+	 * The cache of resource molecules to invalidate with the written statements, see {@link MoleculeCache}.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
+	/**
+	 * Add the statements to add and to remove for an entity, committing the current chunk if it is full.
+	 * @param state
+	 */
+	public void add(RDFState state){
+		chunk.merge(state);
+		//statements shared between entities, e.g. of a cascaded association, are counted once
+		chunkStatements = chunk.getCurrentStatements().size() + chunk.getDeleteStatements().size();
+		chunkEntities++;
+		if(chunkStatements >= commitSize){
+			commit();
+		}
+	}
+	
+	/**
+	 * Commit the remaining statements.
+	 * @return the totals of the bulk write
+	 */
+	public BulkWriteProgress finish(){
+		commit();
+		return getProgress();
+	}
+	
+	public BulkWriteProgress getProgress(){
+		return new BulkWriteProgress(entities, statements, commits, System.currentTimeMillis() - start);
+	}
+	
+	private void commit(){
+		if(chunkEntities == 0){
+			return;
+		}
+		if(!chunk.getDeleteStatements().isEmpty()){
+			semanticDatabase.removeStatements(chunk.getDeleteStatements());
+		}
+		semanticDatabase.addStatements(chunk.getCurrentStatements());
+		moleculeCache.invalidate(chunk.getDeleteStatements());
+		moleculeCache.invalidate(chunk.getCurrentStatements());
+		entities += chunkEntities;
+		statements += chunkStatements;
+		commits++;
+		chunk = new RDFState();
+		chunkStatements = 0;
+		chunkEntities = 0;
+		if(listener != null){
+			listener.committed(getProgress());
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+
+/**
+ * A unit of work over a {@link SemanticTemplateCRUD}. It remembers the statements of the entities it manages when they are loaded or registered. 
+ * On {@link #flush()} it compares them with the current statements of the entities and writes only the difference, with a single commit and without reading the stored state.
+ * The entities are converted to statements when they are loaded, so their lazily loaded properties are initialized then.
+ * A session is not thread-safe.
+ *
+ */
+public class SemanticSession {
+	
+	private final SemanticTemplateCRUD template;
+	
+	private final Map<Object, Model> snapshots = new IdentityHashMap<Object, Model>();
+	
+	private final Map<List<Object>, Object> entities = new HashMap<List<Object>, Object>();
+	
+	SemanticSession(SemanticTemplateCRUD template) {
+		this.template = template;
+	}
+	
+	/**
+	 * Load an entity, or return the instance already managed by this session.
+	 * @param id
+	 * @param clazz
+	 * @return the entity or null if it does not exist
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T find(IRI id, Class<T> clazz) {
+		T entity = (T) entities.get(getKey(id, clazz));
+		if(entity == null){
+			entity = template.find(id, clazz);
+			if(entity != null){
+				manage(id, clazz, entity, template.getCurrentStatements(entity));
+			}
+		}
+		return entity;
+	}
+	
+	/**
+	 * Load all entities of a type, replacing those already managed by this session with the managed instances.
+	 * @param clazz
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> findAll(Class<T> clazz) {
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(clazz);
+		List<T> loaded = template.findAll(clazz);
+		List<T> result = new ArrayList<T>(loaded.size());
+		for(T entity : loaded){
+			IRI id = persistentEntity.getResourceId(entity);
+			T managed = (T) entities.get(getKey(id, clazz));
+			if(managed == null){
+				managed = entity;
+				manage(id, clazz, entity, template.getCurrentStatements(entity));
+			}
+			result.add(managed);
+		}
+		return result;
+	}
+	
+	/**
+	 * Register an entity, which is not stored yet, so that all of its statements are written on the next flush.
+	 * @param entity
+	 * @return
+	 */
+	public <T> T persist(T entity) {
+		manage(getId(entity), entity.getClass(), entity, new LinkedHashModel());
+		return entity;
+	}
+	
+	/**
+	 * Register an entity, which has been loaded outside of this session and has not been modified since, 
+	 * so that only its subsequent changes are written on the next flush.
+	 * @param entity
+	 * @return
+	 */
+	public <T> T attach(T entity) {
+		manage(getId(entity), entity.getClass(), entity, template.getCurrentStatements(entity));
+		return entity;
+	}
+	
+	public boolean contains(Object entity) {
+		return snapshots.containsKey(entity);
+	}
+	
+	/**
+	 * Write the changes of the managed entities since they have been loaded, registered or last flushed.
+	 * @return the number of statements removed and added
+	 */
+	public int flush() {
+		Model removed = new LinkedHashModel();
+		Model added = new LinkedHashModel();
+		List<Object> changed = new ArrayList<Object>();
+		Map<Object, Model> currentStatements = new IdentityHashMap<Object, Model>();
+		for(Entry<Object, Model> entry : snapshots.entrySet()){
+			Model snapshot = entry.getValue();
+			Model current = template.getCurrentStatements(entry.getKey());
+			int changes = removed.size() + added.size();
+			for(Statement statement : snapshot){
+				if(!current.contains(statement)){
+					removed.add(statement);
+				}
+			}
+			for(Statement statement : current){
+				if(!snapshot.contains(statement)){
+					added.add(statement);
+				}
+			}
+			if(removed.size() + added.size() > changes){
+				changed.add(entry.getKey());
+				currentStatements.put(entry.getKey(), current);
+			}
+		}
+		//a statement may be removed from the state of one entity and added to the state of another, e.g. a link of a bidirectional association
+		removed.removeAll(added);
+		if(!changed.isEmpty()){
+			template.writeChanges(removed, added, changed);
+			snapshots.putAll(currentStatements);
+		}
+		return removed.size() + added.size();
+	}
+	
+	/**
+	 * Stop managing all entities, discarding their changes which have not been flushed.
+	 */
+	public void clear() {
+		snapshots.clear();
+		entities.clear();
+	}
+	
+	private void manage(IRI id, Class<?> clazz, Object entity, Model snapshot) {
+		snapshots.put(entity, snapshot);
+		entities.put(getKey(id, clazz), entity);
+	}
+	
+	private IRI getId(Object entity) {
+		return template.getSemanticMappingContext().getPersistentEntity(entity.getClass()).getResourceId(entity);
+	}
+	
+	private static List<Object> getKey(IRI id, Class<?> clazz) {
+		return Arrays.<Object>asList(id, clazz);
+	}
+
+}
@@ -15,51 +15,102 @@
  */
 package org.springframework.data.semantic.support;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.semantic.annotation.WriteBehind;
 import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.cache.EntityCacheSettings;
+import org.springframework.data.semantic.cache.EntityLoader;
+import org.springframework.data.semantic.cache.InvalidationEvent;
+import org.springframework.data.semantic.cache.InvalidationListener;
+import org.springframework.data.semantic.cache.InvalidationTransport;
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
 import org.springframework.data.semantic.convert.SemanticEntityPersister;
 import org.springframework.data.semantic.convert.SemanticEntityRemover;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.BulkWriteListener;
+import org.springframework.data.semantic.core.BulkWriteProgress;
+import org.springframework.data.semantic.core.DatabaseChangeListener;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.cache.AbstractEntityCache;
+import org.springframework.data.semantic.support.cache.CacheWarmer;
 import org.springframework.data.semantic.support.cache.EhCacheEntityCache;
 import org.springframework.data.semantic.support.cache.EmptyEntityCache;
+import org.springframework.data.semantic.support.cache.EntitySerializer;
+import org.springframework.data.semantic.support.cache.InvalidationBus;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.support.cache.NegativeCache;
+import org.springframework.data.semantic.support.cache.QueryResultCache;
+import org.springframework.data.semantic.support.cache.StripedEntityCache;
+import org.springframework.data.semantic.support.cache.WriteEpochs;
 import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
 import org.springframework.data.semantic.support.convert.EntityToStatementsConverter;
 import org.springframework.data.semantic.support.convert.SemanticEntityConverterImpl;
 import org.springframework.data.semantic.support.convert.SemanticEntityInstantiatorImpl;
 import org.springframework.data.semantic.support.convert.SemanticEntityPersisterImpl;
 import org.springframework.data.semantic.support.convert.SemanticEntityRemoverImpl;
+import org.springframework.data.semantic.support.convert.SemanticEntityTupleReader;
 import org.springframework.data.semantic.support.convert.SemanticSourceStateTransmitter;
 import org.springframework.data.semantic.support.convert.access.DelegatingFieldAccessorFactory;
 import org.springframework.data.semantic.support.convert.access.listener.DelegatingFieldAccessListenerFactory;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoader;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.support.convert.projection.ProjectionInformation;
+import org.springframework.data.semantic.support.convert.projection.ProjectionTupleReader;
 import org.springframework.data.semantic.support.convert.state.SemanticEntityStateFactory;
+import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.StringUtils;
 
 import net.sf.ehcache.CacheManager;
 
-public class SemanticTemplateCRUD implements SemanticOperationsCRUD, InitializingBean, ApplicationContextAware {
+public class SemanticTemplateCRUD implements SemanticOperationsCRUD, InitializingBean, DisposableBean, ApplicationContextAware {
 	//private static final Logger LOGGER = LoggerFactory.getLogger(SemanticTemplate.class);
 	
 	private ApplicationContext applicationContext;
@@ -81,23 +132,289 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	private SemanticSourceStateTransmitter sourceStateTransmitter;
 	private SemanticEntityConverter entityConverter;
 	private EntityToQueryConverter entityToQueryConverter;
+	
+	private final ConcurrentMap<List<Class<?>>, ProjectionInformation<?>> projections = new ConcurrentHashMap<List<Class<?>>, ProjectionInformation<?>>();
 	private EntityToStatementsConverter entityToStatementsConverter;
+	private LazyLoadingProxyFactory lazyLoadingProxyFactory;
 	
 	private EntityCache entityCache;
+	private final EntityLoader entityLoader = new TemplateEntityLoader();
+	private final DatabaseChangeListener changeListener = new TemplateChangeListener();
+	private final ThreadLocal<Boolean> updating = new ThreadLocal<Boolean>();
+	private final MoleculeCache moleculeCache = new MoleculeCache(0);
+	private WriteEpochs writeEpochs;
+	private QueryResultCache queryResultCache;
+	private int queryCacheSize = 0;
+	private NegativeCache negativeCache;
+	private long negativeCacheTimeToLive = 0;
+	private int negativeCacheSize = DEFAULT_NEGATIVE_CACHE_SIZE;
+	private boolean membershipFilters = false;
+	private InvalidationTransport invalidationTransport;
+	private volatile InvalidationBus invalidationBus;
+	private volatile CacheWarmer cacheWarmer;
+	private long hotKeysDumpInterval = 0;
+	private final Set<Class<?>> preloadedTypes = new LinkedHashSet<Class<?>>();
 	
 	private final boolean explicitSupertypes;
+	private boolean selectMaterialization = false;
+	private int commitSize = DEFAULT_COMMIT_SIZE;
+	private ExecutorService conversionExecutor;
+	private int conversionParallelism = 1;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private long writeBehindDelay = DEFAULT_WRITE_BEHIND_DELAY;
+	private int writeBehindCapacity = DEFAULT_WRITE_BEHIND_CAPACITY;
+	private volatile SemanticWriteBehindBuffer writeBehindBuffer;
 	private volatile boolean isInitialized = false;
 	private final Object initLockObject = new Object();
 	
 	private Logger logger = LoggerFactory.getLogger(SemanticTemplateCRUD.class);
 	
+	public static final int DEFAULT_COMMIT_SIZE = 10000;
+	
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	
+	public static final long DEFAULT_WRITE_BEHIND_DELAY = 1000;
+	
+	public static final int DEFAULT_WRITE_BEHIND_CAPACITY = 10000;
+	
+	public static final int DEFAULT_NEGATIVE_CACHE_SIZE = 10000;
+	
+	public static final long DEFAULT_HOT_KEYS_DUMP_INTERVAL = 60000;
+	
+	public static final int DEFAULT_MAXIMUM_HOT_KEYS = 10000;
+	
+	private static final int MAX_RESOURCES_PER_QUERY = 500;
+	
 	public SemanticTemplateCRUD(SemanticDatabase semanticDB, ConversionService conversionService, boolean explicitSupertypes){
 		this.semanticDB = semanticDB;
 		this.conversionService = conversionService;
 		this.explicitSupertypes = explicitSupertypes;
 	}
 	
+	/**
+	 * Read entities, which do not eagerly fetch associations, with select queries instead of graph queries.
+	 * @param selectMaterialization
+	 */
+	public void setSelectMaterialization(boolean selectMaterialization) {
+		this.selectMaterialization = selectMaterialization;
+	}
+	
+	/**
+	 * The number of statements after which the bulk operations commit, see {@link SemanticBulkWriter}.
+	 * @param commitSize
+	 */
+	public void setCommitSize(int commitSize) {
+		this.commitSize = commitSize;
+	}
+	
+	/**
+	 * Convert the entities of the bulk operations to statements on the given executor, a batch of {@link #setBatchSize(int)} entities per task. 
+	 * At most <code>parallelism</code> batches are converted at a time; the results are committed in the order of the entities. 
+	 * @param conversionExecutor - the executor to use, or null to convert on the calling thread
+	 * @param parallelism - the number of slices to convert concurrently
+	 */
+	public void setConversionExecutor(ExecutorService conversionExecutor, int parallelism) {
+		if(parallelism < 1){
+			throw new IllegalArgumentException("The conversion parallelism must be positive: "+parallelism);
+		}
+		this.conversionExecutor = conversionExecutor;
+		this.conversionParallelism = parallelism;
+	}
+	
+	/**
+	 * The number of entities processed together by the bulk operations: the stored state of the entities of a batch is read with a single query 
+	 * and, with a conversion executor, they are converted to statements by a single task.
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		if(batchSize < 1){
+			throw new IllegalArgumentException("The batch size must be positive: "+batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * The maximum number of resources whose statements are cached and shared by all entity types mapped onto them, see {@link MoleculeCache}.
+	 * @param moleculeCacheSize - 0 disables the cache
+	 */
+	public void setMoleculeCacheSize(int moleculeCacheSize) {
+		this.moleculeCache.setMaximumSize(moleculeCacheSize);
+	}
+	
+	/**
+	 * Record the entities accessed by find and dump the keys of the most recently accessed ones to the given file, periodically and on {@link #destroy()}.
+	 * The dumped entities are loaded into the entity cache on startup, see {@link #warmUp()}.
+	 * @param hotKeysFile - null disables the recording
+	 * @param dumpInterval - the milliseconds between the dumps, 0 to dump only on destroy
+	 * @param maximumHotKeys - the number of the most recently accessed entities which are dumped
+	 */
+	public void setWarmUp(File hotKeysFile, long dumpInterval, int maximumHotKeys) {
+		if(dumpInterval < 0){
+			throw new IllegalArgumentException("The dump interval of the hot keys must not be negative: "+dumpInterval);
+		}
+		synchronized (initLockObject) {
+			CacheWarmer cacheWarmer = this.cacheWarmer;
+			if(cacheWarmer != null){
+				cacheWarmer.close();
+			}
+			this.cacheWarmer = hotKeysFile != null ? new CacheWarmer(hotKeysFile, maximumHotKeys) : null;
+			this.hotKeysDumpInterval = dumpInterval;
+			if(isInitialized && this.cacheWarmer != null){
+				this.cacheWarmer.startDumps(dumpInterval);
+			}
+		}
+	}
+	
+	/**
+	 * The types all of whose entities are loaded into the entity cache on startup, e.g. small reference types, see {@link #warmUp()}.
+	 * @param preloadedTypes
+	 */
+	public void setPreloadedTypes(Collection<Class<?>> preloadedTypes) {
+		this.preloadedTypes.clear();
+		this.preloadedTypes.addAll(preloadedTypes);
+	}
+	
+	/**
+	 * The maximum number of cached results of find, count and aggregate queries, see {@link QueryResultCache}.
+	 * @param queryCacheSize - 0 disables the cache
+	 */
+	public void setQueryCacheSize(int queryCacheSize) {
+		if(queryCacheSize < 0){
+			throw new IllegalArgumentException("The query cache size must not be negative: "+queryCacheSize);
+		}
+		this.queryCacheSize = queryCacheSize;
+		QueryResultCache queryResultCache = this.queryResultCache;
+		if(queryResultCache != null){
+			queryResultCache.setMaximumSize(queryCacheSize);
+		}
+	}
+	
+	/**
+	 * Remember the resources which find and exists have not found, see {@link NegativeCache}.
+	 * @param timeToLive - the milliseconds for which a resource is known to be missing, unless entities of its type are written; 0 disables the cache
+	 * @param maximumSize - the maximum number of resources remembered as missing
+	 * @param membershipFilters - keep a Bloom filter of the instances of each looked up type, so that most missing resources are not looked up at all
+	 */
+	public void setNegativeCache(long timeToLive, int maximumSize, boolean membershipFilters) {
+		if(timeToLive < 0 || maximumSize < 1){
+			throw new IllegalArgumentException("The time to live of negative answers must not be negative and their maximum number must be positive.");
+		}
+		this.negativeCacheTimeToLive = timeToLive;
+		this.negativeCacheSize = maximumSize;
+		this.membershipFilters = membershipFilters;
+		NegativeCache negativeCache = this.negativeCache;
+		if(negativeCache != null){
+			negativeCache.setSettings(timeToLive, maximumSize, membershipFilters);
+		}
+	}
+	
+	/**
+	 * The transport of the cache invalidations exchanged with the other nodes writing to the database. Without a transport,
+	 * the {@link InvalidationTransport} bean of the application context is used, if any.
+	 * @param invalidationTransport
+	 */
+	public void setInvalidationTransport(InvalidationTransport invalidationTransport) {
+		synchronized (initLockObject) {
+			this.invalidationTransport = invalidationTransport;
+			if(isInitialized){
+				startInvalidationBus();
+			}
+		}
+	}
+	
+	/**
+	 * Configure the buffer of the entity types annotated with {@link WriteBehind}, see {@link SemanticWriteBehindBuffer}.
+	 * @param delay - the milliseconds between the background flushes
+	 * @param capacity - the maximum number of buffered entities
+	 */
+	public void setWriteBehind(long delay, int capacity) {
+		if(delay < 1 || capacity < 1){
+			throw new IllegalArgumentException("The write-behind delay and capacity must be positive.");
+		}
+		//the states buffered with the previous settings are written
+		closeWriteBehindBuffer();
+		this.writeBehindDelay = delay;
+		this.writeBehindCapacity = capacity;
+	}
+	
+	/**
+	 * Write the states of the entities buffered for write-behind.
+	 */
+	public void flushWriteBehind() {
+		SemanticWriteBehindBuffer buffer = this.writeBehindBuffer;
+		if(buffer != null){
+			buffer.flush();
+		}
+	}
+	
+	private SemanticWriteBehindBuffer getWriteBehindBuffer() {
+		if(this.writeBehindBuffer == null){
+			synchronized (initLockObject) {
+				if(this.writeBehindBuffer == null){
+					SemanticWriteBehindBuffer buffer = new SemanticWriteBehindBuffer(this.semanticDB, this.statementsCollector, this.writeBehindCapacity, this.writeBehindDelay);
+					buffer.setMoleculeCache(this.moleculeCache);
+					buffer.setWriteEpochs(this.writeEpochs);
+					this.writeBehindBuffer = buffer;
+				}
+			}
+		}
+		return this.writeBehindBuffer;
+	}
+	
+	@Override
+	public void destroy() {
+		closeWriteBehindBuffer();
+		closeInvalidationBus();
+		CacheWarmer cacheWarmer = this.cacheWarmer;
+		if(cacheWarmer != null){
+			cacheWarmer.close();
+		}
+		closeEntityCache();
+		NegativeCache negativeCache = this.negativeCache;
+		if(negativeCache != null){
+			negativeCache.close();
+		}
+	}
+	
+	private void closeWriteBehindBuffer() {
+		SemanticWriteBehindBuffer buffer = this.writeBehindBuffer;
+		if(buffer != null){
+			//the buffered states stay visible to find and exists until they are written
+			buffer.close();
+			this.writeBehindBuffer = null;
+		}
+	}
+	
+	private void startInvalidationBus() {
+		closeInvalidationBus();
+		InvalidationTransport transport = this.invalidationTransport;
+		if(transport == null && applicationContext != null && applicationContext.getBeanNamesForType(InvalidationTransport.class).length != 0){
+			transport = applicationContext.getBean(InvalidationTransport.class);
+		}
+		if(transport != null){
+			this.invalidationBus = new InvalidationBus(transport, new TemplateInvalidationReceiver());
+		}
+	}
+	
+	private void closeInvalidationBus() {
+		InvalidationBus bus = this.invalidationBus;
+		if(bus != null){
+			this.invalidationBus = null;
+			bus.close();
+		}
+	}
+	
+	private void closeEntityCache() {
+		if(this.entityCache instanceof StripedEntityCache){
+			((StripedEntityCache) this.entityCache).close();
+		}
+	}
+	
 	public void changeDatabase(SemanticDatabase semanticDB){
+		destroy();
+		if(this.semanticDB != null){
+			this.semanticDB.removeChangeListener(this.changeListener);
+		}
 		this.semanticDB = semanticDB;
 		isInitialized = false;
 	}
@@ -120,19 +437,48 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 				this.mappingContext = new SemanticMappingContext(semanticDB.getNamespaces(), this.semanticDB.getDefaultNamespace(), this.explicitSupertypes);
 				this.entityToQueryConverter = new EntityToQueryConverter(this.mappingContext);
 				this.entityToStatementsConverter = new EntityToStatementsConverter(mappingContext);
+				this.moleculeCache.clear();
 				this.statementsCollector = new SemanticTemplateStatementsCollector(this.semanticDB, this.mappingContext, this.entityToQueryConverter);
+				this.statementsCollector.setMoleculeCache(this.moleculeCache);
+				this.writeEpochs = new WriteEpochs(this.mappingContext);
+				this.queryResultCache = new QueryResultCache(this.writeEpochs, this.queryCacheSize);
+				this.statementsCollector.setQueryResultCache(this.queryResultCache);
+				this.negativeCache = new NegativeCache(this.semanticDB, this.writeEpochs);
+				this.negativeCache.setSettings(this.negativeCacheTimeToLive, this.negativeCacheSize, this.membershipFilters);
+				this.semanticDB.removeChangeListener(this.changeListener);
+				this.semanticDB.addChangeListener(this.changeListener);
+				startInvalidationBus();
+				if(this.cacheWarmer != null){
+					this.cacheWarmer.startDumps(this.hotKeysDumpInterval);
+				}
 				this.delegatingFieldAxsorFactory = new DelegatingFieldAccessorFactory(this.statementsCollector, this);
 				this.delegatingFieldAccessListenerFactory = new DelegatingFieldAccessListenerFactory(this.statementsCollector, this);
 				this.sesFactory = new SemanticEntityStateFactory(this.mappingContext, this.delegatingFieldAxsorFactory, this.delegatingFieldAccessListenerFactory, this.semanticDB, this.conversionService);
+				this.sesFactory.setMoleculeCache(this.moleculeCache);
 				this.sourceStateTransmitter = new SemanticSourceStateTransmitter(this.sesFactory);
-				this.entityConverter = new SemanticEntityConverterImpl(this.mappingContext, this.conversionService, this.entityInstantiator, this.sourceStateTransmitter, this.entityToStatementsConverter, this.semanticDB);
+				this.lazyLoadingProxyFactory = new LazyLoadingProxyFactory(new TemplateLazyLoader(), this.entityInstantiator);
+				SemanticEntityConverterImpl entityConverter = new SemanticEntityConverterImpl(this.mappingContext, this.conversionService, this.entityInstantiator, this.sourceStateTransmitter, this.entityToStatementsConverter, this.semanticDB, this.lazyLoadingProxyFactory);
+				entityConverter.setMoleculeCache(this.moleculeCache);
+				this.entityConverter = entityConverter;
 				this.entityPersister = new SemanticEntityPersisterImpl(this.entityConverter);
-				this.entityRemover = new SemanticEntityRemoverImpl(this.semanticDB, this.entityToStatementsConverter, this.mappingContext);
+				SemanticEntityRemoverImpl entityRemover = new SemanticEntityRemoverImpl(this.semanticDB, this.entityToStatementsConverter, this.mappingContext);
+				entityRemover.setMoleculeCache(this.moleculeCache);
+				this.entityRemover = entityRemover;
 				if(this.entityCache != null){
 					this.entityCache.clearAll();
-					if(applicationContext.getBeanNamesForType(CacheManager.class).length != 0){
+					closeEntityCache();
+					if(applicationContext.getBeanNamesForType(EntityCacheSettings.class).length != 0){
+						StripedEntityCache stripedEntityCache = new StripedEntityCache(this.mappingContext, applicationContext.getBean(EntityCacheSettings.class));
+						stripedEntityCache.setLoader(this.entityLoader);
+						this.entityCache = stripedEntityCache;
+					}
+					else if(applicationContext.getBeanNamesForType(CacheManager.class).length != 0){
 						this.entityCache = new EhCacheEntityCache(this.mappingContext, applicationContext.getBean(CacheManager.class));
 					}
+					if(this.entityCache instanceof AbstractEntityCache){
+						//the associations of the cached copies are restored as proxies loaded by this template
+						((AbstractEntityCache) this.entityCache).setSerializer(new EntitySerializer(this.mappingContext, this.lazyLoadingProxyFactory));
+					}
 				}
 				
 			} catch (RepositoryException e) {
@@ -162,22 +508,64 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 			logger.info("EntityCache is not configured. No caching will be applied.");
 			this.entityCache = new EmptyEntityCache();
 		}
+		//the application is ready once the caches are warm
+		if(this.cacheWarmer != null || !this.preloadedTypes.isEmpty()){
+			warmUp();
+		}
 	}
 	
-	@Override
-	public <T> Iterable<T> create(Iterable<T> entities) {
+	/**
+	 * Load the entities of the preloaded types and the hot keys dumped by the last run into the entity cache, 
+	 * with parallel batches of {@link #setBatchSize(int)} entities.
+	 */
+	public void warmUp() {
 		lazyInit();
-		Map<T, RDFState> entityToExistingState = new HashMap<T, RDFState>();
-		for(T entity : entities){
-			entityToExistingState.put(entity, new RDFState());
+		if(this.statementsCollector == null){
+			return;
+		}
+		Map<Class<?>, Collection<IRI>> idsPerType = new LinkedHashMap<Class<?>, Collection<IRI>>();
+		for(Class<?> type : this.preloadedTypes){
+			try{
+				idsPerType.put(type, this.statementsCollector.getIdsForResourcesAndProperties(type, new HashMap<String, Object>()));
+			} catch (DataAccessException e){
+				logger.error(e.getMessage(), e);
+			}
+		}
+		CacheWarmer cacheWarmer = this.cacheWarmer;
+		if(cacheWarmer != null){
+			cacheWarmer.warmUp(idsPerType, this.entityCache, this.entityLoader, this.batchSize);
+		}
+		else{
+			CacheWarmer.load(idsPerType, this.entityCache, this.entityLoader, this.batchSize);
+		}
+	}
+	
+	private void recordAccess(IRI resourceId, Class<?> clazz) {
+		CacheWarmer cacheWarmer = this.cacheWarmer;
+		if(cacheWarmer != null){
+			cacheWarmer.recordAccess(resourceId, clazz);
 		}
-		return this.entityPersister.persistEntities(entityToExistingState);
+	}
+	
+	@Override
+	public <T> Iterable<T> create(Iterable<T> entities) {
+		create(entities.iterator(), null);
+		return entities;
+	}
+	
+	@Override
+	public <T> BulkWriteProgress create(Iterator<T> entities, BulkWriteListener listener) {
+		return write(entities, false, listener);
 	}
 
 	@Override
 	public <T> T create(T entity) {
 		lazyInit();
-		entity = this.entityPersister.persistEntity(entity, new RDFState());
+		try{
+			entity = this.entityPersister.persistEntity(entity, new RDFState());
+		} finally{
+			this.writeEpochs.invalidate(entity.getClass());
+		}
 		entityCache.put(entity);
 		return entity;
 	}
@@ -189,45 +577,462 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
 		IRI id = persistentEntity.getResourceId(entity);
+		if(persistentEntity.getType().isAnnotationPresent(WriteBehind.class)){
+			getWriteBehindBuffer().add(id, entity, this.entityPersister.getPersistentState(entity, null).getCurrentStatements());
+			entityCache.put(entity);
+			return entity;
+		}
 		Model dbState = this.statementsCollector.getStatementsForResourceOriginalPredicates(id, entity.getClass(), MappingPolicyImpl.DEFAULT_POLICY);
-		entity = this.entityPersister.persistEntity(entity, new RDFState(dbState));
+		try{
+			entity = this.entityPersister.persistEntity(entity, new RDFState(dbState));
+		} finally{
+			this.writeEpochs.invalidate(entity.getClass());
+		}
+		entityCache.put(entity);
+		return entity;
+	}
+	
+	@Override
+	public <T> T upsert(T entity) {
+		lazyInit();
+		flushWriteBehind();
+		Model written = new LinkedHashModel();
+		List<IRI> ids = new ArrayList<IRI>(1);
+		List<IRI> referenced = new ArrayList<IRI>(1);
+		try{
+			executeUpdate(getUpdate(entity, written, ids, referenced));
+		} finally{
+			this.writeEpochs.invalidate(entity.getClass());
+		}
+		publishInvalidation(ids, Collections.<Class<?>>singleton(entity.getClass()));
+		invalidateMolecules(written, ids, referenced);
 		entityCache.put(entity);
 		return entity;
 	}
 	
+	@Override
+	public <T> Iterable<T> upsert(Iterable<T> entities) {
+		lazyInit();
+		flushWriteBehind();
+		List<String> updates = new ArrayList<String>();
+		Model written = new LinkedHashModel();
+		List<IRI> ids = new ArrayList<IRI>();
+		List<IRI> referenced = new ArrayList<IRI>();
+		Set<Class<?>> writtenTypes = new HashSet<Class<?>>();
+		List<T> batch = new ArrayList<T>();
+		try{
+			for(T entity : entities){
+				try{
+					updates.add(getUpdate(entity, written, ids, referenced));
+				} catch(RequiredPropertyException e){
+					logger.error(e.getMessage(), e);
+					continue;
+				}
+				writtenTypes.add(entity.getClass());
+				entityCache.remove(entity);
+				batch.add(entity);
+				if(updates.size() >= this.batchSize){
+					executeUpdates(updates);
+					publishInvalidation(ids, writtenTypes);
+					invalidateMolecules(written, ids, referenced);
+					cacheUpserted(batch);
+				}
+			}
+			executeUpdates(updates);
+			publishInvalidation(ids, writtenTypes);
+			invalidateMolecules(written, ids, referenced);
+			cacheUpserted(batch);
+		} finally{
+			invalidateQueries(writtenTypes);
+		}
+		return entities;
+	}
+	
+	/*
+	 * Collects the updated entity, the inserted statements and the resources whose molecules the update changes: 
+	 * the entity and, if incoming statements are deleted, the resources referring to it. 
+	 */
+	private String getUpdate(Object entity, Model written, List<IRI> ids, List<IRI> referenced){
+		SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(entity.getClass());
+		RDFState state = this.entityPersister.getPersistentState(entity, null);
+		IRI id = persistentEntity.getResourceId(entity);
+		String update = this.entityToQueryConverter.getUpdateForResource(id, persistentEntity, state.getCurrentStatements());
+		ids.add(id);
+		//the statements of the update may not be reported
+		List<IRI> types = new ArrayList<IRI>(persistentEntity.getRDFSuperTypes());
+		types.add(persistentEntity.getRDFType());
+		this.negativeCache.addInstances(Collections.singleton(id), types);
+		if(this.moleculeCache.isEnabled()){
+			written.addAll(state.getCurrentStatements());
+			if(hasIncomingAssociations(persistentEntity)){
+				referenced.add(id);
+			}
+		}
+		return update;
+	}
+	
+	private boolean hasIncomingAssociations(SemanticPersistentEntity<?> persistentEntity){
+		final boolean[] incoming = {false};
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				if(!Direction.OUTGOING.equals(association.getInverse().getDirection())){
+					incoming[0] = true;
+				}
+			}
+		});
+		return incoming[0];
+	}
+	
+	private void executeUpdates(List<String> updates){
+		if(!updates.isEmpty()){
+			executeUpdate(StringUtils.collectionToDelimitedString(updates, " ;\n"));
+			updates.clear();
+		}
+	}
+	
+	/*
+	 * The caches are invalidated with the statements of the update, the unknown changes reported for it are ignored.
+	 */
+	private void executeUpdate(String update){
+		updating.set(Boolean.TRUE);
+		try{
+			this.semanticDB.executeUpdateStatement(update);
+		} finally{
+			updating.remove();
+		}
+	}
+	
+	private void invalidateQueries(Collection<Class<?>> writtenTypes){
+		for(Class<?> writtenType : writtenTypes){
+			this.writeEpochs.invalidate(writtenType);
+		}
+	}
+	
+	/*
+	 * The updates are reported to the listeners as unknown changes, so the other nodes are told the updated entities explicitly.
+	 */
+	private void publishInvalidation(Collection<IRI> ids, Collection<Class<?>> writtenTypes){
+		InvalidationBus bus = this.invalidationBus;
+		if(bus != null && !ids.isEmpty()){
+			Set<IRI> types = new HashSet<IRI>();
+			for(Class<?> writtenType : writtenTypes){
+				types.addAll(this.writeEpochs.getWrittenTypes(writtenType));
+			}
+			bus.publish(ids, types);
+		}
+	}
+	
+	/*
+	 * A concurrent find may have cached the state read between the eviction of an entity and its update, the upserted state replaces it.
+	 */
+	private void cacheUpserted(List<?> batch){
+		for(Object entity : batch){
+			entityCache.put(entity);
+		}
+		batch.clear();
+	}
+	
+	private void invalidateMolecules(Model written, List<IRI> ids, List<IRI> referenced){
+		this.moleculeCache.invalidate(written);
+		this.moleculeCache.invalidateSubjects(ids);
+		this.moleculeCache.invalidateReferences(referenced);
+		written.clear();
+		ids.clear();
+		referenced.clear();
+	}
+	
 	@Override
 	public <T> Iterable<T> save(Iterable<T> entities) {
+		save(entities.iterator(), null);
+		return entities;
+	}
+	
+	@Override
+	public <T> BulkWriteProgress save(Iterator<T> entities, BulkWriteListener listener) {
+		return write(entities, true, listener);
+	}
+	
+	private <T> BulkWriteProgress write(Iterator<T> entities, boolean replace, BulkWriteListener listener) {
 		lazyInit();
-		Map<T, RDFState> entityToExistingState = new HashMap<T, RDFState>();
-		for(T entity : entities){
-			@SuppressWarnings("unchecked")
-			SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
+		//buffered states must not overwrite the states written in bulk
+		flushWriteBehind();
+		Set<Class<?>> writtenTypes = new HashSet<Class<?>>();
+		try{
+			SemanticBulkWriter writer = new SemanticBulkWriter(this.semanticDB, this.commitSize, listener);
+			writer.setMoleculeCache(this.moleculeCache);
+			ExecutorService executor = this.conversionExecutor;
+			//the existing states are read on the calling thread, only the conversion runs on the executor
+			LinkedList<Future<List<RDFState>>> pending = new LinkedList<Future<List<RDFState>>>();
+			try{
+				while(entities.hasNext()){
+					final List<T> batch = new ArrayList<T>(this.batchSize);
+					while(batch.size() < this.batchSize && entities.hasNext()){
+						batch.add(entities.next());
+					}
+					for(T entity : batch){
+						writtenTypes.add(entity.getClass());
+					}
+					final List<RDFState> existingStates = getExistingStates(batch, replace);
+					if(executor == null){
+						addStates(writer, convert(batch, existingStates));
+						continue;
+					}
+					pending.add(executor.submit(new Callable<List<RDFState>>() {
+						@Override
+						public List<RDFState> call() {
+							return convert(batch, existingStates);
+						}
+					}));
+					if(pending.size() >= this.conversionParallelism){
+						addStates(writer, pending.removeFirst());
+					}
+				}
+				while(!pending.isEmpty()){
+					addStates(writer, pending.removeFirst());
+				}
+			} finally{
+				for(Future<List<RDFState>> future : pending){
+					future.cancel(true);
+				}
+			}
+			return writer.finish();
+		} finally{
+			invalidateQueries(writtenTypes);
+		}
+	}
+	
+	private <T> List<RDFState> convert(List<T> batch, List<RDFState> existingStates){
+		List<RDFState> states = new ArrayList<RDFState>(batch.size());
+		for(int i = 0; i < batch.size(); i++){
+			RDFState state = convert(batch.get(i), existingStates.get(i));
+			if(state != null){
+				states.add(state);
+			}
+		}
+		return states;
+	}
+	
+	/*
+	 * Reads the stored state of the entities of a batch with one query per entity type, instead of one query per entity.
+	 */
+	private <T> List<RDFState> getExistingStates(List<T> batch, boolean replace){
+		List<RDFState> existingStates = new ArrayList<RDFState>(batch.size());
+		if(!replace){
+			for(int i = 0; i < batch.size(); i++){
+				existingStates.add(new RDFState());
+			}
+			return existingStates;
+		}
+		Map<Class<?>, List<IRI>> idsPerType = new LinkedHashMap<Class<?>, List<IRI>>();
+		List<IRI> ids = new ArrayList<IRI>(batch.size());
+		for(T entity : batch){
+			SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(entity.getClass());
 			IRI id = persistentEntity.getResourceId(entity);
-			Model dbState = this.statementsCollector.getStatementsForResourceOriginalPredicates(id, entity.getClass(), MappingPolicyImpl.DEFAULT_POLICY);
-			entityToExistingState.put(entity, new RDFState(dbState));
+			List<IRI> idsOfType = idsPerType.get(entity.getClass());
+			if(idsOfType == null){
+				idsOfType = new ArrayList<IRI>();
+				idsPerType.put(entity.getClass(), idsOfType);
+			}
+			idsOfType.add(id);
+			ids.add(id);
+			entityCache.remove(entity);
+		}
+		Map<Class<?>, Map<IRI, Model>> statementsPerType = new HashMap<Class<?>, Map<IRI, Model>>();
+		for(Entry<Class<?>, List<IRI>> entry : idsPerType.entrySet()){
+			statementsPerType.put(entry.getKey(), this.statementsCollector.getStatementsForResourcesOriginalPredicates(entry.getKey(), entry.getValue(), MappingPolicyImpl.DEFAULT_POLICY));
+		}
+		for(int i = 0; i < batch.size(); i++){
+			Model statements = statementsPerType.get(batch.get(i).getClass()).get(ids.get(i));
+			//copied, since the persister removes the statements which are still current from the existing state
+			existingStates.add(statements != null ? new RDFState(new LinkedHashModel(statements)) : new RDFState());
+		}
+		return existingStates;
+	}
+	
+	private RDFState convert(Object entity, RDFState existingState){
+		try{
+			return this.entityPersister.getPersistentState(entity, existingState);
+		} catch(RequiredPropertyException e){
+			logger.error(e.getMessage(), e);
+			return null;
+		}
+	}
+	
+	/*
+	 * The states of a slice are merged into the chunk of the writer, which is a set of statements, 
+	 * so statements of cascaded entities, shared between slices, are written only once.
+	 */
+	private void addStates(SemanticBulkWriter writer, Future<List<RDFState>> future){
+		try{
+			addStates(writer, future.get());
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		} catch(ExecutionException e){
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw ExceptionTranslator.translateExceptionIfPossible((Exception) cause);
+		}
+	}
+	
+	private void addStates(SemanticBulkWriter writer, List<RDFState> states){
+		for(RDFState state : states){
+			writer.add(state);
 		}
-		return this.entityPersister.persistEntities(entityToExistingState);
 	}
 	
 	@Override
 	public <T> List<T> findAll(Class<? extends T> clazz) {
 		lazyInit();
+		if(this.queryResultCache.isEnabled()){
+			return findAll(this.statementsCollector.getIdsForResourcesAndProperties(clazz, new HashMap<String, Object>()), clazz);
+		}
+		if(useSelectMaterialization(clazz)){
+			return readEntities(clazz, null);
+		}
 		Collection<Model> statementsPerEntity = this.statementsCollector.getStatementsForResources(clazz);
 		List<T> results = new LinkedList<T>();
+		EntityIdentityMap identityMap = new EntityIdentityMap();
 		for(Model statements : statementsPerEntity){
-			results.add(createEntity(statements, clazz));
+			results.add(createEntity(statements, clazz, identityMap));
 		}
 		return results;
 	}
+	
+	@Override
+	public <T> List<T> findReachable(IRI start, Class<? extends T> clazz, String property, int maxDepth) {
+		lazyInit();
+		Collection<Model> statementsPerEntity = this.statementsCollector.getStatementsForReachableResources(start, clazz, property, maxDepth).values();
+		List<T> results = new ArrayList<T>(statementsPerEntity.size());
+		EntityIdentityMap identityMap = new EntityIdentityMap();
+		for(Model statements : statementsPerEntity){
+			results.add(createEntity(statements, clazz, identityMap));
+		}
+		return results;
+	}
+	
+	@Override
+	public <T> List<T> findAll(Class<? extends T> clazz, FetchPlan fetchPlan) {
+		if(fetchPlan == null){
+			return findAll(clazz);
+		}
+		return new ArrayList<T>(findByProperty(clazz, new HashMap<String, Object>(), fetchPlan));
+	}
 
 	@Override
 	public <T> T find(IRI resourceId, Class<? extends T> clazz) {
 		lazyInit();
-		T entity = entityCache.get(resourceId, clazz);
+		T entity = getBuffered(resourceId, clazz);
+		if(entity != null){
+			return entity;
+		}
+		try{
+			IRI type = this.mappingContext.getPersistentEntity(clazz).getRDFType();
+			if(negativeCache.isMissing(resourceId, type)){
+				return null;
+			}
+			long epoch = negativeCache.getEpoch(type);
+			entity = entityCache.get(resourceId, clazz, this.entityLoader);
+			if(entity == null){
+				negativeCache.putMissing(resourceId, type, epoch);
+			}
+			else{
+				recordAccess(resourceId, clazz);
+			}
+		} catch (DataAccessException e){
+			logger.error(e.getMessage(), e);
+		}
+		return entity;
+	}
+	
+	private <T> T load(IRI resourceId, Class<? extends T> clazz) {
+		if(useSelectMaterialization(clazz)){
+			List<T> entities = readEntities(clazz, Collections.singleton(resourceId));
+			return entities.isEmpty() ? null : entities.get(0);
+		}
+		return createEntity(this.statementsCollector.getStatementsForResource(resourceId, clazz, MappingPolicyImpl.ALL_POLICY), clazz);
+	}
+	
+	@Override
+	public <T> List<T> findAll(Iterable<IRI> resourceIds, Class<? extends T> clazz) {
+		lazyInit();
+		Map<IRI, T> entities = new HashMap<IRI, T>();
+		Collection<IRI> missing = new LinkedHashSet<IRI>();
+		SemanticWriteBehindBuffer buffer = this.writeBehindBuffer;
+		for(IRI resourceId : resourceIds){
+			Object buffered = buffer != null ? buffer.get(resourceId) : null;
+			if(clazz.isInstance(buffered)){
+				@SuppressWarnings("unchecked")
+				T entity = (T) buffered;
+				entities.put(resourceId, entity);
+			}
+			else{
+				missing.add(resourceId);
+			}
+		}
+		try{
+			entities.putAll(entityCache.<T>getAll(missing, clazz, this.entityLoader));
+		} catch (DataAccessException e){
+			logger.error(e.getMessage(), e);
+		}
+		List<T> results = new ArrayList<T>(entities.size());
+		for(IRI resourceId : resourceIds){
+			T entity = entities.get(resourceId);
+			if(entity != null){
+				results.add(entity);
+				recordAccess(resourceId, clazz);
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Read the entities with one query per chunk of resources.
+	 */
+	private <T> Map<IRI, T> loadAll(Collection<IRI> resourceIds, Class<? extends T> clazz) {
+		List<IRI> ids = new ArrayList<IRI>(resourceIds);
+		Map<IRI, T> entities = new HashMap<IRI, T>();
+		EntityIdentityMap identityMap = new EntityIdentityMap();
+		for(int from = 0; from < ids.size(); from += MAX_RESOURCES_PER_QUERY){
+			List<IRI> chunk = ids.subList(from, Math.min(from + MAX_RESOURCES_PER_QUERY, ids.size()));
+			if(useSelectMaterialization(clazz)){
+				SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(clazz);
+				for(T entity : this.<T>readEntities(clazz, chunk)){
+					entities.put(persistentEntity.getResourceId(entity), entity);
+				}
+			}
+			else{
+				for(Entry<IRI, Model> statements : this.statementsCollector.getStatementsForResourceIds(clazz, chunk).entrySet()){
+					entities.put(statements.getKey(), createEntity(statements.getValue(), clazz, identityMap));
+				}
+			}
+		}
+		return entities;
+	}
+	
+	@Override
+	public <T> T find(IRI resourceId, Class<? extends T> clazz, FetchPlan fetchPlan) {
+		if(fetchPlan == null){
+			return find(resourceId, clazz);
+		}
+		lazyInit();
+		T entity = getBuffered(resourceId, clazz);
+		if(entity != null){
+			return entity;
+		}
+		entity = entityCache.get(resourceId, clazz);
 		if(entity == null){
 			try{
-				entity = createEntity(this.statementsCollector.getStatementsForResource(resourceId, clazz, MappingPolicyImpl.ALL_POLICY), clazz);
-				entityCache.put(entity);
+				SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(clazz);
+				fetchPlan.validate(persistentEntity, this.mappingContext);
+				//entities shaped by a fetch plan are not cached, a later plain find must not observe the plan's shape
+				entity = createEntity(this.statementsCollector.getStatementsForResource(resourceId, clazz, MappingPolicyImpl.ALL_POLICY, fetchPlan), clazz, new EntityIdentityMap(), fetchPlan);
 			} catch (DataAccessException e){
 				logger.error(e.getMessage(), e);
 			}
@@ -235,11 +1040,46 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		return entity;
 	}
 
+	/**
+	 * Returns the entity of the given type still pending in the write-behind buffer, or null if there is none.
+	 */
+	private <T> T getBuffered(IRI resourceId, Class<? extends T> clazz){
+		SemanticWriteBehindBuffer buffer = this.writeBehindBuffer;
+		if(buffer != null){
+			Object buffered = buffer.get(resourceId);
+			if(clazz.isInstance(buffered)){
+				@SuppressWarnings("unchecked")
+				T entity = (T) buffered;
+				return entity;
+			}
+		}
+		return null;
+	}
+
+	private boolean useSelectMaterialization(Class<?> clazz){
+		return selectMaterialization && SemanticEntityTupleReader.supports(this.mappingContext.getPersistentEntity(clazz));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> List<T> readEntities(Class<? extends T> clazz, Collection<IRI> resourceIds){
+		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(clazz);
+		SemanticEntityTupleReader<T> reader = new SemanticEntityTupleReader<T>(persistentEntity, entityToQueryConverter.getSubjectVariable(persistentEntity), this.mappingContext, this.conversionService, this.entityInstantiator, new EntityIdentityMap(), this.lazyLoadingProxyFactory);
+		this.statementsCollector.getBindingsForResources(clazz, resourceIds, reader);
+		return reader.getEntities();
+	}
 	
 	public <T> T createEntity(Model statements, Class<T> clazz) {
 		lazyInit();
 		return entityPersister.createEntityFromState(new RDFState(statements), clazz);
     }
+	
+	private <T> T createEntity(Model statements, Class<T> clazz, EntityIdentityMap identityMap) {
+		return entityPersister.createEntityFromState(new RDFState(statements), clazz, identityMap);
+	}
+	
+	private <T> T createEntity(Model statements, Class<T> clazz, EntityIdentityMap identityMap, FetchPlan fetchPlan) {
+		return entityPersister.createEntityFromState(new RDFState(statements), clazz, identityMap, fetchPlan);
+	}
 
 	@Override
 	public <T> long count(Class<T> clazz) {
@@ -255,12 +1095,20 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	@Override
 	public <T> boolean exists(IRI resourceId, Class<? extends T> clazz) {
 		lazyInit();
-		T entity = entityCache.get(resourceId, clazz);
-		if(entity != null){
+		if(getBuffered(resourceId, clazz) != null || entityCache.get(resourceId, clazz) != null){
 			return true;
 		}
 		try {
-			return this.semanticDB.getBooleanQueryResult(entityToQueryConverter.getQueryForResourceExistence(resourceId, this.mappingContext.getPersistentEntity(clazz)));
+			SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(clazz);
+			if(negativeCache.isMissing(resourceId, persistentEntity.getRDFType())){
+				return false;
+			}
+			long epoch = negativeCache.getEpoch(persistentEntity.getRDFType());
+			boolean exists = this.semanticDB.getBooleanQueryResult(entityToQueryConverter.getQueryForResourceExistence(resourceId, persistentEntity));
+			if(!exists){
+				negativeCache.putMissing(resourceId, persistentEntity.getRDFType(), epoch);
+			}
+			return exists;
 		} catch (Exception e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -278,35 +1126,87 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	@Override
 	public <T> void delete(T entity) {
 		lazyInit();
+		flushWriteBehind();
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(entity.getClass());
 		entityCache.remove(entity);
-		this.entityRemover.delete(persistentEntity, entity);
+		try{
+			this.entityRemover.delete(persistentEntity, entity);
+		} finally{
+			this.writeEpochs.invalidate(persistentEntity.getType());
+		}
 		
 	}
 
 	@Override
 	public <T> void deleteAll(Class<? extends T> clazz) {
 		lazyInit();
+		flushWriteBehind();
 		@SuppressWarnings("unchecked")
 		SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) this.mappingContext.getPersistentEntity(clazz);
 		entityCache.clear(clazz);
-		this.entityRemover.deleteAll(persistentEntity);
+		try{
+			this.entityRemover.deleteAll(persistentEntity);
+		} finally{
+			this.writeEpochs.invalidate(persistentEntity.getType());
+		}
 	}
 
 	@Override
 	public <T> Collection<T> findByProperty(Class<? extends T> clazz,
 			Map<String, Object> parameterToValue) {
 		lazyInit();
+		if(this.queryResultCache.isEnabled()){
+			//the cached ids are resolved against the entity cache, the missing entities are read with one query
+			return findAll(this.statementsCollector.getIdsForResourcesAndProperties(clazz, parameterToValue), clazz);
+		}
 		Collection<Model> statementsPerEntity = this.statementsCollector.getStatementsForResourcesAndProperties(clazz, parameterToValue, null, null);
 		List<T> results = new LinkedList<T>();
+		EntityIdentityMap identityMap = new EntityIdentityMap();
 		for(Model statements : statementsPerEntity){
-			T entity = createEntity(statements, clazz);
+			T entity = createEntity(statements, clazz, identityMap);
 			//TODO set required values
 			results.add(entity);
 		}
 		return results;
 	}
+	
+	@Override
+	public <T> Collection<T> findByProperty(Class<? extends T> clazz,
+			Map<String, Object> parameterToValue, FetchPlan fetchPlan) {
+		if(fetchPlan == null){
+			return findByProperty(clazz, parameterToValue);
+		}
+		lazyInit();
+		fetchPlan.validate(this.mappingContext.getPersistentEntity(clazz), this.mappingContext);
+		Collection<Model> statementsPerEntity = this.statementsCollector.getStatementsForResourcesAndProperties(clazz, parameterToValue, null, null, fetchPlan);
+		List<T> results = new LinkedList<T>();
+		EntityIdentityMap identityMap = new EntityIdentityMap();
+		for(Model statements : statementsPerEntity){
+			results.add(createEntity(statements, clazz, identityMap, fetchPlan));
+		}
+		return results;
+	}
+
+	@Override
+	public <P> List<P> findProjectionsByProperty(Class<?> clazz, Map<String, Object> parameterToValue, Class<P> projectionType) {
+		lazyInit();
+		SemanticPersistentEntity<?> persistentEntity = this.mappingContext.getPersistentEntity(clazz);
+		ProjectionTupleReader<P> reader = new ProjectionTupleReader<P>(getProjection(persistentEntity, projectionType), entityToQueryConverter.getSubjectVariable(persistentEntity), this.conversionService);
+		this.statementsCollector.getBindingsForResourcesAndProperties(clazz, parameterToValue, reader.getProjection().getPropertyNames(), reader);
+		return reader.getResults();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <P> ProjectionInformation<P> getProjection(SemanticPersistentEntity<?> persistentEntity, Class<P> projectionType){
+		List<Class<?>> key = Arrays.<Class<?>>asList(persistentEntity.getType(), projectionType);
+		ProjectionInformation<P> projection = (ProjectionInformation<P>) projections.get(key);
+		if(projection == null){
+			projection = new ProjectionInformation<P>(projectionType, persistentEntity);
+			projections.putIfAbsent(key, projection);
+		}
+		return projection;
+	}
 
 	@Override
 	public Long countByProperty(Class<?> clazz,
@@ -315,11 +1215,90 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 		return this.statementsCollector.getCountForResourceAndProperties(clazz, parameterToValue);
 	}
 	
+	@Override
+	public <R> R aggregate(Class<?> clazz, Map<String, Object> parameterToValue, AggregateFunction function, String property, Class<R> resultType) {
+		lazyInit();
+		return convertValue(this.statementsCollector.getAggregateForResourceAndProperties(clazz, parameterToValue, function, property), resultType);
+	}
+	
+	@Override
+	public <K, R> Map<K, R> aggregateGroupedBy(Class<?> clazz, Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType, AggregateFunction function, String property, Class<R> resultType) {
+		lazyInit();
+		Map<Value, Value> groupToValue = this.statementsCollector.getGroupedAggregateForResourceAndProperties(clazz, parameterToValue, groupByProperty, function, property);
+		Map<K, R> results = new LinkedHashMap<K, R>();
+		for(Map.Entry<Value, Value> entry : groupToValue.entrySet()){
+			results.put(convertValue(entry.getKey(), keyType), convertValue(entry.getValue(), resultType));
+		}
+		return results;
+	}
+	
+	@Override
+	public <K> Map<K, Long> countGroupedBy(Class<?> clazz, Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType) {
+		return aggregateGroupedBy(clazz, parameterToValue, groupByProperty, keyType, AggregateFunction.COUNT, null, Long.class);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <R> R convertValue(Value value, Class<R> type){
+		if(value == null){
+			return null;
+		}
+		if(type.isInstance(value)){
+			return (R) value;
+		}
+		return this.conversionService.convert(value.stringValue(), type);
+	}
+	
+	/**
+	 * Open a unit of work, which writes the changes of the entities it loads with a single commit, see {@link SemanticSession}.
+	 * @return
+	 */
+	public SemanticSession openSession() {
+		lazyInit();
+		return new SemanticSession(this);
+	}
+	
+	Model getCurrentStatements(Object entity) {
+		lazyInit();
+		return this.entityPersister.getPersistentState(entity, null).getCurrentStatements();
+	}
+	
+	void writeChanges(Model removed, Model added, Collection<?> entities) {
+		flushWriteBehind();
+		try{
+			this.semanticDB.updateStatements(removed, added);
+		} finally{
+			Set<IRI> types = this.writeEpochs.getChangedTypes(removed);
+			types.addAll(this.writeEpochs.getChangedTypes(added));
+			this.writeEpochs.invalidateTypes(types);
+		}
+		this.moleculeCache.invalidate(removed);
+		this.moleculeCache.invalidate(added);
+		for(Object entity : entities){
+			entityCache.put(entity);
+		}
+	}
+	
 	@Override
 	public SemanticMappingContext getSemanticMappingContext() {
 		lazyInit();
 		return this.mappingContext;
 	}
+	
+	MoleculeCache getMoleculeCache() {
+		return this.moleculeCache;
+	}
+	
+	EntityCache getEntityCache() {
+		return this.entityCache;
+	}
+	
+	QueryResultCache getQueryResultCache() {
+		return this.queryResultCache;
+	}
+	
+	NegativeCache getNegativeCache() {
+		return this.negativeCache;
+	}
 
 	public SemanticDatabase getSemanticDB() {
 		return semanticDB;
@@ -329,19 +1308,140 @@ public class SemanticTemplateCRUD implements SemanticOperationsCRUD, Initializin
 	public <T> List<T> findAll(Class<? extends T> clazz, Pageable pageRequest) {
 		lazyInit();
 		Collection<IRI> ids = this.statementsCollector.getUrisForOffsetAndLimit(clazz, pageRequest.getOffset(), pageRequest.getPageSize());
-		List<T> entities = new ArrayList<T>(pageRequest.getPageSize());
-		for(IRI id : ids){
-			T entity = this.find(id, clazz);
-			entities.add(entity);
-		}
-		return entities;
+		return findAll(ids, clazz);
 	}
 	
+	/**
+	 * Drops the cached entities, molecules and query results affected by the writes to the database, including the writes bypassing the template,
+	 * and publishes them to the other nodes.
+	 */
+	private class TemplateChangeListener implements DatabaseChangeListener {
+
+		@Override
+		public void statementsChanged(Collection<? extends Statement> added, Collection<? extends Statement> removed) {
+			Set<IRI> resources = new HashSet<IRI>();
+			collectResources(added, resources);
+			collectResources(removed, resources);
+			Set<IRI> types = writeEpochs.getChangedTypes(added);
+			types.addAll(writeEpochs.getChangedTypes(removed));
+			writeEpochs.invalidateTypes(types);
+			negativeCache.addInstances(added);
+			moleculeCache.invalidate(added);
+			moleculeCache.invalidate(removed);
+			entityCache.evict(resources);
+			InvalidationBus bus = invalidationBus;
+			if(bus != null){
+				bus.publish(resources, types);
+			}
+		}
+		
+		/*
+		 * The subjects and, since entities may map incoming statements, the objects which are resources.
+		 */
+		private void collectResources(Collection<? extends Statement> statements, Set<IRI> resources) {
+			for(Statement statement : statements){
+				if(statement.getSubject() instanceof IRI){
+					resources.add((IRI) statement.getSubject());
+				}
+				if(statement.getObject() instanceof IRI && !RDF.TYPE.equals(statement.getPredicate())){
+					resources.add((IRI) statement.getObject());
+				}
+			}
+		}
+
+		@Override
+		public void databaseChanged() {
+			if(updating.get() == null){
+				writeEpochs.invalidateAll();
+				negativeCache.invalidateFilters();
+				moleculeCache.clear();
+				entityCache.clearAll();
+				InvalidationBus bus = invalidationBus;
+				if(bus != null){
+					bus.publishAll();
+				}
+			}
+		}
+		
+	}
 	
+	/**
+	 * Applies the invalidations published by the other nodes.
+	 */
+	private class TemplateInvalidationReceiver implements InvalidationListener {
 
+		@Override
+		public void invalidated(InvalidationEvent event) {
+			if(event.isAll()){
+				writeEpochs.invalidateAll();
+				negativeCache.invalidateFilters();
+				moleculeCache.clear();
+				entityCache.clearAll();
+			}
+			else{
+				writeEpochs.invalidateTypes(event.getTypes());
+				negativeCache.addInstances(event.getSubjects(), event.getTypes());
+				moleculeCache.invalidateSubjects(event.getSubjects());
+				entityCache.evict(event.getSubjects());
+			}
+		}
+		
+	}
 	
+	private class TemplateEntityLoader implements EntityLoader {
 
+		@Override
+		public <T> T load(IRI id, Class<T> clazz) {
+			return SemanticTemplateCRUD.this.load(id, clazz);
+		}
 
+		@Override
+		public <T> Map<IRI, T> loadAll(Collection<IRI> ids, Class<T> clazz) {
+			return SemanticTemplateCRUD.this.loadAll(ids, clazz);
+		}
+
+	}
 	
+	/**
+	 * Populates lazy loading proxies with the molecules of their resources, retrieved with one query per chunk of resources.
+	 */
+	private class TemplateLazyLoader implements LazyLoader {
+
+		@Override
+		public <T> void loadEntities(SemanticPersistentEntity<T> persistentEntity, Map<IRI, T> entities) {
+			List<IRI> ids = new ArrayList<IRI>(entities.keySet());
+			for(int from = 0; from < ids.size(); from += MAX_RESOURCES_PER_QUERY){
+				List<IRI> chunk = ids.subList(from, Math.min(from + MAX_RESOURCES_PER_QUERY, ids.size()));
+				Map<IRI, Model> statementsPerEntity = statementsCollector.getStatementsForResourceIds(persistentEntity.getType(), chunk);
+				EntityIdentityMap identityMap = new EntityIdentityMap();
+				for(IRI id : chunk){
+					identityMap.put(id, persistentEntity.getType(), entities.get(id));
+					identityMap.markLoaded(id, persistentEntity.getType());
+				}
+				for(IRI id : chunk){
+					Model statements = statementsPerEntity.get(id);
+					if(statements != null){
+						entityConverter.loadEntity(entities.get(id), new RDFState(statements), persistentEntity.getMappingPolicy(), persistentEntity, identityMap);
+					}
+				}
+			}
+		}
+
+		@Override
+		public <T> void loadProperty(SemanticPersistentEntity<T> persistentEntity, SemanticPersistentProperty property, Map<IRI, T> entities) {
+			List<IRI> ids = new ArrayList<IRI>(entities.keySet());
+			for(int from = 0; from < ids.size(); from += MAX_RESOURCES_PER_QUERY){
+				List<IRI> chunk = ids.subList(from, Math.min(from + MAX_RESOURCES_PER_QUERY, ids.size()));
+				Model statements = statementsCollector.getStatementsForResourcesProperty(persistentEntity.getType(), property, chunk);
+				EntityIdentityMap identityMap = new EntityIdentityMap();
+				for(IRI id : chunk){
+					//the links of incoming associations have the associated resources as subject
+					Model statementsForEntity = property.isAssociation() ? statements : statements.filter(id, null, null);
+					entityConverter.loadProperty(entities.get(id), new RDFState(statementsForEntity), property, persistentEntity, identityMap);
+				}
+			}
+		}
+		
+	}
 	
 }
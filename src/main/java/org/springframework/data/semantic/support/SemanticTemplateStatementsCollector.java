@@ -17,28 +17,43 @@ package org.springframework.data.semantic.support;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
-import org.eclipse.rdf4j.model.impl.TreeModel;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
 import org.springframework.data.repository.query.QueryCreationException;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.core.SemanticOperationsStatementsCollector;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.support.cache.QueryResultCache;
+import org.springframework.data.semantic.support.cache.WriteEpochs;
 import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.mapping.SemanticPersistentEntityImpl;
@@ -48,6 +63,8 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	private SemanticDatabase semanticDB;	
 	private SemanticMappingContext mappingContext;
 	private EntityToQueryConverter entityToQueryConverter;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
+	private QueryResultCache queryResultCache;
 	
 	
 	public SemanticTemplateStatementsCollector(SemanticDatabase semanticDB,
@@ -57,8 +74,25 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 		this.mappingContext = mappingContext != null ? mappingContext 
 				: new SemanticMappingContext(semanticDB.getNamespaces(), semanticDB.getDefaultNamespace(), true);
 		this.entityToQueryConverter = entityToQueryConverter;
+		this.queryResultCache = new QueryResultCache(new WriteEpochs(this.mappingContext), 0);
 	}	
 	
+	/**
+	 * The cache of the statements of resources, against which the molecules of single entities are read, see {@link MoleculeCache}.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
+	/**
+	 * The cache of the ids of matching entities, counts and aggregates, see {@link QueryResultCache}.
+	 * @param queryResultCache
+	 */
+	public void setQueryResultCache(QueryResultCache queryResultCache) {
+		this.queryResultCache = queryResultCache;
+	}
+	
 	public MappingPolicy getMappingPolicy(Class<?> clazz){
 		SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(clazz);
 		return persistentEntity.getMappingPolicy();
@@ -81,23 +115,124 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	@Override
 	public <T> Model getStatementsForResourceOriginalPredicates(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy){
 		try {
-			return semanticDB.getGraphQueryResults(
+			return getGraphQueryResults(resource,
 					entityToQueryConverter.getGraphQueryForResourceWithOriginalPredicates(resource, getPersistentEntity(clazz), globalMappingPolicy));
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
 	}
 
+	@Override
+	public <T> Map<IRI, Model> getStatementsForResourcesOriginalPredicates(Class<? extends T> clazz, Collection<IRI> resources, MappingPolicy globalMappingPolicy){
+		try {
+			SemanticPersistentEntity<?> persistentEntity = getPersistentEntity(clazz);
+			Model results = semanticDB.getGraphQueryResults(
+					entityToQueryConverter.getGraphQueryForResourcesWithOriginalPredicates(persistentEntity, resources, globalMappingPolicy));
+			Map<IRI, Model> entityIdToModel = new LinkedHashMap<IRI, Model>();
+			for(IRI resource : resources){
+				Model statementsForResource = new LinkedHashModel();
+				getMoleculeStatements(results, resource, persistentEntity, globalMappingPolicy, statementsForResource, new HashSet<Resource>());
+				if(!statementsForResource.isEmpty()){
+					entityIdToModel.put(resource, statementsForResource);
+				}
+			}
+			return entityIdToModel;
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	/*
+	 * Follows the mapping instead of the links between the statements, so that the molecules of resources, 
+	 * which are linked to each other but are not fetched together, are kept apart.
+	 */
+	private void getMoleculeStatements(final Model source, final Resource subject, SemanticPersistentEntity<?> persistentEntity, final MappingPolicy globalMappingPolicy, final Model dest, final Set<Resource> visited){
+		if(!visited.add(subject)){
+			return;
+		}
+		dest.addAll(source.filter(subject, RDF.TYPE, persistentEntity.getRDFType()));
+		persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+				if(!persistentProperty.isIdProperty() && !persistentProperty.isTransient() && !persistentProperty.isContext()){
+					dest.addAll(source.filter(subject, persistentProperty.getPredicate(), null));
+				}
+			}
+		});
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				SemanticPersistentProperty persistentProperty = association.getInverse();
+				List<Resource> associated = new ArrayList<Resource>();
+				if(!Direction.INCOMING.equals(persistentProperty.getDirection())){
+					for(Statement st : source.filter(subject, persistentProperty.getPredicate(), null)){
+						dest.add(st);
+						if(st.getObject() instanceof Resource){
+							associated.add((Resource) st.getObject());
+						}
+					}
+				}
+				if(!Direction.OUTGOING.equals(persistentProperty.getDirection())){
+					for(Statement st : source.filter(null, persistentProperty.getPredicate(), subject)){
+						dest.add(st);
+						associated.add(st.getSubject());
+					}
+				}
+				if(persistentProperty.getMappingPolicy().combineWith(globalMappingPolicy).shouldCascade(Cascade.GET)){
+					SemanticPersistentEntity<?> associatedEntity = mappingContext.getPersistentEntity(persistentProperty.getActualType());
+					for(Resource resource : associated){
+						getMoleculeStatements(source, resource, associatedEntity, globalMappingPolicy, dest, visited);
+					}
+				}
+			}
+		});
+	}
+
 	@Override
 	public <T> Model getStatementsForResource(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy) {
 		try {
-			return semanticDB.getGraphQueryResults(
+			return getGraphQueryResults(resource,
 					entityToQueryConverter.getGraphQueryForResource(resource, getPersistentEntity(clazz), globalMappingPolicy));
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		} 
 	}
 
+	@Override
+	public <T> Model getStatementsForResource(IRI resource, Class<? extends T> clazz, MappingPolicy globalMappingPolicy, FetchPlan fetchPlan) {
+		try {
+			return getGraphQueryResults(resource,
+					entityToQueryConverter.getGraphQueryForResource(resource, getPersistentEntity(clazz), globalMappingPolicy, fetchPlan));
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		} 
+	}
+	
+	/*
+	 * Evaluates the query against the cached molecules; if some are missing, the query is sent to the store 
+	 * and the molecules of the resource, of the resources in the results and of the missing resources are cached for the next time.
+	 */
+	private Model getGraphQueryResults(IRI resource, String query){
+		Set<Resource> missing = new LinkedHashSet<Resource>();
+		Model results = moleculeCache.evaluate(query, missing);
+		if(results == null){
+			long epoch = moleculeCache.getEpoch();
+			results = semanticDB.getGraphQueryResults(query);
+			if(moleculeCache.isEnabled()){
+				missing.add(resource);
+				missing.addAll(results.subjects());
+				List<IRI> resources = new ArrayList<IRI>(missing.size());
+				for(Resource r : missing){
+					if(r instanceof IRI){
+						resources.add((IRI) r);
+					}
+				}
+				moleculeCache.put(resources, semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForMolecules(resources)), epoch);
+			}
+		}
+		return results;
+	}
+
 	@Override
 	public <T> Collection<Model> getStatementsForResources(Class<? extends T> clazz) {
 		return getStatementsForResources(clazz, null, null);
@@ -118,25 +253,105 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	public <T> Collection<Model> getStatementsForResourcesAndProperties(
 			Class<? extends T> clazz, Map<String, Object> parameterToValue,
 			Long offset, Long limit) {
+		return getStatementsForResourcesAndProperties(clazz, parameterToValue, offset, limit, null);
+	}
+	
+	@Override
+	public <T> Collection<Model> getStatementsForResourcesAndProperties(
+			Class<? extends T> clazz, Map<String, Object> parameterToValue,
+			Long offset, Long limit, FetchPlan fetchPlan) {
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			Model results = semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForEntityClass(persistentEntity, parameterToValue), offset, limit);
+			Model results = semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForEntityClass(persistentEntity, parameterToValue, fetchPlan), offset, limit);
 			return assembleModels(persistentEntity.getRDFType(), results);
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
 	}
 	
+	@Override
+	public <T> void getBindingsForResources(Class<? extends T> clazz, Collection<IRI> resources, TupleQueryResultHandler handler) {
+		try {
+			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+			semanticDB.getQueryResults(entityToQueryConverter.getTupleQueryForResources(persistentEntity, resources), handler);
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> void getBindingsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, Collection<String> properties, TupleQueryResultHandler handler) {
+		try {
+			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+			semanticDB.getQueryResults(entityToQueryConverter.getTupleQueryForEntityClass(persistentEntity, parameterToValue, properties), handler);
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> Map<IRI, Model> getStatementsForReachableResources(IRI start, Class<? extends T> clazz, String property, int maxDepth) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		SemanticPersistentProperty persistentProperty = persistentEntity.getPersistentProperty(property);
+		if(persistentProperty == null || !persistentProperty.isAssociation() || !persistentProperty.getActualType().isAssignableFrom(clazz)){
+			throw new IllegalArgumentException(property+" is not an association of "+clazz.getName()+" to the same type.");
+		}
+		String query = entityToQueryConverter.getGraphQueryForReachableResources(persistentEntity, start, persistentProperty, maxDepth);
+		try {
+			Model results = semanticDB.getGraphQueryResults(query);
+			Map<IRI, Model> entityIdToModel = new LinkedHashMap<IRI, Model>();
+			for(Entry<Resource, Model> entry : assembleModelsBySubject(persistentEntity.getRDFType(), results).entrySet()){
+				if(entry.getKey() instanceof IRI){
+					entityIdToModel.put((IRI) entry.getKey(), entry.getValue());
+				}
+			}
+			return entityIdToModel;
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> Map<IRI, Model> getStatementsForResourceIds(Class<? extends T> clazz, Collection<IRI> resources) {
+		try {
+			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+			Model results = semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForResources(persistentEntity, resources));
+			Map<IRI, Model> entityIdToModel = new LinkedHashMap<IRI, Model>();
+			for(Entry<Resource, Model> entry : assembleModelsBySubject(persistentEntity.getRDFType(), results).entrySet()){
+				if(entry.getKey() instanceof IRI){
+					entityIdToModel.put((IRI) entry.getKey(), entry.getValue());
+				}
+			}
+			return entityIdToModel;
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> Model getStatementsForResourcesProperty(Class<? extends T> clazz, SemanticPersistentProperty property, Collection<IRI> resources) {
+		try {
+			return semanticDB.getGraphQueryResults(entityToQueryConverter.getGraphQueryForResourcesProperty(getPersistentEntity(clazz), property, resources));
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
 	public <T> Collection<Model> assembleModels(IRI type, Model allStatements){
+		return assembleModelsBySubject(type, allStatements).values();
+	}
+	
+	private Map<Resource, Model> assembleModelsBySubject(IRI type, Model allStatements){
 		Model subjects = allStatements.filter(null, null, type);
-		Map<Resource, Model> entityIdToModel = new HashMap<Resource, Model>();
+		Map<Resource, Model> entityIdToModel = new LinkedHashMap<Resource, Model>();
 		for(Statement st : subjects){
 			Resource subject = st.getSubject();
-			Model statementsForSubject = new TreeModel();
+			//insertion ordered, so that the type statement of the subject precedes those of the resources it links to
+			Model statementsForSubject = new LinkedHashModel();
 			getStatementsForSubject(allStatements, subject, statementsForSubject);
 			entityIdToModel.put(subject, statementsForSubject);
 		}
-		return entityIdToModel.values();
+		return entityIdToModel;
 	}
 	
 	private void getStatementsForSubject(Model source, Resource subject, Model dest){
@@ -157,29 +372,106 @@ public class SemanticTemplateStatementsCollector implements SemanticOperationsSt
 	
 	@Override
 	public <T> Long getCountForResource(Class<? extends T> clazz) {
-		List<BindingSet> result;
+		return getCountForResourceAndProperties(clazz, new HashMap<String, Object>());
+	}
+	
+
+	@Override
+	public <T> Long getCountForResourceAndProperties(Class<? extends T> clazz,
+			Map<String, Object> parameterToValue) {
 		try {
 			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			result = this.semanticDB.getQueryResults(entityToQueryConverter.getGraphQueryForResourceCount(persistentEntity, new HashMap<String, Object>()));
-			return Long.valueOf(result.get(0).getValue("count").stringValue());
+			String query = entityToQueryConverter.getGraphQueryForResourceCount(persistentEntity, parameterToValue);
+			long epoch = getQueryEpoch(persistentEntity);
+			Long count = (Long) queryResultCache.get(query, epoch);
+			if(count == null){
+				List<BindingSet> results = semanticDB.getQueryResults(query);
+				count = Long.valueOf(results.get(0).getValue("count").stringValue());
+				queryResultCache.put(query, epoch, count);
+			}
+			return count;
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
-		
 	}
-	
 
 	@Override
-	public <T> Long getCountForResourceAndProperties(Class<? extends T> clazz,
-			Map<String, Object> parameterToValue) {
+	public <T> Value getAggregateForResourceAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, AggregateFunction function, String property) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		String query = entityToQueryConverter.getQueryForResourceAggregate(persistentEntity, parameterToValue, function, property, null);
 		try {
-			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
-			List<BindingSet> results = semanticDB.getQueryResults(entityToQueryConverter.getGraphQueryForResourceCount(persistentEntity, parameterToValue));
-			return Long.valueOf(results.get(0).getValue("count").stringValue());
+			long epoch = getQueryEpoch(persistentEntity);
+			Value value = (Value) queryResultCache.get(query, epoch);
+			if(value == null){
+				List<BindingSet> results = semanticDB.getQueryResults(query);
+				value = results.isEmpty() ? null : results.get(0).getValue("value");
+				if(value != null){
+					queryResultCache.put(query, epoch, value);
+				}
+			}
+			return value;
 		} catch (Exception e) {
 			throw ExceptionTranslator.translateExceptionIfPossible(e);
 		}
 	}
+	
+	@Override
+	public <T> Map<Value, Value> getGroupedAggregateForResourceAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue, String groupByProperty, AggregateFunction function, String property) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		String query = entityToQueryConverter.getQueryForResourceAggregate(persistentEntity, parameterToValue, function, property, groupByProperty);
+		try {
+			long epoch = getQueryEpoch(persistentEntity);
+			@SuppressWarnings("unchecked")
+			Map<Value, Value> groupToValue = (Map<Value, Value>) queryResultCache.get(query, epoch);
+			if(groupToValue == null){
+				groupToValue = new LinkedHashMap<Value, Value>();
+				for(BindingSet result : semanticDB.getQueryResults(query)){
+					Value group = result.getValue("group");
+					if(group != null){
+						groupToValue.put(group, result.getValue("value"));
+					}
+				}
+				groupToValue = Collections.unmodifiableMap(groupToValue);
+				queryResultCache.put(query, epoch, groupToValue);
+			}
+			return groupToValue;
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	@Override
+	public <T> List<IRI> getIdsForResourcesAndProperties(Class<? extends T> clazz, Map<String, Object> parameterToValue) {
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(clazz);
+		String query = entityToQueryConverter.getTupleQueryForEntityClass(persistentEntity, parameterToValue, Collections.<String>emptyList());
+		try {
+			long epoch = getQueryEpoch(persistentEntity);
+			@SuppressWarnings("unchecked")
+			List<IRI> ids = (List<IRI>) queryResultCache.get(query, epoch);
+			if(ids == null){
+				ids = new ArrayList<IRI>();
+				String subjectVariable = entityToQueryConverter.getSubjectVariable(persistentEntity);
+				for(BindingSet result : semanticDB.getQueryResults(query)){
+					Value id = result.getValue(subjectVariable);
+					if(id instanceof IRI){
+						ids.add((IRI) id);
+					}
+				}
+				ids = Collections.unmodifiableList(ids);
+				queryResultCache.put(query, epoch, ids);
+			}
+			return ids;
+		} catch (Exception e) {
+			throw ExceptionTranslator.translateExceptionIfPossible(e);
+		}
+	}
+	
+	/**
+	 * The epoch in which the results of a query for the given entity type are cached, taken before the query is run.
+	 */
+	private long getQueryEpoch(SemanticPersistentEntity<?> persistentEntity){
+		return queryResultCache.getEpoch(persistentEntity.getRDFType());
+	}
 
 	@Override
 	public <T> Collection<IRI> getUrisForOffsetAndLimit(
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.core.SemanticOperationsStatementsCollector;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.support.cache.WriteEpochs;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Buffers the states of saved entities and writes them to a {@link SemanticDatabase} from a background thread, 
+ * so that frequent saves result in few large commits. Repeated saves of the same resource before a flush are collapsed to the latest state. 
+ * The stored states of the entities of a flush are read with one query per entity type and the changes are written in a single transaction.
+ * When the buffer holds the maximum number of resources, saving another resource blocks until the buffered states are written.
+ */
+public class SemanticWriteBehindBuffer {
+	
+	private static final Logger logger = LoggerFactory.getLogger(SemanticWriteBehindBuffer.class);
+	
+	private final SemanticDatabase semanticDatabase;
+	private final SemanticOperationsStatementsCollector statementsCollector;
+	private final int capacity;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
+	private WriteEpochs writeEpochs;
+	private final ScheduledExecutorService flusher;
+	
+	private final Object lock = new Object();
+	private final Object flushLock = new Object();
+	private Map<IRI, PendingWrite> pending = new LinkedHashMap<IRI, PendingWrite>();
+	private Map<IRI, PendingWrite> flushing = Collections.emptyMap();
+	private boolean flushRequested = false;
+	private boolean closed = false;
+	
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			try{
+				flush();
+			} catch(RuntimeException e){
+				logger.error("Write-behind flush failed, the states are kept for the next flush: "+e.getMessage(), e);
+			}
+		}
+	};
+	
+	/**
+	 * 
+	 * @param semanticDatabase
+	 * @param statementsCollector - reads the stored states of the entities
+	 * @param capacity - the maximum number of buffered resources
+	 * @param delay - the milliseconds between the end of a flush and the start of the next one
+	 */
+	public SemanticWriteBehindBuffer(SemanticDatabase semanticDatabase, SemanticOperationsStatementsCollector statementsCollector, int capacity, long delay) {
+		if(capacity < 1 || delay < 1){
+			throw new IllegalArgumentException("The write-behind capacity and delay must be positive.");
+		}
+		this.semanticDatabase = semanticDatabase;
+		this.statementsCollector = statementsCollector;
+		this.capacity = capacity;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-write-behind-");
+		threadFactory.setDaemon(true);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.flusher.scheduleWithFixedDelay(flushTask, delay, delay, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * The cache of resource molecules to invalidate with the written statements, see {@link MoleculeCache}.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
+	/**
+	 * The write epochs to increase with the types of the written entities, see {@link WriteEpochs}.
+	 * @param writeEpochs
+	 */
+	public void setWriteEpochs(WriteEpochs writeEpochs) {
+		this.writeEpochs = writeEpochs;
+	}
+	
+	/**
+	 * Buffer the state of an entity, replacing the state buffered for the same resource. 
+	 * Blocks while the buffer is full and does not hold the resource.
+	 * @param id
+	 * @param entity
+	 * @param statements - the current state of the entity
+	 */
+	public void add(IRI id, Object entity, Model statements) {
+		synchronized (lock) {
+			//the states being written count as well, so that the buffered states are bounded by the capacity
+			while(!closed && pending.size() + flushing.size() >= capacity && !pending.containsKey(id)){
+				if(!flushRequested){
+					flushRequested = true;
+					flusher.execute(flushTask);
+				}
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw ExceptionTranslator.translateExceptionIfPossible(e);
+				}
+			}
+			if(closed){
+				throw new IllegalStateException("The write-behind buffer is closed.");
+			}
+			pending.put(id, new PendingWrite(entity, statements));
+		}
+	}
+	
+	/**
+	 * 
+	 * @param id
+	 * @return the entity buffered for the given resource and not yet written, or null
+	 */
+	public Object get(IRI id) {
+		synchronized (lock) {
+			PendingWrite write = pending.get(id);
+			if(write == null){
+				write = flushing.get(id);
+			}
+			return write != null ? write.entity : null;
+		}
+	}
+	
+	public int size() {
+		synchronized (lock) {
+			return pending.size();
+		}
+	}
+	
+	/**
+	 * Write the buffered states.
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			Map<IRI, PendingWrite> batch;
+			synchronized (lock) {
+				flushRequested = false;
+				if(pending.isEmpty()){
+					return;
+				}
+				batch = pending;
+				flushing = batch;
+				pending = new LinkedHashMap<IRI, PendingWrite>();
+			}
+			try{
+				write(batch);
+			} catch(RuntimeException e){
+				synchronized (lock) {
+					for(Entry<IRI, PendingWrite> entry : batch.entrySet()){
+						if(!pending.containsKey(entry.getKey())){
+							pending.put(entry.getKey(), entry.getValue());
+						}
+					}
+				}
+				throw e;
+			} finally{
+				synchronized (lock) {
+					flushing = Collections.emptyMap();
+					lock.notifyAll();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stop the background flushes and write the remaining states.
+	 */
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+	
+	private void write(Map<IRI, PendingWrite> batch) {
+		Map<Class<?>, List<IRI>> idsPerType = new LinkedHashMap<Class<?>, List<IRI>>();
+		for(Entry<IRI, PendingWrite> entry : batch.entrySet()){
+			Class<?> type = entry.getValue().entity.getClass();
+			List<IRI> ids = idsPerType.get(type);
+			if(ids == null){
+				ids = new ArrayList<IRI>();
+				idsPerType.put(type, ids);
+			}
+			ids.add(entry.getKey());
+		}
+		Model removed = new LinkedHashModel();
+		Model added = new LinkedHashModel();
+		for(Entry<Class<?>, List<IRI>> entry : idsPerType.entrySet()){
+			Map<IRI, Model> storedStates = statementsCollector.getStatementsForResourcesOriginalPredicates(entry.getKey(), entry.getValue(), MappingPolicyImpl.DEFAULT_POLICY);
+			for(IRI id : entry.getValue()){
+				Model statements = batch.get(id).statements;
+				Model stored = storedStates.get(id);
+				if(stored != null){
+					for(Statement statement : stored){
+						if(!statements.contains(statement)){
+							removed.add(statement);
+						}
+					}
+				}
+				added.addAll(statements);
+			}
+		}
+		try{
+			semanticDatabase.updateStatements(removed, added);
+		} finally{
+			if(writeEpochs != null){
+				for(Class<?> type : idsPerType.keySet()){
+					writeEpochs.invalidate(type);
+				}
+			}
+		}
+		moleculeCache.invalidate(removed);
+		moleculeCache.invalidate(added);
+	}
+	
+	private static class PendingWrite {
+		
+		private final Object entity;
+		private final Model statements;
+		
+		PendingWrite(Object entity, Model statements) {
+			this.entity = entity;
+			this.statements = statements;
+		}
+		
+	}
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.cache.EntityLoader;
+
+/**
+ * Base {@link EntityCache} which loads the misses with the given loader. Concurrent misses of the same entity are coalesced:
+ * the first caller loads and caches the entity, the others wait for its load and read their copy of the entity from the cache, 
+ * or load it themselves if it has not been cached, so that callers never share an instance. The misses of a bulk lookup are handed to the loader at once.
+ *
+ */
+public abstract class AbstractEntityCache implements EntityCache {
+
+	private final ConcurrentMap<LoadKey, Load> loads = new ConcurrentHashMap<LoadKey, Load>();
+	private volatile EntitySerializer serializer;
+
+	/**
+	 * The serializer of the cached copies of the entities.
+	 * @param serializer
+	 */
+	public void setSerializer(EntitySerializer serializer) {
+		this.serializer = serializer;
+	}
+
+	protected EntitySerializer getSerializer() {
+		return serializer;
+	}
+
+	@Override
+	public <T> T get(IRI id, Class<? extends T> clazz, EntityLoader loader) {
+		T entity = get(id, clazz);
+		if(entity != null){
+			return entity;
+		}
+		LoadKey key = new LoadKey(id, clazz);
+		Load load = new Load();
+		Load inFlight = loads.putIfAbsent(key, load);
+		if(inFlight != null){
+			return await(id, clazz, inFlight, loader);
+		}
+		RuntimeException failure = null;
+		boolean loaded = false;
+		try{
+			entity = loader.load(id, clazz);
+			put(entity);
+			load.complete(entity);
+			loaded = true;
+			return entity;
+		} catch(RuntimeException e){
+			failure = e;
+			throw e;
+		} finally{
+			loads.remove(key, load);
+			if(!loaded){
+				load.fail(failure);
+			}
+		}
+	}
+
+	@Override
+	public <T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz, EntityLoader loader) {
+		Map<IRI, T> entities = getAll(ids, clazz);
+		Map<IRI, Load> started = new LinkedHashMap<IRI, Load>();
+		Map<IRI, Load> inFlight = new LinkedHashMap<IRI, Load>();
+		for(IRI id : ids){
+			if(!entities.containsKey(id) && !started.containsKey(id) && !inFlight.containsKey(id)){
+				Load load = new Load();
+				Load existing = loads.putIfAbsent(new LoadKey(id, clazz), load);
+				if(existing == null){
+					started.put(id, load);
+				}
+				else{
+					inFlight.put(id, existing);
+				}
+			}
+		}
+		//the started loads complete before waiting for others, so that callers never wait for each other
+		if(!started.isEmpty()){
+			RuntimeException failure = null;
+			boolean loaded = false;
+			try{
+				Map<IRI, ? extends T> loadedEntities = loader.loadAll(new ArrayList<IRI>(started.keySet()), clazz);
+				putAll(loadedEntities.values());
+				entities.putAll(loadedEntities);
+				for(Map.Entry<IRI, Load> load : started.entrySet()){
+					load.getValue().complete(loadedEntities.get(load.getKey()));
+				}
+				loaded = true;
+			} catch(RuntimeException e){
+				failure = e;
+				throw e;
+			} finally{
+				for(Map.Entry<IRI, Load> load : started.entrySet()){
+					loads.remove(new LoadKey(load.getKey(), clazz), load.getValue());
+					if(!loaded){
+						load.getValue().fail(failure);
+					}
+				}
+			}
+		}
+		for(Map.Entry<IRI, Load> load : inFlight.entrySet()){
+			T entity = await(load.getKey(), clazz, load.getValue(), loader);
+			if(entity != null){
+				entities.put(load.getKey(), entity);
+			}
+		}
+		return entities;
+	}
+
+	private <T> T await(IRI id, Class<? extends T> clazz, Load load, EntityLoader loader){
+		try{
+			load.latch.await();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return loader.load(id, clazz);
+		}
+		if(load.failed){
+			if(load.failure != null){
+				throw load.failure;
+			}
+			return loader.load(id, clazz);
+		}
+		if(!load.found){
+			return null;
+		}
+		T cached = get(id, clazz);
+		return cached != null ? cached : loader.load(id, clazz);
+	}
+
+	private static final class LoadKey {
+
+		private final IRI id;
+		private final Class<?> type;
+
+		private LoadKey(IRI id, Class<?> type) {
+			this.id = id;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + type.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof LoadKey)){
+				return false;
+			}
+			LoadKey other = (LoadKey) obj;
+			return id.equals(other.id) && type.equals(other.type);
+		}
+
+	}
+
+	private static final class Load {
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private volatile boolean found = false;
+		private volatile boolean failed = false;
+		private volatile RuntimeException failure;
+
+		private void complete(Object entity){
+			this.found = entity != null;
+			latch.countDown();
+		}
+
+		/**
+		 * @param failure - the exception of the load, rethrown to the waiting callers, or null if they load the entity themselves
+		 */
+		private void fail(RuntimeException failure){
+			this.failure = failure;
+			this.failed = true;
+			latch.countDown();
+		}
+
+	}
+
+}
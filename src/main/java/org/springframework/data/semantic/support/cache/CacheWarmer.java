@@ -0,0 +1,355 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.cache.EntityLoader;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records the most recently accessed entities and dumps their keys to a file, periodically and on {@link #close()}, 
+ * so that the entity cache can be filled with them when the application starts again. The file has a line per entity 
+ * with the fully qualified class name and the id separated by a space. The dumped entities are loaded with parallel batches, see {@link #warmUp(Map, EntityCache, EntityLoader, int)}.
+ *
+ */
+public class CacheWarmer {
+
+	private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+	public static final int DEFAULT_PARALLELISM = 4;
+
+	private static final int STRIPES = 16;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+	private final File file;
+	private final List<LruMap<HotKey, Boolean>> stripes = new ArrayList<LruMap<HotKey, Boolean>>(STRIPES);
+	private final Object dumpLock = new Object();
+	private ScheduledExecutorService dumper;
+
+	/**
+	 * 
+	 * @param file - the file the keys are dumped to and read from
+	 * @param maximumKeys - the number of the most recently accessed entities which are recorded
+	 */
+	public CacheWarmer(File file, int maximumKeys) {
+		if(maximumKeys < 1){
+			throw new IllegalArgumentException("The maximum number of hot keys must be positive: "+maximumKeys);
+		}
+		this.file = file;
+		int stripeSize = (maximumKeys + STRIPES - 1) / STRIPES;
+		for(int i = 0; i < STRIPES; i++){
+			stripes.add(new LruMap<HotKey, Boolean>(stripeSize));
+		}
+	}
+
+	public void recordAccess(IRI id, Class<?> type) {
+		HotKey key = new HotKey(id, ClassUtils.getUserClass(type));
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		LruMap<HotKey, Boolean> stripe = stripes.get(hash & (STRIPES - 1));
+		synchronized (stripe) {
+			stripe.put(key, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Dump the recorded keys every given milliseconds until {@link #close()}.
+	 * @param interval
+	 */
+	public void startDumps(long interval) {
+		if(interval < 0){
+			throw new IllegalArgumentException("The dump interval must not be negative: "+interval);
+		}
+		synchronized (dumpLock) {
+			if(dumper != null){
+				dumper.shutdown();
+				dumper = null;
+			}
+			if(interval > 0){
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-hot-keys-");
+				threadFactory.setDaemon(true);
+				dumper = Executors.newSingleThreadScheduledExecutor(threadFactory);
+				dumper.scheduleWithFixedDelay(new Runnable() {
+					@Override
+					public void run() {
+						dump();
+					}
+				}, interval, interval, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Write the recorded keys to the file, replacing the keys of the previous dump.
+	 */
+	public void dump() {
+		List<HotKey> keys = new ArrayList<HotKey>();
+		for(LruMap<HotKey, Boolean> stripe : stripes){
+			synchronized (stripe) {
+				keys.addAll(stripe.keySet());
+			}
+		}
+		synchronized (dumpLock) {
+			File parent = file.getAbsoluteFile().getParentFile();
+			File temporary = new File(parent, file.getName() + ".tmp");
+			try{
+				if(parent != null && !parent.exists()){
+					parent.mkdirs();
+				}
+				Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporary), UTF_8));
+				try{
+					for(HotKey key : keys){
+						writer.write(key.type.getName());
+						writer.write(' ');
+						writer.write(key.id.stringValue());
+						writer.write('\n');
+					}
+				} finally{
+					writer.close();
+				}
+				//the previous dump is kept until the new one is complete
+				if(!temporary.renameTo(file) && !(file.delete() && temporary.renameTo(file))){
+					logger.error("Could not replace the hot keys in "+file);
+				}
+			} catch(IOException e){
+				logger.error("Could not dump the hot keys to "+file, e);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return the ids of the dumped keys by entity type; keys of types which cannot be loaded are skipped
+	 */
+	public Map<Class<?>, List<IRI>> readHotKeys() {
+		Map<Class<?>, List<IRI>> keys = new LinkedHashMap<Class<?>, List<IRI>>();
+		if(!file.isFile()){
+			return keys;
+		}
+		Map<String, Class<?>> types = new LinkedHashMap<String, Class<?>>();
+		Set<String> unknownTypes = new HashSet<String>();
+		try{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+			try{
+				String line;
+				while((line = reader.readLine()) != null){
+					int separator = line.indexOf(' ');
+					if(separator < 1){
+						continue;
+					}
+					String typeName = line.substring(0, separator);
+					Class<?> type = types.get(typeName);
+					if(type == null){
+						if(unknownTypes.contains(typeName)){
+							continue;
+						}
+						try{
+							type = ClassUtils.forName(typeName, ClassUtils.getDefaultClassLoader());
+						} catch(ClassNotFoundException e){
+							logger.warn("Skipping the hot keys of the unknown type "+typeName);
+							unknownTypes.add(typeName);
+							continue;
+						} catch(LinkageError e){
+							logger.warn("Skipping the hot keys of the unknown type "+typeName);
+							unknownTypes.add(typeName);
+							continue;
+						}
+						types.put(typeName, type);
+						keys.put(type, new ArrayList<IRI>());
+					}
+					try{
+						keys.get(type).add(VALUE_FACTORY.createIRI(line.substring(separator + 1).trim()));
+					} catch(IllegalArgumentException e){
+						logger.warn("Skipping the malformed hot key "+line);
+					}
+				}
+			} finally{
+				reader.close();
+			}
+		} catch(IOException e){
+			logger.error("Could not read the hot keys from "+file, e);
+		}
+		return keys;
+	}
+
+	/**
+	 * Load the dumped entities and the given ones into the entity cache.
+	 * @param idsPerType - the ids of further entities by entity type, e.g. of the types preloaded on startup
+	 * @param entityCache
+	 * @param loader
+	 * @param batchSize - the number of entities loaded by a batch
+	 * @return the number of loaded entities
+	 */
+	public int warmUp(Map<Class<?>, ? extends Collection<IRI>> idsPerType, EntityCache entityCache, EntityLoader loader, int batchSize) {
+		Map<Class<?>, Collection<IRI>> keys = new LinkedHashMap<Class<?>, Collection<IRI>>();
+		for(Entry<Class<?>, ? extends Collection<IRI>> ids : idsPerType.entrySet()){
+			keys.put(ids.getKey(), new LinkedHashSet<IRI>(ids.getValue()));
+		}
+		for(Entry<Class<?>, List<IRI>> hotKeys : readHotKeys().entrySet()){
+			Collection<IRI> ids = keys.get(hotKeys.getKey());
+			if(ids == null){
+				ids = new LinkedHashSet<IRI>();
+				keys.put(hotKeys.getKey(), ids);
+			}
+			ids.addAll(hotKeys.getValue());
+		}
+		return load(keys, entityCache, loader, batchSize);
+	}
+
+	/**
+	 * Load the given entities into the entity cache, with {@value #DEFAULT_PARALLELISM} parallel batches.
+	 * @param idsPerType - the ids of the entities by entity type
+	 * @param entityCache
+	 * @param loader
+	 * @param batchSize - the number of entities loaded by a batch
+	 * @return the number of loaded entities
+	 */
+	public static int load(Map<Class<?>, ? extends Collection<IRI>> idsPerType, EntityCache entityCache, EntityLoader loader, int batchSize) {
+		if(batchSize < 1){
+			throw new IllegalArgumentException("The batch size must be positive: "+batchSize);
+		}
+		if(idsPerType.isEmpty()){
+			return 0;
+		}
+		long start = System.currentTimeMillis();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-warm-up-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(DEFAULT_PARALLELISM, threadFactory);
+		List<Future<Integer>> loads = new ArrayList<Future<Integer>>();
+		int loaded = 0;
+		try{
+			for(Entry<Class<?>, ? extends Collection<IRI>> ids : idsPerType.entrySet()){
+				List<IRI> typeIds = new ArrayList<IRI>(ids.getValue());
+				for(int from = 0; from < typeIds.size(); from += batchSize){
+					loads.add(executor.submit(new WarmUpTask(entityCache, loader, ids.getKey(), typeIds.subList(from, Math.min(from + batchSize, typeIds.size())))));
+				}
+			}
+			for(Future<Integer> load : loads){
+				try{
+					loaded += load.get();
+				} catch(ExecutionException e){
+					logger.error("Could not warm up the entity cache.", e.getCause());
+				}
+			}
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		} finally{
+			executor.shutdownNow();
+		}
+		logger.info("Warmed up the entity cache with "+loaded+" entities in "+(System.currentTimeMillis() - start)+" ms.");
+		return loaded;
+	}
+
+	/**
+	 * Stop the periodic dumps and dump the recorded keys.
+	 */
+	public void close() {
+		synchronized (dumpLock) {
+			if(dumper != null){
+				dumper.shutdown();
+				dumper = null;
+			}
+		}
+		dump();
+	}
+
+	/**
+	 * Loads a batch of entities into the entity cache.
+	 */
+	private static final class WarmUpTask implements Callable<Integer> {
+
+		private final EntityCache entityCache;
+		private final EntityLoader loader;
+		private final Class<?> type;
+		private final List<IRI> ids;
+
+		private WarmUpTask(EntityCache entityCache, EntityLoader loader, Class<?> type, List<IRI> ids) {
+			this.entityCache = entityCache;
+			this.loader = loader;
+			this.type = type;
+			this.ids = ids;
+		}
+
+		@Override
+		public Integer call() {
+			return entityCache.getAll(ids, type, loader).size();
+		}
+
+	}
+
+	private static final class HotKey {
+
+		private final IRI id;
+		private final Class<?> type;
+
+		private HotKey(IRI id, Class<?> type) {
+			this.id = id;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + type.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof HotKey)){
+				return false;
+			}
+			HotKey other = (HotKey) obj;
+			return id.equals(other.id) && type.equals(other.type);
+		}
+
+	}
+
+}
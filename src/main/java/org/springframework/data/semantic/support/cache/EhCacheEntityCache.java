@@ -15,12 +15,20 @@
  */
 package org.springframework.data.semantic.support.cache;
 
-import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.rdf4j.model.IRI;
-import org.springframework.data.semantic.cache.EntityCache;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.ClassUtils;
 
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
@@ -28,45 +36,108 @@ import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.config.CacheConfiguration;
 
-public class EhCacheEntityCache implements EntityCache {
+/**
+ * {@link org.springframework.data.semantic.cache.EntityCache} with an Ehcache cache per entity type, named by the fully qualified class name.
+ * The entities are cached as byte arrays written by the {@link EntitySerializer}, so that each hit returns a copy and the caches may overflow
+ * to off-heap or disk stores.
+ *
+ */
+public class EhCacheEntityCache extends AbstractEntityCache {
 	
 	private CacheManager cacheManager;
 	private SemanticMappingContext mappingContext;
+	private final Set<String> cacheNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
 	public EhCacheEntityCache(SemanticMappingContext mappingContext, CacheManager cacheManager) {
 		this.mappingContext = mappingContext;
 		this.cacheManager = cacheManager;
+		setSerializer(new EntitySerializer(mappingContext, null));
 	}
 
 	
 	@Override
 	public <T> void remove(T entity) {
-		Ehcache cache = getCache(entity.getClass());
+		Ehcache cache = getCache(ClassUtils.getUserClass(entity));
 		cache.remove(getId(entity).stringValue());
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T get(IRI id, Class<? extends T> clazz) {
 		Ehcache cache = getCache(clazz);
 		Element element = cache.get(id.toString());
 		if(element != null){
-			Object value = element.getObjectValue();
-			if(clazz.isAssignableFrom(value.getClass())){
-				return (T) value;
-			}
+			return toEntity(element.getObjectValue(), clazz);
 		}
 		return null;
 	}
 
 	@Override
 	public <T> void put(T entity) {
-		if(entity != null && entity instanceof Serializable){
-			Ehcache cache = getCache(entity.getClass());
-			cache.put(new Element(getId(entity).toString(), entity));
+		//the lazy properties which have not been loaded are cached as deferred, see EntitySerializer
+		if(entity != null && LazyLoadingProxyFactory.isInitialized(entity)){
+			byte[] value = getSerializer().serialize(entity);
+			if(value != null){
+				Ehcache cache = getCache(ClassUtils.getUserClass(entity));
+				cache.put(new Element(getId(entity).toString(), value));
+			}
+		}
+	}
+
+	@Override
+	public <T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz) {
+		Map<String, IRI> keys = new HashMap<String, IRI>();
+		for(IRI id : ids){
+			keys.put(id.toString(), id);
+		}
+		Map<IRI, T> entities = new HashMap<IRI, T>();
+		for(Map.Entry<Object, Element> entry : getCache(clazz).getAll(keys.keySet()).entrySet()){
+			if(entry.getValue() != null){
+				T entity = toEntity(entry.getValue().getObjectValue(), clazz);
+				if(entity != null){
+					entities.put(keys.get(entry.getKey()), entity);
+				}
+			}
+		}
+		return entities;
+	}
+
+	@Override
+	public <T> void putAll(Collection<T> entities) {
+		Map<Class<?>, List<Element>> elementsPerType = new HashMap<Class<?>, List<Element>>();
+		for(T entity : entities){
+			if(entity != null && LazyLoadingProxyFactory.isInitialized(entity)){
+				byte[] value = getSerializer().serialize(entity);
+				if(value == null){
+					continue;
+				}
+				Class<?> type = ClassUtils.getUserClass(entity);
+				List<Element> elements = elementsPerType.get(type);
+				if(elements == null){
+					elements = new ArrayList<Element>();
+					elementsPerType.put(type, elements);
+				}
+				elements.add(new Element(getId(entity).toString(), value));
+			}
+		}
+		for(Map.Entry<Class<?>, List<Element>> elements : elementsPerType.entrySet()){
+			getCache(elements.getKey()).putAll(elements.getValue());
 		}
 	}
 
+	@Override
+	public void evict(Collection<IRI> ids) {
+		List<String> keys = new ArrayList<String>(ids.size());
+		for(IRI id : ids){
+			keys.add(id.toString());
+		}
+		for(String cacheName : cacheNames){
+			Ehcache cache = cacheManager.getCache(cacheName);
+			if(cache != null){
+				cache.removeAll(keys);
+			}
+		}
+	}
+	
 	@Override
 	public <T> void clear(Class<? extends T> clazz){
 		Ehcache cache = getCache(clazz);
@@ -78,16 +149,32 @@ public class EhCacheEntityCache implements EntityCache {
 		cacheManager.clearAll();
 	}
 	
+	/*
+	 * The values of caches configured outside of this class may hold entities rather than their serialized copies.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T toEntity(Object value, Class<? extends T> clazz){
+		if(value instanceof byte[]){
+			value = getSerializer().deserialize((byte[]) value, clazz);
+		}
+		if(value != null && clazz.isAssignableFrom(value.getClass())){
+			return (T) value;
+		}
+		return null;
+	}
+	
 	private IRI getId(Object entity){
 		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entity.getClass());
 		return persistentEntity.getResourceId(entity);
 	}
 	
 	private Ehcache getCache(Class<?> clazz){
-		String cacheName = clazz.getSimpleName();
+		String cacheName = clazz.getName();
+		cacheNames.add(cacheName);
 		Ehcache cache = cacheManager.getCache(cacheName);
 		if(cache == null){
-			CacheConfiguration config = new CacheConfiguration(cacheName, 1000).copyOnRead(true).copyOnWrite(true);
+			//the serialized copies are immutable, they need not be copied again
+			CacheConfiguration config = new CacheConfiguration(cacheName, 1000);
 			cache = new Cache(config);
 			cacheManager.addCache(cache);
 		}
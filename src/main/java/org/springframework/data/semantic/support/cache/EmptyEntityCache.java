@@ -15,10 +15,27 @@
  */
 package org.springframework.data.semantic.support.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.rdf4j.model.IRI;
-import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.cache.EntityLoader;
 
-public class EmptyEntityCache implements EntityCache {
+public class EmptyEntityCache extends AbstractEntityCache {
+	
+	/*
+	 * Nothing is cached, so concurrent misses are not coalesced: each caller gets its own instance, as without a cache.
+	 */
+	@Override
+	public <T> T get(IRI id, Class<? extends T> clazz, EntityLoader loader) {
+		return loader.load(id, clazz);
+	}
+	
+	@Override
+	public <T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz, EntityLoader loader) {
+		return new HashMap<IRI, T>(loader.loadAll(ids, clazz));
+	}
 
 	@Override
 	public <T> void remove(T entity) {
@@ -35,6 +52,21 @@ public class EmptyEntityCache implements EntityCache {
 		return;
 	}
 
+	@Override
+	public <T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz) {
+		return new HashMap<IRI, T>();
+	}
+
+	@Override
+	public <T> void putAll(Collection<T> entities) {
+		return;
+	}
+
+	@Override
+	public void evict(Collection<IRI> ids) {
+		return;
+	}
+
 	@Override
 	public <T> void clear(Class<? extends T> clazz) {
 		return;
@@ -0,0 +1,537 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.CollectionFactory;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.convert.SemanticEntityInstantiatorImpl;
+import org.springframework.data.semantic.support.convert.lazy.LazyAssociationList;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingBatch;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Compact binary serializer of the cached copies of entities, which need not be {@link Serializable}. The layout of each entity type 
+ * is derived once from its {@link SemanticPersistentEntity}: the id, the values of the mapped properties and the ids of the associated entities.
+ * Associated entities are restored as proxies loading their state on first access; properties which are not mapped, e.g. transient ones, are not copied.
+ * Lazy properties which had not been loaded are written as deferred and the restored entity is a proxy loading them on first access.
+ * Values of types without a compact encoding are written with Java serialization.
+ *
+ */
+public class EntitySerializer {
+
+	private static final Logger logger = LoggerFactory.getLogger(EntitySerializer.class);
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte FLOAT = 5;
+	private static final byte BOOLEAN = 6;
+	private static final byte SHORT = 7;
+	private static final byte BYTE = 8;
+	private static final byte CHARACTER = 9;
+	private static final byte DATE = 10;
+	private static final byte IRI_VALUE = 11;
+	private static final byte ENUM = 12;
+	private static final byte BIG_INTEGER = 13;
+	private static final byte BIG_DECIMAL = 14;
+	private static final byte COLLECTION = 15;
+	private static final byte OBJECT = 16;
+	private static final byte DEFERRED = 17;
+
+	private final SemanticMappingContext mappingContext;
+	private final LazyLoadingProxyFactory lazyLoadingProxyFactory;
+	private final SemanticEntityInstantiator entityInstantiator = new SemanticEntityInstantiatorImpl();
+	private final ConcurrentMap<Class<?>, Layout> layouts = new ConcurrentHashMap<Class<?>, Layout>();
+
+	/**
+	 * 
+	 * @param mappingContext
+	 * @param lazyLoadingProxyFactory - creates the associated entities and the entities with deferred properties; if null the associated entities 
+	 * are restored holding only their id and entities with deferred properties are not restored
+	 */
+	public EntitySerializer(SemanticMappingContext mappingContext, LazyLoadingProxyFactory lazyLoadingProxyFactory) {
+		this.mappingContext = mappingContext;
+		this.lazyLoadingProxyFactory = lazyLoadingProxyFactory;
+	}
+
+	/**
+	 * 
+	 * @param entity
+	 * @return the serialized entity, or null if it has no id or a property value which can be serialized neither compactly nor with Java serialization
+	 */
+	public byte[] serialize(Object entity) {
+		Layout layout = getLayout(ClassUtils.getUserClass(entity));
+		IRI id = layout.persistentEntity.getResourceId(entity);
+		if(id == null){
+			logger.debug("Not serializing an entity of "+layout.persistentEntity.getType().getName()+" without id.");
+			return null;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		SemanticPersistentProperty current = null;
+		try{
+			out.writeInt(layout.signature);
+			writeString(out, id.stringValue());
+			for(SemanticPersistentProperty property : layout.properties){
+				current = property;
+				if(LazyLoadingProxyFactory.isPropertyLoaded(entity, property)){
+					writeValue(out, property, property.getValue(entity, null));
+				}
+				else{
+					out.writeByte(DEFERRED);
+				}
+			}
+			for(SemanticPersistentProperty association : layout.associations){
+				current = association;
+				if(LazyLoadingProxyFactory.isPropertyLoaded(entity, association)){
+					writeAssociation(out, association, association.getValue(entity, null));
+				}
+				else{
+					out.writeByte(DEFERRED);
+				}
+			}
+			out.flush();
+		} catch(UnsupportedValueException e){
+			if(!layout.unsupportedReported){
+				layout.unsupportedReported = true;
+				logger.warn("Entities of "+layout.persistentEntity.getType().getName()+" are not cached, the value of "+current+" of type "+e.getMessage()+" cannot be serialized.");
+			}
+			return null;
+		} catch(IOException e){
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * 
+	 * @param data
+	 * @param clazz - the type of the serialized entity
+	 * @return the restored entity, or null if the data has been serialized with a different mapping of the type or has deferred properties
+	 * which cannot be loaded on access
+	 */
+	public <T> T deserialize(byte[] data, Class<T> clazz) {
+		Layout layout = getLayout(clazz);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		try{
+			if(in.readInt() != layout.signature){
+				return null;
+			}
+			@SuppressWarnings("unchecked")
+			SemanticPersistentEntity<T> persistentEntity = (SemanticPersistentEntity<T>) layout.persistentEntity;
+			IRI id = VALUE_FACTORY.createIRI(readString(in));
+			List<SemanticPersistentProperty> deferred = new ArrayList<SemanticPersistentProperty>();
+			Object[] values = new Object[layout.properties.size()];
+			for(int i = 0; i < values.length; i++){
+				byte tag = in.readByte();
+				if(tag == DEFERRED){
+					deferred.add(layout.properties.get(i));
+				}
+				else{
+					values[i] = readValue(in, tag, layout.properties.get(i));
+				}
+			}
+			Map<IRI, Object> associated = new HashMap<IRI, Object>();
+			Object[] associations = new Object[layout.associations.size()];
+			for(int i = 0; i < associations.length; i++){
+				byte tag = in.readByte();
+				if(tag == DEFERRED){
+					deferred.add(layout.associations.get(i));
+				}
+				else{
+					associations[i] = readAssociation(in, tag, layout.associations.get(i), associated);
+				}
+			}
+			T entity;
+			if(deferred.isEmpty()){
+				entity = entityInstantiator.createInstance(persistentEntity, id);
+			}
+			else{
+				entity = lazyLoadingProxyFactory != null ? lazyLoadingProxyFactory.createProxy(persistentEntity, id, deferred) : null;
+				if(entity == null){
+					return null;
+				}
+			}
+			for(int i = 0; i < values.length; i++){
+				if(values[i] != null){
+					layout.properties.get(i).setValue(entity, values[i]);
+				}
+			}
+			for(int i = 0; i < associations.length; i++){
+				if(associations[i] != null){
+					layout.associations.get(i).setValue(entity, associations[i]);
+				}
+			}
+			return entity;
+		} catch(IOException e){
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void writeValue(DataOutputStream out, SemanticPersistentProperty property, Object value) throws IOException {
+		if(value == null){
+			out.writeByte(NULL);
+		}
+		else if(value instanceof Collection && Collection.class.isAssignableFrom(property.getType())){
+			Collection<?> values = (Collection<?>) value;
+			out.writeByte(COLLECTION);
+			writeSize(out, values.size());
+			for(Object element : values){
+				writeScalar(out, property, element);
+			}
+		}
+		else{
+			writeScalar(out, property, value);
+		}
+	}
+
+	private void writeScalar(DataOutputStream out, SemanticPersistentProperty property, Object value) throws IOException {
+		Class<?> type = value == null ? null : value.getClass();
+		if(type == null){
+			out.writeByte(NULL);
+		}
+		else if(type == String.class){
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		}
+		else if(type == Integer.class){
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if(type == Long.class){
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if(type == Double.class){
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if(type == Float.class){
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if(type == Boolean.class){
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if(type == Short.class){
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		}
+		else if(type == Byte.class){
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if(type == Character.class){
+			out.writeByte(CHARACTER);
+			out.writeChar((Character) value);
+		}
+		else if(type == Date.class){
+			out.writeByte(DATE);
+			out.writeLong(((Date) value).getTime());
+		}
+		else if(value instanceof IRI){
+			out.writeByte(IRI_VALUE);
+			writeString(out, ((IRI) value).stringValue());
+		}
+		else if(value instanceof Enum && property.getActualType() == ((Enum<?>) value).getDeclaringClass()){
+			out.writeByte(ENUM);
+			writeString(out, ((Enum<?>) value).name());
+		}
+		else if(type == BigInteger.class){
+			out.writeByte(BIG_INTEGER);
+			writeString(out, value.toString());
+		}
+		else if(type == BigDecimal.class){
+			out.writeByte(BIG_DECIMAL);
+			writeString(out, value.toString());
+		}
+		else if(value instanceof Serializable){
+			byte[] serialized;
+			try{
+				serialized = SerializationUtils.serialize(value);
+			} catch(IllegalArgumentException e){
+				throw new UnsupportedValueException(type);
+			}
+			out.writeByte(OBJECT);
+			writeSize(out, serialized.length);
+			out.write(serialized);
+		}
+		else{
+			throw new UnsupportedValueException(type);
+		}
+	}
+
+	private Object readValue(DataInputStream in, byte tag, SemanticPersistentProperty property) throws IOException {
+		if(tag == COLLECTION){
+			int size = readSize(in);
+			Collection<Object> values = CollectionFactory.createCollection(property.getType(), size);
+			for(int i = 0; i < size; i++){
+				values.add(readScalar(in, in.readByte(), property));
+			}
+			return values;
+		}
+		return readScalar(in, tag, property);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readScalar(DataInputStream in, byte tag, SemanticPersistentProperty property) throws IOException {
+		switch(tag){
+		case NULL:
+			return null;
+		case STRING:
+			return readString(in);
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case DOUBLE:
+			return in.readDouble();
+		case FLOAT:
+			return in.readFloat();
+		case BOOLEAN:
+			return in.readBoolean();
+		case SHORT:
+			return in.readShort();
+		case BYTE:
+			return in.readByte();
+		case CHARACTER:
+			return in.readChar();
+		case DATE:
+			return new Date(in.readLong());
+		case IRI_VALUE:
+			return VALUE_FACTORY.createIRI(readString(in));
+		case ENUM:
+			return Enum.valueOf((Class<? extends Enum>) property.getActualType(), readString(in));
+		case BIG_INTEGER:
+			return new BigInteger(readString(in));
+		case BIG_DECIMAL:
+			return new BigDecimal(readString(in));
+		case OBJECT:
+			byte[] serialized = new byte[readSize(in)];
+			in.readFully(serialized);
+			return SerializationUtils.deserialize(serialized);
+		default:
+			throw new IOException("Unknown value tag "+tag+" of "+property);
+		}
+	}
+
+	private void writeAssociation(DataOutputStream out, SemanticPersistentProperty association, Object value) throws IOException {
+		if(value == null){
+			out.writeByte(NULL);
+		}
+		else if(value instanceof Collection){
+			//the ids of the proxies are read without loading them
+			Collection<?> values = LazyAssociationList.getTarget((Collection<?>) value);
+			List<IRI> ids = new ArrayList<IRI>(values.size());
+			for(Object element : values){
+				IRI id = element != null ? getId(element) : null;
+				if(id != null){
+					ids.add(id);
+				}
+			}
+			out.writeByte(COLLECTION);
+			writeSize(out, ids.size());
+			for(IRI id : ids){
+				writeString(out, id.stringValue());
+			}
+		}
+		else{
+			IRI id = getId(value);
+			if(id == null){
+				out.writeByte(NULL);
+			}
+			else{
+				out.writeByte(IRI_VALUE);
+				writeString(out, id.stringValue());
+			}
+		}
+	}
+
+	/*
+	 * The associated entities are created as in SemanticEntityConverterImpl: of the declared type and loaded together on first access.
+	 */
+	private Object readAssociation(DataInputStream in, byte tag, SemanticPersistentProperty association, Map<IRI, Object> associated) throws IOException {
+		if(tag == NULL){
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<Object> associatedEntity = (SemanticPersistentEntity<Object>) mappingContext.getPersistentEntity(association.getTypeInformation().getActualType());
+		LazyLoadingBatch batch = lazyLoadingProxyFactory != null ? lazyLoadingProxyFactory.createBatch(association, associatedEntity) : null;
+		if(tag == COLLECTION){
+			int size = readSize(in);
+			List<Object> values = new ArrayList<Object>(size);
+			for(int i = 0; i < size; i++){
+				values.add(getAssociatedEntity(VALUE_FACTORY.createIRI(readString(in)), associatedEntity, batch, associated));
+			}
+			if(association.getType().isAssignableFrom(ArrayList.class)){
+				return batch != null ? lazyLoadingProxyFactory.createList(association, values, batch) : values;
+			}
+			Collection<Object> collection = CollectionFactory.createCollection(association.getType(), size);
+			collection.addAll(values);
+			return collection;
+		}
+		return getAssociatedEntity(VALUE_FACTORY.createIRI(readString(in)), associatedEntity, batch, associated);
+	}
+
+	private Object getAssociatedEntity(IRI id, SemanticPersistentEntity<Object> associatedEntity, LazyLoadingBatch batch, Map<IRI, Object> associated){
+		Object entity = associated.get(id);
+		if(entity == null || !associatedEntity.getType().isInstance(entity)){
+			entity = batch != null ? lazyLoadingProxyFactory.createProxy(associatedEntity, id, batch) : entityInstantiator.createInstance(associatedEntity, id);
+			associated.put(id, entity);
+		}
+		return entity;
+	}
+
+	private IRI getId(Object entity){
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(ClassUtils.getUserClass(entity));
+		return persistentEntity != null ? persistentEntity.getResourceId(entity) : null;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		writeSize(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readSize(in)];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/*
+	 * Variable length, 7 bits per byte.
+	 */
+	private static void writeSize(DataOutputStream out, int size) throws IOException {
+		while((size & ~0x7F) != 0){
+			out.writeByte((size & 0x7F) | 0x80);
+			size >>>= 7;
+		}
+		out.writeByte(size);
+	}
+
+	private static int readSize(DataInputStream in) throws IOException {
+		int size = 0;
+		for(int shift = 0; shift < 32; shift += 7){
+			int b = in.readUnsignedByte();
+			size |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0){
+				return size;
+			}
+		}
+		throw new IOException("Malformed size.");
+	}
+
+	private Layout getLayout(Class<?> clazz){
+		Layout layout = layouts.get(clazz);
+		if(layout == null){
+			layout = new Layout(mappingContext.getPersistentEntity(clazz));
+			Layout existing = layouts.putIfAbsent(clazz, layout);
+			if(existing != null){
+				layout = existing;
+			}
+		}
+		return layout;
+	}
+
+	/**
+	 * The properties of an entity type in the order they are serialized, with a signature telling apart data serialized for other mappings of the type.
+	 */
+	private static class Layout {
+
+		private final SemanticPersistentEntity<?> persistentEntity;
+		private final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+		private final List<SemanticPersistentProperty> associations = new ArrayList<SemanticPersistentProperty>();
+		private final int signature;
+		private volatile boolean unsupportedReported = false;
+
+		private Layout(SemanticPersistentEntity<?> persistentEntity) {
+			this.persistentEntity = persistentEntity;
+			persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithPersistentProperty(SemanticPersistentProperty property) {
+					if(!property.isIdProperty() && !property.isTransient()){
+						properties.add(property);
+					}
+				}
+			});
+			persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+					associations.add(association.getInverse());
+				}
+			});
+			int signature = persistentEntity.getType().getName().hashCode();
+			for(SemanticPersistentProperty property : properties){
+				signature = 31 * signature + property.getName().hashCode();
+			}
+			for(SemanticPersistentProperty association : associations){
+				signature = 31 * signature + association.getName().hashCode() + 1;
+			}
+			this.signature = signature;
+		}
+
+	}
+
+	private static class UnsupportedValueException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private UnsupportedValueException(Class<?> type) {
+			super(type.getName());
+		}
+
+	}
+
+}
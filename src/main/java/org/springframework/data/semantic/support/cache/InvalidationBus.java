@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.cache.InvalidationEvent;
+import org.springframework.data.semantic.cache.InvalidationListener;
+import org.springframework.data.semantic.cache.InvalidationTransport;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Publishes the invalidations of a node over an {@link InvalidationTransport} and applies the invalidations of the other nodes.
+ * The published subjects and types are deduplicated and sent in batches, after a delay or when a batch is full; 
+ * publishing all cached data as stale supersedes the pending subjects and types.
+ *
+ */
+public class InvalidationBus {
+
+	private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+	public static final long DEFAULT_BATCH_DELAY = 100;
+
+	public static final int DEFAULT_MAXIMUM_BATCH_SIZE = 1000;
+
+	private final String origin = UUID.randomUUID().toString();
+	private final InvalidationTransport transport;
+	private final long batchDelay;
+	private final int maximumBatchSize;
+	private final ScheduledExecutorService publisher;
+	private final Object lock = new Object();
+	private Set<IRI> subjects = new LinkedHashSet<IRI>();
+	private Set<IRI> types = new LinkedHashSet<IRI>();
+	private boolean all = false;
+	private boolean scheduled = false;
+	private boolean closed = false;
+
+	/**
+	 * 
+	 * @param transport
+	 * @param receiver - applies the invalidations of the other nodes
+	 */
+	public InvalidationBus(InvalidationTransport transport, InvalidationListener receiver) {
+		this(transport, receiver, DEFAULT_BATCH_DELAY, DEFAULT_MAXIMUM_BATCH_SIZE);
+	}
+
+	/**
+	 * 
+	 * @param transport
+	 * @param receiver - applies the invalidations of the other nodes
+	 * @param batchDelay - the milliseconds for which published invalidations are collected before they are sent
+	 * @param maximumBatchSize - the number of subjects and types after which a batch is sent without waiting for the delay
+	 */
+	public InvalidationBus(InvalidationTransport transport, final InvalidationListener receiver, long batchDelay, int maximumBatchSize) {
+		if(batchDelay < 0){
+			throw new IllegalArgumentException("The batch delay must not be negative: "+batchDelay);
+		}
+		if(maximumBatchSize < 1){
+			throw new IllegalArgumentException("The maximum batch size must be positive: "+maximumBatchSize);
+		}
+		this.transport = transport;
+		this.batchDelay = batchDelay;
+		this.maximumBatchSize = maximumBatchSize;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-invalidation-");
+		threadFactory.setDaemon(true);
+		this.publisher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		transport.start(new InvalidationListener() {
+			@Override
+			public void invalidated(InvalidationEvent event) {
+				if(!origin.equals(event.getOrigin())){
+					try{
+						receiver.invalidated(event);
+					} catch(RuntimeException e){
+						logger.error("Failed to apply "+event, e);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * The id of this node in the published events.
+	 * @return
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * Publish the resources and the rdf:types whose cached data are stale.
+	 * @param subjects
+	 * @param types
+	 */
+	public void publish(Collection<IRI> subjects, Collection<IRI> types) {
+		if(subjects.isEmpty() && types.isEmpty()){
+			return;
+		}
+		boolean full;
+		synchronized (lock) {
+			if(closed){
+				return;
+			}
+			if(!all){
+				this.subjects.addAll(subjects);
+				this.types.addAll(types);
+			}
+			full = this.subjects.size() + this.types.size() >= maximumBatchSize;
+			if(!full){
+				schedule();
+			}
+		}
+		if(full){
+			flush();
+		}
+	}
+
+	/**
+	 * Publish that all cached data are stale.
+	 */
+	public void publishAll() {
+		synchronized (lock) {
+			if(closed){
+				return;
+			}
+			all = true;
+			subjects.clear();
+			types.clear();
+			schedule();
+		}
+	}
+
+	/**
+	 * Send the pending invalidations.
+	 */
+	public void flush() {
+		InvalidationEvent event;
+		synchronized (lock) {
+			if(all){
+				event = InvalidationEvent.all(origin);
+			}
+			else if(!subjects.isEmpty() || !types.isEmpty()){
+				event = new InvalidationEvent(origin, subjects, types);
+			}
+			else{
+				return;
+			}
+			all = false;
+			subjects = new LinkedHashSet<IRI>();
+			types = new LinkedHashSet<IRI>();
+		}
+		try{
+			transport.publish(event);
+		} catch(RuntimeException e){
+			logger.error("Failed to publish "+event, e);
+		}
+	}
+
+	/**
+	 * Send the pending invalidations and close the transport.
+	 */
+	public void close() {
+		synchronized (lock) {
+			if(closed){
+				return;
+			}
+			closed = true;
+		}
+		publisher.shutdownNow();
+		flush();
+		transport.close();
+	}
+
+	private void schedule() {
+		if(!scheduled){
+			scheduled = true;
+			publisher.schedule(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (lock) {
+						scheduled = false;
+					}
+					flush();
+				}
+			}, batchDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+}
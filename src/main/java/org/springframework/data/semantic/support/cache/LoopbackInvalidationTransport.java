@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.data.semantic.cache.InvalidationEvent;
+import org.springframework.data.semantic.cache.InvalidationListener;
+import org.springframework.data.semantic.cache.InvalidationTransport;
+
+/**
+ * In-JVM {@link InvalidationTransport} delivering the events synchronously to the started transports of its group,
+ * e.g. to test several templates sharing a database.
+ *
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+	private final List<LoopbackInvalidationTransport> group;
+	private volatile InvalidationListener listener;
+
+	/**
+	 * Create the first transport of a new group.
+	 */
+	public LoopbackInvalidationTransport() {
+		this.group = new CopyOnWriteArrayList<LoopbackInvalidationTransport>();
+	}
+
+	/**
+	 * Create a transport joining the group of the given one.
+	 * @param peer
+	 */
+	public LoopbackInvalidationTransport(LoopbackInvalidationTransport peer) {
+		this.group = peer.group;
+	}
+
+	@Override
+	public void start(InvalidationListener listener) {
+		this.listener = listener;
+		if(!group.contains(this)){
+			group.add(this);
+		}
+	}
+
+	@Override
+	public void publish(InvalidationEvent event) {
+		for(LoopbackInvalidationTransport transport : group){
+			InvalidationListener listener = transport.listener;
+			if(listener != null){
+				listener.invalidated(event);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		group.remove(this);
+		this.listener = null;
+	}
+
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategy;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.eclipse.rdf4j.query.parser.ParsedGraphQuery;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+
+/**
+ * Cache of the statement molecules of resources, i.e. the statements having the resource as subject, shared by all entity types.
+ * A molecule is kept as an immutable array of statements. Graph queries, whose patterns are matched against resources already bound
+ * by the preceding patterns, are evaluated against the cached molecules, so that any entity type mapped onto a resource is built without
+ * a store round trip. Molecules are invalidated by the subjects of the written statements.
+ *
+ */
+public class MoleculeCache {
+
+	private static final int STRIPES = 16;
+
+	private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+	private volatile List<LruMap<Resource, Statement[]>> stripes;
+	private final AtomicLong epoch = new AtomicLong();
+
+	/**
+	 *
+	 * @param maximumSize - the maximum number of cached molecules, 0 disables the cache
+	 */
+	public MoleculeCache(int maximumSize) {
+		setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Drop the cached molecules and change the maximum number of cached molecules, 0 disables the cache.
+	 * @param maximumSize
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if(maximumSize < 0){
+			throw new IllegalArgumentException("The molecule cache size must not be negative: "+maximumSize);
+		}
+		epoch.incrementAndGet();
+		if(maximumSize == 0){
+			this.stripes = null;
+		}
+		else{
+			List<LruMap<Resource, Statement[]>> stripes = new ArrayList<LruMap<Resource, Statement[]>>(STRIPES);
+			int stripeSize = (maximumSize + STRIPES - 1) / STRIPES;
+			for(int i = 0; i < STRIPES; i++){
+				stripes.add(new LruMap<Resource, Statement[]>(stripeSize));
+			}
+			this.stripes = stripes;
+		}
+	}
+
+	public boolean isEnabled() {
+		return stripes != null;
+	}
+
+	/**
+	 * The number of invalidations so far; molecules read from the store before an invalidation are not cached, see {@link #put(Collection, Model, long)}.
+	 * @return
+	 */
+	public long getEpoch() {
+		return epoch.get();
+	}
+
+	/**
+	 *
+	 * @param resource
+	 * @return the cached statements having the resource as subject or null if the molecule is not cached
+	 */
+	public Statement[] get(Resource resource) {
+		List<LruMap<Resource, Statement[]>> stripes = this.stripes;
+		if(stripes == null){
+			return null;
+		}
+		LruMap<Resource, Statement[]> stripe = getStripe(stripes, resource);
+		synchronized (stripe) {
+			return stripe.get(resource);
+		}
+	}
+
+	/**
+	 * Cache the molecules of the given resources, unless the cache has been invalidated since they were read.
+	 * @param resources - the resources whose molecules have been read
+	 * @param statements - the statements having the resources as subjects
+	 * @param epoch - the {@link #getEpoch()} before the molecules have been read
+	 */
+	public void put(Collection<? extends Resource> resources, Model statements, long epoch) {
+		List<LruMap<Resource, Statement[]>> stripes = this.stripes;
+		if(stripes == null){
+			return;
+		}
+		Map<Resource, List<Statement>> molecules = new HashMap<Resource, List<Statement>>();
+		for(Resource resource : resources){
+			molecules.put(resource, new ArrayList<Statement>());
+		}
+		for(Statement statement : statements){
+			List<Statement> molecule = molecules.get(statement.getSubject());
+			if(molecule != null){
+				molecule.add(statement);
+			}
+		}
+		for(Map.Entry<Resource, List<Statement>> molecule : molecules.entrySet()){
+			LruMap<Resource, Statement[]> stripe = getStripe(stripes, molecule.getKey());
+			synchronized (stripe) {
+				if(this.epoch.get() != epoch){
+					return;
+				}
+				stripe.put(molecule.getKey(), molecule.getValue().toArray(new Statement[molecule.getValue().size()]));
+			}
+		}
+	}
+
+	/**
+	 * Drop the molecules of the subjects of the given statements.
+	 * @param statements
+	 */
+	public void invalidate(Iterable<? extends Statement> statements) {
+		if(isEnabled()){
+			Set<Resource> subjects = new HashSet<Resource>();
+			for(Statement statement : statements){
+				subjects.add(statement.getSubject());
+			}
+			invalidateSubjects(subjects);
+		}
+	}
+
+	/**
+	 * Drop the molecules of the given resources.
+	 * @param subjects
+	 */
+	public void invalidateSubjects(Collection<? extends Resource> subjects) {
+		List<LruMap<Resource, Statement[]>> stripes = this.stripes;
+		if(stripes == null){
+			return;
+		}
+		epoch.incrementAndGet();
+		for(Resource subject : subjects){
+			LruMap<Resource, Statement[]> stripe = getStripe(stripes, subject);
+			synchronized (stripe) {
+				stripe.remove(subject);
+			}
+		}
+	}
+
+	/**
+	 * Drop the molecules having any of the given values as object, e.g. when the incoming statements of resources
+	 * are removed without knowing their subjects.
+	 * @param objects
+	 */
+	public void invalidateReferences(Collection<? extends Value> objects) {
+		List<LruMap<Resource, Statement[]>> stripes = this.stripes;
+		if(stripes == null || objects.isEmpty()){
+			return;
+		}
+		epoch.incrementAndGet();
+		Set<Value> referenced = new HashSet<Value>(objects);
+		for(LruMap<Resource, Statement[]> stripe : stripes){
+			synchronized (stripe) {
+				for(Map.Entry<Resource, Statement[]> molecule : new ArrayList<Map.Entry<Resource, Statement[]>>(stripe.entrySet())){
+					for(Statement statement : molecule.getValue()){
+						if(referenced.contains(statement.getObject())){
+							stripe.remove(molecule.getKey());
+							break;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		List<LruMap<Resource, Statement[]>> stripes = this.stripes;
+		if(stripes == null){
+			return;
+		}
+		epoch.incrementAndGet();
+		for(LruMap<Resource, Statement[]> stripe : stripes){
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * Evaluate a graph query against the cached molecules.
+	 * @param graphQuery
+	 * @param missing - collects the resources whose molecules are required but not cached
+	 * @return the results of the query, or null if they cannot be computed from the cached molecules
+	 */
+	public Model evaluate(String graphQuery, final Set<Resource> missing) {
+		if(!isEnabled()){
+			return null;
+		}
+		ParsedGraphQuery query = QueryParserUtil.parseGraphQuery(QueryLanguage.SPARQL, graphQuery, null);
+		TripleSource tripleSource = new TripleSource() {
+			@Override
+			public ValueFactory getValueFactory() {
+				return VALUE_FACTORY;
+			}
+
+			@Override
+			public CloseableIteration<? extends Statement, QueryEvaluationException> getStatements(Resource subj, IRI pred, Value obj, Resource... contexts) throws QueryEvaluationException {
+				//the molecules neither index the objects nor keep the contexts of the statements
+				if(!(subj instanceof IRI) || contexts.length > 0){
+					throw new MoleculeNotCachedException();
+				}
+				Statement[] molecule = get(subj);
+				if(molecule == null){
+					missing.add(subj);
+					throw new MoleculeNotCachedException();
+				}
+				List<Statement> matching = new ArrayList<Statement>(molecule.length);
+				for(Statement statement : molecule){
+					if((pred == null || pred.equals(statement.getPredicate())) && (obj == null || obj.equals(statement.getObject()))){
+						matching.add(statement);
+					}
+				}
+				return new CloseableIteratorIteration<Statement, QueryEvaluationException>(matching.iterator());
+			}
+		};
+		CloseableIteration<BindingSet, QueryEvaluationException> bindings = null;
+		try{
+			bindings = new StrictEvaluationStrategy(tripleSource, null).evaluate(query.getTupleExpr(), EmptyBindingSet.getInstance());
+			Model results = new LinkedHashModel();
+			while(bindings.hasNext()){
+				BindingSet bindingSet = bindings.next();
+				Value subject = bindingSet.getValue("subject");
+				Value predicate = bindingSet.getValue("predicate");
+				Value object = bindingSet.getValue("object");
+				if(subject instanceof Resource && predicate instanceof IRI && object != null){
+					results.add((Resource) subject, (IRI) predicate, object);
+				}
+			}
+			return results;
+		} catch(QueryEvaluationException e){
+			return null;
+		} finally{
+			if(bindings != null){
+				bindings.close();
+			}
+		}
+	}
+
+	private static LruMap<Resource, Statement[]> getStripe(List<LruMap<Resource, Statement[]>> stripes, Resource resource){
+		int hash = resource.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes.get(hash & (STRIPES - 1));
+	}
+
+	private static class MoleculeNotCachedException extends QueryEvaluationException {
+
+		private static final long serialVersionUID = 1L;
+
+	}
+
+}
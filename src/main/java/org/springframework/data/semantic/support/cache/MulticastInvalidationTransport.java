@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.cache.InvalidationEvent;
+import org.springframework.data.semantic.cache.InvalidationListener;
+import org.springframework.data.semantic.cache.InvalidationTransport;
+
+/**
+ * {@link InvalidationTransport} sending the events as UDP multicast datagrams to the nodes joining the same group and port.
+ * An event is split in datagrams of at most {@value #MAXIMUM_PACKET_SIZE} bytes with the subjects and types as lines of UTF-8 text.
+ * The delivery is best effort: lost datagrams are not resent, so the cached data should also expire, 
+ * see {@link org.springframework.data.semantic.cache.EntityCacheSettings#setExpireAfterWrite(long)}.
+ *
+ */
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+	private static final Logger logger = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+	public static final int MAXIMUM_PACKET_SIZE = 8192;
+
+	public static final int DEFAULT_TIME_TO_LIVE = 1;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+	private static final char ALL = 'A';
+	private static final char SUBJECT = 's';
+	private static final char TYPE = 't';
+
+	private final InetAddress group;
+	private final int port;
+	private int timeToLive = DEFAULT_TIME_TO_LIVE;
+	private volatile MulticastSocket socket;
+	private Thread receiver;
+
+	/**
+	 * 
+	 * @param group - the multicast address, e.g. 239.255.27.1
+	 * @param port
+	 */
+	public MulticastInvalidationTransport(String group, int port) {
+		try{
+			this.group = InetAddress.getByName(group);
+		} catch(UnknownHostException e){
+			throw new IllegalArgumentException("Unknown multicast group: "+group, e);
+		}
+		if(!this.group.isMulticastAddress()){
+			throw new IllegalArgumentException("Not a multicast address: "+group);
+		}
+		this.port = port;
+	}
+
+	/**
+	 * The number of network hops of the datagrams, 1 to stay in the local network.
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(int timeToLive) {
+		if(timeToLive < 0 || timeToLive > 255){
+			throw new IllegalArgumentException("The time to live must be between 0 and 255: "+timeToLive);
+		}
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public synchronized void start(final InvalidationListener listener) {
+		close();
+		final MulticastSocket socket;
+		try{
+			socket = new MulticastSocket(port);
+			socket.setTimeToLive(timeToLive);
+			socket.joinGroup(group);
+		} catch(IOException e){
+			throw new IllegalStateException("Cannot join the multicast group "+group+":"+port, e);
+		}
+		this.socket = socket;
+		this.receiver = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				byte[] buffer = new byte[MAXIMUM_PACKET_SIZE];
+				while(!socket.isClosed()){
+					DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+					try{
+						socket.receive(packet);
+					} catch(IOException e){
+						if(!socket.isClosed()){
+							logger.error(e.getMessage(), e);
+						}
+						continue;
+					}
+					InvalidationEvent event = decode(new String(packet.getData(), packet.getOffset(), packet.getLength(), UTF_8));
+					if(event != null){
+						listener.invalidated(event);
+					}
+				}
+			}
+		}, "semantic-invalidation-receiver");
+		this.receiver.setDaemon(true);
+		this.receiver.start();
+	}
+
+	@Override
+	public void publish(InvalidationEvent event) {
+		MulticastSocket socket = this.socket;
+		if(socket == null){
+			return;
+		}
+		for(byte[] data : encode(event)){
+			try{
+				socket.send(new DatagramPacket(data, data.length, group, port));
+			} catch(IOException e){
+				logger.error("Failed to send "+event, e);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		MulticastSocket socket = this.socket;
+		if(socket != null){
+			this.socket = null;
+			try{
+				socket.leaveGroup(group);
+			} catch(IOException e){
+				logger.warn(e.getMessage(), e);
+			}
+			socket.close();
+			receiver = null;
+		}
+	}
+
+	/*
+	 * The first line of each datagram is the origin; an IRI too long for a datagram turns the event into an invalidation of all cached data.
+	 */
+	static List<byte[]> encode(InvalidationEvent event) {
+		byte[] header = (event.getOrigin() + "\n").getBytes(UTF_8);
+		List<byte[]> packets = new ArrayList<byte[]>();
+		if(!event.isAll()){
+			ByteArrayOutputStream packet = new ByteArrayOutputStream(MAXIMUM_PACKET_SIZE);
+			List<byte[]> lines = new ArrayList<byte[]>(event.getSubjects().size() + event.getTypes().size());
+			for(IRI subject : event.getSubjects()){
+				lines.add((SUBJECT + subject.stringValue() + "\n").getBytes(UTF_8));
+			}
+			for(IRI type : event.getTypes()){
+				lines.add((TYPE + type.stringValue() + "\n").getBytes(UTF_8));
+			}
+			boolean fits = true;
+			for(byte[] line : lines){
+				if(header.length + line.length > MAXIMUM_PACKET_SIZE){
+					fits = false;
+					break;
+				}
+				if(packet.size() + line.length > MAXIMUM_PACKET_SIZE){
+					packets.add(packet.toByteArray());
+					packet.reset();
+				}
+				if(packet.size() == 0){
+					packet.write(header, 0, header.length);
+				}
+				packet.write(line, 0, line.length);
+			}
+			if(fits){
+				if(packet.size() > 0){
+					packets.add(packet.toByteArray());
+				}
+				return packets;
+			}
+			packets.clear();
+		}
+		packets.add((event.getOrigin() + "\n" + ALL + "\n").getBytes(UTF_8));
+		return packets;
+	}
+
+	static InvalidationEvent decode(String packet) {
+		String[] lines = packet.split("\n");
+		if(lines.length < 2 || lines[0].isEmpty()){
+			return null;
+		}
+		List<IRI> subjects = new ArrayList<IRI>();
+		List<IRI> types = new ArrayList<IRI>();
+		try{
+			for(int i = 1; i < lines.length; i++){
+				String line = lines[i];
+				if(line.isEmpty()){
+					continue;
+				}
+				switch(line.charAt(0)){
+				case ALL:
+					return InvalidationEvent.all(lines[0]);
+				case SUBJECT:
+					subjects.add(VALUE_FACTORY.createIRI(line.substring(1)));
+					break;
+				case TYPE:
+					types.add(VALUE_FACTORY.createIRI(line.substring(1)));
+					break;
+				default:
+					logger.warn("Ignoring a malformed invalidation datagram.");
+					return null;
+				}
+			}
+		} catch(IllegalArgumentException e){
+			logger.warn("Ignoring a malformed invalidation datagram.", e);
+			return null;
+		}
+		return new InvalidationEvent(lines[0], subjects, types);
+	}
+
+}
@@ -0,0 +1,477 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.AbstractTupleQueryResultHandler;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Cache of the resources which are not instances of an rdf:type, so that repeated lookups of missing entities do not reach the store.
+ * Besides the resources found missing, optionally keeps a Bloom filter of the instances of each type; a resource which is not in the filter 
+ * is missing without having been looked up.
+ * <p>
+ * A negative answer is kept while the {@link WriteEpochs write epoch} of its type is unchanged, i.e. until entities of the type are
+ * written or a statement of the type is changed, and at most for the time to live, which bounds how long writes which are not
+ * reported to the template, e.g. of other applications to a remote store, go unnoticed. 
+ * <p>
+ * The filters are read from the store in the background, the lookups of a type are not filtered until its filter is read. 
+ * The created instances are added to the filters, see {@link #addInstances(Iterable)}, while the deleted ones stay in them and are looked up;
+ * a filter is read again once it is outdated, once unknown statements have changed, see {@link #invalidateFilters()}, or once its estimated 
+ * false positive rate exceeds {@value #MAXIMUM_FALSE_POSITIVE_RATE}.
+ *
+ */
+public class NegativeCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(NegativeCache.class);
+
+	public static final double MAXIMUM_FALSE_POSITIVE_RATE = 0.05;
+
+	private static final int STRIPES = 16;
+
+	private static final int BITS_PER_INSTANCE = 10;
+
+	private static final int HASHES = 7;
+
+	/*
+	 * A filter has room for as many created instances as it has been read with, before it becomes too imprecise.
+	 */
+	private static final int GROWTH = 2;
+
+	private final SemanticDatabase semanticDB;
+	private final WriteEpochs writeEpochs;
+	private final ConcurrentMap<IRI, MembershipFilter> filters = new ConcurrentHashMap<IRI, MembershipFilter>();
+	private final ConcurrentMap<IRI, FilterRead> filterReads = new ConcurrentHashMap<IRI, FilterRead>();
+	private final AtomicLong filterGeneration = new AtomicLong();
+	private final Object readerLock = new Object();
+	private ExecutorService filterReader;
+	private boolean closed = false;
+	private volatile List<LruMap<MissingKey, Missing>> stripes;
+	private volatile long timeToLive = 0;
+	private volatile boolean membershipFilters = false;
+
+	public NegativeCache(SemanticDatabase semanticDB, WriteEpochs writeEpochs) {
+		this.semanticDB = semanticDB;
+		this.writeEpochs = writeEpochs;
+	}
+
+	/**
+	 * Drop the negative answers and change the settings of the cache.
+	 * @param timeToLive - the milliseconds for which a negative answer is kept, 0 disables the cache
+	 * @param maximumSize - the maximum number of resources remembered as missing
+	 * @param membershipFilters - keep a Bloom filter of the instances of each looked up type
+	 */
+	public void setSettings(long timeToLive, int maximumSize, boolean membershipFilters) {
+		if(timeToLive < 0 || maximumSize < 1){
+			throw new IllegalArgumentException("The time to live of negative answers must not be negative and their maximum number must be positive.");
+		}
+		invalidateFilters();
+		if(timeToLive == 0){
+			this.stripes = null;
+		}
+		else{
+			List<LruMap<MissingKey, Missing>> stripes = new ArrayList<LruMap<MissingKey, Missing>>(STRIPES);
+			int stripeSize = (maximumSize + STRIPES - 1) / STRIPES;
+			for(int i = 0; i < STRIPES; i++){
+				stripes.add(new LruMap<MissingKey, Missing>(stripeSize));
+			}
+			this.stripes = stripes;
+		}
+		this.timeToLive = timeToLive;
+		this.membershipFilters = membershipFilters;
+	}
+
+	public boolean isEnabled() {
+		return stripes != null;
+	}
+
+	/**
+	 * The current write epoch of the given rdf:type; take it before looking up a resource and pass it to {@link #putMissing(IRI, IRI, long)}.
+	 * @param type
+	 * @return
+	 */
+	public long getEpoch(IRI type) {
+		return writeEpochs.getEpoch(type);
+	}
+
+	/**
+	 *
+	 * @param resource
+	 * @param type
+	 * @return true if the resource is known not to be an instance of the type, false if it may be one
+	 */
+	public boolean isMissing(IRI resource, IRI type) {
+		List<LruMap<MissingKey, Missing>> stripes = this.stripes;
+		if(stripes == null){
+			return false;
+		}
+		long epoch = getEpoch(type);
+		long now = System.currentTimeMillis();
+		MissingKey key = new MissingKey(resource, type);
+		LruMap<MissingKey, Missing> stripe = getStripe(stripes, key);
+		synchronized (stripe) {
+			Missing missing = stripe.get(key);
+			if(missing != null){
+				if(missing.epoch == epoch && missing.expires > now){
+					return true;
+				}
+				stripe.remove(key);
+			}
+		}
+		if(membershipFilters){
+			MembershipFilter filter = getFilter(type, now);
+			return filter != null && !filter.mightContain(resource.stringValue());
+		}
+		return false;
+	}
+
+	/**
+	 * Remember that the resource is not an instance of the type.
+	 * @param resource
+	 * @param type
+	 * @param epoch - the {@link #getEpoch(IRI)} of the type before the resource has been looked up
+	 */
+	public void putMissing(IRI resource, IRI type, long epoch) {
+		List<LruMap<MissingKey, Missing>> stripes = this.stripes;
+		if(stripes == null){
+			return;
+		}
+		MissingKey key = new MissingKey(resource, type);
+		LruMap<MissingKey, Missing> stripe = getStripe(stripes, key);
+		synchronized (stripe) {
+			stripe.put(key, new Missing(epoch, System.currentTimeMillis() + timeToLive));
+		}
+	}
+
+	/**
+	 * Add the subjects of the rdf:type statements to the membership filters of their types and supertypes.
+	 * @param statements - the added statements
+	 */
+	public void addInstances(Iterable<? extends Statement> statements) {
+		if(!membershipFilters){
+			return;
+		}
+		for(Statement statement : statements){
+			if(RDF.TYPE.equals(statement.getPredicate()) && statement.getSubject() instanceof IRI){
+				addInstances(Collections.singleton((IRI) statement.getSubject()), writeEpochs.getChangedTypes(Collections.singleton(statement)));
+			}
+		}
+	}
+
+	/**
+	 * Add the resources to the membership filters of the given rdf:types, e.g. when they are written without reporting their statements.
+	 * @param resources
+	 * @param types
+	 */
+	public void addInstances(Collection<IRI> resources, Collection<IRI> types) {
+		if(!membershipFilters){
+			return;
+		}
+		for(IRI type : types){
+			//a filter being read receives the instance before it replaces the current one
+			FilterRead read = filterReads.get(type);
+			MembershipFilter filter = filters.get(type);
+			for(IRI resource : resources){
+				if(read != null){
+					read.add(resource.stringValue());
+				}
+				if(filter != null){
+					filter.add(resource.stringValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stop using the membership filters, e.g. after changes of unknown statements; they are read from the store again when the types are looked up.
+	 */
+	public void invalidateFilters() {
+		filterGeneration.incrementAndGet();
+		filters.clear();
+	}
+
+	public void clear() {
+		invalidateFilters();
+		List<LruMap<MissingKey, Missing>> stripes = this.stripes;
+		if(stripes != null){
+			for(LruMap<MissingKey, Missing> stripe : stripes){
+				synchronized (stripe) {
+					stripe.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stop reading the membership filters.
+	 */
+	public void close() {
+		synchronized (readerLock) {
+			closed = true;
+			if(filterReader != null){
+				filterReader.shutdownNow();
+				filterReader = null;
+			}
+		}
+	}
+
+	/*
+	 * An outdated filter is not used until it has been read again; a filter which has become imprecise is used meanwhile.
+	 */
+	private MembershipFilter getFilter(IRI type, long now){
+		MembershipFilter filter = filters.get(type);
+		if(filter == null || filter.generation != filterGeneration.get() || filter.expires <= now){
+			readFilter(type);
+			return null;
+		}
+		if(filter.isImprecise()){
+			readFilter(type);
+		}
+		return filter;
+	}
+
+	private void readFilter(final IRI type){
+		final FilterRead read = new FilterRead(filterGeneration.get());
+		if(filterReads.putIfAbsent(type, read) != null){
+			return;
+		}
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try{
+					readFilter(type, read);
+				} finally{
+					filterReads.remove(type, read);
+				}
+			}
+		};
+		synchronized (readerLock) {
+			if(!closed){
+				if(filterReader == null){
+					CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-membership-filter-");
+					threadFactory.setDaemon(true);
+					filterReader = Executors.newSingleThreadExecutor(threadFactory);
+				}
+				try{
+					filterReader.execute(task);
+					return;
+				} catch(RejectedExecutionException e){
+					logger.warn("Failed to schedule the membership filter of "+type, e);
+				}
+			}
+		}
+		filterReads.remove(type, read);
+	}
+
+	private void readFilter(IRI type, FilterRead read){
+		final List<String> instances = new ArrayList<String>();
+		try{
+			semanticDB.getQueryResults("SELECT ?s WHERE { ?s a <"+type+"> }", new AbstractTupleQueryResultHandler() {
+				@Override
+				public void handleSolution(BindingSet bindingSet) throws TupleQueryResultHandlerException {
+					Value instance = bindingSet.getValue("s");
+					if(instance instanceof IRI){
+						instances.add(instance.stringValue());
+					}
+				}
+			});
+		} catch(RuntimeException e){
+			logger.error("Failed to read the membership filter of "+type, e);
+			return;
+		}
+		MembershipFilter filter = read.complete(instances, System.currentTimeMillis() + timeToLive);
+		if(read.generation == filterGeneration.get()){
+			filters.put(type, filter);
+		}
+	}
+
+	private static LruMap<MissingKey, Missing> getStripe(List<LruMap<MissingKey, Missing>> stripes, MissingKey key){
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes.get(hash & (STRIPES - 1));
+	}
+
+	private static final class MissingKey {
+
+		private final IRI resource;
+		private final IRI type;
+
+		private MissingKey(IRI resource, IRI type) {
+			this.resource = resource;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * resource.hashCode() + type.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof MissingKey)){
+				return false;
+			}
+			MissingKey other = (MissingKey) obj;
+			return resource.equals(other.resource) && type.equals(other.type);
+		}
+
+	}
+
+	private static final class Missing {
+
+		private final long epoch;
+		private final long expires;
+
+		private Missing(long epoch, long expires) {
+			this.epoch = epoch;
+			this.expires = expires;
+		}
+
+	}
+
+	/*
+	 * The instances added while a filter is read from the store are kept until it is complete.
+	 */
+	private static final class FilterRead {
+
+		private final long generation;
+		private List<String> added = new ArrayList<String>();
+		private MembershipFilter filter;
+
+		private FilterRead(long generation) {
+			this.generation = generation;
+		}
+
+		private synchronized void add(String instance) {
+			if(filter != null){
+				filter.add(instance);
+			}
+			else{
+				added.add(instance);
+			}
+		}
+
+		private synchronized MembershipFilter complete(List<String> instances, long expires) {
+			filter = new MembershipFilter(instances.size() + added.size(), generation, expires);
+			for(String instance : instances){
+				filter.add(instance);
+			}
+			for(String instance : added){
+				filter.add(instance);
+			}
+			added = null;
+			return filter;
+		}
+
+	}
+
+	/*
+	 * A Bloom filter with double hashing, sized so that about 1% of the resources which are not instances pass it once twice the instances it has been read with are added;
+	 * with n of its m bits set, the estimated false positive rate is (n/m)^HASHES.
+	 */
+	private static final class MembershipFilter {
+
+		private final AtomicLongArray words;
+		private final int size;
+		private final AtomicInteger setBits = new AtomicInteger();
+		private final int maximumSetBits;
+		private final long generation;
+		private final long expires;
+
+		private MembershipFilter(int instances, long generation, long expires) {
+			this.size = Math.max(64, GROWTH * instances * BITS_PER_INSTANCE);
+			this.words = new AtomicLongArray((size + 63) >>> 6);
+			this.maximumSetBits = (int) (size * Math.pow(MAXIMUM_FALSE_POSITIVE_RATE, 1.0 / HASHES));
+			this.generation = generation;
+			this.expires = expires;
+		}
+
+		private void add(String instance) {
+			int hash1 = instance.hashCode();
+			int hash2 = secondHash(instance);
+			for(int i = 0; i < HASHES; i++){
+				set(index(hash1 + i * hash2));
+			}
+		}
+
+		private boolean mightContain(String instance) {
+			int hash1 = instance.hashCode();
+			int hash2 = secondHash(instance);
+			for(int i = 0; i < HASHES; i++){
+				int index = index(hash1 + i * hash2);
+				if((words.get(index >>> 6) & (1L << index)) == 0){
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isImprecise() {
+			return setBits.get() > maximumSetBits;
+		}
+
+		private void set(int index) {
+			int word = index >>> 6;
+			long mask = 1L << index;
+			for(;;){
+				long current = words.get(word);
+				if((current & mask) != 0){
+					return;
+				}
+				if(words.compareAndSet(word, current, current | mask)){
+					setBits.incrementAndGet();
+					return;
+				}
+			}
+		}
+
+		private int index(int hash) {
+			return (hash & Integer.MAX_VALUE) % size;
+		}
+
+		private static int secondHash(String instance) {
+			int hash = 0x9747b28c;
+			for(int i = 0; i < instance.length(); i++){
+				hash = (hash ^ instance.charAt(i)) * 0x5bd1e995;
+				hash ^= hash >>> 15;
+			}
+			return hash | 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * Cache of the results of read queries, i.e. the ids of matching entities, counts and aggregates, keyed by the query text.
+ * A cached result is only returned while the {@link WriteEpochs write epoch} of the type it was computed for is unchanged.
+ *
+ */
+public class QueryResultCache {
+
+	private static final int STRIPES = 16;
+
+	private final WriteEpochs writeEpochs;
+	private volatile List<LruMap<String, CachedResult>> stripes;
+
+	/**
+	 *
+	 * @param writeEpochs
+	 * @param maximumSize - the maximum number of cached query results, 0 disables the cache
+	 */
+	public QueryResultCache(WriteEpochs writeEpochs, int maximumSize) {
+		this.writeEpochs = writeEpochs;
+		setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Drop the cached results and change the maximum number of cached results, 0 disables the cache.
+	 * @param maximumSize
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if(maximumSize < 0){
+			throw new IllegalArgumentException("The query cache size must not be negative: "+maximumSize);
+		}
+		if(maximumSize == 0){
+			this.stripes = null;
+		}
+		else{
+			List<LruMap<String, CachedResult>> stripes = new ArrayList<LruMap<String, CachedResult>>(STRIPES);
+			int stripeSize = (maximumSize + STRIPES - 1) / STRIPES;
+			for(int i = 0; i < STRIPES; i++){
+				stripes.add(new LruMap<String, CachedResult>(stripeSize));
+			}
+			this.stripes = stripes;
+		}
+	}
+
+	public boolean isEnabled() {
+		return stripes != null;
+	}
+
+	/**
+	 * The current write epoch of the given rdf:type; take it before running a query and pass it to {@link #put(String, long, Object)}.
+	 * @param type
+	 * @return
+	 */
+	public long getEpoch(IRI type) {
+		return writeEpochs.getEpoch(type);
+	}
+
+	/**
+	 *
+	 * @param query
+	 * @param epoch - the current {@link #getEpoch(IRI)} of the type of the query
+	 * @return the cached result or null if it is not cached or has been computed in an earlier epoch
+	 */
+	public Object get(String query, long epoch) {
+		List<LruMap<String, CachedResult>> stripes = this.stripes;
+		if(stripes == null){
+			return null;
+		}
+		LruMap<String, CachedResult> stripe = getStripe(stripes, query);
+		synchronized (stripe) {
+			CachedResult result = stripe.get(query);
+			if(result == null){
+				return null;
+			}
+			if(result.epoch != epoch){
+				stripe.remove(query);
+				return null;
+			}
+			return result.value;
+		}
+	}
+
+	/**
+	 * Cache the result of a query; results must not be modified once cached.
+	 * @param query
+	 * @param epoch - the {@link #getEpoch(IRI)} of the type of the query before it has been run
+	 * @param value
+	 */
+	public void put(String query, long epoch, Object value) {
+		List<LruMap<String, CachedResult>> stripes = this.stripes;
+		if(stripes == null){
+			return;
+		}
+		LruMap<String, CachedResult> stripe = getStripe(stripes, query);
+		synchronized (stripe) {
+			stripe.put(query, new CachedResult(epoch, value));
+		}
+	}
+
+	public void clear() {
+		List<LruMap<String, CachedResult>> stripes = this.stripes;
+		if(stripes != null){
+			for(LruMap<String, CachedResult> stripe : stripes){
+				synchronized (stripe) {
+					stripe.clear();
+				}
+			}
+		}
+	}
+
+	private static LruMap<String, CachedResult> getStripe(List<LruMap<String, CachedResult>> stripes, String query){
+		int hash = query.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes.get(hash & (STRIPES - 1));
+	}
+
+	private static final class CachedResult {
+
+		private final long epoch;
+		private final Object value;
+
+		private CachedResult(long epoch, Object value) {
+			this.epoch = epoch;
+			this.value = value;
+		}
+
+	}
+
+}
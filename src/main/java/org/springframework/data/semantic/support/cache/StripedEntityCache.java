@@ -0,0 +1,439 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.semantic.annotation.Cached;
+import org.springframework.data.semantic.cache.EntityCacheSettings;
+import org.springframework.data.semantic.cache.EntityLoader;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * In-process {@link EntityCache} with a bounded LRU cache per entity type, named by the fully qualified class name.
+ * Each cache is split in stripes with their own locks, so concurrent reads of different entities rarely contend.
+ * Entities of types cached as snapshots are returned by reference and must be treated as read-only by the callers; the others are kept serialized
+ * by the {@link EntitySerializer} and copied on each hit.
+ *
+ */
+public class StripedEntityCache extends AbstractEntityCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(StripedEntityCache.class);
+
+	private static final int STRIPES = 16;
+
+	private final SemanticMappingContext mappingContext;
+	private final EntityCacheSettings defaults;
+	private final ConcurrentMap<String, TypeCache> caches = new ConcurrentHashMap<String, TypeCache>();
+	private final Object refresherLock = new Object();
+	private volatile EntityLoader loader;
+	private ExecutorService refresher;
+	private boolean closed = false;
+
+	public StripedEntityCache(SemanticMappingContext mappingContext, EntityCacheSettings defaults) {
+		this.mappingContext = mappingContext;
+		this.defaults = defaults;
+		setSerializer(new EntitySerializer(mappingContext, null));
+	}
+
+	/**
+	 * The loader of the entities refreshed after {@link EntityCacheSettings#getRefreshAfterWrite()}; without a loader the entities are not refreshed.
+	 * @param loader
+	 */
+	public void setLoader(EntityLoader loader) {
+		this.loader = loader;
+	}
+
+	@Override
+	public <T> void remove(T entity) {
+		getCache(ClassUtils.getUserClass(entity)).remove(getId(entity).stringValue());
+	}
+
+	@Override
+	public <T> T get(IRI id, Class<? extends T> clazz) {
+		TypeCache cache = getCache(clazz);
+		return toEntity(cache, cache.get(id.stringValue()), clazz);
+	}
+
+	@Override
+	public <T> void put(T entity) {
+		if(entity != null && LazyLoadingProxyFactory.isInitialized(entity)){
+			TypeCache cache = getCache(ClassUtils.getUserClass(entity));
+			Object value = cache.toValue(entity);
+			if(value != null){
+				cache.put(getId(entity).stringValue(), value);
+			}
+		}
+	}
+
+	@Override
+	public <T> Map<IRI, T> getAll(Collection<IRI> ids, Class<? extends T> clazz) {
+		TypeCache cache = getCache(clazz);
+		Map<String, IRI> keys = new HashMap<String, IRI>();
+		for(IRI id : ids){
+			keys.put(id.stringValue(), id);
+		}
+		Map<IRI, T> entities = new HashMap<IRI, T>();
+		for(Map.Entry<String, Object> value : cache.getAll(keys.keySet()).entrySet()){
+			T entity = toEntity(cache, value.getValue(), clazz);
+			if(entity != null){
+				entities.put(keys.get(value.getKey()), entity);
+			}
+		}
+		return entities;
+	}
+
+	@Override
+	public <T> void putAll(Collection<T> entities) {
+		Map<Class<?>, Map<String, Object>> valuesPerType = new HashMap<Class<?>, Map<String, Object>>();
+		for(T entity : entities){
+			if(entity != null && LazyLoadingProxyFactory.isInitialized(entity)){
+				Class<?> type = ClassUtils.getUserClass(entity);
+				Object value = getCache(type).toValue(entity);
+				if(value != null){
+					Map<String, Object> values = valuesPerType.get(type);
+					if(values == null){
+						values = new HashMap<String, Object>();
+						valuesPerType.put(type, values);
+					}
+					values.put(getId(entity).stringValue(), value);
+				}
+			}
+		}
+		for(Map.Entry<Class<?>, Map<String, Object>> values : valuesPerType.entrySet()){
+			getCache(values.getKey()).putAll(values.getValue());
+		}
+	}
+
+	@Override
+	public void evict(Collection<IRI> ids) {
+		for(TypeCache cache : caches.values()){
+			for(IRI id : ids){
+				cache.remove(id.stringValue());
+			}
+		}
+	}
+
+	@Override
+	public <T> void clear(Class<? extends T> clazz) {
+		getCache(clazz).clear();
+	}
+
+	@Override
+	public void clearAll() {
+		for(TypeCache cache : caches.values()){
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Stop the background refreshes.
+	 */
+	public void close() {
+		synchronized (refresherLock) {
+			closed = true;
+			if(refresher != null){
+				refresher.shutdown();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T toEntity(TypeCache cache, Object value, Class<? extends T> clazz){
+		if(value != null){
+			if(!cache.settings.isSnapshots()){
+				value = getSerializer().deserialize((byte[]) value, cache.type);
+				if(value == null){
+					return null;
+				}
+			}
+			if(clazz.isAssignableFrom(value.getClass())){
+				return (T) value;
+			}
+		}
+		return null;
+	}
+
+	private IRI getId(Object entity){
+		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(ClassUtils.getUserClass(entity));
+		return persistentEntity.getResourceId(entity);
+	}
+
+	private TypeCache getCache(Class<?> clazz){
+		TypeCache cache = caches.get(clazz.getName());
+		if(cache == null){
+			cache = new TypeCache(clazz, getSettings(clazz));
+			TypeCache existing = caches.putIfAbsent(clazz.getName(), cache);
+			if(existing != null){
+				cache = existing;
+			}
+		}
+		return cache;
+	}
+
+	private EntityCacheSettings getSettings(Class<?> clazz){
+		Cached cached = AnnotationUtils.findAnnotation(clazz, Cached.class);
+		if(cached == null){
+			return defaults;
+		}
+		return new EntityCacheSettings(
+				cached.maximumSize() < 0 ? defaults.getMaximumSize() : cached.maximumSize(),
+				cached.expireAfterWrite() < 0 ? defaults.getExpireAfterWrite() : cached.expireAfterWrite(),
+				cached.refreshAfterWrite() < 0 ? defaults.getRefreshAfterWrite() : cached.refreshAfterWrite(),
+				cached.snapshots() || defaults.isSnapshots());
+	}
+
+	private void refresh(final TypeCache cache, final String key, final CacheEntry entry){
+		final EntityLoader loader = this.loader;
+		if(loader == null){
+			return;
+		}
+		synchronized (refresherLock) {
+			if(closed){
+				return;
+			}
+			if(refresher == null){
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("semantic-cache-refresh-");
+				threadFactory.setDaemon(true);
+				refresher = Executors.newSingleThreadExecutor(threadFactory);
+			}
+			try{
+				refresher.execute(new Runnable() {
+					@Override
+					public void run() {
+						try{
+							Object entity = loader.load(ValueUtils.createIRI(key), cache.type);
+							cache.replace(key, entry, entity != null ? cache.toValue(entity) : null);
+						} catch(RuntimeException e){
+							logger.error("Refreshing the cached entity "+key+" failed: "+e.getMessage(), e);
+							cache.replace(key, entry, null);
+						}
+					}
+				});
+			} catch(RejectedExecutionException e){
+				entry.refreshing = false;
+			}
+		}
+	}
+
+	private final class TypeCache {
+
+		private final Class<?> type;
+		private final EntityCacheSettings settings;
+		private final Stripe[] stripes = new Stripe[STRIPES];
+
+		private TypeCache(Class<?> type, EntityCacheSettings settings) {
+			this.type = type;
+			this.settings = settings;
+			int stripeSize = (settings.getMaximumSize() + STRIPES - 1) / STRIPES;
+			for(int i = 0; i < STRIPES; i++){
+				stripes[i] = new Stripe(stripeSize);
+			}
+		}
+
+		private Stripe getStripe(String key){
+			int hash = key.hashCode();
+			hash ^= (hash >>> 16);
+			return stripes[hash & (STRIPES - 1)];
+		}
+
+		private Object get(String key){
+			Stripe stripe = getStripe(key);
+			CacheEntry entry;
+			synchronized (stripe) {
+				entry = lookup(stripe, key);
+			}
+			return entry != null ? refreshIfStale(key, entry) : null;
+		}
+
+		/**
+		 * Look up the keys taking the lock of each stripe once.
+		 */
+		private Map<String, Object> getAll(Collection<String> keys){
+			Map<Stripe, List<String>> keysPerStripe = groupByStripe(keys);
+			Map<String, CacheEntry> entries = new HashMap<String, CacheEntry>();
+			for(Map.Entry<Stripe, List<String>> stripeKeys : keysPerStripe.entrySet()){
+				Stripe stripe = stripeKeys.getKey();
+				synchronized (stripe) {
+					for(String key : stripeKeys.getValue()){
+						CacheEntry entry = lookup(stripe, key);
+						if(entry != null){
+							entries.put(key, entry);
+						}
+					}
+				}
+			}
+			Map<String, Object> values = new HashMap<String, Object>();
+			for(Map.Entry<String, CacheEntry> entry : entries.entrySet()){
+				values.put(entry.getKey(), refreshIfStale(entry.getKey(), entry.getValue()));
+			}
+			return values;
+		}
+
+		/**
+		 * Must be called holding the lock of the stripe.
+		 */
+		private CacheEntry lookup(Stripe stripe, String key){
+			CacheEntry entry = stripe.get(key);
+			if(entry != null && settings.getExpireAfterWrite() > 0 && age(entry) >= settings.getExpireAfterWrite()){
+				stripe.remove(key);
+				return null;
+			}
+			return entry;
+		}
+
+		private Object refreshIfStale(String key, CacheEntry entry){
+			if(settings.getRefreshAfterWrite() > 0 && !entry.refreshing && age(entry) >= settings.getRefreshAfterWrite()){
+				boolean refresh;
+				synchronized (entry) {
+					refresh = !entry.refreshing;
+					entry.refreshing = true;
+				}
+				if(refresh){
+					refresh(this, key, entry);
+				}
+			}
+			return entry.value;
+		}
+
+		private long age(CacheEntry entry){
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.written);
+		}
+
+		private Map<Stripe, List<String>> groupByStripe(Collection<String> keys){
+			//the stripes are maps, they are told apart by identity rather than by their contents
+			Map<Stripe, List<String>> keysPerStripe = new IdentityHashMap<Stripe, List<String>>();
+			for(String key : keys){
+				Stripe stripe = getStripe(key);
+				List<String> stripeKeys = keysPerStripe.get(stripe);
+				if(stripeKeys == null){
+					stripeKeys = new ArrayList<String>();
+					keysPerStripe.put(stripe, stripeKeys);
+				}
+				stripeKeys.add(key);
+			}
+			return keysPerStripe;
+		}
+
+		/*
+		 * The lazy properties which have not been loaded are serialized as deferred; a shared snapshot must not load them, so it is cached only when fully loaded.
+		 */
+		private Object toValue(Object entity){
+			if(settings.isSnapshots()){
+				if(!LazyLoadingProxyFactory.isFullyLoaded(entity)){
+					logger.debug("Not caching a snapshot of "+type.getName()+" whose lazy properties have not been loaded.");
+					return null;
+				}
+				return entity;
+			}
+			return getSerializer().serialize(entity);
+		}
+
+		private void put(String key, Object value){
+			Stripe stripe = getStripe(key);
+			synchronized (stripe) {
+				stripe.put(key, new CacheEntry(value));
+			}
+		}
+
+		private void putAll(Map<String, Object> values){
+			for(Map.Entry<Stripe, List<String>> stripeKeys : groupByStripe(values.keySet()).entrySet()){
+				Stripe stripe = stripeKeys.getKey();
+				synchronized (stripe) {
+					for(String key : stripeKeys.getValue()){
+						stripe.put(key, new CacheEntry(values.get(key)));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Replace the refreshed entry, unless it has been replaced or removed in the meantime.
+		 */
+		private void replace(String key, CacheEntry refreshed, Object value){
+			Stripe stripe = getStripe(key);
+			synchronized (stripe) {
+				if(stripe.get(key) == refreshed){
+					if(value != null){
+						stripe.put(key, new CacheEntry(value));
+					}
+					else{
+						stripe.remove(key);
+					}
+				}
+			}
+		}
+
+		private void remove(String key){
+			Stripe stripe = getStripe(key);
+			synchronized (stripe) {
+				stripe.remove(key);
+			}
+		}
+
+		private void clear(){
+			for(Stripe stripe : stripes){
+				synchronized (stripe) {
+					stripe.clear();
+				}
+			}
+		}
+
+	}
+
+	private static final class Stripe extends LruMap<String, CacheEntry> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Stripe(int capacity) {
+			super(capacity);
+		}
+
+	}
+
+	private static final class CacheEntry {
+
+		private final Object value;
+		private final long written = System.nanoTime();
+		private volatile boolean refreshing = false;
+
+		private CacheEntry(Object value) {
+			this.value = value;
+		}
+
+	}
+
+}
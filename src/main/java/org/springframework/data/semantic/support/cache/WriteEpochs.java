@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+
+/**
+ * The write epochs of the rdf:types, against which cached read results are validated. The epoch of a type increases
+ * when entities of the type are written, or statements with the type or a predicate mapped by the type; the global epoch 
+ * increases with writes of unknown statements, see {@link org.springframework.data.semantic.core.DatabaseChangeListener#databaseChanged()}.
+ *
+ */
+public class WriteEpochs {
+
+	private final SemanticMappingContext mappingContext;
+	private final AtomicLong clock = new AtomicLong();
+	private final ConcurrentMap<IRI, Long> typeEpochs = new ConcurrentHashMap<IRI, Long>();
+	private final ConcurrentMap<Class<?>, Set<IRI>> writtenTypes = new ConcurrentHashMap<Class<?>, Set<IRI>>();
+	private volatile TypeIndex typeIndex = new TypeIndex(0);
+	private volatile long globalEpoch = 0;
+
+	public WriteEpochs(SemanticMappingContext mappingContext) {
+		this.mappingContext = mappingContext;
+	}
+
+	/**
+	 * The current epoch of the given rdf:type; take it before reading and compare it with the epoch when the result is used.
+	 * @param type
+	 * @return
+	 */
+	public long getEpoch(IRI type) {
+		Long typeEpoch = typeEpochs.get(type);
+		long globalEpoch = this.globalEpoch;
+		return typeEpoch != null && typeEpoch > globalEpoch ? typeEpoch : globalEpoch;
+	}
+
+	/**
+	 * Increase the epochs of the rdf:types whose read results may change when entities of the given class are written:
+	 * the type of the class and its supertypes, and the types of the associated entities, which may be cascaded or linked with incoming statements.
+	 * @param clazz
+	 */
+	public void invalidate(Class<?> clazz) {
+		for(IRI type : getWrittenTypes(clazz)){
+			typeEpochs.put(type, clock.incrementAndGet());
+		}
+	}
+
+	/**
+	 * Increase the epochs of the rdf:types whose read results may change with the given statements, see {@link #getChangedTypes(Iterable)}.
+	 * @param statements
+	 */
+	public void invalidate(Iterable<? extends Statement> statements) {
+		invalidateTypes(getChangedTypes(statements));
+	}
+	
+	/**
+	 * Increase the epochs of the given rdf:types.
+	 * @param types
+	 */
+	public void invalidateTypes(Collection<IRI> types) {
+		for(IRI type : types){
+			typeEpochs.put(type, clock.incrementAndGet());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param statements
+	 * @return the rdf:types whose read results may change with the given statements: the types of the rdf:type statements,
+	 * with their supertypes, and the types mapping the predicates of the other statements
+	 */
+	public Set<IRI> getChangedTypes(Iterable<? extends Statement> statements) {
+		TypeIndex typeIndex = getTypeIndex();
+		Set<IRI> types = new HashSet<IRI>();
+		for(Statement statement : statements){
+			if(RDF.TYPE.equals(statement.getPredicate())){
+				if(statement.getObject() instanceof IRI){
+					IRI type = (IRI) statement.getObject();
+					Set<IRI> supertypes = typeIndex.supertypes.get(type);
+					if(supertypes != null){
+						types.addAll(supertypes);
+					}
+					types.add(type);
+				}
+			}
+			else{
+				Set<IRI> mappingTypes = typeIndex.typesByPredicate.get(statement.getPredicate());
+				if(mappingTypes != null){
+					types.addAll(mappingTypes);
+				}
+			}
+		}
+		return types;
+	}
+	
+	/**
+	 * Increase the global epoch, invalidating the read results of all types.
+	 */
+	public void invalidateAll() {
+		globalEpoch = clock.incrementAndGet();
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @return the rdf:types invalidated when entities of the given class are written, see {@link #invalidate(Class)}
+	 */
+	public Set<IRI> getWrittenTypes(Class<?> clazz){
+		Set<IRI> types = writtenTypes.get(clazz);
+		if(types == null){
+			types = new LinkedHashSet<IRI>();
+			collectTypes(mappingContext.getPersistentEntity(clazz), types, new LinkedHashSet<Class<?>>());
+			writtenTypes.putIfAbsent(clazz, types);
+		}
+		return types;
+	}
+
+	/*
+	 * Rebuilt when entity types are added to the mapping context.
+	 */
+	private TypeIndex getTypeIndex(){
+		TypeIndex typeIndex = this.typeIndex;
+		int size = mappingContext.getPersistentEntities().size();
+		if(typeIndex.size != size){
+			typeIndex = new TypeIndex(size);
+			for(SemanticPersistentEntity<?> persistentEntity : mappingContext.getPersistentEntities()){
+				typeIndex.add(persistentEntity);
+			}
+			this.typeIndex = typeIndex;
+		}
+		return typeIndex;
+	}
+	
+	private void collectTypes(SemanticPersistentEntity<?> persistentEntity, final Set<IRI> types, final Set<Class<?>> visited){
+		if(!visited.add(persistentEntity.getType())){
+			return;
+		}
+		types.add(persistentEntity.getRDFType());
+		types.addAll(persistentEntity.getRDFSuperTypes());
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				Class<?> associatedType = association.getInverse().getActualType();
+				if(mappingContext.isSemanticPersistentEntity(associatedType)){
+					collectTypes(mappingContext.getPersistentEntity(associatedType), types, visited);
+				}
+			}
+		});
+	}
+	
+	private static final class TypeIndex {
+		
+		private final int size;
+		private final Map<IRI, Set<IRI>> supertypes = new HashMap<IRI, Set<IRI>>();
+		private final Map<IRI, Set<IRI>> typesByPredicate = new HashMap<IRI, Set<IRI>>();
+		
+		private TypeIndex(int size) {
+			this.size = size;
+		}
+		
+		private void add(SemanticPersistentEntity<?> persistentEntity) {
+			final IRI type = persistentEntity.getRDFType();
+			getSet(supertypes, type).addAll(persistentEntity.getRDFSuperTypes());
+			persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithPersistentProperty(SemanticPersistentProperty property) {
+					addPredicates(type, property);
+				}
+			});
+			persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+					addPredicates(type, association.getInverse());
+				}
+			});
+		}
+		
+		private void addPredicates(IRI type, SemanticPersistentProperty property) {
+			if(property.isIdProperty() || property.isTransient() || property.isContext()){
+				return;
+			}
+			getSet(typesByPredicate, property.getPredicate()).add(type);
+			if(property.getInverseProperty() != null){
+				getSet(typesByPredicate, property.getInverseProperty().getPredicate()).add(type);
+			}
+		}
+		
+		private static Set<IRI> getSet(Map<IRI, Set<IRI>> map, IRI key) {
+			Set<IRI> set = map.get(key);
+			if(set == null){
+				set = new HashSet<IRI>();
+				map.put(key, set);
+			}
+			return set;
+		}
+		
+	}
+
+}
@@ -15,18 +15,32 @@
  */
 package org.springframework.data.semantic.support.convert;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Direction;
 import org.springframework.data.semantic.support.MappingPolicyImpl;
 import org.springframework.data.semantic.support.convert.handlers.AbstractPropertiesToQueryHandler;
 import org.springframework.data.semantic.support.convert.handlers.PropertiesToBindingsHandler;
 import org.springframework.data.semantic.support.convert.handlers.PropertiesToPatternsHandler;
+import org.springframework.data.semantic.support.convert.handlers.PropertiesToVariablesHandler;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.util.ValueUtils;
 import org.springframework.util.StringUtils;
@@ -98,13 +112,28 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	public String getGraphQueryForResource(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, MappingPolicy globalMappingPolicy, Boolean originalPredicates){
+		return getGraphQueryForResource(uri, entity, propertyToValue, globalMappingPolicy, originalPredicates, null);
+	}
+	
+	/**
+	 * Create a graph query retrieving the part of the molecule of an entity described by the given fetch plan.
+	 * @param uri - the uri of the entity
+	 * @param entity - the container which holds the information about that entity
+	 * @param fetchPlan - the properties and associations to retrieve; if null the fetch strategies of the mapping apply
+	 * @return
+	 */
+	public String getGraphQueryForResource(IRI uri, SemanticPersistentEntity<?> entity, MappingPolicy globalMappingPolicy, FetchPlan fetchPlan){
+		return getGraphQueryForResource(uri, entity, new HashMap<String, Object>(), globalMappingPolicy, false, fetchPlan);
+	}
+	
+	private String getGraphQueryForResource(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, MappingPolicy globalMappingPolicy, Boolean originalPredicates, FetchPlan fetchPlan){
 		StringBuilder sb = new StringBuilder();
 		
 		sb.append("CONSTRUCT { ");
-		sb.append(getPropertyBindings(uri, entity, propertyToValue, globalMappingPolicy, originalPredicates));
+		sb.append(getPropertyBindings(uri, entity, propertyToValue, globalMappingPolicy, originalPredicates, fetchPlan));
 		sb.append(" }\n");
 		sb.append("WHERE { ");
-		sb.append(getPropertyPatterns(uri, entity, propertyToValue, false, globalMappingPolicy, true));
+		sb.append(getPropertyPatterns(uri, entity, propertyToValue, false, globalMappingPolicy, true, originalPredicates, fetchPlan));
 		sb.append(" }");
 		return sb.toString();
 	}
@@ -123,6 +152,65 @@ public class EntityToQueryConverter {
 		return sb.toString();
 	}
 	
+	/**
+	 * Create a select query computing an aggregate over a property of the entities of a given type, optionally grouped by the values of another property.
+	 * The aggregate is bound to ?value and the group to ?group; groups are ordered by descending aggregate.
+	 * @param entity
+	 * @param propertyToValue - the properties with their required values
+	 * @param function
+	 * @param property - the aggregated property; may be null for {@link AggregateFunction#COUNT}, which then counts the entities
+	 * @param groupByProperty - the property whose values form the groups or null for a single aggregate
+	 * @return
+	 */
+	public String getQueryForResourceAggregate(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, AggregateFunction function, String property, String groupByProperty){
+		StringBuilder sb = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		String aggregated;
+		if(property == null){
+			if(!AggregateFunction.COUNT.equals(function)){
+				throw new IllegalArgumentException("A property is required for aggregate "+function+".");
+			}
+			aggregated = "DISTINCT "+subjectBinding;
+		}
+		else{
+			aggregated = "?aggregated";
+		}
+		sb.append("SELECT ");
+		if(groupByProperty != null){
+			sb.append("?group ");
+		}
+		sb.append("("+function+"("+aggregated+") as ?value) WHERE { "+subjectBinding+" a <"+entity.getRDFType()+"> . ");
+		sb.append(getPropertyPatterns(null, entity, propertyToValue, true, MappingPolicyImpl.ALL_POLICY, false));
+		if(property != null){
+			appendValuePattern(sb, subjectBinding, getMappedProperty(entity, property), "?aggregated");
+		}
+		if(groupByProperty != null){
+			appendValuePattern(sb, subjectBinding, getMappedProperty(entity, groupByProperty), "?group");
+		}
+		sb.append("}");
+		if(groupByProperty != null){
+			sb.append(" GROUP BY ?group ORDER BY DESC(?value)");
+		}
+		return sb.toString();
+	}
+	
+	private SemanticPersistentProperty getMappedProperty(SemanticPersistentEntity<?> entity, String propertyName){
+		SemanticPersistentProperty property = entity.getPersistentProperty(propertyName);
+		if(property == null || property.isIdProperty() || property.isTransient() || property.isContext()){
+			throw new IllegalArgumentException(propertyName+" is not a mapped property of "+entity.getType().getName()+".");
+		}
+		return property;
+	}
+	
+	private void appendValuePattern(StringBuilder sb, String subjectBinding, SemanticPersistentProperty property, String objectBinding){
+		if(property.isAssociation() && Direction.INCOMING.equals(property.getDirection()) && property.getInverseProperty() != null){
+			AbstractPropertiesToQueryHandler.appendPattern(sb, objectBinding, "<"+property.getInverseProperty().getPredicate()+">", subjectBinding);
+		}
+		else{
+			AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<"+property.getPredicate()+">", objectBinding);
+		}
+	}
+	
 	/**
 	 * Create an ask query checking if an entity exists.
 	 * @param resourceId
@@ -149,18 +237,332 @@ public class EntityToQueryConverter {
 	}
 	
 	public String getGraphQueryForEntityClass(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue){
+		return getGraphQueryForEntityClass(entity, propertyToValue, null);
+	}
+	
+	/**
+	 * Create a graph query retrieving the part of the molecules of the entities of the given type, which is described by the given fetch plan.
+	 * @param entity
+	 * @param propertyToValue - the properties with their required values
+	 * @param fetchPlan - the properties and associations to retrieve; if null the fetch strategies of the mapping apply
+	 * @return
+	 */
+	public String getGraphQueryForEntityClass(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, FetchPlan fetchPlan){
 		StringBuilder sb = new StringBuilder();
 		
 		sb.append("CONSTRUCT { ");
-		sb.append(getPropertyBindings(null, entity, propertyToValue, MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(getPropertyBindings(null, entity, propertyToValue, MappingPolicyImpl.ALL_POLICY, false, fetchPlan));
 		sb.append(" }\n");
 		sb.append("WHERE { ");
-		sb.append(getPropertyPatterns(null, entity, propertyToValue, false, MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(getPropertyPatterns(null, entity, propertyToValue, false, MappingPolicyImpl.ALL_POLICY, false, false, fetchPlan));
 		sb.append(" }");
 		
 		return sb.toString();
 	}
 	
+	/**
+	 * Create a graph query retrieving a specific property of the given resources of an entity type. 
+	 * For associations only the links to the associated resources are retrieved.
+	 * @param entity
+	 * @param property
+	 * @param ids
+	 * @return
+	 */
+	public String getGraphQueryForResourcesProperty(SemanticPersistentEntity<?> entity, SemanticPersistentProperty property, Collection<IRI> ids){
+		StringBuilder sb = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		String objectBinding = AbstractPropertiesToQueryHandler.getObjectBinding(subjectBinding, property);
+		SemanticPersistentProperty inverseProperty = property.isAssociation() && Direction.INCOMING.equals(property.getDirection()) ? property.getInverseProperty() : null;
+		
+		sb.append("CONSTRUCT { ");
+		if(inverseProperty != null){
+			AbstractPropertiesToQueryHandler.appendPattern(sb, objectBinding, "<" + inverseProperty.getAliasPredicate() + ">", subjectBinding);
+		}
+		else{
+			AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<" + property.getAliasPredicate() + ">", objectBinding);
+		}
+		sb.append(" }\n");
+		sb.append("WHERE { ");
+		sb.append(getValuesClause(subjectBinding, ids));
+		if(inverseProperty != null){
+			AbstractPropertiesToQueryHandler.appendPattern(sb, objectBinding, "<" + inverseProperty.getPredicate() + ">", subjectBinding);
+		}
+		else if(property.isAssociation() && Direction.BOTH.equals(property.getDirection())){
+			sb.append("{ ");
+			AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<" + property.getPredicate() + ">", objectBinding);
+			sb.append("} UNION { ");
+			AbstractPropertiesToQueryHandler.appendPattern(sb, objectBinding, "<" + property.getPredicate() + ">", subjectBinding);
+			sb.append("} ");
+		}
+		else{
+			AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "<" + property.getPredicate() + ">", objectBinding);
+		}
+		sb.append(" }");
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Create a graph query retrieving the molecules of the given resources of an entity type.
+	 * @param entity
+	 * @param ids
+	 * @return
+	 */
+	public String getGraphQueryForResources(SemanticPersistentEntity<?> entity, Collection<IRI> ids){
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append("CONSTRUCT { ");
+		sb.append(getPropertyBindings(null, entity, new HashMap<String, Object>(), MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(" }\n");
+		sb.append("WHERE { ");
+		sb.append(getValuesClause(getSubjectBinding(null, entity), ids));
+		sb.append(getPropertyPatterns(null, entity, new HashMap<String, Object>(), false, MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(" }");
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Create a graph query retrieving the stored molecules of the given resources of an entity type with their original predicates, 
+	 * i.e. the union of the results of {@link #getGraphQueryForResourceWithOriginalPredicates(IRI, SemanticPersistentEntity, MappingPolicy)} for each resource.
+	 * @param entity
+	 * @param ids
+	 * @param globalMappingPolicy
+	 * @return
+	 */
+	public String getGraphQueryForResourcesWithOriginalPredicates(SemanticPersistentEntity<?> entity, Collection<IRI> ids, MappingPolicy globalMappingPolicy){
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append("CONSTRUCT { ");
+		sb.append(getPropertyBindings(null, entity, new HashMap<String, Object>(), globalMappingPolicy, true));
+		sb.append(" }\n");
+		sb.append("WHERE { ");
+		sb.append(getValuesClause(getSubjectBinding(null, entity), ids));
+		sb.append(getPropertyPatterns(null, entity, new HashMap<String, Object>(), false, globalMappingPolicy, true, true));
+		sb.append(" }");
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Create a graph query retrieving all statements having any of the given resources as subject, regardless of their mapping.
+	 * @param ids
+	 * @return
+	 */
+	public String getGraphQueryForMolecules(Collection<IRI> ids){
+		StringBuilder sb = new StringBuilder();
+		sb.append("CONSTRUCT { ?s ?p ?o }\n");
+		sb.append("WHERE { ");
+		sb.append(getValuesClause("?s", ids));
+		sb.append("?s ?p ?o . }");
+		return sb.toString();
+	}
+	
+	/**
+	 * Create an update replacing the stored values of the properties and associations of an entity with the given statements, without reading them first: 
+	 * the values matched by the WHERE clause are deleted and the statements are inserted in a single operation. 
+	 * The patterns are joined with UNION, instead of OPTIONAL, so that multi-valued properties do not multiply the solutions.
+	 * @param uri - the uri of the entity
+	 * @param entity
+	 * @param statements - the current state of the entity
+	 * @return
+	 */
+	public String getUpdateForResource(IRI uri, SemanticPersistentEntity<?> entity, Model statements){
+		final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+		entity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+				if(!persistentProperty.isIdProperty() && !persistentProperty.isTransient() && !persistentProperty.isContext()){
+					properties.add(persistentProperty);
+				}
+			}
+		});
+		entity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				properties.add(association.getInverse());
+			}
+		});
+		String subjectBinding = getSubjectBinding(uri, entity);
+		StringBuilder deletePatterns = new StringBuilder();
+		//the empty group guarantees a solution, so that the statements are inserted even if there is nothing to delete
+		StringBuilder wherePatterns = new StringBuilder("{ } ");
+		for(int i = 0; i < properties.size(); i++){
+			SemanticPersistentProperty property = properties.get(i);
+			String predicate = "<"+property.getPredicate()+">";
+			if(!Direction.INCOMING.equals(property.getDirection())){
+				appendReplacedPattern(deletePatterns, wherePatterns, subjectBinding, predicate, "?o"+i);
+			}
+			if(!Direction.OUTGOING.equals(property.getDirection())){
+				//the incoming links are written with the predicate of the inverse property, if any
+				String incomingPredicate = property.getInverseProperty() != null ? "<"+property.getInverseProperty().getPredicate()+">" : predicate;
+				appendReplacedPattern(deletePatterns, wherePatterns, "?s"+i, incomingPredicate, subjectBinding);
+			}
+		}
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("DELETE { ");
+		sb.append(deletePatterns);
+		sb.append("}\n");
+		sb.append("INSERT { ");
+		for(Resource context : statements.contexts()){
+			if(context != null){
+				sb.append("GRAPH ");
+				sb.append(NTriplesUtil.toNTriplesString(context));
+				sb.append(" { ");
+			}
+			for(Statement statement : statements.filter(null, null, null, context)){
+				AbstractPropertiesToQueryHandler.appendPattern(sb, NTriplesUtil.toNTriplesString(statement.getSubject()), NTriplesUtil.toNTriplesString(statement.getPredicate()), NTriplesUtil.toNTriplesString(statement.getObject()));
+			}
+			if(context != null){
+				sb.append("} ");
+			}
+		}
+		sb.append("}\n");
+		sb.append("WHERE { ");
+		sb.append(wherePatterns);
+		sb.append("}");
+		return sb.toString();
+	}
+	
+	private static void appendReplacedPattern(StringBuilder deletePatterns, StringBuilder wherePatterns, String subject, String predicate, String object){
+		AbstractPropertiesToQueryHandler.appendPattern(deletePatterns, subject, predicate, object);
+		wherePatterns.append("UNION { ");
+		AbstractPropertiesToQueryHandler.appendPattern(wherePatterns, subject, predicate, object);
+		wherePatterns.append("} ");
+	}
+	
+	/**
+	 * Create a graph query retrieving the molecules of the entities reachable from a resource through one or more hops along an association.
+	 * The hops are expressed as a property path: unbounded traversal uses <code>path+</code>, bounded traversal the alternative of the paths of length 1 to maxDepth.
+	 * The start resource itself is excluded, even if it is reachable through a cycle.
+	 * @param entity - the entity type of the start resource and of the reachable resources
+	 * @param start
+	 * @param property - an association of the entity type to the same entity type
+	 * @param maxDepth - the maximum number of hops; 0 or less for no limit
+	 * @return
+	 */
+	public String getGraphQueryForReachableResources(SemanticPersistentEntity<?> entity, IRI start, SemanticPersistentProperty property, int maxDepth){
+		StringBuilder sb = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		
+		sb.append("CONSTRUCT { ");
+		sb.append(getPropertyBindings(null, entity, new HashMap<String, Object>(), MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(" }\n");
+		sb.append("WHERE { ");
+		AbstractPropertiesToQueryHandler.appendPattern(sb, "<"+start+">", getPropertyPath(property, maxDepth), subjectBinding);
+		sb.append("FILTER ("+subjectBinding+" != <"+start+">) ");
+		sb.append(getPropertyPatterns(null, entity, new HashMap<String, Object>(), false, MappingPolicyImpl.ALL_POLICY, false));
+		sb.append(" }");
+		
+		return sb.toString();
+	}
+	
+	private String getPropertyPath(SemanticPersistentProperty property, int maxDepth){
+		String step;
+		if(Direction.INCOMING.equals(property.getDirection()) && property.getInverseProperty() != null){
+			step = "^<"+property.getInverseProperty().getPredicate()+">";
+		}
+		else if(Direction.BOTH.equals(property.getDirection())){
+			step = "(<"+property.getPredicate()+">|^<"+property.getPredicate()+">)";
+		}
+		else{
+			step = "<"+property.getPredicate()+">";
+		}
+		if(maxDepth <= 0){
+			return step+"+";
+		}
+		//SPARQL 1.1 has no bounded repetition, so each further step is nested as optional: p/(p/(p)?)?
+		String path = step;
+		for(int depth = 1; depth < maxDepth; depth++){
+			path = step+"/("+path+")?";
+		}
+		return "("+path+")";
+	}
+	
+	/**
+	 * Create a select query for all entities of the given type, with one variable per retrievable property. 
+	 * The results are ordered by subject so that the rows of an entity are consecutive.
+	 * @param entity
+	 * @return
+	 */
+	public String getTupleQueryForEntityClass(SemanticPersistentEntity<?> entity){
+		return getTupleQueryForResources(entity, null);
+	}
+	
+	/**
+	 * Create a select query for the entities with the given ids, with one variable per retrievable property.
+	 * @param entity
+	 * @param ids - the ids of the entities; if null all entities of the type are selected
+	 * @return
+	 */
+	public String getTupleQueryForResources(SemanticPersistentEntity<?> entity, Collection<IRI> ids){
+		StringBuilder sb = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		PropertiesToVariablesHandler handler = new PropertiesToVariablesHandler(subjectBinding, this.mappingContext);
+		entity.doWithProperties(handler);
+		entity.doWithAssociations(handler);
+		sb.append("SELECT ");
+		sb.append(subjectBinding);
+		sb.append(handler.getVariables());
+		sb.append(" WHERE { ");
+		if(ids != null){
+			sb.append(getValuesClause(subjectBinding, ids));
+		}
+		AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "a", "<"+entity.getRDFType()+">");
+		sb.append(handler.getPatterns());
+		sb.append("} ORDER BY ");
+		sb.append(subjectBinding);
+		return sb.toString();
+	}
+	
+	/**
+	 * Create a select query for the entities of the given type that fulfill the parameter requirements, with one variable per given property.
+	 * The results are ordered by subject so that the rows of an entity are consecutive.
+	 * @param entity
+	 * @param propertyToValue - the properties with their required values
+	 * @param properties - the names of the properties to select; lazy properties are selected as well
+	 * @return
+	 */
+	public String getTupleQueryForEntityClass(SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, Collection<String> properties){
+		StringBuilder sb = new StringBuilder();
+		StringBuilder patterns = new StringBuilder();
+		String subjectBinding = getSubjectBinding(null, entity);
+		AbstractPropertiesToQueryHandler.appendPattern(patterns, subjectBinding, "a", "<"+entity.getRDFType()+">");
+		PropertiesToPatternsHandler filterHandler = new PropertiesToPatternsHandler(patterns, subjectBinding, propertyToValue, this.mappingContext, false, false, MappingPolicyImpl.ALL_POLICY);
+		for(String propertyName : propertyToValue.keySet()){
+			SemanticPersistentProperty property = entity.getPersistentProperty(propertyName);
+			if(property != null){
+				filterHandler.handlePersistentProperty(property);
+			}
+		}
+		sb.append("SELECT ");
+		sb.append(subjectBinding);
+		if(!properties.isEmpty()){
+			PropertiesToVariablesHandler handler = new PropertiesToVariablesHandler(subjectBinding, this.mappingContext);
+			handler.setIncludeLazyProperties(true);
+			handler.setFetchPlan(new FetchPlan(0, properties.toArray(new String[properties.size()])));
+			entity.doWithProperties(handler);
+			entity.doWithAssociations(handler);
+			sb.append(handler.getVariables());
+			patterns.append(handler.getPatterns());
+		}
+		sb.append(" WHERE { ");
+		sb.append(patterns);
+		sb.append("} ORDER BY ");
+		sb.append(subjectBinding);
+		return sb.toString();
+	}
+	
+	/**
+	 * Get the variable to which the ids of the given entity type are bound in the generated queries.
+	 * @param entity
+	 * @return
+	 */
+	public String getSubjectVariable(SemanticPersistentEntity<?> entity){
+		return entity.getRDFType().getLocalName();
+	}
+	
 	private String getSubjectBinding(IRI uri, SemanticPersistentEntity<?> entity){
 		return uri != null ? "<"+uri+">" : "?"+entity.getRDFType().getLocalName();
 	}
@@ -172,10 +574,15 @@ public class EntityToQueryConverter {
 	 * @return
 	 */
 	protected String getPropertyBindings(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, MappingPolicy globalMappingPolicy, Boolean originalPredicates){
+		return getPropertyBindings(uri, entity, propertyToValue, globalMappingPolicy, originalPredicates, null);
+	}
+	
+	protected String getPropertyBindings(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, MappingPolicy globalMappingPolicy, Boolean originalPredicates, FetchPlan fetchPlan){
 		StringBuilder sb = new StringBuilder();
 		String subjectBinding = getSubjectBinding(uri, entity);
 		AbstractPropertiesToQueryHandler.appendPattern(sb, subjectBinding, "a", "<"+entity.getRDFType()+">");
 		PropertiesToBindingsHandler handler = new PropertiesToBindingsHandler(sb, subjectBinding, propertyToValue, this.mappingContext, globalMappingPolicy, originalPredicates);
+		handler.setFetchPlan(fetchPlan);
 		entity.doWithProperties(handler);
 		entity.doWithAssociations(handler);
 		return sb.toString();
@@ -207,6 +614,14 @@ public class EntityToQueryConverter {
 	}
 	
 	protected String getPropertyPatterns(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, boolean isCount, MappingPolicy globalMappingPolicy, boolean useUnions){
+		return getPropertyPatterns(uri, entity, propertyToValue, isCount, globalMappingPolicy, useUnions, false);
+	}
+	
+	protected String getPropertyPatterns(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, boolean isCount, MappingPolicy globalMappingPolicy, boolean useUnions, boolean includeLazyProperties){
+		return getPropertyPatterns(uri, entity, propertyToValue, isCount, globalMappingPolicy, useUnions, includeLazyProperties, null);
+	}
+	
+	protected String getPropertyPatterns(IRI uri, SemanticPersistentEntity<?> entity, Map<String, Object> propertyToValue, boolean isCount, MappingPolicy globalMappingPolicy, boolean useUnions, boolean includeLazyProperties, FetchPlan fetchPlan){
 		StringBuilder sb = new StringBuilder();
 		/*SemanticPersistentProperty contextP = entity.getContextProperty();
 		if(contextP != null){
@@ -229,11 +644,33 @@ public class EntityToQueryConverter {
             sb.append("} ");
         }
         PropertiesToPatternsHandler handler = new PropertiesToPatternsHandler(sb, binding, propertyToValue, this.mappingContext, isCount, false, globalMappingPolicy, useUnions);
+        handler.setIncludeLazyProperties(includeLazyProperties);
+        handler.setFetchPlan(fetchPlan);
 		entity.doWithProperties(handler);
 		entity.doWithAssociations(handler);
 		return sb.toString();
 	}
 	
+	/**
+	 * Create a VALUES block binding the given variable to each of the given resources
+	 * @param binding
+	 * @param ids
+	 * @return
+	 */
+	protected static String getValuesClause(String binding, Collection<IRI> ids){
+		StringBuilder sb = new StringBuilder();
+		sb.append("VALUES ");
+		sb.append(binding);
+		sb.append(" { ");
+		for(IRI id : ids){
+			sb.append("<");
+			sb.append(id.stringValue());
+			sb.append("> ");
+		}
+		sb.append("} ");
+		return sb.toString();
+	}
+	
 	protected String getVar(int input){
 		int alphabetSize = variableChars.length();
 		int result = input / alphabetSize;
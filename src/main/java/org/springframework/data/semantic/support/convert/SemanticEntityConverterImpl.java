@@ -15,6 +15,7 @@
  */
 package org.springframework.data.semantic.support.convert;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,8 @@ import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
 import org.springframework.data.semantic.convert.state.EntityState;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.mapping.MappingPolicy;
@@ -40,6 +43,9 @@ import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 import org.springframework.data.semantic.support.Cascade;
 import org.springframework.data.semantic.support.Direction;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingBatch;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
 import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.mapping.SemanticPersistentEntityImpl;
@@ -59,16 +65,27 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 	private final SemanticSourceStateTransmitter sourceStateTransmitter;
 	private final EntityToStatementsConverter toStatementsConverter;
 	private final SemanticDatabase semanticDatabase;
+	private final LazyLoadingProxyFactory lazyLoadingProxyFactory;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
 	
 	
 	
 	public SemanticEntityConverterImpl(SemanticMappingContext mappingContext, ConversionService conversionService, SemanticEntityInstantiator entityInstantiator, SemanticSourceStateTransmitter sourceStateTransmitter, EntityToStatementsConverter toStatementsConverter, SemanticDatabase semanticDatabase){
+		this(mappingContext, conversionService, entityInstantiator, sourceStateTransmitter, toStatementsConverter, semanticDatabase, null);
+	}
+	
+	/**
+	 * 
+	 * @param lazyLoadingProxyFactory - creates the proxies of associations which are not eagerly fetched; if null such associations hold only their id
+	 */
+	public SemanticEntityConverterImpl(SemanticMappingContext mappingContext, ConversionService conversionService, SemanticEntityInstantiator entityInstantiator, SemanticSourceStateTransmitter sourceStateTransmitter, EntityToStatementsConverter toStatementsConverter, SemanticDatabase semanticDatabase, LazyLoadingProxyFactory lazyLoadingProxyFactory){
 		this.mappingContext = mappingContext;
 		this.conversionService = conversionService;
 		this.entityInstantiator = entityInstantiator;
 		this.sourceStateTransmitter = sourceStateTransmitter;
 		this.toStatementsConverter = toStatementsConverter;
 		this.semanticDatabase = semanticDatabase;
+		this.lazyLoadingProxyFactory = lazyLoadingProxyFactory;
 	}
 
 	@Override
@@ -83,11 +100,40 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 
 	@Override
 	public <R> R read(Class<R> type, RDFState source) {
-		
+		return read(type, source, new EntityIdentityMap());
+	}
+	
+	@Override
+	public <R> R read(Class<R> type, RDFState source, EntityIdentityMap identityMap) {
+		return read(type, source, identityMap, null);
+	}
+	
+	@Override
+	public <R> R read(Class<R> type, RDFState source, EntityIdentityMap identityMap, FetchPlan fetchPlan) {
 		@SuppressWarnings("unchecked")
 		final SemanticPersistentEntityImpl<R> persistentEntity = (SemanticPersistentEntityImpl<R>) mappingContext.getPersistentEntity(type);
 		R dao = entityInstantiator.createInstanceFromState(persistentEntity, source);
-		loadEntity(dao, source, persistentEntity.getMappingPolicy(), persistentEntity);
+		IRI id = persistentEntity.getResourceId(dao);
+		if(id != null){
+			R existing = identityMap.get(id, type);
+			if(existing != null){
+				if(identityMap.isLoaded(id, type)){
+					return existing;
+				}
+				dao = existing;
+			}
+			else{
+				if(lazyLoadingProxyFactory != null && lazyLoadingProxyFactory.hasDeferredProperties(persistentEntity, fetchPlan)){
+					dao = lazyLoadingProxyFactory.createProxy(persistentEntity, id, null, identityMap, fetchPlan);
+				}
+				identityMap.put(id, type, dao);
+			}
+			identityMap.markLoaded(id, type);
+			LazyLoadingProxyFactory.markInitialized(dao);
+		}
+		final BeanWrapper<R> wrapper = BeanWrapper.<R>create(dao, conversionService);
+		sourceStateTransmitter.copyPropertiesFrom(wrapper, source, persistentEntity, persistentEntity.getMappingPolicy(), fetchPlan);
+		cascadeFetch(dao, persistentEntity, wrapper, source, identityMap, fetchPlan);
 		return dao;
 	}
 
@@ -108,95 +154,150 @@ public class SemanticEntityConverterImpl implements SemanticEntityConverter {
 		state.persist();
 	}
 	
+	/**
+	 * The cache of resource molecules to invalidate with the written statements, see {@link MoleculeCache}.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
 	@Override
 	public void write(Map<Object, RDFState> objectsAndState) {
 		RDFState mergedModel = new RDFState();
 		for(Entry<Object, RDFState> entry : objectsAndState.entrySet()){
 			try{
-				Object source = entry.getKey();
-				RDFState dbStatements = entry.getValue();
-				final SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(source.getClass());
-				final BeanWrapper<Object> wrapper = BeanWrapper.<Object>create(source, conversionService);
-		        RDFState currentState = toStatementsConverter.convertEntityToStatements(persistentEntity, source);
-				if (dbStatements != null && !dbStatements.isEmpty()) {
-					//TODO optimize conversion of alias statements to actual statements
-					//Object dbObject = read(source.getClass(), dbStatements);
-					//RDFState dbState = toStatementsConverter.convertEntityToStatements(persistentEntity, dbObject);
-					//dbState.getCurrentStatements().removeAll(currentState.getCurrentStatements());
-					dbStatements.getCurrentStatements().removeAll(currentState.getCurrentStatements());
-		        	currentState.setDeleteStatements(dbStatements.getCurrentStatements());
-		        }
-				EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(wrapper, currentState);
-				mergedModel.merge(state.getPersistentState());
+				mergedModel.merge(getPersistentState(entry.getKey(), entry.getValue()));
 			} catch(RequiredPropertyException e){
 				logger.error(e.getMessage(), e);
 			}
 		}
 		semanticDatabase.removeStatements(mergedModel.getDeleteStatements());
 		semanticDatabase.addStatements(mergedModel.getCurrentStatements());
+		moleculeCache.invalidate(mergedModel.getDeleteStatements());
+		moleculeCache.invalidate(mergedModel.getCurrentStatements());
+	}
+
+	@Override
+	public RDFState getPersistentState(Object source, RDFState dbStatements) {
+		final SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(source.getClass());
+		final BeanWrapper<Object> wrapper = BeanWrapper.<Object>create(source, conversionService);
+		RDFState currentState = toStatementsConverter.convertEntityToStatements(persistentEntity, source);
+		if (dbStatements != null && !dbStatements.isEmpty()) {
+			//TODO optimize conversion of alias statements to actual statements
+			//Object dbObject = read(source.getClass(), dbStatements);
+			//RDFState dbState = toStatementsConverter.convertEntityToStatements(persistentEntity, dbObject);
+			//dbState.getCurrentStatements().removeAll(currentState.getCurrentStatements());
+			dbStatements.getCurrentStatements().removeAll(currentState.getCurrentStatements());
+			currentState.setDeleteStatements(dbStatements.getCurrentStatements());
+		}
+		EntityState<Object, RDFState> state = sourceStateTransmitter.copyPropertiesTo(wrapper, currentState);
+		return state.getPersistentState();
 	}
 
 	@Override
 	public <R> R loadEntity(R entity, RDFState source,
 			MappingPolicy mappingPolicy,
 			SemanticPersistentEntity<R> persistentEntity) {
+		return loadEntity(entity, source, mappingPolicy, persistentEntity, new EntityIdentityMap());
+	}
+	
+	@Override
+	public <R> R loadEntity(R entity, RDFState source,
+			MappingPolicy mappingPolicy,
+			SemanticPersistentEntity<R> persistentEntity, EntityIdentityMap identityMap) {
 		
 		final BeanWrapper<R> wrapper = BeanWrapper.<R>create(entity, conversionService);
         sourceStateTransmitter.copyPropertiesFrom(wrapper, source, persistentEntity, mappingPolicy);
-        cascadeFetch(entity, persistentEntity, wrapper, source);
+        cascadeFetch(entity, persistentEntity, wrapper, source, identityMap, null);
         
         return entity;
 	}
 	
-	private <R> void cascadeFetch(final R entity, final SemanticPersistentEntity<R> persistentEntity, final BeanWrapper<R> wrapper, final RDFState source) {
+	@Override
+	public <R> void loadProperty(R entity, RDFState source, SemanticPersistentProperty property, SemanticPersistentEntity<R> persistentEntity, EntityIdentityMap identityMap) {
+		final BeanWrapper<R> wrapper = BeanWrapper.<R>create(entity, conversionService);
+		if(property.isAssociation()){
+			fetchAssociation(entity, persistentEntity, wrapper, source, identityMap, property, false, null);
+		}
+		else{
+			sourceStateTransmitter.copyPropertyFrom(wrapper, source, property, persistentEntity.getMappingPolicy());
+		}
+	}
+	
+	private <R> void cascadeFetch(final R entity, final SemanticPersistentEntity<R> persistentEntity, final BeanWrapper<R> wrapper, final RDFState source, final EntityIdentityMap identityMap, final FetchPlan fetchPlan) {
 		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
             @Override
             public void doWithAssociation(Association<SemanticPersistentProperty> association) {
                 final SemanticPersistentProperty property = association.getInverse();
-                // MappingPolicy mappingPolicy = policy.combineWith(property.getMappingPolicy());
-                final MappingPolicy mappingPolicy = property.getMappingPolicy();
-                @SuppressWarnings("unchecked")
-				SemanticPersistentEntity<Object> associatedPersistentEntity = (SemanticPersistentEntity<Object>) mappingContext.getPersistentEntity(property.getTypeInformation().getActualType());
-            	Set<? extends Value> associatedEntityIds;
-            	if(Direction.INCOMING.equals(property.getDirection())){
-            		associatedEntityIds = source.getCurrentStatements().filter(null, ValueUtils.createIRI(property.getInverseProperty().getAliasPredicate()), persistentEntity.getResourceId(entity)).subjects();
-            	}
-            	else{
-            		associatedEntityIds = source.getCurrentStatements().filter(persistentEntity.getResourceId(entity), ValueUtils.createIRI(property.getAliasPredicate()), null).objects();
-            	}
-            	if (property.getTypeInformation().isCollectionLike()) {
-            		List<Object> associationValuesList = new LinkedList<Object>();
-            		for(Value associatedEntityId : associatedEntityIds){
-                		if(associatedEntityId instanceof IRI){
-                			IRI associatedEntityIRI = (IRI) associatedEntityId;
-                			Object associatedEntity = entityInstantiator.createInstance(associatedPersistentEntity, (IRI) associatedEntityId);
-                			associationValuesList.add(associatedEntity);
-                			if (mappingPolicy.shouldCascade(Cascade.GET)) {
-                                RDFState associatedEntityState = new RDFState(source.getCurrentStatements().filter(associatedEntityIRI, null, null));
-                                final BeanWrapper<Object> associatedWrapper = BeanWrapper.<Object>create(associatedEntity, conversionService);
-                                sourceStateTransmitter.copyPropertiesFrom(associatedWrapper, associatedEntityState, associatedPersistentEntity, mappingPolicy);
-                                cascadeFetch(associatedEntity, associatedPersistentEntity, associatedWrapper, source);
-                            }
-                		}
-                	}
-            		sourceStateTransmitter.setProperty(wrapper, property, associationValuesList);
-            	}
-            	else{
-            		if(!associatedEntityIds.isEmpty()){
-            			IRI associatedEntityIRI = (IRI) associatedEntityIds.iterator().next();
-            			Object associatedEntity = entityInstantiator.createInstance(associatedPersistentEntity, associatedEntityIRI);
-            			if (mappingPolicy.shouldCascade(Cascade.GET)) {
-            				 RDFState associatedEntityState = new RDFState(source.getCurrentStatements().filter(associatedEntityIRI, null, null));
-                             final BeanWrapper<Object> associatedWrapper = BeanWrapper.<Object>create(associatedEntity, conversionService);
-                             sourceStateTransmitter.copyPropertiesFrom(associatedWrapper, associatedEntityState, associatedPersistentEntity, mappingPolicy);
-                             cascadeFetch(associatedEntity, associatedPersistentEntity, associatedWrapper, source);
-                        }
-            			sourceStateTransmitter.setProperty(wrapper, property, associatedEntity);
-            			
-            		}
-            	}
+                if(fetchPlan == null){
+                	fetchAssociation(entity, persistentEntity, wrapper, source, identityMap, property, property.getMappingPolicy().shouldCascade(Cascade.GET), null);
+                }
+                //associations left out by the fetch plan are loaded on first access
+                else if(fetchPlan.includes(property)){
+                	fetchAssociation(entity, persistentEntity, wrapper, source, identityMap, property, fetchPlan.fetches(property), fetchPlan.getAssociationPlan(property));
+                }
             }
         });
 	}
+	
+	private <R> void fetchAssociation(R entity, SemanticPersistentEntity<R> persistentEntity, BeanWrapper<R> wrapper, RDFState source, EntityIdentityMap identityMap, SemanticPersistentProperty property, boolean cascade, FetchPlan associationPlan) {
+		// MappingPolicy mappingPolicy = policy.combineWith(property.getMappingPolicy());
+		final MappingPolicy mappingPolicy = property.getMappingPolicy();
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<Object> associatedPersistentEntity = (SemanticPersistentEntity<Object>) mappingContext.getPersistentEntity(property.getTypeInformation().getActualType());
+		Set<? extends Value> associatedEntityIds;
+		if(Direction.INCOMING.equals(property.getDirection())){
+			associatedEntityIds = source.getCurrentStatements().filter(null, ValueUtils.createIRI(property.getInverseProperty().getAliasPredicate()), persistentEntity.getResourceId(entity)).subjects();
+		}
+		else{
+			associatedEntityIds = source.getCurrentStatements().filter(persistentEntity.getResourceId(entity), ValueUtils.createIRI(property.getAliasPredicate()), null).objects();
+		}
+		LazyLoadingBatch batch = null;
+		if(lazyLoadingProxyFactory != null && !cascade && !associatedEntityIds.isEmpty()){
+			batch = lazyLoadingProxyFactory.getBatch(property, associatedPersistentEntity, identityMap);
+		}
+		if (property.getTypeInformation().isCollectionLike()) {
+			List<Object> associationValuesList = batch != null ? new ArrayList<Object>(associatedEntityIds.size()) : new LinkedList<Object>();
+			for(Value associatedEntityId : associatedEntityIds){
+				if(associatedEntityId instanceof IRI){
+					associationValuesList.add(getAssociatedEntity((IRI) associatedEntityId, associatedPersistentEntity, mappingPolicy, cascade, source, identityMap, batch, associationPlan));
+				}
+			}
+			if(batch != null){
+				associationValuesList = lazyLoadingProxyFactory.createList(property, associationValuesList, batch);
+			}
+			sourceStateTransmitter.setProperty(wrapper, property, associationValuesList);
+		}
+		else{
+			if(!associatedEntityIds.isEmpty()){
+				IRI associatedEntityIRI = (IRI) associatedEntityIds.iterator().next();
+				sourceStateTransmitter.setProperty(wrapper, property, getAssociatedEntity(associatedEntityIRI, associatedPersistentEntity, mappingPolicy, cascade, source, identityMap, batch, associationPlan));
+			}
+		}
+	}
+	
+	private Object getAssociatedEntity(IRI associatedEntityIRI, SemanticPersistentEntity<Object> associatedPersistentEntity, MappingPolicy mappingPolicy, boolean cascade, RDFState source, EntityIdentityMap identityMap, LazyLoadingBatch batch, FetchPlan fetchPlan){
+		Class<Object> associatedType = associatedPersistentEntity.getType();
+		Object associatedEntity = identityMap.get(associatedEntityIRI, associatedType);
+		if(associatedEntity == null){
+			if(lazyLoadingProxyFactory != null){
+				associatedEntity = lazyLoadingProxyFactory.createProxy(associatedPersistentEntity, associatedEntityIRI, batch, identityMap, cascade ? fetchPlan : null);
+			}
+			else{
+				associatedEntity = entityInstantiator.createInstance(associatedPersistentEntity, associatedEntityIRI);
+			}
+			identityMap.put(associatedEntityIRI, associatedType, associatedEntity);
+		}
+		if (cascade && !identityMap.isLoaded(associatedEntityIRI, associatedType)) {
+			identityMap.markLoaded(associatedEntityIRI, associatedType);
+			LazyLoadingProxyFactory.markInitialized(associatedEntity);
+			RDFState associatedEntityState = new RDFState(source.getCurrentStatements().filter(associatedEntityIRI, null, null));
+			final BeanWrapper<Object> associatedWrapper = BeanWrapper.<Object>create(associatedEntity, conversionService);
+			sourceStateTransmitter.copyPropertiesFrom(associatedWrapper, associatedEntityState, associatedPersistentEntity, mappingPolicy, fetchPlan);
+			cascadeFetch(associatedEntity, associatedPersistentEntity, associatedWrapper, source, identityMap, fetchPlan);
+		}
+		return associatedEntity;
+	}
 
 }
@@ -19,6 +19,8 @@ import java.util.Map;
 
 import org.springframework.data.semantic.convert.SemanticEntityConverter;
 import org.springframework.data.semantic.convert.SemanticEntityPersister;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 
 public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
@@ -38,6 +40,24 @@ public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
         }
 		return entityConverter.read(type, statements);
 	}
+	
+	@Override
+	public <T> T createEntityFromState(RDFState statements,
+			Class<T> type, EntityIdentityMap identityMap) {
+		if (statements.isEmpty()) {
+            return null;
+        }
+		return entityConverter.read(type, statements, identityMap);
+	}
+	
+	@Override
+	public <T> T createEntityFromState(RDFState statements,
+			Class<T> type, EntityIdentityMap identityMap, FetchPlan fetchPlan) {
+		if (statements.isEmpty()) {
+            return null;
+        }
+		return entityConverter.read(type, statements, identityMap, fetchPlan);
+	}
 
 
 	@Override
@@ -54,5 +74,10 @@ public class SemanticEntityPersisterImpl implements SemanticEntityPersister{
 		entityConverter.write((Map<Object, RDFState>) entitiesToExistingState);
 		return entitiesToExistingState.keySet();
 	}
+	
+	@Override
+	public <T> RDFState getPersistentState(T entity, RDFState existing) {
+		return entityConverter.getPersistentState(entity, existing);
+	}
 
 }
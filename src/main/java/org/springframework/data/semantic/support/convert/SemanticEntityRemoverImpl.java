@@ -23,6 +23,7 @@ import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.support.MappingPolicyImpl;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
 import org.springframework.data.semantic.support.convert.handlers.PropertiesToPatternsHandler;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
@@ -31,6 +32,7 @@ public class SemanticEntityRemoverImpl implements SemanticEntityRemover {
 	private SemanticDatabase semanticDb;
 	private EntityToStatementsConverter toStatementsConverter;
 	private SemanticMappingContext mappingContext;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
 	
 	public SemanticEntityRemoverImpl(SemanticDatabase semanticDb, EntityToStatementsConverter toStatementsConverter, SemanticMappingContext mappingContext) {
 		this.semanticDb = semanticDb;
@@ -38,12 +40,21 @@ public class SemanticEntityRemoverImpl implements SemanticEntityRemover {
 		this.mappingContext = mappingContext;
 	}
 
+	/**
+	 * The cache of resource molecules to invalidate with the written statements, see {@link MoleculeCache}.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+	
 	@Override
 	public <T> void delete(SemanticPersistentEntity<T> persistentEntity,
 			T entity) {
 		
 		RDFState state = this.toStatementsConverter.convertEntityToDeleteStatements(persistentEntity, entity);
 		this.semanticDb.removeStatements(state.getDeleteStatements());
+		moleculeCache.invalidate(state.getDeleteStatements());
 	}
 
 	@Override
@@ -69,6 +80,8 @@ public class SemanticEntityRemoverImpl implements SemanticEntityRemover {
 		sb.append("> }");
 		
 		this.semanticDb.executeUpdateStatement(sb.toString());
+		//the subjects of the deleted statements are not known
+		moleculeCache.clear();
 	}
 	
 	
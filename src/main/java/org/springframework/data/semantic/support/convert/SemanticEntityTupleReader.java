@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.AbstractTupleQueryResultHandler;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.BeanWrapper;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
+import org.springframework.data.semantic.support.convert.handlers.AbstractPropertiesToQueryHandler;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingBatch;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+
+/**
+ * Materializes entities directly from the results of the select queries created by {@link EntityToQueryConverter#getTupleQueryForResources(SemanticPersistentEntity, java.util.Collection)}.
+ * The rows of an entity are expected to be consecutive; the values of each column are written to the corresponding field once all rows of the entity have been read.
+ * Associations are populated with lazy loading proxies, or instances holding only their id if no {@link LazyLoadingProxyFactory} is given, 
+ * shared through the given {@link EntityIdentityMap}.
+ *
+ * @param <T>
+ */
+public class SemanticEntityTupleReader<T> extends AbstractTupleQueryResultHandler {
+	
+	private final SemanticPersistentEntity<T> persistentEntity;
+	private final SemanticMappingContext mappingContext;
+	private final ConversionService conversionService;
+	private final SemanticEntityInstantiator entityInstantiator;
+	private final String subjectVariable;
+	private final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+	private final List<String> variables = new ArrayList<String>();
+	private final List<T> entities = new LinkedList<T>();
+	private final EntityIdentityMap identityMap;
+	private final LazyLoadingProxyFactory lazyLoadingProxyFactory;
+	
+	private IRI currentId;
+	private Object[] currentValues;
+
+	public SemanticEntityTupleReader(SemanticPersistentEntity<T> persistentEntity, String subjectVariable, SemanticMappingContext mappingContext, ConversionService conversionService, SemanticEntityInstantiator entityInstantiator, EntityIdentityMap identityMap) {
+		this(persistentEntity, subjectVariable, mappingContext, conversionService, entityInstantiator, identityMap, null);
+	}
+	
+	public SemanticEntityTupleReader(SemanticPersistentEntity<T> persistentEntity, String subjectVariable, SemanticMappingContext mappingContext, ConversionService conversionService, SemanticEntityInstantiator entityInstantiator, EntityIdentityMap identityMap, LazyLoadingProxyFactory lazyLoadingProxyFactory) {
+		this.persistentEntity = persistentEntity;
+		this.subjectVariable = subjectVariable;
+		this.mappingContext = mappingContext;
+		this.conversionService = conversionService;
+		this.entityInstantiator = entityInstantiator;
+		this.identityMap = identityMap;
+		this.lazyLoadingProxyFactory = lazyLoadingProxyFactory;
+		ColumnCollector collector = new ColumnCollector(mappingContext);
+		persistentEntity.doWithProperties(collector);
+		persistentEntity.doWithAssociations(collector);
+		this.currentValues = new Object[properties.size()];
+	}
+	
+	/**
+	 * Check if an entity type can be materialized from a select query, i.e. it does not eagerly fetch any of its associations.
+	 * @param persistentEntity
+	 * @return
+	 */
+	public static boolean supports(SemanticPersistentEntity<?> persistentEntity){
+		final boolean[] supported = {true};
+		persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+			@Override
+			public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+				if(association.getInverse().getMappingPolicy().shouldCascade(Cascade.GET)){
+					supported[0] = false;
+				}
+			}
+		});
+		return supported[0];
+	}
+
+	@Override
+	public void handleSolution(BindingSet bindingSet) throws TupleQueryResultHandlerException {
+		Value subject = bindingSet.getValue(subjectVariable);
+		if(!(subject instanceof IRI)){
+			return;
+		}
+		if(!subject.equals(currentId)){
+			flush();
+			currentId = (IRI) subject;
+		}
+		for(int i = 0; i < variables.size(); i++){
+			Value value = bindingSet.getValue(variables.get(i));
+			if(value == null){
+				continue;
+			}
+			if(properties.get(i).isCollectionLike()){
+				@SuppressWarnings("unchecked")
+				Set<Value> values = (Set<Value>) currentValues[i];
+				if(values == null){
+					values = new LinkedHashSet<Value>();
+					currentValues[i] = values;
+				}
+				values.add(value);
+			}
+			else if(currentValues[i] == null){
+				currentValues[i] = value;
+			}
+		}
+	}
+
+	@Override
+	public void endQueryResult() throws TupleQueryResultHandlerException {
+		flush();
+	}
+	
+	/**
+	 * 
+	 * @return the entities read so far, in the order of the query results
+	 */
+	public List<T> getEntities() {
+		return entities;
+	}
+	
+	private void flush(){
+		if(currentId == null){
+			return;
+		}
+		Class<T> type = persistentEntity.getType();
+		T entity = identityMap.get(currentId, type);
+		if(entity == null){
+			entity = lazyLoadingProxyFactory != null ? lazyLoadingProxyFactory.createProxy(persistentEntity, currentId, null, identityMap) : entityInstantiator.createInstance(persistentEntity, currentId);
+			identityMap.put(currentId, type, entity);
+		}
+		identityMap.markLoaded(currentId, type);
+		LazyLoadingProxyFactory.markInitialized(entity);
+		BeanWrapper<T> wrapper = BeanWrapper.<T>create(entity, conversionService);
+		for(int i = 0; i < properties.size(); i++){
+			SemanticPersistentProperty property = properties.get(i);
+			Object value = property.isAssociation() ? getAssociationValue(property, currentValues[i]) : getPropertyValue(property, currentValues[i]);
+			if(value != null){
+				setProperty(wrapper, property, value);
+			}
+			currentValues[i] = null;
+		}
+		entities.add(entity);
+		currentId = null;
+	}
+	
+	private Object getPropertyValue(SemanticPersistentProperty property, Object columnValue){
+		if(property.isCollectionLike()){
+			Class<?> componentType = property.getComponentType();
+			List<Object> values = new LinkedList<Object>();
+			if(columnValue != null){
+				if(!conversionService.canConvert(String.class, componentType)){
+					throw new IllegalArgumentException("No converter available for target type "+componentType.getName()+".");
+				}
+				@SuppressWarnings("unchecked")
+				Set<Value> columnValues = (Set<Value>) columnValue;
+				for(Value value : columnValues){
+					values.add(conversionService.convert(value.stringValue(), componentType));
+				}
+			}
+			return values;
+		}
+		return columnValue == null ? null : ((Value) columnValue).stringValue();
+	}
+	
+	private Object getAssociationValue(SemanticPersistentProperty property, Object columnValue){
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<Object> associatedPersistentEntity = (SemanticPersistentEntity<Object>) mappingContext.getPersistentEntity(property.getTypeInformation().getActualType());
+		LazyLoadingBatch batch = null;
+		if(lazyLoadingProxyFactory != null && columnValue != null){
+			batch = lazyLoadingProxyFactory.getBatch(property, associatedPersistentEntity, identityMap);
+		}
+		if(property.isCollectionLike()){
+			List<Object> values = batch != null ? new ArrayList<Object>() : new LinkedList<Object>();
+			if(columnValue != null){
+				@SuppressWarnings("unchecked")
+				Set<Value> columnValues = (Set<Value>) columnValue;
+				for(Value value : columnValues){
+					if(value instanceof IRI){
+						values.add(getAssociatedEntity(associatedPersistentEntity, (IRI) value, batch));
+					}
+				}
+			}
+			if(batch != null){
+				values = lazyLoadingProxyFactory.createList(property, values, batch);
+			}
+			return values;
+		}
+		if(columnValue instanceof IRI){
+			return getAssociatedEntity(associatedPersistentEntity, (IRI) columnValue, batch);
+		}
+		return null;
+	}
+	
+	private Object getAssociatedEntity(SemanticPersistentEntity<Object> associatedPersistentEntity, IRI id, LazyLoadingBatch batch){
+		Object associatedEntity = identityMap.get(id, associatedPersistentEntity.getType());
+		if(associatedEntity == null){
+			associatedEntity = lazyLoadingProxyFactory != null ? lazyLoadingProxyFactory.createProxy(associatedPersistentEntity, id, batch, identityMap) : entityInstantiator.createInstance(associatedPersistentEntity, id);
+			identityMap.put(id, associatedPersistentEntity.getType(), associatedEntity);
+		}
+		return associatedEntity;
+	}
+	
+	private void setProperty(BeanWrapper<T> wrapper, SemanticPersistentProperty property, Object value) {
+		try {
+			wrapper.setProperty(property, value);
+		} catch (Exception e) {
+			throw new MappingException("Setting property " + property.getName()
+					+ " to " + value + " on " + wrapper.getBean(), e);
+		}
+	}
+	
+	private class ColumnCollector extends AbstractPropertiesToQueryHandler implements PropertyHandler<SemanticPersistentProperty>, AssociationHandler<SemanticPersistentProperty> {
+		
+		private final String binding = "?"+subjectVariable;
+		
+		ColumnCollector(SemanticMappingContext mappingContext){
+			super(mappingContext);
+		}
+
+		@Override
+		public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+			addColumn(persistentProperty);
+		}
+
+		@Override
+		public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+			addColumn(association.getInverse());
+		}
+		
+		private void addColumn(SemanticPersistentProperty persistentProperty){
+			if(isRetrivableProperty(persistentProperty)){
+				properties.add(persistentProperty);
+				variables.add(getObjectBinding(binding, persistentProperty).substring(1));
+			}
+		}
+		
+	}
+
+}
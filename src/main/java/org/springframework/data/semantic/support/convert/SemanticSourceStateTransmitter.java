@@ -20,6 +20,7 @@ import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.semantic.convert.state.EntityState;
 import org.springframework.data.semantic.convert.state.EntityStateFactory;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
@@ -53,6 +54,23 @@ public class SemanticSourceStateTransmitter {
 			RDFState source,
 			SemanticPersistentEntity<R> persistentEntity,
 			final MappingPolicy mappingPolicy) {
+		copyPropertiesFrom(wrapper, source, persistentEntity, mappingPolicy, null);
+	}
+	
+	/**
+	 * 
+	 * @param wrapper
+	 * @param source
+	 * @param persistentEntity
+	 * @param mappingPolicy
+	 * @param fetchPlan - the plan the source has been retrieved with; properties left out by it are not copied
+	 */
+	public <R> void copyPropertiesFrom(
+			final BeanWrapper<R> wrapper,
+			RDFState source,
+			SemanticPersistentEntity<R> persistentEntity,
+			final MappingPolicy mappingPolicy,
+			final FetchPlan fetchPlan) {
 		final R entity = wrapper.getBean();
 		final EntityState<R, RDFState> entityState = this.entityStateFactory.getEntityState(entity, false);
 		entityState.setPersistentState(source);
@@ -60,7 +78,8 @@ public class SemanticSourceStateTransmitter {
 			@Override
 			public void doWithPersistentProperty(SemanticPersistentProperty property) {
 				//Id property is populated on entity instantiation; nothing to do with it here
-				if(property.isIdProperty() || property.isContext()) {
+				//lazy properties and properties left out by the fetch plan are populated on first access
+				if(property.isIdProperty() || property.isContext() || property.isLazy() || (fetchPlan != null && !fetchPlan.includes(property))) {
 					return;
 				}
 
@@ -69,6 +88,19 @@ public class SemanticSourceStateTransmitter {
 		});
 	}
 
+	/**
+	 * 
+	 * @param wrapper
+	 * @param source
+	 * @param property
+	 * @param mappingPolicy
+	 */
+	public <R> void copyPropertyFrom(BeanWrapper<R> wrapper, RDFState source, SemanticPersistentProperty property, MappingPolicy mappingPolicy) {
+		final EntityState<R, RDFState> entityState = this.entityStateFactory.getEntityState(wrapper.getBean(), false);
+		entityState.setPersistentState(source);
+		copyEntityStatePropertyValue(property, entityState, wrapper, mappingPolicy.combineWith(property.getMappingPolicy()));
+	}
+
 	private <R> Object copyEntityStatePropertyValue(SemanticPersistentProperty property, EntityState<R, RDFState> state, 	BeanWrapper<R> wrapper,
 			final MappingPolicy mappingPolicy) {
 		final Object value = state.getValue(property, mappingPolicy);
@@ -15,8 +15,11 @@
  */
 package org.springframework.data.semantic.support.convert.access;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.data.mapping.Association;
 import org.springframework.data.mapping.AssociationHandler;
@@ -31,7 +34,7 @@ public class DelegatingFieldAccessorProvider implements FieldAccessorProvider {
 
 	private final DelegatingFieldAccessorFactory delegatingFactory;
 	
-	private final Map<TypeInformation<?>, Map<SemanticPersistentProperty, FieldAccessor>> fieldAccessorCache = new HashMap<TypeInformation<?>, Map<SemanticPersistentProperty,FieldAccessor>>();
+	private final ConcurrentMap<TypeInformation<?>, Map<SemanticPersistentProperty, FieldAccessor>> fieldAccessorCache = new ConcurrentHashMap<TypeInformation<?>, Map<SemanticPersistentProperty,FieldAccessor>>();
 	
 	public DelegatingFieldAccessorProvider(DelegatingFieldAccessorFactory factory){
 		this.delegatingFactory = factory;
@@ -42,8 +45,9 @@ public class DelegatingFieldAccessorProvider implements FieldAccessorProvider {
 			SemanticPersistentEntity<?> entity) {
 		
 		final TypeInformation<?> typeInformation = entity.getTypeInformation();
-		if(fieldAccessorCache.containsKey(typeInformation)){
-			return fieldAccessorCache.get(typeInformation);
+		final Map<SemanticPersistentProperty, FieldAccessor> cached = fieldAccessorCache.get(typeInformation);
+		if(cached != null){
+			return cached;
 		}
 		else{
 			final Map<SemanticPersistentProperty, FieldAccessor> fieldAccessors =  new HashMap<SemanticPersistentProperty, FieldAccessor>();
@@ -67,8 +71,9 @@ public class DelegatingFieldAccessorProvider implements FieldAccessorProvider {
 	                }
 	            }
 	        });
-			fieldAccessorCache.put(typeInformation, fieldAccessors);
-			return fieldAccessors;
+			final Map<SemanticPersistentProperty, FieldAccessor> unmodifiableFieldAccessors = Collections.unmodifiableMap(fieldAccessors);
+			final Map<SemanticPersistentProperty, FieldAccessor> existing = fieldAccessorCache.putIfAbsent(typeInformation, unmodifiableFieldAccessors);
+			return existing != null ? existing : unmodifiableFieldAccessors;
 		}
 	}
 
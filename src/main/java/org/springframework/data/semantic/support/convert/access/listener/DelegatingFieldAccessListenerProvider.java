@@ -15,9 +15,12 @@
  */
 package org.springframework.data.semantic.support.convert.access.listener;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.data.mapping.Association;
 import org.springframework.data.mapping.AssociationHandler;
@@ -31,7 +34,7 @@ import org.springframework.data.util.TypeInformation;
 public class DelegatingFieldAccessListenerProvider implements FieldAccessListenerProvider{
 	
 	private final DelegatingFieldAccessListenerFactory delegatingListenerFactory;
-	private final Map<TypeInformation<?>, Map<SemanticPersistentProperty, List<FieldAccessListener>>> fieldAccessListenerCache = new HashMap<TypeInformation<?>, Map<SemanticPersistentProperty, List<FieldAccessListener>>>();
+	private final ConcurrentMap<TypeInformation<?>, Map<SemanticPersistentProperty, List<FieldAccessListener>>> fieldAccessListenerCache = new ConcurrentHashMap<TypeInformation<?>, Map<SemanticPersistentProperty, List<FieldAccessListener>>>();
 	
 	
 	public DelegatingFieldAccessListenerProvider(DelegatingFieldAccessListenerFactory delegatingListenerFactory){
@@ -41,8 +44,9 @@ public class DelegatingFieldAccessListenerProvider implements FieldAccessListene
 	@Override
 	public Map<SemanticPersistentProperty, List<FieldAccessListener>> provideFieldAccessListeners(SemanticPersistentEntity<?> entity) {
 		final TypeInformation<?> typeInformation = entity.getTypeInformation();
-		if(fieldAccessListenerCache.containsKey(typeInformation)){
-			return fieldAccessListenerCache.get(typeInformation);
+		final Map<SemanticPersistentProperty, List<FieldAccessListener>> cached = fieldAccessListenerCache.get(typeInformation);
+		if(cached != null){
+			return cached;
 		}
 		else{
 			final Map<SemanticPersistentProperty, List<FieldAccessListener>> fieldAccessors =  new HashMap<SemanticPersistentProperty, List<FieldAccessListener>>();
@@ -51,7 +55,7 @@ public class DelegatingFieldAccessListenerProvider implements FieldAccessListene
 	            public void doWithPersistentProperty(SemanticPersistentProperty property) {
 	            	 final List<FieldAccessListener> accessListener = delegatingListenerFactory.forField(property);
 	                 if(accessListener != null){
-	                 	fieldAccessors.put(property, accessListener);
+	                 	fieldAccessors.put(property, Collections.unmodifiableList(accessListener));
 	                 }
 	            }
 			});
@@ -62,12 +66,13 @@ public class DelegatingFieldAccessListenerProvider implements FieldAccessListene
 	                final SemanticPersistentProperty property = association.getInverse();
 	                final List<FieldAccessListener> accessListener = delegatingListenerFactory.forField(property);
 	                if(accessListener != null){
-	                	fieldAccessors.put(property, accessListener);
+	                	fieldAccessors.put(property, Collections.unmodifiableList(accessListener));
 	                }
 	            }
 	        });
-			fieldAccessListenerCache.put(typeInformation, fieldAccessors);
-			return fieldAccessors;
+			final Map<SemanticPersistentProperty, List<FieldAccessListener>> unmodifiableFieldAccessors = Collections.unmodifiableMap(fieldAccessors);
+			final Map<SemanticPersistentProperty, List<FieldAccessListener>> existing = fieldAccessListenerCache.putIfAbsent(typeInformation, unmodifiableFieldAccessors);
+			return existing != null ? existing : unmodifiableFieldAccessors;
 		}
 	}
 
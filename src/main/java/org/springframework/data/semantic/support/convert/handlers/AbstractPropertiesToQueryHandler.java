@@ -17,12 +17,17 @@ package org.springframework.data.semantic.support.convert.handlers;
 
 import org.springframework.data.mapping.AssociationHandler;
 import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.core.FetchPlan;
+import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Cascade;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
 public abstract class AbstractPropertiesToQueryHandler implements PropertyHandler<SemanticPersistentProperty>,  AssociationHandler<SemanticPersistentProperty>{
 
 	protected SemanticMappingContext mappingContext;
+	protected boolean includeLazyProperties = false;
+	protected FetchPlan fetchPlan;
 	
 	public AbstractPropertiesToQueryHandler(SemanticMappingContext mappingContext){
 		this.mappingContext = mappingContext;
@@ -34,15 +39,73 @@ public abstract class AbstractPropertiesToQueryHandler implements PropertyHandle
 	 * @return
 	 */
 	public boolean isRetrivableProperty(SemanticPersistentProperty persistentProperty) {
-		//TODO do not include properties which are to be lazy loaded or are attached (always retrieved from the repository)
+		//TODO do not include properties which are attached (always retrieved from the repository)
 		return 
-				!persistentProperty.isIdProperty() && 
-				!persistentProperty.isTransient() && 
-				!persistentProperty.isContext() /*&&
+				isMappedProperty(persistentProperty) &&
+				!isDeferredProperty(persistentProperty) /*&&
 				persistentProperty.getMappingPolicy().eagerLoad() && 
 				persistentProperty.getMappingPolicy().useDirty()*/;				
 	}
 	
+	/**
+	 * if a SemanticPersistentProperty is stored as statements about the entity
+	 * @param persistentProperty
+	 * @return
+	 */
+	protected boolean isMappedProperty(SemanticPersistentProperty persistentProperty) {
+		return 
+				!persistentProperty.isIdProperty() && 
+				!persistentProperty.isTransient() && 
+				!persistentProperty.isContext();
+	}
+	
+	/**
+	 * if a SemanticPersistentProperty is left out of the query, because it is lazy or not part of the fetch plan
+	 * @param persistentProperty
+	 * @return
+	 */
+	protected boolean isDeferredProperty(SemanticPersistentProperty persistentProperty) {
+		return (!includeLazyProperties && persistentProperty.isLazy()) || (fetchPlan != null && !fetchPlan.includes(persistentProperty));
+	}
+	
+	/**
+	 * if the entities of an association should be retrieved together with the entity
+	 * @param persistentProperty
+	 * @param globalMappingPolicy
+	 * @return
+	 */
+	protected boolean shouldFetch(SemanticPersistentProperty persistentProperty, MappingPolicy globalMappingPolicy) {
+		if(fetchPlan != null){
+			return fetchPlan.fetches(persistentProperty);
+		}
+		return persistentProperty.getMappingPolicy().combineWith(globalMappingPolicy).shouldCascade(Cascade.GET);
+	}
+	
+	/**
+	 * 
+	 * @param persistentProperty
+	 * @return the fetch plan for the entities of the given association
+	 */
+	protected FetchPlan getAssociationPlan(SemanticPersistentProperty persistentProperty) {
+		return fetchPlan != null ? fetchPlan.getAssociationPlan(persistentProperty) : null;
+	}
+	
+	/**
+	 * Include properties marked as lazy, e.g. when retrieving the stored state of an entity for updating or deleting it.
+	 * @param includeLazyProperties
+	 */
+	public void setIncludeLazyProperties(boolean includeLazyProperties) {
+		this.includeLazyProperties = includeLazyProperties;
+	}
+	
+	/**
+	 * Restrict the query to the properties and associations of the given plan, instead of the fetch strategies of the mapping.
+	 * @param fetchPlan - null to use the fetch strategies of the mapping
+	 */
+	public void setFetchPlan(FetchPlan fetchPlan) {
+		this.fetchPlan = fetchPlan;
+	}
+	
 	public static void appendPattern(StringBuilder sb, String subj, String pred, String varName){
 		sb.append(subj);
 		sb.append(" ");
@@ -28,6 +28,8 @@ import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 import org.springframework.data.semantic.support.Cascade;
+import org.springframework.data.semantic.support.convert.lazy.LazyAssociationList;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
 import org.springframework.data.semantic.support.exceptions.RequiredPropertyException;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
@@ -54,6 +56,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 	@Override
 	public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
 		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
+		LazyLoadingProxyFactory.initializeProperty(entity, persistentProperty);
 		Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
 		if(persistentProperty.shallBePersisted() && !persistentProperty.isContext()){
 			if(value != null){
@@ -89,6 +92,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 	public void doWithAssociation(Association<SemanticPersistentProperty> association) {
 		SemanticPersistentProperty persistentProperty = association.getInverse();
 		SemanticPersistentEntity<?> persistentEntity = (SemanticPersistentEntity<?>) persistentProperty.getOwner();
+		LazyLoadingProxyFactory.initializeProperty(entity, persistentProperty);
 		Object value = persistentProperty.getValue(entity, persistentEntity.getMappingPolicy());
 		if(value == null){
 			if(!persistentProperty.isOptional() && !allowEmpty()){
@@ -103,7 +107,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 					associatedEntityInstances = Arrays.asList((Object[]) value);
 				}
 				else{
-					associatedEntityInstances = (Collection<Object>) value;
+					associatedEntityInstances = LazyAssociationList.getTarget((Collection<Object>) value);
 				}
 				if(associatedEntityInstances.isEmpty() && !persistentProperty.isOptional() && !allowEmpty()){
 					throw new RequiredPropertyException(persistentEntity.getIdProperty().getValue(entity, persistentEntity.getMappingPolicy()), persistentProperty);
@@ -112,6 +116,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 					IRI associatedResourceId = associatedEntity.getResourceId(associatedEntityInstance);
 					processAssociationStatement(persistentProperty, associatedResourceId);
 					if(persistentProperty.getMappingPolicy().shouldCascade(Cascade.SAVE) && !statements.getCurrentStatements().subjects().contains(associatedResourceId)){
+						LazyLoadingProxyFactory.initialize(associatedEntityInstance);
 						AbstractPropertiesToStatementsHandlers associationHandler = getInstance(statements, associatedEntityInstance, mappingContext);
 						associatedEntity.doWithProperties(associationHandler);
 						associatedEntity.doWithAssociations(associationHandler);
@@ -123,6 +128,7 @@ public abstract class AbstractPropertiesToStatementsHandlers implements Property
 				IRI associatedResourceId = associatedEntity.getResourceId(value);
 				processAssociationStatement(persistentProperty, associatedResourceId);
 				if(persistentProperty.getMappingPolicy().shouldCascade(Cascade.SAVE) && !statements.getCurrentStatements().subjects().contains(associatedResourceId)){
+					LazyLoadingProxyFactory.initialize(value);
 					AbstractPropertiesToStatementsHandlers associationHandler = getInstance(statements, value, mappingContext);
 					associatedEntity.doWithProperties(associationHandler);
 					associatedEntity.doWithAssociations(associationHandler);
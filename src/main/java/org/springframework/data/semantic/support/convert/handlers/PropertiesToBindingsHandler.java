@@ -27,7 +27,6 @@ import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
-import org.springframework.data.semantic.support.Cascade;
 import org.springframework.data.semantic.support.Direction;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 
@@ -58,6 +57,7 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 		this.depth = depth;
 		this.globalMappingPolicy = globalMappingPolicy;
 		this.originalPredicates = originalPredicates;
+		this.includeLazyProperties = originalPredicates;
 	}
 	
 	@Override
@@ -119,6 +119,9 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 	}
 	
 	private void handleAssociation(SemanticPersistentProperty persistentProperty) {
+		if(isDeferredProperty(persistentProperty)){
+			return;
+		}
 		String associationBinding = getObjectBinding(binding, persistentProperty);
 		Object objectValue = propertyToValue.get(persistentProperty.getName());
 		if(objectValue == null){
@@ -137,10 +140,11 @@ public class PropertiesToBindingsHandler extends AbstractPropertiesToQueryHandle
 			else{
 				appendPattern(sb, binding, "<" + persistentProperty.getAliasPredicate() + ">", associationBinding);
 			}
-			if(persistentProperty.getMappingPolicy().combineWith(globalMappingPolicy).shouldCascade(Cascade.GET)){
+			if(shouldFetch(persistentProperty, globalMappingPolicy)){
 				SemanticPersistentEntity<?> associatedPersistentEntity = mappingContext.getPersistentEntity(persistentProperty.getActualType());
 				appendPattern(sb, associationBinding, "a", "<"+associatedPersistentEntity.getRDFType()+">");
 				PropertiesToBindingsHandler associationHandler = new PropertiesToBindingsHandler(this.sb, associationBinding, new HashMap<String, Object>(), this.mappingContext, ++this.depth, this.globalMappingPolicy, this.originalPredicates);
+				associationHandler.setFetchPlan(getAssociationPlan(persistentProperty));
 				associatedPersistentEntity.doWithProperties(associationHandler);
 				associatedPersistentEntity.doWithAssociations(associationHandler);
 			}
@@ -27,7 +27,6 @@ import org.springframework.data.semantic.convert.ObjectToLiteralConverter;
 import org.springframework.data.semantic.mapping.MappingPolicy;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
-import org.springframework.data.semantic.support.Cascade;
 import org.springframework.data.semantic.support.Direction;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
 import org.springframework.data.semantic.support.util.ValueUtils;
@@ -64,6 +63,7 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 		this.isCount = isCount;
 		this.isDelete = isDelete;
 		this.globalMappingPolicy = globalMappingPolicy;
+		this.includeLazyProperties = isDelete;
 	}
 
 	@Override
@@ -85,6 +85,9 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 		//TODO handle existing value in propertyToValue
 		//handlePersistentProperty(persistentProperty);
 		Object objectValue = this.propertyToValue.get(persistentProperty.getName());
+		if(objectValue == null && isDeferredProperty(persistentProperty)){
+			return;
+		}
 		Boolean optional = persistentProperty.isOptional() && (objectValue == null) && !isDelete;
 		if(optional && isCount){
 			return;
@@ -107,12 +110,14 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
             }
         }
 		handlePersistentProperty(persistentProperty);
-		if(persistentProperty.getMappingPolicy().combineWith(globalMappingPolicy).shouldCascade(Cascade.GET)){
+		if(shouldFetch(persistentProperty, globalMappingPolicy)){
 			SemanticPersistentEntity<?> associatedPersistentEntity = mappingContext.getPersistentEntity(persistentProperty.getActualType());
 			if(objectValue == null){
 				String associationBinding = getObjectBinding(binding, persistentProperty);
 				appendPattern(sb, associationBinding, "<"+ValueUtils.RDF_TYPE_PREDICATE+">", "<"+associatedPersistentEntity.getRDFType()+">");
 				PropertiesToPatternsHandler associationHandler = new PropertiesToPatternsHandler(this.sb, associationBinding, new HashMap<String, Object>(), this.mappingContext, ++this.depth, this.isCount, this.isDelete, globalMappingPolicy);
+				associationHandler.setIncludeLazyProperties(this.includeLazyProperties);
+				associationHandler.setFetchPlan(getAssociationPlan(persistentProperty));
 				associatedPersistentEntity.doWithProperties(associationHandler);
 				associatedPersistentEntity.doWithAssociations(associationHandler);
 			}
@@ -124,8 +129,9 @@ public class PropertiesToPatternsHandler extends AbstractPropertiesToQueryHandle
 	
 	@SuppressWarnings("unchecked")
 	public void handlePersistentProperty(SemanticPersistentProperty persistentProperty) {
-		if(isRetrivableProperty(persistentProperty)){
-			Object objectValue = this.propertyToValue.get(persistentProperty.getName());
+		Object objectValue = this.propertyToValue.get(persistentProperty.getName());
+		//deferred properties are still matched against the values they are filtered by
+		if(isRetrivableProperty(persistentProperty) || (isMappedProperty(persistentProperty) && objectValue != null)){
 			Boolean optional = persistentProperty.isOptional() && (objectValue == null) && !persistentProperty.isAssociation() && !isDelete; //&& !isTransitiveOptional
 			if(optional && isCount){
 				return;
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.handlers;
+
+import org.springframework.data.mapping.Association;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.Direction;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+
+/**
+ * Collects one projection variable per retrievable property of an entity together with the patterns binding it. 
+ * Required single valued properties are joined directly; all other properties are placed in separate UNION branches,
+ * so that multi-valued properties do not multiply each other's rows.
+ * 
+ */
+public class PropertiesToVariablesHandler extends AbstractPropertiesToQueryHandler {
+	
+	private final String binding;
+	private final StringBuilder variables = new StringBuilder();
+	private final StringBuilder requiredPatterns = new StringBuilder();
+	private final StringBuilder optionalPatterns = new StringBuilder();
+
+	public PropertiesToVariablesHandler(String binding, SemanticMappingContext mappingContext) {
+		super(mappingContext);
+		this.binding = binding;
+	}
+
+	@Override
+	public void doWithPersistentProperty(SemanticPersistentProperty persistentProperty) {
+		handlePersistentProperty(persistentProperty);
+	}
+
+	@Override
+	public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+		handlePersistentProperty(association.getInverse());
+	}
+	
+	private void handlePersistentProperty(SemanticPersistentProperty persistentProperty){
+		if(!isRetrivableProperty(persistentProperty)){
+			return;
+		}
+		String obj = getObjectBinding(binding, persistentProperty);
+		variables.append(" ");
+		variables.append(obj);
+		StringBuilder pattern = new StringBuilder();
+		if(persistentProperty.isAssociation() && Direction.INCOMING.equals(persistentProperty.getDirection()) && persistentProperty.getInverseProperty() != null){
+			appendPattern(pattern, obj, "<"+persistentProperty.getInverseProperty().getPredicate()+">", binding);
+		}
+		else{
+			appendPattern(pattern, binding, "<"+persistentProperty.getPredicate()+">", obj);
+		}
+		if(!persistentProperty.isOptional() && !persistentProperty.isCollectionLike()){
+			requiredPatterns.append(pattern);
+		}
+		else{
+			if(!persistentProperty.isOptional()){
+				requiredPatterns.append("FILTER EXISTS { ");
+				requiredPatterns.append(pattern);
+				requiredPatterns.append("} ");
+			}
+			optionalPatterns.append("UNION { ");
+			optionalPatterns.append(pattern);
+			optionalPatterns.append("} ");
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the projection variables, each preceded by a space
+	 */
+	public String getVariables(){
+		return variables.toString();
+	}
+	
+	/**
+	 * 
+	 * @return the patterns binding the projection variables
+	 */
+	public String getPatterns(){
+		if(optionalPatterns.length() == 0){
+			return requiredPatterns.toString();
+		}
+		return requiredPatterns.toString() + "{ } " + optionalPatterns.toString();
+	}
+
+}
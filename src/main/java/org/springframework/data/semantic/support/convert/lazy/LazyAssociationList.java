@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * List of lazily loaded associated entities. All of its elements are loaded together on the first access to any of them, 
+ * while changes to the list itself and its size do not require loading.
+ *
+ * @param <E>
+ */
+public class LazyAssociationList<E> extends AbstractList<E> implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final List<E> target;
+	private final transient LazyLoadingBatch batch;
+	private transient volatile boolean initialized = false;
+	
+	public LazyAssociationList(List<E> target, LazyLoadingBatch batch) {
+		this.target = target;
+		this.batch = batch;
+	}
+	
+	/**
+	 * Get the elements of the given collection without loading them.
+	 * @param collection
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> Collection<E> getTarget(Collection<E> collection){
+		if(collection instanceof LazyAssociationList){
+			return ((LazyAssociationList<E>) collection).target;
+		}
+		return collection;
+	}
+
+	@Override
+	public E get(int index) {
+		initialize();
+		return target.get(index);
+	}
+
+	@Override
+	public int size() {
+		return target.size();
+	}
+	
+	@Override
+	public E set(int index, E element) {
+		return target.set(index, element);
+	}
+	
+	@Override
+	public void add(int index, E element) {
+		modCount++;
+		target.add(index, element);
+	}
+	
+	@Override
+	public E remove(int index) {
+		modCount++;
+		return target.remove(index);
+	}
+	
+	public boolean isInitialized() {
+		return initialized;
+	}
+	
+	private void initialize(){
+		if(!initialized){
+			initialized = true;
+			batch.load(target);
+		}
+	}
+	
+	private Object writeReplace() throws ObjectStreamException {
+		return new ArrayList<E>(target);
+	}
+
+}
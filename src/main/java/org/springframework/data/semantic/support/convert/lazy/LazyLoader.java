@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+
+/**
+ * Populates lazily loaded entity instances and properties from the store.
+ *
+ */
+public interface LazyLoader {
+	
+	/**
+	 * Populate the properties of the given instances.
+	 * @param persistentEntity - the type of the instances
+	 * @param entities - the instances to populate, mapped by their resource id
+	 */
+	<T> void loadEntities(SemanticPersistentEntity<T> persistentEntity, Map<IRI, T> entities);
+	
+	/**
+	 * Populate a deferred property of the given instances.
+	 * @param persistentEntity - the type of the instances
+	 * @param property - the property to populate
+	 * @param entities - the instances to populate, mapped by their resource id
+	 */
+	<T> void loadProperty(SemanticPersistentEntity<T> persistentEntity, SemanticPersistentProperty property, Map<IRI, T> entities);
+
+}
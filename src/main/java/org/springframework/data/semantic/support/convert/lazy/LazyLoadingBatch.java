@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+
+/**
+ * Groups the proxies created for the same association, or holding the same lazy property, during a single load. When one of them is accessed, 
+ * up to batch size of the not yet loaded proxies are populated with a single request to the {@link LazyLoader}. The proxies are marked loaded 
+ * once the request has returned; until then, other threads accessing them wait for the request, while the loading thread accesses them freely.
+ *
+ */
+public class LazyLoadingBatch {
+	
+	private final SemanticPersistentEntity<Object> persistentEntity;
+	private final SemanticPersistentProperty lazyProperty;
+	private final int batchSize;
+	private final LazyLoader loader;
+	private final Map<IRI, Object> pending = new LinkedHashMap<IRI, Object>();
+	//the proxies being populated, with the thread populating them
+	private final Map<IRI, Thread> loading = new HashMap<IRI, Thread>();
+	
+	/**
+	 * Create a batch loading whole entities.
+	 * @param persistentEntity
+	 * @param batchSize
+	 * @param loader
+	 */
+	public LazyLoadingBatch(SemanticPersistentEntity<Object> persistentEntity, int batchSize, LazyLoader loader) {
+		this(persistentEntity, null, batchSize, loader);
+	}
+	
+	/**
+	 * Create a batch loading only the given lazy property of the entities.
+	 * @param persistentEntity
+	 * @param lazyProperty
+	 * @param batchSize
+	 * @param loader
+	 */
+	public LazyLoadingBatch(SemanticPersistentEntity<Object> persistentEntity, SemanticPersistentProperty lazyProperty, int batchSize, LazyLoader loader) {
+		this.persistentEntity = persistentEntity;
+		this.lazyProperty = lazyProperty;
+		this.batchSize = batchSize;
+		this.loader = loader;
+	}
+	
+	synchronized void add(IRI id, Object proxy){
+		pending.put(id, proxy);
+	}
+	
+	/**
+	 * Load the given proxies, filling the batch up with other pending proxies of this batch. Returns when all of them are loaded, 
+	 * waiting for the proxies which other threads are loading.
+	 * @param proxies
+	 */
+	public void load(Collection<?> proxies){
+		while(true){
+			Map<IRI, Object> toLoad = new LinkedHashMap<IRI, Object>();
+			synchronized (this) {
+				boolean waiting = false;
+				for(Object proxy : proxies){
+					LazyLoadingInterceptor interceptor = LazyLoadingProxyFactory.getInterceptor(proxy);
+					if(interceptor == null || isLoaded(interceptor)){
+						continue;
+					}
+					Thread loadingThread = loading.get(interceptor.getId());
+					if(loadingThread == null){
+						toLoad.put(interceptor.getId(), proxy);
+						pending.remove(interceptor.getId());
+					}
+					else if(loadingThread != Thread.currentThread()){
+						waiting = true;
+					}
+				}
+				if(toLoad.isEmpty()){
+					if(!waiting){
+						return;
+					}
+					awaitLoads();
+					continue;
+				}
+				Iterator<Entry<IRI, Object>> iterator = pending.entrySet().iterator();
+				while(toLoad.size() < batchSize && iterator.hasNext()){
+					Entry<IRI, Object> entry = iterator.next();
+					iterator.remove();
+					if(!isLoaded(LazyLoadingProxyFactory.getInterceptor(entry.getValue())) && !loading.containsKey(entry.getKey())){
+						toLoad.put(entry.getKey(), entry.getValue());
+					}
+				}
+				for(IRI id : toLoad.keySet()){
+					loading.put(id, Thread.currentThread());
+				}
+			}
+			boolean loaded = false;
+			try{
+				if(lazyProperty != null){
+					loader.loadProperty(persistentEntity, lazyProperty, toLoad);
+				}
+				else{
+					loader.loadEntities(persistentEntity, toLoad);
+				}
+				loaded = true;
+			} finally{
+				synchronized (this) {
+					for(Entry<IRI, Object> entry : toLoad.entrySet()){
+						loading.remove(entry.getKey());
+						if(loaded){
+							setLoaded(LazyLoadingProxyFactory.getInterceptor(entry.getValue()), true);
+						}
+						else{
+							pending.put(entry.getKey(), entry.getValue());
+						}
+					}
+					notifyAll();
+				}
+			}
+		}
+	}
+	
+	private void awaitLoads(){
+		try{
+			wait();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the proxies of "+persistentEntity.getType().getName()+" to be loaded.", e);
+		}
+	}
+	
+	private boolean isLoaded(LazyLoadingInterceptor interceptor){
+		return lazyProperty != null ? interceptor.isPropertyLoaded(lazyProperty) : interceptor.isInitialized();
+	}
+	
+	private void setLoaded(LazyLoadingInterceptor interceptor, boolean loaded){
+		if(lazyProperty != null){
+			interceptor.setPropertyLoaded(lazyProperty, loaded);
+		}
+		else{
+			interceptor.setInitialized(loaded);
+		}
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+}
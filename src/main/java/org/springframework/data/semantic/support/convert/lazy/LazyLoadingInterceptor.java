@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory.ProxyType;
+
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+
+/**
+ * Loads the state of a proxy, together with its siblings in the {@link LazyLoadingBatch}, on the first call to any of its methods 
+ * except the accessors of the id and the methods inherited from {@link Object}. Deferred properties are loaded on the first call to their getter, 
+ * or considered loaded after a call to their setter.
+ *
+ */
+class LazyLoadingInterceptor implements MethodInterceptor {
+	
+	private static final String WRITE_REPLACE = "writeReplace";
+	
+	private final IRI id;
+	private final ProxyType proxyType;
+	private final LazyLoadingBatch batch;
+	//null for the properties which are not deferred
+	private final LazyLoadingBatch[] propertyBatches;
+	private final boolean[] loadedProperties;
+	private volatile boolean initialized = true;
+	
+	LazyLoadingInterceptor(IRI id, ProxyType proxyType, LazyLoadingBatch batch, LazyLoadingBatch[] propertyBatches) {
+		this.id = id;
+		this.proxyType = proxyType;
+		this.batch = batch;
+		this.propertyBatches = propertyBatches;
+		this.loadedProperties = new boolean[propertyBatches.length];
+		Arrays.fill(loadedProperties, true);
+	}
+
+	@Override
+	public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+		if(method.getDeclaringClass() == LazyLoadingProxy.class && WRITE_REPLACE.equals(method.getName())){
+			return proxyType.createReplacement(proxy, this);
+		}
+		if(!initialized && requiresInitialization(method)){
+			batch.load(Collections.singleton(proxy));
+		}
+		int index = proxyType.getGetterIndex(method);
+		if(index >= 0 && !loadedProperties[index]){
+			propertyBatches[index].load(Collections.singleton(proxy));
+		}
+		else{
+			index = proxyType.getSetterIndex(method);
+			if(index >= 0){
+				loadedProperties[index] = true;
+			}
+		}
+		return methodProxy.invokeSuper(proxy, args);
+	}
+	
+	private boolean requiresInitialization(Method method){
+		return method.getDeclaringClass() != Object.class && !proxyType.isIdAccessor(method);
+	}
+	
+	/**
+	 * Start intercepting, after the proxy has been constructed and its id set.
+	 * @param initialized - if the properties of the proxy are already populated
+	 */
+	void activate(boolean initialized){
+		for(int i = 0; i < loadedProperties.length; i++){
+			loadedProperties[i] = propertyBatches[i] == null;
+		}
+		this.initialized = initialized;
+	}
+	
+	IRI getId() {
+		return id;
+	}
+	
+	LazyLoadingBatch getBatch() {
+		return batch;
+	}
+	
+	boolean isInitialized() {
+		return initialized;
+	}
+	
+	void setInitialized(boolean initialized) {
+		this.initialized = initialized;
+	}
+	
+	boolean isPropertyLoaded(SemanticPersistentProperty property){
+		int index = proxyType.getPropertyIndex(property);
+		return index < 0 || loadedProperties[index];
+	}
+	
+	void setPropertyLoaded(SemanticPersistentProperty property, boolean loaded){
+		int index = proxyType.getPropertyIndex(property);
+		if(index >= 0){
+			loadedProperties[index] = loaded;
+		}
+	}
+	
+	LazyLoadingBatch getPropertyBatch(SemanticPersistentProperty property){
+		int index = proxyType.getPropertyIndex(property);
+		return index >= 0 ? propertyBatches[index] : null;
+	}
+	
+	boolean isFullyLoaded(){
+		if(!initialized){
+			return false;
+		}
+		for(boolean loaded : loadedProperties){
+			if(!loaded){
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
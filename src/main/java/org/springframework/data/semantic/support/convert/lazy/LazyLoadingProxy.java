@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.io.ObjectStreamException;
+
+/**
+ * Implemented by the proxies created for lazily loaded associations. 
+ * A proxy is serialized as a plain instance of the entity type, holding only the resource id if the proxy has not been loaded yet.
+ *
+ */
+public interface LazyLoadingProxy {
+	
+	Object writeReplace() throws ObjectStreamException;
+
+}
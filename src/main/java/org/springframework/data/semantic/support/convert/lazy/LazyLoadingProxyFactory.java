@@ -0,0 +1,483 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.lazy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.semantic.convert.SemanticEntityInstantiator;
+import org.springframework.data.semantic.core.EntityIdentityMap;
+import org.springframework.data.semantic.core.FetchPlan;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+
+/**
+ * Creates the cglib proxies and lazy lists used for associations which are not eagerly fetched and for entities with deferred properties, 
+ * i.e. lazy properties or properties left out by a {@link FetchPlan}. Types which cannot be subclassed, i.e. final classes or classes 
+ * without a non-private default constructor, are instantiated holding only their id instead and their deferred properties are not loaded.
+ *
+ */
+public class LazyLoadingProxyFactory {
+	
+	private static final Logger logger = LoggerFactory.getLogger(LazyLoadingProxyFactory.class);
+	
+	private final LazyLoader loader;
+	private final SemanticEntityInstantiator entityInstantiator;
+	private final ConcurrentMap<Class<?>, ProxyType> proxyTypes = new ConcurrentHashMap<Class<?>, ProxyType>();
+	
+	public LazyLoadingProxyFactory(LazyLoader loader, SemanticEntityInstantiator entityInstantiator) {
+		this.loader = loader;
+		this.entityInstantiator = entityInstantiator;
+	}
+	
+	/**
+	 * Get the batch collecting the proxies of the given association during the load tracked by the identity map.
+	 * @param property
+	 * @param persistentEntity - the type of the proxies
+	 * @param identityMap
+	 * @return
+	 */
+	public LazyLoadingBatch getBatch(SemanticPersistentProperty property, SemanticPersistentEntity<Object> persistentEntity, EntityIdentityMap identityMap){
+		LazyLoadingBatch batch = identityMap.getBatch(property);
+		if(batch == null){
+			batch = new LazyLoadingBatch(persistentEntity, property.getBatchSize(), loader);
+			identityMap.putBatch(property, batch);
+		}
+		return batch;
+	}
+	
+	/**
+	 * Create a batch collecting the proxies of the given association outside of a load, e.g. when an entity is restored from a cache.
+	 * @param property
+	 * @param persistentEntity - the type of the proxies
+	 * @return
+	 */
+	public LazyLoadingBatch createBatch(SemanticPersistentProperty property, SemanticPersistentEntity<Object> persistentEntity){
+		return new LazyLoadingBatch(persistentEntity, property.getBatchSize(), loader);
+	}
+	
+	/**
+	 * Get the batch collecting the proxies whose value of the given property is deferred during the load tracked by the identity map.
+	 * @param property
+	 * @param persistentEntity - the type of the proxies
+	 * @param identityMap
+	 * @return
+	 */
+	public LazyLoadingBatch getPropertyBatch(SemanticPersistentProperty property, SemanticPersistentEntity<Object> persistentEntity, EntityIdentityMap identityMap){
+		LazyLoadingBatch batch = identityMap.getPropertyBatch(property);
+		if(batch == null){
+			batch = new LazyLoadingBatch(persistentEntity, property, property.isLazy() ? property.getBatchSize() : Integer.MAX_VALUE, loader);
+			identityMap.putPropertyBatch(property, batch);
+		}
+		return batch;
+	}
+	
+	/**
+	 * 
+	 * @param persistentEntity
+	 * @return true if instances of the given type are created as proxies to load their lazy properties
+	 */
+	public boolean hasLazyProperties(SemanticPersistentEntity<?> persistentEntity){
+		return hasDeferredProperties(persistentEntity, null);
+	}
+	
+	/**
+	 * 
+	 * @param persistentEntity
+	 * @param fetchPlan
+	 * @return true if instances of the given type, loaded with the given plan, are created as proxies to load their deferred properties
+	 */
+	public boolean hasDeferredProperties(SemanticPersistentEntity<?> persistentEntity, FetchPlan fetchPlan){
+		ProxyType proxyType = getProxyType(persistentEntity);
+		for(SemanticPersistentProperty property : proxyType.properties){
+			if(ProxyType.isDeferred(property, fetchPlan)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Create a proxy holding the given id, which is populated on first access.
+	 * @param persistentEntity
+	 * @param id
+	 * @param batch
+	 * @return
+	 */
+	public <T> T createProxy(SemanticPersistentEntity<T> persistentEntity, IRI id, LazyLoadingBatch batch){
+		return createProxy(persistentEntity, id, batch, null);
+	}
+	
+	/**
+	 * Create an instance holding the given id. If a batch is given, or the type has lazy properties, the instance is a proxy loading 
+	 * its state, respectively its lazy properties, on first access.
+	 * @param persistentEntity
+	 * @param id
+	 * @param batch - the batch loading the instance; null if the instance is populated by the caller
+	 * @param identityMap - the load in which the lazy properties are batched; if null each instance loads its own
+	 * @return
+	 */
+	public <T> T createProxy(SemanticPersistentEntity<T> persistentEntity, IRI id, LazyLoadingBatch batch, EntityIdentityMap identityMap){
+		return createProxy(persistentEntity, id, batch, identityMap, null);
+	}
+	
+	/**
+	 * Create an instance holding the given id. If a batch is given, or the type has properties deferred by the fetch plan, the instance is a proxy loading 
+	 * its state, respectively its deferred properties, on first access.
+	 * @param persistentEntity
+	 * @param id
+	 * @param batch - the batch loading the instance; null if the instance is populated by the caller
+	 * @param identityMap - the load in which the deferred properties are batched; if null each instance loads its own
+	 * @param fetchPlan - the plan the instance is populated with; if null only the lazy properties are deferred
+	 * @return
+	 */
+	public <T> T createProxy(SemanticPersistentEntity<T> persistentEntity, IRI id, LazyLoadingBatch batch, EntityIdentityMap identityMap, FetchPlan fetchPlan){
+		ProxyType proxyType = getProxyType(persistentEntity);
+		if(proxyType.prototype == null || (batch == null && !hasDeferredProperties(persistentEntity, fetchPlan))){
+			return entityInstantiator.createInstance(persistentEntity, id);
+		}
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<Object> objectEntity = (SemanticPersistentEntity<Object>) persistentEntity;
+		LazyLoadingBatch[] propertyBatches = new LazyLoadingBatch[proxyType.properties.size()];
+		for(int i = 0; i < propertyBatches.length; i++){
+			SemanticPersistentProperty property = proxyType.properties.get(i);
+			if(ProxyType.isDeferred(property, fetchPlan)){
+				propertyBatches[i] = identityMap != null ? getPropertyBatch(property, objectEntity, identityMap) : new LazyLoadingBatch(objectEntity, property, 1, loader);
+			}
+		}
+		return newProxy(proxyType, persistentEntity, id, batch, propertyBatches);
+	}
+	
+	/**
+	 * Create a proxy holding the given id, which is populated by the caller and loads the given properties on first access, 
+	 * e.g. when an entity whose lazy properties had not been loaded is restored from a cache.
+	 * @param persistentEntity
+	 * @param id
+	 * @param deferredProperties
+	 * @return the proxy, or null if the type cannot be subclassed
+	 */
+	public <T> T createProxy(SemanticPersistentEntity<T> persistentEntity, IRI id, Collection<SemanticPersistentProperty> deferredProperties){
+		ProxyType proxyType = getProxyType(persistentEntity);
+		if(proxyType.prototype == null){
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		SemanticPersistentEntity<Object> objectEntity = (SemanticPersistentEntity<Object>) persistentEntity;
+		LazyLoadingBatch[] propertyBatches = new LazyLoadingBatch[proxyType.properties.size()];
+		for(SemanticPersistentProperty property : deferredProperties){
+			int index = proxyType.getPropertyIndex(property);
+			if(index >= 0){
+				propertyBatches[index] = new LazyLoadingBatch(objectEntity, property, 1, loader);
+			}
+		}
+		return newProxy(proxyType, persistentEntity, id, null, propertyBatches);
+	}
+	
+	private <T> T newProxy(ProxyType proxyType, SemanticPersistentEntity<T> persistentEntity, IRI id, LazyLoadingBatch batch, LazyLoadingBatch[] propertyBatches){
+		LazyLoadingInterceptor interceptor = new LazyLoadingInterceptor(id, proxyType, batch, propertyBatches);
+		@SuppressWarnings("unchecked")
+		T proxy = (T) proxyType.prototype.newInstance(interceptor);
+		persistentEntity.setResourceId(proxy, id);
+		interceptor.activate(batch == null);
+		if(batch != null){
+			batch.add(id, proxy);
+		}
+		for(LazyLoadingBatch propertyBatch : propertyBatches){
+			if(propertyBatch != null){
+				propertyBatch.add(id, proxy);
+			}
+		}
+		return proxy;
+	}
+	
+	/**
+	 * Wrap the given proxies in a list loading all of them on first access, if the type of the property allows it.
+	 * @param property
+	 * @param proxies
+	 * @param batch
+	 * @return
+	 */
+	public List<Object> createList(SemanticPersistentProperty property, List<Object> proxies, LazyLoadingBatch batch){
+		if(property.getType().isAssignableFrom(LazyAssociationList.class)){
+			return new LazyAssociationList<Object>(proxies, batch);
+		}
+		return proxies;
+	}
+	
+	/**
+	 * 
+	 * @param entity
+	 * @return true if the given object is a proxy created by this factory
+	 */
+	public static boolean isProxy(Object entity){
+		return entity instanceof LazyLoadingProxy;
+	}
+	
+	/**
+	 * 
+	 * @param entity
+	 * @return false if the given object is a proxy which has not been loaded yet
+	 */
+	public static boolean isInitialized(Object entity){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		return interceptor == null || interceptor.isInitialized();
+	}
+	
+	/**
+	 * 
+	 * @param entity
+	 * @param property
+	 * @return false if the given object is a proxy whose lazy property has not been loaded yet
+	 */
+	public static boolean isPropertyLoaded(Object entity, SemanticPersistentProperty property){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		return interceptor == null || interceptor.isPropertyLoaded(property);
+	}
+	
+	/**
+	 * 
+	 * @param entity
+	 * @return false if the given object is a proxy which has not been loaded yet or has lazy properties which have not been loaded yet
+	 */
+	public static boolean isFullyLoaded(Object entity){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		return interceptor == null || interceptor.isFullyLoaded();
+	}
+	
+	/**
+	 * Load the given object, if it is a proxy which has not been loaded yet.
+	 * @param entity
+	 */
+	public static void initialize(Object entity){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		if(interceptor != null && !interceptor.isInitialized()){
+			interceptor.getBatch().load(Collections.singleton(entity));
+		}
+	}
+	
+	/**
+	 * Load the object and the given deferred property of it, if it is a proxy and they have not been loaded yet.
+	 * @param entity
+	 * @param property
+	 */
+	public static void initializeProperty(Object entity, SemanticPersistentProperty property){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		if(interceptor != null){
+			initialize(entity);
+			if(!interceptor.isPropertyLoaded(property)){
+				interceptor.getPropertyBatch(property).load(Collections.singleton(entity));
+			}
+		}
+	}
+	
+	/**
+	 * Mark the given object as loaded, if it is a proxy which has been populated by other means. 
+	 * @param entity
+	 */
+	public static void markInitialized(Object entity){
+		LazyLoadingInterceptor interceptor = getInterceptor(entity);
+		if(interceptor != null){
+			interceptor.setInitialized(true);
+		}
+	}
+	
+	static LazyLoadingInterceptor getInterceptor(Object entity){
+		if(entity instanceof LazyLoadingProxy){
+			return (LazyLoadingInterceptor) ((Factory) entity).getCallback(0);
+		}
+		return null;
+	}
+	
+	private ProxyType getProxyType(SemanticPersistentEntity<?> persistentEntity){
+		ProxyType proxyType = proxyTypes.get(persistentEntity.getType());
+		if(proxyType == null){
+			proxyType = new ProxyType(persistentEntity);
+			proxyType.prototype = createPrototype(proxyType);
+			ProxyType existing = proxyTypes.putIfAbsent(persistentEntity.getType(), proxyType);
+			if(existing != null){
+				proxyType = existing;
+			}
+		}
+		return proxyType;
+	}
+	
+	private Factory createPrototype(ProxyType proxyType){
+		Class<?> type = proxyType.persistentEntity.getType();
+		if(Modifier.isFinal(type.getModifiers()) || !hasDefaultConstructor(type)){
+			if(proxyType.hasLazyProperties()){
+				logger.warn("Lazy properties of "+type.getName()+" will not be loaded, since the type cannot be subclassed.");
+			}
+			return null;
+		}
+		try{
+			Enhancer enhancer = new Enhancer();
+			enhancer.setSuperclass(type);
+			enhancer.setInterfaces(new Class<?>[]{LazyLoadingProxy.class});
+			enhancer.setCallback(new LazyLoadingInterceptor(null, proxyType, null, new LazyLoadingBatch[0]));
+			return (Factory) enhancer.create();
+		} catch(RuntimeException e){
+			logger.warn("Could not create lazy loading proxies for "+type.getName()+", associations of this type will hold only their id.", e);
+			return null;
+		}
+	}
+	
+	private static boolean hasDefaultConstructor(Class<?> type){
+		for(Constructor<?> constructor : type.getDeclaredConstructors()){
+			if(constructor.getParameterTypes().length == 0 && !Modifier.isPrivate(constructor.getModifiers())){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The proxy class of an entity type together with the methods handled by its interceptors.
+	 */
+	static class ProxyType {
+		
+		private final SemanticPersistentEntity<?> persistentEntity;
+		private final Set<String> idAccessors = new HashSet<String>();
+		private final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+		private final Map<String, Integer> getters = new HashMap<String, Integer>();
+		private final Map<String, Integer> setters = new HashMap<String, Integer>();
+		private volatile Factory prototype;
+		
+		ProxyType(SemanticPersistentEntity<?> persistentEntity){
+			this.persistentEntity = persistentEntity;
+			addAccessors(persistentEntity.getIdProperty(), idAccessors);
+			persistentEntity.doWithProperties(new PropertyHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithPersistentProperty(SemanticPersistentProperty property) {
+					if(!property.isIdProperty() && !property.isContext() && !property.isTransient()){
+						addProperty(property);
+					}
+				}
+			});
+			persistentEntity.doWithAssociations(new AssociationHandler<SemanticPersistentProperty>() {
+				@Override
+				public void doWithAssociation(Association<SemanticPersistentProperty> association) {
+					addProperty(association.getInverse());
+				}
+			});
+		}
+		
+		private void addProperty(SemanticPersistentProperty property){
+			Integer index = properties.size();
+			properties.add(property);
+			if(property.getGetter() != null){
+				getters.put(property.getGetter().getName(), index);
+			}
+			if(property.getSetter() != null){
+				setters.put(property.getSetter().getName(), index);
+			}
+		}
+		
+		static boolean isDeferred(SemanticPersistentProperty property, FetchPlan fetchPlan){
+			return property.isLazy() || (fetchPlan != null && !fetchPlan.includes(property));
+		}
+		
+		private static void addAccessors(SemanticPersistentProperty property, Set<String> accessors){
+			Method getter = property.getGetter();
+			Method setter = property.getSetter();
+			if(getter != null){
+				accessors.add(getter.getName());
+			}
+			if(setter != null){
+				accessors.add(setter.getName());
+			}
+		}
+		
+		boolean hasLazyProperties(){
+			for(SemanticPersistentProperty property : properties){
+				if(property.isLazy()){
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		boolean isIdAccessor(Method method){
+			return idAccessors.contains(method.getName());
+		}
+		
+		int getGetterIndex(Method method){
+			return getIndex(getters, method, 0);
+		}
+		
+		int getSetterIndex(Method method){
+			return getIndex(setters, method, 1);
+		}
+		
+		private static int getIndex(Map<String, Integer> accessors, Method method, int parameterCount){
+			if(accessors.isEmpty() || method.getParameterTypes().length != parameterCount){
+				return -1;
+			}
+			Integer index = accessors.get(method.getName());
+			return index != null ? index : -1;
+		}
+		
+		int getPropertyIndex(SemanticPersistentProperty property){
+			return properties.indexOf(property);
+		}
+		
+		/**
+		 * Create the plain instance a proxy is serialized as. It holds only the id, unless the proxy and all of its deferred properties are loaded.
+		 */
+		Object createReplacement(final Object proxy, LazyLoadingInterceptor interceptor){
+			Class<?> type = persistentEntity.getType();
+			final Object replacement = BeanUtils.instantiateClass(type);
+			if(interceptor.isFullyLoaded()){
+				ReflectionUtils.doWithFields(type, new FieldCallback() {
+					@Override
+					public void doWith(Field field) throws IllegalArgumentException, IllegalAccessException {
+						ReflectionUtils.makeAccessible(field);
+						field.set(replacement, field.get(proxy));
+					}
+				}, ReflectionUtils.COPYABLE_FIELDS);
+			}
+			else{
+				persistentEntity.setResourceId(replacement, interceptor.getId());
+			}
+			return replacement;
+		}
+		
+	}
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.projection;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.Value;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Describes a projection of an entity type, i.e. an interface whose getters or a class whose setters or constructor parameters are named after properties of the entity.
+ * A projection property named after the id property of the entity receives the id of the resource; all others receive the values of the corresponding entity properties,
+ * for associations the ids of the associated resources.
+ *
+ * @param <P>
+ */
+public class ProjectionInformation<P> {
+	
+	private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+	
+	private final Class<P> type;
+	private final List<String> names = new ArrayList<String>();
+	private final List<TypeDescriptor> types = new ArrayList<TypeDescriptor>();
+	private final List<SemanticPersistentProperty> properties = new ArrayList<SemanticPersistentProperty>();
+	private final List<Method> setters = new ArrayList<Method>();
+	private final Map<Method, Integer> getters = new HashMap<Method, Integer>();
+	private final List<Integer> positions = new ArrayList<Integer>();
+	private Constructor<P> constructor;
+	private int idIndex = -1;
+	
+	public ProjectionInformation(Class<P> type, SemanticPersistentEntity<?> persistentEntity) {
+		this.type = type;
+		if(type.isInterface()){
+			for(PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)){
+				if(descriptor.getReadMethod() != null){
+					getters.put(descriptor.getReadMethod(), names.size());
+					addProperty(descriptor.getName(), new TypeDescriptor(new MethodParameter(descriptor.getReadMethod(), -1)), persistentEntity);
+				}
+			}
+		}
+		else if(ClassUtils.hasConstructor(type)){
+			this.constructor = ClassUtils.getConstructorIfAvailable(type);
+			ReflectionUtils.makeAccessible(constructor);
+			for(PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)){
+				if(descriptor.getWriteMethod() != null){
+					setters.add(descriptor.getWriteMethod());
+					addProperty(descriptor.getName(), new TypeDescriptor(new MethodParameter(descriptor.getWriteMethod(), 0)), persistentEntity);
+				}
+			}
+		}
+		else{
+			this.constructor = getProjectionConstructor(type);
+			String[] parameterNames = PARAMETER_NAME_DISCOVERER.getParameterNames(constructor);
+			if(parameterNames == null){
+				throw new IllegalArgumentException("Cannot discover the constructor parameter names of projection "+type.getName()+".");
+			}
+			for(int i = 0; i < parameterNames.length; i++){
+				addProperty(parameterNames[i], new TypeDescriptor(new MethodParameter(constructor, i)), persistentEntity);
+			}
+		}
+	}
+	
+	/**
+	 * Check if the given type returned by a query method of a repository for the given domain type is a projection of the domain type.
+	 * @param returnedType
+	 * @param domainType
+	 * @return
+	 */
+	public static boolean isProjection(Class<?> returnedType, Class<?> domainType){
+		return returnedType != null && 
+				!returnedType.isAssignableFrom(domainType) && 
+				!BeanUtils.isSimpleProperty(returnedType) && 
+				!Value.class.isAssignableFrom(returnedType) && 
+				!returnedType.getName().startsWith("java.");
+	}
+	
+	/**
+	 * 
+	 * @return the entity properties selected by the projection, excluding the id property
+	 */
+	public List<SemanticPersistentProperty> getProperties() {
+		return Collections.unmodifiableList(properties);
+	}
+	
+	/**
+	 * 
+	 * @return the names of the entity properties selected by the projection, excluding the id property
+	 */
+	public List<String> getPropertyNames() {
+		List<String> propertyNames = new ArrayList<String>(properties.size());
+		for(SemanticPersistentProperty property : properties){
+			propertyNames.add(property.getName());
+		}
+		return propertyNames;
+	}
+	
+	public Class<P> getType() {
+		return type;
+	}
+	
+	/**
+	 * 
+	 * @param propertyIndex - the index of the property in {@link #getProperties()}
+	 * @return the type of the projection property
+	 */
+	TypeDescriptor getPropertyType(int propertyIndex){
+		return types.get(positions.get(propertyIndex));
+	}
+	
+	/**
+	 * 
+	 * @return the type of the projected id or null if the projection does not include the id
+	 */
+	TypeDescriptor getIdType(){
+		return idIndex < 0 ? null : types.get(idIndex);
+	}
+	
+	/**
+	 * Create an instance of the projection.
+	 * @param id - the converted id of the resource
+	 * @param values - the converted values of the properties, in the order of {@link #getProperties()}
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	P createInstance(Object id, Object[] values){
+		Object[] arguments = new Object[names.size()];
+		for(int i = 0; i < values.length; i++){
+			arguments[positions.get(i)] = values[i];
+		}
+		if(idIndex >= 0){
+			arguments[idIndex] = id;
+		}
+		for(int i = 0; i < arguments.length; i++){
+			Class<?> argumentType = types.get(i).getType();
+			if(arguments[i] == null && argumentType.isPrimitive()){
+				//the default value of the primitive type
+				arguments[i] = Array.get(Array.newInstance(argumentType, 1), 0);
+			}
+		}
+		if(type.isInterface()){
+			return (P) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new ProjectionInvocationHandler(arguments));
+		}
+		try{
+			if(setters.isEmpty()){
+				return BeanUtils.instantiateClass(constructor, arguments);
+			}
+			P instance = BeanUtils.instantiateClass(constructor);
+			for(int i = 0; i < arguments.length; i++){
+				setters.get(i).invoke(instance, arguments[i]);
+			}
+			return instance;
+		} catch (Exception e){
+			throw new MappingException("Creating projection "+type.getName()+" from "+Arrays.toString(arguments), e);
+		}
+	}
+	
+	private void addProperty(String name, TypeDescriptor propertyType, SemanticPersistentEntity<?> persistentEntity){
+		SemanticPersistentProperty property = persistentEntity.getPersistentProperty(name);
+		if(property == null || property.isTransient() || property.isContext()){
+			throw new IllegalArgumentException("Projection "+type.getName()+" declares property "+name+", which is not a persistent property of "+persistentEntity.getType().getName()+".");
+		}
+		if(property.isIdProperty()){
+			idIndex = names.size();
+		}
+		else{
+			positions.add(names.size());
+			properties.add(property);
+		}
+		names.add(name);
+		types.add(propertyType);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <P> Constructor<P> getProjectionConstructor(Class<P> type){
+		Constructor<?>[] constructors = type.getConstructors();
+		if(constructors.length != 1){
+			throw new IllegalArgumentException("Projection "+type.getName()+" must have a no-argument constructor or exactly one public constructor.");
+		}
+		return (Constructor<P>) constructors[0];
+	}
+	
+	private class ProjectionInvocationHandler implements InvocationHandler {
+		
+		private final Object[] values;
+		
+		ProjectionInvocationHandler(Object[] values){
+			this.values = values;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Integer index = getters.get(method);
+			if(index != null){
+				return values[index];
+			}
+			if(ReflectionUtils.isEqualsMethod(method)){
+				return proxy == args[0];
+			}
+			if(ReflectionUtils.isHashCodeMethod(method)){
+				return System.identityHashCode(proxy);
+			}
+			if(ReflectionUtils.isToStringMethod(method)){
+				StringBuilder sb = new StringBuilder(type.getSimpleName());
+				sb.append("{");
+				for(int i = 0; i < names.size(); i++){
+					if(i > 0){
+						sb.append(", ");
+					}
+					sb.append(names.get(i));
+					sb.append("=");
+					sb.append(values[i]);
+				}
+				sb.append("}");
+				return sb.toString();
+			}
+			throw new UnsupportedOperationException("Method "+method.getName()+" is not a property of projection "+type.getName()+".");
+		}
+		
+	}
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.projection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.AbstractTupleQueryResultHandler;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.convert.handlers.AbstractPropertiesToQueryHandler;
+
+/**
+ * Creates projections directly from the results of the select queries created by {@link EntityToQueryConverter#getTupleQueryForEntityClass(org.springframework.data.semantic.mapping.SemanticPersistentEntity, java.util.Map, Collection)}, 
+ * without instantiating any entities. The rows of a resource are expected to be consecutive.
+ *
+ * @param <P>
+ */
+public class ProjectionTupleReader<P> extends AbstractTupleQueryResultHandler {
+	
+	private final ProjectionInformation<P> projection;
+	private final ConversionService conversionService;
+	private final String subjectVariable;
+	private final List<String> variables = new ArrayList<String>();
+	private final List<P> results = new LinkedList<P>();
+	
+	private IRI currentId;
+	private final List<Set<Value>> currentValues = new ArrayList<Set<Value>>();
+	
+	public ProjectionTupleReader(ProjectionInformation<P> projection, String subjectVariable, ConversionService conversionService) {
+		this.projection = projection;
+		this.subjectVariable = subjectVariable;
+		this.conversionService = conversionService;
+		for(SemanticPersistentProperty property : projection.getProperties()){
+			variables.add(AbstractPropertiesToQueryHandler.getObjectBinding("?"+subjectVariable, property).substring(1));
+			currentValues.add(new LinkedHashSet<Value>());
+		}
+	}
+
+	@Override
+	public void handleSolution(BindingSet bindingSet) throws TupleQueryResultHandlerException {
+		Value subject = bindingSet.getValue(subjectVariable);
+		if(!(subject instanceof IRI)){
+			return;
+		}
+		if(!subject.equals(currentId)){
+			flush();
+			currentId = (IRI) subject;
+		}
+		for(int i = 0; i < variables.size(); i++){
+			Value value = bindingSet.getValue(variables.get(i));
+			if(value != null){
+				currentValues.get(i).add(value);
+			}
+		}
+	}
+	
+	@Override
+	public void endQueryResult() throws TupleQueryResultHandlerException {
+		flush();
+	}
+	
+	public ProjectionInformation<P> getProjection() {
+		return projection;
+	}
+	
+	/**
+	 * 
+	 * @return the projections read so far, in the order of the query results
+	 */
+	public List<P> getResults() {
+		return results;
+	}
+	
+	private void flush(){
+		if(currentId == null){
+			return;
+		}
+		Object[] values = new Object[variables.size()];
+		for(int i = 0; i < values.length; i++){
+			values[i] = convert(currentValues.get(i), projection.getPropertyType(i));
+			currentValues.get(i).clear();
+		}
+		TypeDescriptor idType = projection.getIdType();
+		results.add(projection.createInstance(idType != null ? convert(currentId, idType.getType()) : null, values));
+		currentId = null;
+	}
+	
+	private Object convert(Set<Value> values, TypeDescriptor type){
+		if(type.isCollection()){
+			TypeDescriptor elementType = type.getElementTypeDescriptor();
+			Collection<Object> collection = CollectionFactory.createCollection(type.getType(), values.size());
+			for(Value value : values){
+				collection.add(convert(value, elementType != null ? elementType.getType() : Object.class));
+			}
+			return collection;
+		}
+		return values.isEmpty() ? null : convert(values.iterator().next(), type.getType());
+	}
+	
+	private Object convert(Value value, Class<?> type){
+		if(type.isInstance(value)){
+			return value;
+		}
+		return conversionService.convert(value.stringValue(), type);
+	}
+
+}
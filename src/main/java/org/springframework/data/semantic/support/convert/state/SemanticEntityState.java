@@ -19,16 +19,13 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Statement;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.semantic.convert.access.FieldAccessor;
-import org.springframework.data.semantic.convert.access.FieldAccessorProvider;
 import org.springframework.data.semantic.convert.access.listener.FieldAccessListener;
-import org.springframework.data.semantic.convert.access.listener.FieldAccessListenerProvider;
 import org.springframework.data.semantic.convert.state.EntityState;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
@@ -45,16 +42,8 @@ public class SemanticEntityState<T> implements
 		EntityState<T, RDFState> {
 
 	private final T entity;
-	//private final Class<? extends T> type;
-	private final Map<SemanticPersistentProperty, FieldAccessor> fieldAccessors;
-	private final Map<SemanticPersistentProperty, List<FieldAccessListener>> fieldAccessorListeners;
 	private RDFState state;
-	private final SemanticDatabase semanticDb;
-	//private final static Logger log = LoggerFactory.getLogger(SemanticEntityState.class);
-	private final FieldAccessorProvider fieldAccessorProvider;
-	private final FieldAccessListenerProvider fieldAccessListenerProvider;
-	private final SemanticPersistentEntity<T> persistentEntity;
-	private final ConversionService conversionService;
+	private final SemanticEntityStateContext<T> context;
 
 	public SemanticEntityState(
 			final RDFState underlyingState,
@@ -64,17 +53,16 @@ public class SemanticEntityState<T> implements
 			final DelegatingFieldAccessListenerFactory delegatingFieldAccessListenerFactory,
 			SemanticPersistentEntity<T> persistentEntity, 
 			ConversionService conversionService) {
+		this(underlyingState, entity, new SemanticEntityStateContext<T>(persistentEntity, 
+				new DelegatingFieldAccessorProvider(nodeDelegatingFieldAccessorFactory), 
+				new DelegatingFieldAccessListenerProvider(delegatingFieldAccessListenerFactory), 
+				semanticDatabase, conversionService));
+	}
+	
+	public SemanticEntityState(final RDFState underlyingState, final T entity, final SemanticEntityStateContext<T> context) {
 		this.entity = entity;
-		//this.type = type;
 		this.state = underlyingState;
-		this.semanticDb = semanticDatabase;
-		this.fieldAccessorProvider = new DelegatingFieldAccessorProvider(
-				nodeDelegatingFieldAccessorFactory);
-		this.fieldAccessListenerProvider = new DelegatingFieldAccessListenerProvider(delegatingFieldAccessListenerFactory);
-		this.fieldAccessors = fieldAccessorProvider.provideFieldAccessors(persistentEntity);
-		this.fieldAccessorListeners = fieldAccessListenerProvider.provideFieldAccessListeners(persistentEntity);
-		this.persistentEntity = persistentEntity;
-		this.conversionService = conversionService;
+		this.context = context;
 	}
 
 	@Override
@@ -89,7 +77,7 @@ public class SemanticEntityState<T> implements
 
 	@Override
 	public Object getDefaultValue(SemanticPersistentProperty property) {
-		final FieldAccessor accessor = fieldAccessors.get(property);
+		final FieldAccessor accessor = context.getFieldAccessors().get(property);
 		if (accessor == null) {
 			return null;
 		} else {
@@ -99,13 +87,13 @@ public class SemanticEntityState<T> implements
 
 	@Override
 	public Object getValue(Field field, MappingPolicy mappingPolicy) {
-		return getValue(persistentEntity.getPersistentProperty(field.getName()), mappingPolicy);
+		return getValue(context.getPersistentEntity().getPersistentProperty(field.getName()), mappingPolicy);
 	}
 
 	@Override
 	public Object getValue(SemanticPersistentProperty property,
 			MappingPolicy mappingPolicy) {
-		final FieldAccessor accessor = fieldAccessors.get(property);
+		final FieldAccessor accessor = context.getFieldAccessors().get(property);
 		if (!mappingPolicy.useDirty() && accessor != null) {
 			return accessor.getValue(entity, mappingPolicy);
 		}
@@ -128,6 +116,7 @@ public class SemanticEntityState<T> implements
 		if(property.isCollectionLike()){
 			Class<?> componentType = property.getComponentType();
 			List<Object> convertedValues = new ArrayList<Object>(values.size());
+			ConversionService conversionService = context.getConversionService();
 			if(conversionService.canConvert(String.class, componentType)){
 				for(Object o : values){
 					convertedValues.add(conversionService.convert(o, componentType));
@@ -145,7 +134,7 @@ public class SemanticEntityState<T> implements
 
 	@Override
 	public boolean isWritable(SemanticPersistentProperty property) {
-		FieldAccessor fieldAccessor = fieldAccessors.get(property);
+		FieldAccessor fieldAccessor = context.getFieldAccessors().get(property);
 		if (fieldAccessor != null) {
 			return fieldAccessor.isWritable(entity);
 		} else {
@@ -156,13 +145,13 @@ public class SemanticEntityState<T> implements
 	@Override
 	public Object setValue(Field field, Object newVal,
 			MappingPolicy mappingPolicy) {
-		return setValue(persistentEntity.getPersistentProperty(field.getName()), newVal, mappingPolicy);
+		return setValue(context.getPersistentEntity().getPersistentProperty(field.getName()), newVal, mappingPolicy);
 	}
 
 	@Override
 	public Object setValue(SemanticPersistentProperty property, Object newVal,
 			MappingPolicy mappingPolicy) {
-		final FieldAccessor accessor = fieldAccessors.get(property);
+		final FieldAccessor accessor = context.getFieldAccessors().get(property);
 		final Object oldValue = getValue(property, mappingPolicy);
         final Object result=accessor!=null ? accessor.setValue(entity, newVal, mappingPolicy) : newVal;
         notifyListeners(property, oldValue, result);
@@ -170,8 +159,9 @@ public class SemanticEntityState<T> implements
 	}
 	
 	 private void notifyListeners(final SemanticPersistentProperty field, final Object oldValue, final Object newValue) {
-        if (!fieldAccessorListeners.containsKey(field) || fieldAccessorListeners.get(field) == null) return;
-        for (final FieldAccessListener listener : fieldAccessorListeners.get(field)) {
+        final List<FieldAccessListener> listeners = context.getFieldAccessListeners().get(field);
+        if (listeners == null) return;
+        for (final FieldAccessListener listener : listeners) {
             listener.valueChanged(entity, oldValue, newValue); // todo oldValue
         }
 	}
@@ -193,15 +183,22 @@ public class SemanticEntityState<T> implements
 
 	@Override
 	public T persist() {
+		SemanticDatabase semanticDb = context.getSemanticDatabase();
 		semanticDb.removeStatements(state.getDeleteStatements());
+		context.getMoleculeCache().invalidate(state.getDeleteStatements());
 		state.getDeleteStatements().clear();
 		semanticDb.addStatements(state.getCurrentStatements());
+		context.getMoleculeCache().invalidate(state.getCurrentStatements());
 		return entity;
 	}
 
 	@Override
 	public SemanticPersistentEntity<T> getPersistentEntity() {
-		return persistentEntity;
+		return context.getPersistentEntity();
+	}
+	
+	SemanticEntityStateContext<T> getContext() {
+		return context;
 	}
 
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.state;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.semantic.convert.access.FieldAccessor;
+import org.springframework.data.semantic.convert.access.FieldAccessorProvider;
+import org.springframework.data.semantic.convert.access.listener.FieldAccessListener;
+import org.springframework.data.semantic.convert.access.listener.FieldAccessListenerProvider;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
+
+/**
+ * Immutable, per entity class data shared by all {@link SemanticEntityState} instances of that class. 
+ * It is built once and reused, so that creating an entity state does not rebuild the accessor and listener tables.
+ *
+ * @param <T>
+ */
+public class SemanticEntityStateContext<T> {
+	
+	private final SemanticPersistentEntity<T> persistentEntity;
+	private final Map<SemanticPersistentProperty, FieldAccessor> fieldAccessors;
+	private final Map<SemanticPersistentProperty, List<FieldAccessListener>> fieldAccessListeners;
+	private final SemanticDatabase semanticDatabase;
+	private final ConversionService conversionService;
+	private final MoleculeCache moleculeCache;
+	
+	public SemanticEntityStateContext(SemanticPersistentEntity<T> persistentEntity, FieldAccessorProvider fieldAccessorProvider, FieldAccessListenerProvider fieldAccessListenerProvider, SemanticDatabase semanticDatabase, ConversionService conversionService){
+		this(persistentEntity, fieldAccessorProvider, fieldAccessListenerProvider, semanticDatabase, conversionService, new MoleculeCache(0));
+	}
+	
+	public SemanticEntityStateContext(SemanticPersistentEntity<T> persistentEntity, FieldAccessorProvider fieldAccessorProvider, FieldAccessListenerProvider fieldAccessListenerProvider, SemanticDatabase semanticDatabase, ConversionService conversionService, MoleculeCache moleculeCache){
+		this.persistentEntity = persistentEntity;
+		this.fieldAccessors = fieldAccessorProvider.provideFieldAccessors(persistentEntity);
+		this.fieldAccessListeners = fieldAccessListenerProvider.provideFieldAccessListeners(persistentEntity);
+		this.semanticDatabase = semanticDatabase;
+		this.conversionService = conversionService;
+		this.moleculeCache = moleculeCache;
+	}
+
+	public SemanticPersistentEntity<T> getPersistentEntity() {
+		return persistentEntity;
+	}
+
+	public Map<SemanticPersistentProperty, FieldAccessor> getFieldAccessors() {
+		return fieldAccessors;
+	}
+
+	public Map<SemanticPersistentProperty, List<FieldAccessListener>> getFieldAccessListeners() {
+		return fieldAccessListeners;
+	}
+
+	public SemanticDatabase getSemanticDatabase() {
+		return semanticDatabase;
+	}
+
+	public ConversionService getConversionService() {
+		return conversionService;
+	}
+	
+	/**
+	 * 
+	 * @return the cache of resource molecules to invalidate when the states are persisted
+	 */
+	public MoleculeCache getMoleculeCache() {
+		return moleculeCache;
+	}
+
+}
@@ -15,39 +15,71 @@
  */
 package org.springframework.data.semantic.support.convert.state;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.semantic.convert.state.EntityState;
 import org.springframework.data.semantic.convert.state.EntityStateFactory;
 import org.springframework.data.semantic.core.RDFState;
 import org.springframework.data.semantic.core.SemanticDatabase;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.support.cache.MoleculeCache;
 import org.springframework.data.semantic.support.convert.access.DelegatingFieldAccessorFactory;
+import org.springframework.data.semantic.support.convert.access.DelegatingFieldAccessorProvider;
 import org.springframework.data.semantic.support.convert.access.listener.DelegatingFieldAccessListenerFactory;
+import org.springframework.data.semantic.support.convert.access.listener.DelegatingFieldAccessListenerProvider;
 import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.util.ClassUtils;
 
 public class SemanticEntityStateFactory implements EntityStateFactory<RDFState>{
 	
 	private SemanticMappingContext mappingContext;
-	private DelegatingFieldAccessorFactory delegatingFieldAccessorFactory;
-	private DelegatingFieldAccessListenerFactory delegatingFieldAccessListenerFactory;
+	private DelegatingFieldAccessorProvider fieldAccessorProvider;
+	private DelegatingFieldAccessListenerProvider fieldAccessListenerProvider;
 	private SemanticDatabase semanticDatabase;
 	private ConversionService conversionService;
+	private MoleculeCache moleculeCache = new MoleculeCache(0);
+	private final ConcurrentMap<Class<?>, SemanticEntityStateContext<?>> contexts = new ConcurrentHashMap<Class<?>, SemanticEntityStateContext<?>>();
 	
 	public SemanticEntityStateFactory(SemanticMappingContext mappingContext, DelegatingFieldAccessorFactory delegatingFieldAccessorFactory, DelegatingFieldAccessListenerFactory delegatingFieldAccessListenerFactory, SemanticDatabase semanticDatabase, ConversionService conversionService){
-		this.delegatingFieldAccessorFactory = delegatingFieldAccessorFactory;
-		this.delegatingFieldAccessListenerFactory = delegatingFieldAccessListenerFactory;
+		this.fieldAccessorProvider = new DelegatingFieldAccessorProvider(delegatingFieldAccessorFactory);
+		this.fieldAccessListenerProvider = new DelegatingFieldAccessListenerProvider(delegatingFieldAccessListenerFactory);
 		this.mappingContext = mappingContext;
 		this.semanticDatabase = semanticDatabase;
 		this.conversionService = conversionService;
 	}
 
+	/**
+	 * The cache of resource molecules to invalidate when the entity states are persisted.
+	 * @param moleculeCache
+	 */
+	public void setMoleculeCache(MoleculeCache moleculeCache) {
+		this.moleculeCache = moleculeCache;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <R> EntityState<R, RDFState> getEntityState(R entity,
 			boolean detachable) {
-		final Class<?> entityType = entity.getClass();
-		SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entityType);
-		return new SemanticEntityState<R>(new RDFState(), semanticDatabase, entity, delegatingFieldAccessorFactory, delegatingFieldAccessListenerFactory, (SemanticPersistentEntity<R>) persistentEntity, conversionService);
+		return new SemanticEntityState<R>(new RDFState(), entity, (SemanticEntityStateContext<R>) getContext(ClassUtils.getUserClass(entity)));
+	}
+	
+	private SemanticEntityStateContext<?> getContext(Class<?> entityType){
+		SemanticEntityStateContext<?> context = contexts.get(entityType);
+		if(context == null){
+			SemanticPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entityType);
+			context = createContext(persistentEntity);
+			SemanticEntityStateContext<?> existing = contexts.putIfAbsent(entityType, context);
+			if(existing != null){
+				context = existing;
+			}
+		}
+		return context;
+	}
+	
+	private <R> SemanticEntityStateContext<R> createContext(SemanticPersistentEntity<R> persistentEntity){
+		return new SemanticEntityStateContext<R>(persistentEntity, fieldAccessorProvider, fieldAccessListenerProvider, semanticDatabase, conversionService, moleculeCache);
 	}
 	
 }
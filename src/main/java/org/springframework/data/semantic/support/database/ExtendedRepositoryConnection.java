@@ -15,10 +15,15 @@
  */
 package org.springframework.data.semantic.support.database;
 
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.NotifyingSailConnection;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailConnectionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,10 +31,38 @@ public class ExtendedRepositoryConnection extends RepositoryConnectionWrapper {
 	private Rdf4jConnectionPool connectionPool;
 	private Logger logger = LoggerFactory.getLogger(getClass());
 	private StackTraceElement[] cause;
+	private boolean notifying = false;
+	private StatementCapture capture;
 	
 	public ExtendedRepositoryConnection(Rdf4jConnectionPool connectionPool, Repository repository, RepositoryConnection connection){
 		super(repository, connection);
 		this.connectionPool = connectionPool;
+		if(connection instanceof SailRepositoryConnection){
+			SailConnection sailConnection = ((SailRepositoryConnection) connection).getSailConnection();
+			if(sailConnection instanceof NotifyingSailConnection){
+				this.notifying = true;
+				((NotifyingSailConnection) sailConnection).addConnectionListener(new CaptureListener());
+			}
+		}
+	}
+	
+	/**
+	 * Start collecting the statements changed through this connection, if the underlying sail reports them.
+	 */
+	public void startCapture(){
+		if(notifying){
+			capture = new StatementCapture();
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the statements changed since {@link #startCapture()}, or null if the underlying sail does not report them
+	 */
+	public StatementCapture stopCapture(){
+		StatementCapture capture = this.capture;
+		this.capture = null;
+		return capture;
 	}
 	
 	protected void destroy(){
@@ -59,4 +92,24 @@ public class ExtendedRepositoryConnection extends RepositoryConnectionWrapper {
 	public StackTraceElement[] getCause(){
 		return cause;
 	}
+	
+	private class CaptureListener implements SailConnectionListener {
+
+		@Override
+		public void statementAdded(Statement statement) {
+			StatementCapture capture = ExtendedRepositoryConnection.this.capture;
+			if(capture != null){
+				capture.added(statement);
+			}
+		}
+
+		@Override
+		public void statementRemoved(Statement statement) {
+			StatementCapture capture = ExtendedRepositoryConnection.this.capture;
+			if(capture != null){
+				capture.removed(statement);
+			}
+		}
+		
+	}
 }
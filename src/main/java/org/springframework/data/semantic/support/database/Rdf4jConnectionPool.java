@@ -153,6 +153,10 @@ public final class Rdf4jConnectionPool {
 		}
 	}
 
+	public Repository getRepository() {
+		return repo;
+	}
+	
 	public AtomicInteger getOpenConnections() {
 		return openConnections;
 	}
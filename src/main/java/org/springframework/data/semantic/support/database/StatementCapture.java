@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Statement;
+
+/**
+ * The statements added and removed through a notifying sail connection, see {@link ExtendedRepositoryConnection#startCapture()}.
+ *
+ */
+public class StatementCapture {
+	
+	public static final int MAX_CAPTURED_STATEMENTS = 100000;
+	
+	private final List<Statement> added = new ArrayList<Statement>();
+	private final List<Statement> removed = new ArrayList<Statement>();
+	private boolean complete = true;
+	
+	void added(Statement statement) {
+		capture(added, statement);
+	}
+	
+	void removed(Statement statement) {
+		capture(removed, statement);
+	}
+	
+	private void capture(List<Statement> statements, Statement statement) {
+		if(complete){
+			if(added.size() + removed.size() < MAX_CAPTURED_STATEMENTS){
+				statements.add(statement);
+			}
+			else{
+				//too many to be worth reporting one by one
+				added.clear();
+				removed.clear();
+				complete = false;
+			}
+		}
+	}
+	
+	public List<Statement> getAdded() {
+		return added;
+	}
+	
+	public List<Statement> getRemoved() {
+		return removed;
+	}
+	
+	/**
+	 * 
+	 * @return false if more than {@link #MAX_CAPTURED_STATEMENTS} have changed and the captured statements have been dropped
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+}
@@ -41,6 +41,7 @@ import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
 import org.springframework.data.semantic.support.util.ValueUtils;
 import org.springframework.data.util.TypeInformation;
+import org.springframework.util.ClassUtils;
 
 /**
  * 
@@ -77,6 +78,14 @@ public class SemanticMappingContext  extends AbstractMappingContext<SemanticPers
 		return clazz.isAnnotationPresent(SemanticEntity.class);
 	}
 
+	/**
+	 * Resolves the entity of the user class, if the given type is a generated subclass such as a lazy loading proxy.
+	 */
+	@Override
+	public SemanticPersistentEntity<?> getPersistentEntity(Class<?> type) {
+		return super.getPersistentEntity(ClassUtils.getUserClass(type));
+	}
+
 	@Override
 	protected <T> SemanticPersistentEntity<T> createPersistentEntity(
 			TypeInformation<T> typeInformation) {
@@ -33,11 +33,13 @@ import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.model.AbstractPersistentProperty;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.semantic.annotation.BatchSize;
 import org.springframework.data.semantic.annotation.Context;
 import org.springframework.data.semantic.annotation.Datatype;
 import org.springframework.data.semantic.annotation.Fetch;
 import org.springframework.data.semantic.annotation.Language;
 import org.springframework.data.semantic.annotation.Language.Languages;
+import org.springframework.data.semantic.annotation.Lazy;
 import org.springframework.data.semantic.annotation.Optional;
 import org.springframework.data.semantic.annotation.Predicate;
 import org.springframework.data.semantic.annotation.RelatedTo;
@@ -190,6 +192,20 @@ public class SemanticPersistentPropertyImpl extends
 		return null;
 	}
 
+	@Override
+	public int getBatchSize() {
+		final BatchSize batchSize = getAnnotation(BatchSize.class);
+		if (batchSize != null) {
+			return Math.max(1, batchSize.value());
+		}
+		return isLazy() ? Integer.MAX_VALUE : 1;
+	}
+	
+	@Override
+	public boolean isLazy() {
+		return annotations.containsKey(Lazy.class) && !isIdProperty() && !isAssociation();
+	}
+
 	@Override
 	protected Association<SemanticPersistentProperty> createAssociation() {
 		return new Association<SemanticPersistentProperty>(this, null);
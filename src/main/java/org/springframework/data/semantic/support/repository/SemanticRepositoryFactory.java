@@ -25,6 +25,7 @@ import org.springframework.data.repository.core.support.RepositoryFactorySupport
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.repository.query.QueryLookupStrategy.Key;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.semantic.annotation.Upsert;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.support.repository.query.SemanticQueryMethod;
 
@@ -49,7 +50,9 @@ public class SemanticRepositoryFactory extends RepositoryFactorySupport{
 	@Override
 	protected Object getTargetRepository(RepositoryMetadata metadata) {
 		Class<?> type = metadata.getDomainType();
-		return new SemanticRepositoryImpl(operations, type);
+		SemanticRepositoryImpl repository = new SemanticRepositoryImpl(operations, type);
+		repository.setUpsert(metadata.getRepositoryInterface().isAnnotationPresent(Upsert.class));
+		return repository;
 	}
 
 	@Override
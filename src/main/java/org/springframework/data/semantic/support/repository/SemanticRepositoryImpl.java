@@ -15,8 +15,8 @@
  */
 package org.springframework.data.semantic.support.repository;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.springframework.data.domain.Page;
@@ -24,6 +24,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.semantic.annotation.Upsert;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.repository.SemanticRepository;
 
@@ -39,10 +42,20 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 	
 	protected SemanticOperationsCRUD operations;
 	
+	private boolean upsert = false;
+	
 	public SemanticRepositoryImpl(SemanticOperationsCRUD operations, Class<T> clazz) {
 		this.operations = operations;
 		this.clazz = clazz;
 	}
+	
+	/**
+	 * Save the entities with {@link #upsert(Object)}, see {@link Upsert}.
+	 * @param upsert
+	 */
+	public void setUpsert(boolean upsert) {
+		this.upsert = upsert;
+	}
 
 	@Override
 	public List<T> findAll() {
@@ -62,19 +75,45 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 
 	@Override
 	public <S extends T> S save(S entity) {
+		if(upsert){
+			return operations.upsert(entity);
+		}
 		return operations.save(entity);
 	}
 
 	@Override
 	public <S extends T> Iterable<S> save(Iterable<S> entities) {
+		if(upsert){
+			return operations.upsert(entities);
+		}
 		return operations.save(entities);
 	}
+	
+	@Override
+	public <S extends T> S upsert(S entity) {
+		return operations.upsert(entity);
+	}
+	
+	@Override
+	public <S extends T> Iterable<S> upsert(Iterable<S> entities) {
+		return operations.upsert(entities);
+	}
 
 	@Override
 	public T findOne(IRI id) {
 		return operations.find(id, clazz);
 	}
 
+	@Override
+	public T findOne(IRI id, FetchPlan fetchPlan) {
+		return operations.find(id, clazz, fetchPlan);
+	}
+	
+	@Override
+	public List<T> findAll(FetchPlan fetchPlan) {
+		return operations.findAll(clazz, fetchPlan);
+	}
+
 	@Override
 	public boolean exists(IRI id) {
 		return this.operations.exists(id, clazz);
@@ -82,14 +121,7 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 
 	@Override
 	public List<T> findAll(Iterable<IRI> ids) {
-		List<T> result = new LinkedList<T>();
-		for(IRI id : ids){
-			T entity = this.operations.find(id, clazz);
-			if(entity != null){
-				result.add(entity);
-			}
-		}
-		return result;
+		return this.operations.findAll(ids, clazz);
 	}
 
 	@Override
@@ -97,6 +129,26 @@ public class SemanticRepositoryImpl<T> implements SemanticRepository<T> {
 		return this.operations.count(clazz);
 	}
 
+	@Override
+	public List<T> findReachable(IRI start, String property, int maxDepth) {
+		return this.operations.findReachable(start, clazz, property, maxDepth);
+	}
+
+	@Override
+	public <R> R aggregate(Map<String, Object> parameterToValue, AggregateFunction function, String property, Class<R> resultType) {
+		return this.operations.aggregate(clazz, parameterToValue, function, property, resultType);
+	}
+
+	@Override
+	public <K, R> Map<K, R> aggregateGroupedBy(Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType, AggregateFunction function, String property, Class<R> resultType) {
+		return this.operations.aggregateGroupedBy(clazz, parameterToValue, groupByProperty, keyType, function, property, resultType);
+	}
+
+	@Override
+	public <K> Map<K, Long> countGroupedBy(Map<String, Object> parameterToValue, String groupByProperty, Class<K> keyType) {
+		return this.operations.countGroupedBy(clazz, parameterToValue, groupByProperty, keyType);
+	}
+
 	@Override
 	public void delete(IRI id) {
 		operations.delete(id, clazz);
@@ -30,6 +30,7 @@ import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
 
@@ -42,6 +43,16 @@ public abstract class AbstractSemanticRepositoryQuery implements RepositoryQuery
 	
 	public abstract Object doExecute(Map<String, Object> params);
 	
+	/**
+	 * Execute the query with the {@link FetchPlan} passed as a parameter of the query method.
+	 * @param params
+	 * @param fetchPlan
+	 * @return
+	 */
+	public Object doExecute(Map<String, Object> params, FetchPlan fetchPlan) {
+		return doExecute(params);
+	}
+	
 	public abstract String getPrefix();
 	
 	public AbstractSemanticRepositoryQuery(SemanticOperationsCRUD operations, String methodName, Class<?> domainClass, Parameters<?, ?> parameters) {
@@ -113,6 +124,9 @@ public abstract class AbstractSemanticRepositoryQuery implements RepositoryQuery
 	public Object execute(Object[] parameters) {
 		final ParameterAccessor accessor = new ParametersParameterAccessor(this.parameters, parameters);
 		Map<String, Object> params = resolveParameters(getParameterValues(accessor));
+		if(this.parameters instanceof SemanticParameters && ((SemanticParameters) this.parameters).hasFetchPlanParameter()){
+			return doExecute(params, (FetchPlan) parameters[((SemanticParameters) this.parameters).getFetchPlanIndex()]);
+		}
 		return doExecute(params);
 	}
 
@@ -18,21 +18,40 @@ package org.springframework.data.semantic.support.repository.query;
 import java.util.Map;
 
 import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
 
 public class FindSemanticRepositoryQuery extends AbstractSemanticRepositoryQuery{
 	
 	private static final String PREFIX = "By";
+	
+	private final FetchPlan fetchPlan;
 
 	public FindSemanticRepositoryQuery(SemanticOperationsCRUD operations,
 			String queryMethodName, Class<?> domainClass,
 			Parameters<?, ?> parameters) {
+		this(operations, queryMethodName, domainClass, parameters, null);
+	}
+	
+	/**
+	 * 
+	 * @param fetchPlan - the plan of the retrieved entities, unless one is passed as a parameter; if null the fetch strategies of the mapping apply
+	 */
+	public FindSemanticRepositoryQuery(SemanticOperationsCRUD operations,
+			String queryMethodName, Class<?> domainClass,
+			Parameters<?, ?> parameters, FetchPlan fetchPlan) {
 		super(operations, queryMethodName, domainClass, parameters);
+		this.fetchPlan = fetchPlan;
 	}
 
 	@Override
 	public Object doExecute(Map<String, Object> params) {
-		return operations.findByProperty(this.domainClass, params);
+		return operations.findByProperty(this.domainClass, params, this.fetchPlan);
+	}
+	
+	@Override
+	public Object doExecute(Map<String, Object> params, FetchPlan fetchPlan) {
+		return operations.findByProperty(this.domainClass, params, fetchPlan != null ? fetchPlan : this.fetchPlan);
 	}
 
 	@Override
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.repository.query;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.semantic.core.FetchPlan;
+import org.springframework.data.semantic.support.repository.query.SemanticParameters.SemanticParameter;
+
+/**
+ * The parameters of a semantic repository query method. A {@link FetchPlan} parameter is not bound to the query, 
+ * but defines which part of the molecules of the retrieved entities is fetched.
+ *
+ */
+public class SemanticParameters extends Parameters<SemanticParameters, SemanticParameter> {
+	
+	private final int fetchPlanIndex;
+
+	public SemanticParameters(Method method) {
+		super(method);
+		this.fetchPlanIndex = findFetchPlanIndex(this);
+	}
+	
+	private SemanticParameters(List<SemanticParameter> parameters) {
+		super(parameters);
+		this.fetchPlanIndex = findFetchPlanIndex(this);
+	}
+	
+	private static int findFetchPlanIndex(SemanticParameters parameters){
+		for(SemanticParameter parameter : parameters){
+			if(parameter.isFetchPlan()){
+				return parameter.getIndex();
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	protected SemanticParameter createParameter(MethodParameter parameter) {
+		return new SemanticParameter(parameter);
+	}
+
+	@Override
+	protected SemanticParameters createFrom(List<SemanticParameter> parameters) {
+		return new SemanticParameters(parameters);
+	}
+	
+	/**
+	 * 
+	 * @return the index of the {@link FetchPlan} parameter or -1 if there is none
+	 */
+	public int getFetchPlanIndex() {
+		return fetchPlanIndex;
+	}
+	
+	public boolean hasFetchPlanParameter() {
+		return fetchPlanIndex >= 0;
+	}
+	
+	public static class SemanticParameter extends Parameter {
+
+		protected SemanticParameter(MethodParameter parameter) {
+			super(parameter);
+		}
+		
+		@Override
+		public boolean isSpecialParameter() {
+			return super.isSpecialParameter() || isFetchPlan();
+		}
+		
+		public boolean isFetchPlan() {
+			return FetchPlan.class.equals(getType());
+		}
+		
+	}
+
+}
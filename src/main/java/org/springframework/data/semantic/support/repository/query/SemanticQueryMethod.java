@@ -18,18 +18,54 @@ package org.springframework.data.semantic.support.repository.query;
 import java.lang.reflect.Method;
 
 import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.semantic.annotation.FetchGraph;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.core.SemanticOperationsCRUD;
+import org.springframework.data.semantic.support.convert.projection.ProjectionInformation;
 
 public class SemanticQueryMethod extends QueryMethod {
 	
 	private PartTree tree;
 	
+	private FetchPlan fetchPlan;
+	
+	private Class<?> projectionType;
+	
 	public SemanticQueryMethod(Method method, RepositoryMetadata metadata) {
 		super(method, metadata);
 		this.tree = new PartTree(method.getName(), metadata.getDomainType());
+		FetchGraph fetchGraph = method.getAnnotation(FetchGraph.class);
+		if(fetchGraph != null){
+			this.fetchPlan = new FetchPlan(fetchGraph.depth(), fetchGraph.value());
+		}
+		if(ProjectionInformation.isProjection(getReturnedObjectType(), getDomainClass())){
+			this.projectionType = getReturnedObjectType();
+		}
+	}
+	
+	@Override
+	protected Parameters<?, ?> createParameters(Method method) {
+		return new SemanticParameters(method);
+	}
+	
+	/**
+	 * 
+	 * @return the fetch plan declared with {@link FetchGraph} or null if there is none
+	 */
+	public FetchPlan getFetchPlan() {
+		return fetchPlan;
+	}
+	
+	/**
+	 * 
+	 * @return the projection of the domain type returned by the method or null if it returns entities
+	 */
+	public Class<?> getProjectionType() {
+		return projectionType;
 	}
 	
 	public RepositoryQuery createQuery(SemanticOperationsCRUD operations){
@@ -44,8 +80,11 @@ public class SemanticQueryMethod extends QueryMethod {
 			//TODO
 			return null;
 		}
+		else if(projectionType != null){
+			return new ProjectingSemanticRepositoryQuery(operations, this.getName(), this.getDomainClass(), this.getParameters(), this.projectionType);
+		}
 		else {
-			return new FindSemanticRepositoryQuery(operations, this.getName(), this.getDomainClass(), this.getParameters());
+			return new FindSemanticRepositoryQuery(operations, this.getName(), this.getDomainClass(), this.getParameters(), this.fetchPlan);
 		}
 		
 	}
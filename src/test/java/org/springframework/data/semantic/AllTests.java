@@ -24,11 +24,31 @@ import org.springframework.data.semantic.mapping.TestSemanticEntityState;
 import org.springframework.data.semantic.mapping.TestSemanticPersistentEntity;
 import org.springframework.data.semantic.mapping.TestStringSemanticPersistentEntity;
 import org.springframework.data.semantic.repository.TestLazyInitializationDSP705;
+import org.springframework.data.semantic.repository.TestProjections;
 import org.springframework.data.semantic.repository.TestSemanticRepository;
+import org.springframework.data.semantic.support.TestAggregation;
+import org.springframework.data.semantic.support.TestBulkWrite;
+import org.springframework.data.semantic.support.TestCacheWarmUp;
+import org.springframework.data.semantic.support.TestDatabaseChanges;
+import org.springframework.data.semantic.support.TestFetchPlan;
+import org.springframework.data.semantic.support.TestInvalidationBus;
+import org.springframework.data.semantic.support.TestLazyLoading;
+import org.springframework.data.semantic.support.TestMoleculeCache;
 import org.springframework.data.semantic.support.TestNamespaceAnnotation;
+import org.springframework.data.semantic.support.TestNegativeCache;
+import org.springframework.data.semantic.support.TestParallelConversion;
+import org.springframework.data.semantic.support.TestQueryResultCache;
+import org.springframework.data.semantic.support.TestReachableEntities;
 import org.springframework.data.semantic.support.TestRelativePredicateAnnotation;
+import org.springframework.data.semantic.support.TestSelectMaterialization;
 import org.springframework.data.semantic.support.TestSemanticTemplateStatementsCollector;
+import org.springframework.data.semantic.support.TestSession;
+import org.springframework.data.semantic.support.TestStripedEntityCache;
+import org.springframework.data.semantic.support.TestUpsert;
 import org.springframework.data.semantic.support.TestValueUtils;
+import org.springframework.data.semantic.support.TestWriteBehind;
+import org.springframework.data.semantic.support.cache.TestMulticastInvalidationTransport;
+import org.springframework.data.semantic.support.convert.state.TestSemanticEntityStateFactory;
 
 @RunWith(Suite.class)
 @SuiteClasses({
@@ -43,7 +63,27 @@ import org.springframework.data.semantic.support.TestValueUtils;
 	, TestSemanticRepository.class 
 	, TestNamespaceAnnotation.class
 	, TestRelativePredicateAnnotation.class
-	, TestSemanticTemplateStatementsCollector.class})
+	, TestSemanticTemplateStatementsCollector.class
+	, TestSelectMaterialization.class
+	, TestLazyLoading.class
+	, TestFetchPlan.class
+	, TestProjections.class
+	, TestAggregation.class
+	, TestReachableEntities.class
+	, TestBulkWrite.class
+	, TestParallelConversion.class
+	, TestUpsert.class
+	, TestSession.class
+	, TestWriteBehind.class
+	, TestStripedEntityCache.class
+	, TestMoleculeCache.class
+	, TestQueryResultCache.class
+	, TestNegativeCache.class
+	, TestDatabaseChanges.class
+	, TestInvalidationBus.class
+	, TestCacheWarmUp.class
+	, TestMulticastInvalidationTransport.class
+	, TestSemanticEntityStateFactory.class})
 public class AllTests {
 
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.model;
+
+import java.util.Collection;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.annotation.RelatedTo;
+import org.springframework.data.semantic.annotation.ResourceId;
+import org.springframework.data.semantic.annotation.SemanticEntity;
+import org.springframework.data.semantic.support.Direction;
+
+@SemanticEntity
+public class CollectedEntity {
+	
+	@ResourceId
+	private IRI uri;
+	
+	@RelatedTo(direction=Direction.INCOMING, mappedProperty="entities")
+	private Collection<ModelEntityCollector> collectors;
+	
+	public CollectedEntity() {
+	}
+	
+	public CollectedEntity(IRI uri, Collection<ModelEntityCollector> collectors) {
+		this.uri = uri;
+		this.collectors = collectors;
+	}
+
+	public IRI getUri() {
+		return uri;
+	}
+
+	public void setUri(IRI uri) {
+		this.uri = uri;
+	}
+
+	public Collection<ModelEntityCollector> getCollectors() {
+		return collectors;
+	}
+
+	public void setCollectors(Collection<ModelEntityCollector> collectors) {
+		this.collectors = collectors;
+	}
+
+}
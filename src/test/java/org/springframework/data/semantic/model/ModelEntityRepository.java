@@ -18,6 +18,8 @@ package org.springframework.data.semantic.model;
 import java.util.List;
 
 import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.annotation.FetchGraph;
+import org.springframework.data.semantic.core.FetchPlan;
 import org.springframework.data.semantic.repository.SemanticRepository;
 
 public interface ModelEntityRepository extends SemanticRepository<ModelEntity> {
@@ -39,5 +41,14 @@ public interface ModelEntityRepository extends SemanticRepository<ModelEntity> {
 	Long countByRelated(IRI related);
 	
 	ModelEntity findOneByRelated(IRI related);
+	
+	List<ModelEntity> findByName(String name, FetchPlan fetchPlan);
+	
+	@FetchGraph(value={"name"}, depth=0)
+	List<ModelEntity> findNamesByName(String name);
+	
+	List<ModelEntityLabel> findLabelsByName(String name);
+	
+	List<ModelEntitySummary> findSummariesBySynonyms(String synonyms);
 
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.model;
+
+import java.util.List;
+
+public class ModelEntitySummary {
+	
+	private final String uri;
+	
+	private final String name;
+	
+	private final List<String> synonyms;
+	
+	public ModelEntitySummary(String uri, String name, List<String> synonyms) {
+		this.uri = uri;
+		this.name = name;
+		this.synonyms = synonyms;
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<String> getSynonyms() {
+		return synonyms;
+	}
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.model;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.annotation.ResourceId;
+import org.springframework.data.semantic.annotation.SemanticEntity;
+import org.springframework.data.semantic.annotation.WriteBehind;
+
+@SemanticEntity
+@WriteBehind
+public class PresenceEntity {
+	
+	@ResourceId
+	private IRI uri;
+	
+	private String status;
+	
+	private int heartbeats;
+	
+	public PresenceEntity() {
+	}
+	
+	public PresenceEntity(IRI uri, String status, int heartbeats) {
+		this.uri = uri;
+		this.status = status;
+		this.heartbeats = heartbeats;
+	}
+
+	public IRI getUri() {
+		return uri;
+	}
+
+	public void setUri(IRI uri) {
+		this.uri = uri;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public int getHeartbeats() {
+		return heartbeats;
+	}
+
+	public void setHeartbeats(int heartbeats) {
+		this.heartbeats = heartbeats;
+	}
+
+}
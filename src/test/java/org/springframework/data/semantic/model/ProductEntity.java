@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.model;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.data.semantic.annotation.ResourceId;
+import org.springframework.data.semantic.annotation.SemanticEntity;
+
+@SemanticEntity
+public class ProductEntity {
+	
+	@ResourceId
+	private IRI uri;
+	
+	private String category;
+	
+	private int price;
+	
+	public ProductEntity() {
+	}
+	
+	public ProductEntity(IRI uri, String category, int price) {
+		this.uri = uri;
+		this.category = category;
+		this.price = price;
+	}
+
+	public IRI getUri() {
+		return uri;
+	}
+
+	public void setUri(IRI uri) {
+		this.uri = uri;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public void setCategory(String category) {
+		this.category = category;
+	}
+
+	public int getPrice() {
+		return price;
+	}
+
+	public void setPrice(int price) {
+		this.price = price;
+	}
+
+}
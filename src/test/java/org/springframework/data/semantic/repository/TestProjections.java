@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityLabel;
+import org.springframework.data.semantic.model.ModelEntityRepository;
+import org.springframework.data.semantic.model.ModelEntitySummary;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.SemanticTemplateCRUD;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestProjections {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Autowired
+	private ModelEntityRepository modelEntityRepository;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testInterfaceProjection(){
+		List<ModelEntityLabel> labels = modelEntityRepository.findLabelsByName("Model Entity One");
+		assertEquals(1, labels.size());
+		ModelEntityLabel label = labels.get(0);
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, label.getUri());
+		assertEquals("Model Entity One", label.getName());
+		assertEquals(new HashSet<Object>(Arrays.asList(MODEL_ENTITY.ENTITY_TWO, MODEL_ENTITY.ENTITY_THREE)), new HashSet<Object>(label.getRelated()));
+		assertFalse(label instanceof ModelEntity);
+		assertTrue(label.toString().contains("Model Entity One"));
+	}
+	
+	@Test
+	public void testClassProjection(){
+		List<ModelEntitySummary> summaries = modelEntityRepository.findSummariesBySynonyms("Model Entity Zwei");
+		assertEquals(1, summaries.size());
+		ModelEntitySummary summary = summaries.get(0);
+		assertEquals(MODEL_ENTITY.ENTITY_TWO.stringValue(), summary.getUri());
+		assertEquals("Model Entity Two", summary.getName());
+		assertEquals(new HashSet<String>(Arrays.asList("Model Entity Zwei", "Model Entity Due")), new HashSet<String>(summary.getSynonyms()));
+	}
+	
+	@Test
+	public void testProjectionOfAllEntities(){
+		List<ModelEntityLabel> labels = template.findProjectionsByProperty(ModelEntity.class, new HashMap<String, Object>(), ModelEntityLabel.class);
+		assertEquals(template.count(ModelEntity.class), labels.size());
+		for(ModelEntityLabel label : labels){
+			if(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:4").equals(label.getUri())){
+				assertNull(label.getName());
+				assertEquals(Arrays.asList(MODEL_ENTITY.ENTITY_TWO), label.getRelated());
+			}
+		}
+	}
+	
+	@Test
+	public void testProjectionQuery(){
+		EntityToQueryConverter queryConverter = new EntityToQueryConverter(template.getSemanticMappingContext());
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("synonyms", "Model Entity Zwei");
+		String query = queryConverter.getTupleQueryForEntityClass(persistentEntity, parameters, Arrays.asList("name"));
+		assertTrue(query.startsWith("SELECT"));
+		assertTrue(query.contains("prefLabel"));
+		assertTrue(query.contains("\"Model Entity Zwei\""));
+		assertFalse(query.contains("related"));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidProjection(){
+		template.findProjectionsByProperty(ModelEntity.class, new HashMap<String, Object>(), InvalidProjection.class);
+	}
+	
+	public interface InvalidProjection {
+		
+		String getUnknown();
+		
+	}
+
+}
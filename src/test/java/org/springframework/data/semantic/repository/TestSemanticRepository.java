@@ -19,12 +19,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
@@ -231,6 +234,17 @@ public class TestSemanticRepository {
 		assertEquals(uris.size(), count);
 	}
 	
+	@Test
+	public void testFindListOrder(){
+		List<ModelEntity> entities = modelEntityRepository.findAll(Arrays.asList(MODEL_ENTITY.ENTITY_TWO, MODEL_ENTITY.ENTITY_NOT_EXISTS, MODEL_ENTITY.ENTITY_ONE));
+		assertEquals(2, entities.size());
+		assertEquals(MODEL_ENTITY.ENTITY_TWO, entities.get(0).getUri());
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entities.get(1).getUri());
+		ModelEntity entity = modelEntityRepository.findOne(MODEL_ENTITY.ENTITY_ONE);
+		assertEquals(entity.getName(), entities.get(1).getName());
+		assertEquals(entity.getRelated().size(), entities.get(1).getRelated().size());
+	}
+	
 	@Test
 	public void testExists(){
 		assertTrue(modelEntityRepository.exists(MODEL_ENTITY.ENTITY_ONE));
@@ -248,6 +262,19 @@ public class TestSemanticRepository {
 		assertEquals(modelEntityRepository.count(), count);
 	}
 	
+	@Test
+	public void testFindAllSharesInstances(){
+		Map<IRI, ModelEntity> entitiesById = new HashMap<IRI, ModelEntity>();
+		for(ModelEntity entity : modelEntityRepository.findAll()){
+			entitiesById.put(entity.getUri(), entity);
+		}
+		ModelEntity entityOne = entitiesById.get(MODEL_ENTITY.ENTITY_ONE);
+		assertNotNull(entityOne);
+		for(ModelEntity related : entityOne.getRelated()){
+			assertSame(entitiesById.get(related.getUri()), related);
+		}
+	}
+	
 	@Test
 	public void testFindPage(){
 		int pageSize = 2;
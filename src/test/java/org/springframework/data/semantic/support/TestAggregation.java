@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityRepository;
+import org.springframework.data.semantic.model.ProductEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestAggregation {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Autowired
+	private ModelEntityRepository modelEntityRepository;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		List<ProductEntity> products = new ArrayList<ProductEntity>();
+		products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:1"), "wine", 10));
+		products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:2"), "wine", 20));
+		products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:3"), "wine", 30));
+		products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:4"), "cheese", 5));
+		template.create(products);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testAggregate(){
+		Map<String, Object> all = new HashMap<String, Object>();
+		assertEquals(Long.valueOf(4), template.aggregate(ProductEntity.class, all, AggregateFunction.COUNT, null, Long.class));
+		assertEquals(Integer.valueOf(65), template.aggregate(ProductEntity.class, all, AggregateFunction.SUM, "price", Integer.class));
+		assertEquals(Integer.valueOf(5), template.aggregate(ProductEntity.class, all, AggregateFunction.MIN, "price", Integer.class));
+		assertEquals(Integer.valueOf(30), template.aggregate(ProductEntity.class, all, AggregateFunction.MAX, "price", Integer.class));
+		
+		Map<String, Object> wine = Collections.<String, Object>singletonMap("category", "wine");
+		assertEquals(20.0, template.aggregate(ProductEntity.class, wine, AggregateFunction.AVG, "price", Double.class), 0.0);
+		assertEquals(template.countByProperty(ProductEntity.class, wine), template.aggregate(ProductEntity.class, wine, AggregateFunction.COUNT, null, Long.class));
+		
+		Map<String, Object> none = Collections.<String, Object>singletonMap("category", "bread");
+		assertNull(template.aggregate(ProductEntity.class, none, AggregateFunction.MAX, "price", Integer.class));
+	}
+	
+	@Test
+	public void testAggregateGroupedBy(){
+		Map<String, Long> facets = template.countGroupedBy(ProductEntity.class, new HashMap<String, Object>(), "category", String.class);
+		assertEquals(2, facets.size());
+		assertEquals("wine", facets.keySet().iterator().next());
+		assertEquals(Long.valueOf(3), facets.get("wine"));
+		assertEquals(Long.valueOf(1), facets.get("cheese"));
+		
+		Map<String, Integer> maxPrices = template.aggregateGroupedBy(ProductEntity.class, new HashMap<String, Object>(), "category", String.class, AggregateFunction.MAX, "price", Integer.class);
+		assertEquals(Integer.valueOf(30), maxPrices.get("wine"));
+		assertEquals(Integer.valueOf(5), maxPrices.get("cheese"));
+		
+		Map<Integer, Long> priceFacets = template.countGroupedBy(ProductEntity.class, Collections.<String, Object>singletonMap("category", "wine"), "price", Integer.class);
+		assertEquals(3, priceFacets.size());
+		assertTrue(priceFacets.containsKey(20));
+	}
+	
+	@Test
+	public void testRepositoryAggregation(){
+		Map<IRI, Long> relatedFacets = modelEntityRepository.countGroupedBy(new HashMap<String, Object>(), "related", IRI.class);
+		assertEquals(Long.valueOf(3), relatedFacets.get(MODEL_ENTITY.ENTITY_TWO));
+		assertEquals(Long.valueOf(template.count(ModelEntity.class)), modelEntityRepository.aggregate(new HashMap<String, Object>(), AggregateFunction.COUNT, null, Long.class));
+		assertEquals("Model Entity One", modelEntityRepository.aggregate(new HashMap<String, Object>(), AggregateFunction.MIN, "name", String.class));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnknownProperty(){
+		template.aggregate(ProductEntity.class, new HashMap<String, Object>(), AggregateFunction.SUM, "weight", Integer.class);
+	}
+
+}
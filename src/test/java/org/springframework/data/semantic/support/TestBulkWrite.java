@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.BulkWriteListener;
+import org.springframework.data.semantic.core.BulkWriteProgress;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ProductEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestBulkWrite {
+	
+	private static final int PRODUCTS = 250;
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		template.setCommitSize(100);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setCommitSize(SemanticTemplateCRUD.DEFAULT_COMMIT_SIZE);
+		template.setBatchSize(SemanticTemplateCRUD.DEFAULT_BATCH_SIZE);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testStreamingCreate(){
+		long count = sdb.count();
+		final List<BulkWriteProgress> commits = new ArrayList<BulkWriteProgress>();
+		BulkWriteProgress progress = template.create(new ProductIterator(1), new BulkWriteListener() {
+			@Override
+			public void committed(BulkWriteProgress progress) {
+				commits.add(progress);
+			}
+		});
+		assertEquals(PRODUCTS, progress.getEntities());
+		assertTrue(progress.getCommits() > 1);
+		assertEquals(progress.getCommits(), commits.size());
+		for(int i = 1; i < commits.size(); i++){
+			assertTrue(commits.get(i).getEntities() > commits.get(i-1).getEntities());
+			assertTrue(commits.get(i).getStatements() - commits.get(i-1).getStatements() >= 100 || i == commits.size()-1);
+		}
+		assertEquals(progress.getStatements(), sdb.count() - count);
+		assertEquals(PRODUCTS, template.count(ProductEntity.class));
+	}
+	
+	@Test
+	public void testStreamingSave(){
+		template.create(new ProductIterator(1), null);
+		long count = sdb.count();
+		BulkWriteProgress progress = template.save(new ProductIterator(2), null);
+		assertEquals(PRODUCTS, progress.getEntities());
+		assertEquals(count, sdb.count());
+		Integer sum = template.aggregate(ProductEntity.class, new HashMap<String, Object>(), AggregateFunction.SUM, "price", Integer.class);
+		assertEquals(Integer.valueOf(PRODUCTS * (PRODUCTS + 1)), sum);
+	}
+	
+	@Test
+	public void testBatchedStateRead(){
+		SemanticTemplateStatementsCollector collector = new SemanticTemplateStatementsCollector(sdb, template.getSemanticMappingContext(), new EntityToQueryConverter(template.getSemanticMappingContext()));
+		IRI entityFour = ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:4");
+		List<IRI> ids = Arrays.asList(MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_TWO, entityFour, MODEL_ENTITY.ENTITY_NOT_EXISTS);
+		Map<IRI, Model> batched = collector.getStatementsForResourcesOriginalPredicates(ModelEntity.class, ids, MappingPolicyImpl.DEFAULT_POLICY);
+		assertEquals(3, batched.size());
+		for(IRI id : ids){
+			Model single = collector.getStatementsForResourceOriginalPredicates(id, ModelEntity.class, MappingPolicyImpl.DEFAULT_POLICY);
+			if(single.isEmpty()){
+				assertFalse(batched.containsKey(id));
+			}
+			else{
+				assertEquals(single, batched.get(id));
+			}
+		}
+	}
+	
+	@Test
+	public void testBatchedSave(){
+		template.setBatchSize(2);
+		List<ModelEntity> entities = template.findAll(ModelEntity.class);
+		for(ModelEntity entity : entities){
+			entity.setName(entity.getName()+" renamed");
+		}
+		template.save(entities);
+		List<Statement> names = sdb.getStatementsForTriplePattern(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, null);
+		assertEquals(1, names.size());
+		assertEquals("Model Entity One renamed", names.get(0).getObject().stringValue());
+		ModelEntity one = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertEquals("Model Entity One renamed", one.getName());
+		assertEquals(2, one.getRelated().size());
+	}
+	
+	private static class ProductIterator implements Iterator<ProductEntity> {
+		
+		private final int factor;
+		private int next = 1;
+		
+		ProductIterator(int factor){
+			this.factor = factor;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next <= PRODUCTS;
+		}
+
+		@Override
+		public ProductEntity next() {
+			ProductEntity product = new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:"+next), "category"+(next % 10), next * factor);
+			next++;
+			return product;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.cache.EntityCache;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.cache.CacheWarmer;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestCacheWarmUp {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	private final File hotKeys = new File("target/hot-keys.txt");
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		hotKeys.delete();
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setWarmUp(null, 0, 1);
+		template.setPreloadedTypes(Collections.<Class<?>>emptyList());
+		sdb.clear();
+	}
+	
+	@Test
+	public void testPreloadedTypes(){
+		EntityCache entityCache = template.getEntityCache();
+		entityCache.clearAll();
+		template.setPreloadedTypes(Collections.<Class<?>>singletonList(ModelEntity.class));
+		template.warmUp();
+		assertNotNull(entityCache.get(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		assertNotNull(entityCache.get(MODEL_ENTITY.ENTITY_TWO, ModelEntity.class));
+		assertNotNull(entityCache.get(MODEL_ENTITY.ENTITY_THREE, ModelEntity.class));
+	}
+	
+	@Test
+	public void testHotKeys(){
+		template.setWarmUp(hotKeys, 0, 100);
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		//the recorded keys are dumped when the recording stops
+		template.setWarmUp(null, 0, 1);
+		Map<Class<?>, List<IRI>> dumped = new CacheWarmer(hotKeys, 1).readHotKeys();
+		assertEquals(Collections.singletonList(MODEL_ENTITY.ENTITY_ONE), dumped.get(ModelEntity.class));
+		
+		EntityCache entityCache = template.getEntityCache();
+		entityCache.clearAll();
+		template.setWarmUp(hotKeys, 0, 100);
+		template.warmUp();
+		assertNotNull(entityCache.get(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		assertNull(entityCache.get(MODEL_ENTITY.ENTITY_TWO, ModelEntity.class));
+	}
+	
+	@Test
+	public void testPeriodicDumps() throws InterruptedException{
+		template.setWarmUp(hotKeys, 50, 100);
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		//the keys are dumped without the recording being stopped
+		CacheWarmer reader = new CacheWarmer(hotKeys, 1);
+		for(int i = 0; i < 100 && reader.readHotKeys().get(ModelEntity.class) == null; i++){
+			Thread.sleep(50);
+		}
+		assertEquals(Collections.singletonList(MODEL_ENTITY.ENTITY_ONE), reader.readHotKeys().get(ModelEntity.class));
+	}
+	
+	@Test
+	public void testWriteBehindKeepsRecording(){
+		template.setWarmUp(hotKeys, 0, 100);
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		//reconfiguring the write-behind buffer must not stop the recording
+		template.setWriteBehind(SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_DELAY, SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_CAPACITY);
+		assertFalse(hotKeys.exists());
+		template.setWarmUp(null, 0, 1);
+		assertTrue(hotKeys.isFile());
+	}
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestDatabaseChanges {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testEvictedByStatements(){
+		assertEquals("Model Entity One", getName());
+		sdb.removeStatements(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, null);
+		sdb.addStatement(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, SimpleValueFactory.getInstance().createLiteral("Model Entity Uno"));
+		assertEquals("Model Entity Uno", getName());
+	}
+	
+	@Test
+	public void testEvictedByUpdate(){
+		assertEquals("Model Entity One", getName());
+		sdb.executeUpdateStatement("DELETE { <"+MODEL_ENTITY.ENTITY_ONE+"> <"+SKOS.PREF_LABEL+"> ?name } "
+				+ "INSERT { <"+MODEL_ENTITY.ENTITY_ONE+"> <"+SKOS.PREF_LABEL+"> \"Model Entity Eins\" } "
+				+ "WHERE { <"+MODEL_ENTITY.ENTITY_ONE+"> <"+SKOS.PREF_LABEL+"> ?name }");
+		assertEquals("Model Entity Eins", getName());
+	}
+	
+	@Test
+	public void testEvictedByFile() throws IOException{
+		int related = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getRelated().size();
+		File file = new File("target/related-statements.nt");
+		FileWriter writer = new FileWriter(file);
+		try{
+			writer.write("<"+MODEL_ENTITY.ENTITY_ONE+"> <"+ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "related")+"> <"+ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:4")+"> .\n");
+		} finally{
+			writer.close();
+		}
+		sdb.addStatementsFromFile(file);
+		assertEquals(related + 1, template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getRelated().size());
+	}
+	
+	private String getName(){
+		return template.<ModelEntity>find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName();
+	}
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.FetchPlan;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollector;
+import org.springframework.data.semantic.model.ModelEntityRepository;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestFetchPlan {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Autowired
+	private ModelEntityRepository modelEntityRepository;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testQueryPruning(){
+		EntityToQueryConverter queryConverter = new EntityToQueryConverter(template.getSemanticMappingContext());
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		String fullQuery = queryConverter.getGraphQueryForResource(MODEL_ENTITY.ENTITY_ONE, persistentEntity, MappingPolicyImpl.ALL_POLICY, null);
+		String prunedQuery = queryConverter.getGraphQueryForResource(MODEL_ENTITY.ENTITY_ONE, persistentEntity, MappingPolicyImpl.ALL_POLICY, new FetchPlan(0, "name"));
+		assertTrue(fullQuery.contains("altLabel"));
+		assertTrue(prunedQuery.contains("prefLabel"));
+		assertFalse(prunedQuery.contains("altLabel"));
+		assertFalse(prunedQuery.contains("related"));
+		assertTrue(prunedQuery.length() < fullQuery.length());
+	}
+	
+	@Test
+	public void testDeferredProperties(){
+		//a plan is applied only on a cache miss, so the entity is found with the plan before it is cached
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class, new FetchPlan(0, "name"));
+		ModelEntity full = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		SemanticPersistentProperty synonyms = persistentEntity.getPersistentProperty("synonyms");
+		SemanticPersistentProperty related = persistentEntity.getPersistentProperty("related");
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, synonyms));
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, related));
+		assertEquals(full.getName(), entity.getName());
+		assertEquals(full.getSynonyms().size(), entity.getSynonyms().size());
+		assertEquals(full.getRelated().size(), entity.getRelated().size());
+		assertTrue(LazyLoadingProxyFactory.isFullyLoaded(entity));
+	}
+	
+	@Test
+	public void testFetchedAssociation(){
+		ModelEntityCollector collector = template.find(MODEL_ENTITY.COLLECTOR_ONE, ModelEntityCollector.class, new FetchPlan(1, "entities.name"));
+		SemanticPersistentProperty synonyms = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class).getPersistentProperty("synonyms");
+		assertEquals(2, collector.getEntities().size());
+		for(ModelEntity entity : collector.getEntities()){
+			assertTrue(LazyLoadingProxyFactory.isInitialized(entity));
+			assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, synonyms));
+			assertTrue(entity.getName().startsWith("Model Entity"));
+		}
+		
+		EntityToQueryConverter queryConverter = new EntityToQueryConverter(template.getSemanticMappingContext());
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(ModelEntityCollector.class);
+		assertFalse(queryConverter.getGraphQueryForResource(MODEL_ENTITY.COLLECTOR_ONE, persistentEntity, MappingPolicyImpl.ALL_POLICY, new FetchPlan(0)).contains("prefLabel"));
+		collector = template.find(MODEL_ENTITY.COLLECTOR_ONE, ModelEntityCollector.class, new FetchPlan(0));
+		assertEquals(2, collector.getEntities().size());
+		for(ModelEntity entity : collector.getEntities()){
+			assertTrue(entity.getName().startsWith("Model Entity"));
+		}
+	}
+	
+	@Test
+	public void testSaveKeepsDeferredProperties(){
+		long count = sdb.count();
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class, new FetchPlan(0, "name"));
+		entity.setName("Model Entity Renamed");
+		template.save(entity);
+		assertEquals(count, sdb.count());
+		ModelEntity saved = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertEquals("Model Entity Renamed", saved.getName());
+		assertEquals(2, saved.getSynonyms().size());
+		assertEquals(2, saved.getRelated().size());
+	}
+	
+	@Test
+	public void testFindByPropertyWithFetchPlan(){
+		HashMap<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("name", "Model Entity One");
+		Collection<ModelEntity> entities = template.findByProperty(ModelEntity.class, parameters, new FetchPlan(0, "name"));
+		assertEquals(1, entities.size());
+		
+		List<ModelEntity> all = template.findAll(ModelEntity.class, new FetchPlan(0, "name"));
+		assertEquals(template.count(ModelEntity.class), all.size());
+	}
+	
+	@Test
+	public void testRepositoryFetchPlan(){
+		SemanticPersistentProperty synonyms = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class).getPersistentProperty("synonyms");
+		List<ModelEntity> entities = modelEntityRepository.findByName("Model Entity One", new FetchPlan(0, "name"));
+		assertEquals(1, entities.size());
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entities.get(0), synonyms));
+		
+		entities = modelEntityRepository.findNamesByName("Model Entity One");
+		assertEquals(1, entities.size());
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entities.get(0), synonyms));
+		
+		ModelEntity entity = modelEntityRepository.findOne(MODEL_ENTITY.ENTITY_ONE, new FetchPlan(0, "name"));
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, synonyms));
+		assertEquals(2, entity.getSynonyms().size());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnknownProperty(){
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class, new FetchPlan(1, "related.unknown"));
+	}
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.cache.InvalidationEvent;
+import org.springframework.data.semantic.cache.InvalidationListener;
+import org.springframework.data.semantic.cache.InvalidationTransport;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.cache.InvalidationBus;
+import org.springframework.data.semantic.support.cache.LoopbackInvalidationTransport;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestInvalidationBus {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	private LoopbackInvalidationTransport peer;
+	
+	private final List<InvalidationEvent> received = new CopyOnWriteArrayList<InvalidationEvent>();
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+		peer = new LoopbackInvalidationTransport(transport);
+		peer.start(new InvalidationListener() {
+			@Override
+			public void invalidated(InvalidationEvent event) {
+				received.add(event);
+			}
+		});
+		template.setInvalidationTransport(transport);
+		template.setMoleculeCacheSize(1000);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setInvalidationTransport(null);
+		template.setMoleculeCacheSize(0);
+		peer.close();
+		sdb.clear();
+	}
+	
+	@Test
+	public void testPublishedOnSave() throws InterruptedException{
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		entity.setName("Model Entity Uno");
+		template.save(entity);
+		IRI type = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class).getRDFType();
+		assertTrue(awaitEvent(MODEL_ENTITY.ENTITY_ONE, type));
+	}
+	
+	@Test
+	public void testPublishedOnUpsert() throws InterruptedException{
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		entity.setName("Model Entity Uno");
+		template.upsert(entity);
+		IRI type = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class).getRDFType();
+		assertTrue(awaitEvent(MODEL_ENTITY.ENTITY_ONE, type));
+	}
+	
+	@Test
+	public void testAppliedFromPeer(){
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertNotNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+		peer.publish(new InvalidationEvent("peer", Collections.singleton(MODEL_ENTITY.ENTITY_ONE), Collections.<IRI>emptySet()));
+		assertNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+		
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertNotNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+		peer.publish(InvalidationEvent.all("peer"));
+		assertNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+	}
+	
+	@Test
+	public void testBatchedAndDeduplicated(){
+		IRI type = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class).getRDFType();
+		final List<InvalidationEvent> published = new CopyOnWriteArrayList<InvalidationEvent>();
+		InvalidationTransport transport = new InvalidationTransport() {
+			@Override
+			public void start(InvalidationListener listener) {
+			}
+			@Override
+			public void publish(InvalidationEvent event) {
+				published.add(event);
+			}
+			@Override
+			public void close() {
+			}
+		};
+		InvalidationBus bus = new InvalidationBus(transport, new InvalidationListener() {
+			@Override
+			public void invalidated(InvalidationEvent event) {
+			}
+		}, 60000, InvalidationBus.DEFAULT_MAXIMUM_BATCH_SIZE);
+		try{
+			bus.publish(Arrays.asList(MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_ONE), Collections.singleton(type));
+			bus.publish(Collections.singleton(MODEL_ENTITY.ENTITY_ONE), Collections.singleton(type));
+			bus.publish(Collections.singleton(MODEL_ENTITY.ENTITY_TWO), Collections.<IRI>emptySet());
+			assertTrue(published.isEmpty());
+			bus.flush();
+			assertEquals(1, published.size());
+			InvalidationEvent event = published.get(0);
+			assertEquals(bus.getOrigin(), event.getOrigin());
+			assertEquals(2, event.getSubjects().size());
+			assertTrue(event.getSubjects().containsAll(Arrays.asList(MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_TWO)));
+			assertEquals(Collections.singleton(type), event.getTypes());
+			bus.flush();
+			assertEquals(1, published.size());
+		} finally{
+			bus.close();
+		}
+	}
+	
+	private boolean awaitEvent(IRI subject, IRI type) throws InterruptedException{
+		for(int i = 0; i < 50; i++){
+			for(InvalidationEvent event : received){
+				if(event.getSubjects().contains(subject) && event.getTypes().contains(type)){
+					return true;
+				}
+			}
+			Thread.sleep(100);
+		}
+		return false;
+	}
+
+}
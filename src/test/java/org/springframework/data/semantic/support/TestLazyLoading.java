@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.model.LazyPropertyEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.convert.SemanticEntityInstantiatorImpl;
+import org.springframework.data.semantic.support.convert.lazy.LazyAssociationList;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoader;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingBatch;
+import org.springframework.data.semantic.support.convert.lazy.LazyLoadingProxyFactory;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestLazyLoading {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testLazyAssociationList(){
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		List<ModelEntity> related = entity.getRelated();
+		assertTrue(related instanceof LazyAssociationList);
+		assertEquals(2, related.size());
+		assertFalse(((LazyAssociationList<ModelEntity>) related).isInitialized());
+		for(ModelEntity relatedEntity : LazyAssociationList.getTarget(related)){
+			assertTrue(LazyLoadingProxyFactory.isProxy(relatedEntity));
+			assertFalse(LazyLoadingProxyFactory.isInitialized(relatedEntity));
+		}
+		ModelEntity first = related.get(0);
+		for(ModelEntity relatedEntity : related){
+			assertTrue(LazyLoadingProxyFactory.isInitialized(relatedEntity));
+		}
+		assertEquals(template.find(first.getUri(), ModelEntity.class).getName(), first.getName());
+		assertFalse(first.getRelated().isEmpty());
+	}
+	
+	@Test
+	public void testSaveWithoutLoading(){
+		long count = sdb.count();
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		template.save(entity);
+		for(ModelEntity relatedEntity : LazyAssociationList.getTarget(entity.getRelated())){
+			assertFalse(LazyLoadingProxyFactory.isInitialized(relatedEntity));
+		}
+		assertEquals(count, sdb.count());
+		assertEquals(2, template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getRelated().size());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBatchSize(){
+		final List<Integer> loadedBatches = new LinkedList<Integer>();
+		LazyLoader loader = new LazyLoader() {
+			@Override
+			public <T> void loadEntities(SemanticPersistentEntity<T> persistentEntity, Map<IRI, T> entities) {
+				loadedBatches.add(entities.size());
+			}
+
+			@Override
+			public <T> void loadProperty(SemanticPersistentEntity<T> persistentEntity, SemanticPersistentProperty property, Map<IRI, T> entities) {
+				loadedBatches.add(entities.size());
+			}
+		};
+		LazyLoadingProxyFactory proxyFactory = new LazyLoadingProxyFactory(loader, new SemanticEntityInstantiatorImpl());
+		SemanticPersistentEntity<Object> persistentEntity = (SemanticPersistentEntity<Object>) template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		LazyLoadingBatch batch = new LazyLoadingBatch(persistentEntity, 3, loader);
+		List<ModelEntity> proxies = new ArrayList<ModelEntity>();
+		for(int i = 0; i < 5; i++){
+			proxies.add((ModelEntity) proxyFactory.createProxy(persistentEntity, ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazy:"+i), batch));
+		}
+		assertEquals(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazy:4"), proxies.get(4).getUri());
+		assertTrue(loadedBatches.isEmpty());
+		proxies.get(4).getName();
+		assertEquals(1, loadedBatches.size());
+		assertEquals(Integer.valueOf(3), loadedBatches.get(0));
+		assertTrue(LazyLoadingProxyFactory.isInitialized(proxies.get(0)));
+		assertTrue(LazyLoadingProxyFactory.isInitialized(proxies.get(1)));
+		assertFalse(LazyLoadingProxyFactory.isInitialized(proxies.get(2)));
+		proxies.get(3).getName();
+		assertEquals(2, loadedBatches.size());
+		assertEquals(Integer.valueOf(2), loadedBatches.get(1));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSiblingWaitsForBatch() throws Exception{
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		LazyLoader loader = new LazyLoader() {
+			@Override
+			public <T> void loadEntities(SemanticPersistentEntity<T> persistentEntity, Map<IRI, T> entities) {
+				started.countDown();
+				try{
+					release.await();
+				} catch(InterruptedException e){
+					throw new IllegalStateException(e);
+				}
+				for(Map.Entry<IRI, T> entity : entities.entrySet()){
+					((ModelEntity) entity.getValue()).setName("loaded "+entity.getKey().getLocalName());
+				}
+			}
+
+			@Override
+			public <T> void loadProperty(SemanticPersistentEntity<T> persistentEntity, SemanticPersistentProperty property, Map<IRI, T> entities) {
+			}
+		};
+		LazyLoadingProxyFactory proxyFactory = new LazyLoadingProxyFactory(loader, new SemanticEntityInstantiatorImpl());
+		SemanticPersistentEntity<Object> persistentEntity = (SemanticPersistentEntity<Object>) template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		LazyLoadingBatch batch = new LazyLoadingBatch(persistentEntity, 2, loader);
+		final ModelEntity first = (ModelEntity) proxyFactory.createProxy(persistentEntity, ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazy:1"), batch);
+		final ModelEntity second = (ModelEntity) proxyFactory.createProxy(persistentEntity, ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazy:2"), batch);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try{
+			Future<String> firstName = executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return first.getName();
+				}
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			Future<String> secondName = executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return second.getName();
+				}
+			});
+			//the sibling is being loaded by the first thread, it is neither marked loaded nor read before the batch returns
+			Thread.sleep(100);
+			assertFalse(secondName.isDone());
+			assertFalse(LazyLoadingProxyFactory.isInitialized(second));
+			release.countDown();
+			assertEquals("loaded 1", firstName.get(5, TimeUnit.SECONDS));
+			assertEquals("loaded 2", secondName.get(5, TimeUnit.SECONDS));
+		} finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testLazyProperty(){
+		List<LazyPropertyEntity> entities = new ArrayList<LazyPropertyEntity>();
+		for(int i = 0; i < 3; i++){
+			LazyPropertyEntity entity = new LazyPropertyEntity();
+			entity.setUri(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazyProperty:"+i));
+			entity.setTitle("title "+i);
+			entity.setBody("body "+i);
+			entities.add(entity);
+		}
+		template.save(entities);
+		
+		List<LazyPropertyEntity> loaded = template.findAll(LazyPropertyEntity.class);
+		assertEquals(3, loaded.size());
+		SemanticPersistentProperty bodyProperty = template.getSemanticMappingContext().getPersistentEntity(LazyPropertyEntity.class).getPersistentProperty("body");
+		for(LazyPropertyEntity entity : loaded){
+			assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, bodyProperty));
+			assertTrue(entity.getTitle().startsWith("title"));
+			assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(entity, bodyProperty));
+		}
+		LazyPropertyEntity first = loaded.get(0);
+		assertEquals("body"+first.getTitle().substring("title".length()), first.getBody());
+		for(LazyPropertyEntity entity : loaded){
+			assertTrue(LazyLoadingProxyFactory.isPropertyLoaded(entity, bodyProperty));
+		}
+		
+		first.setBody("changed");
+		template.save(first);
+		assertEquals("changed", template.find(first.getUri(), LazyPropertyEntity.class).getBody());
+		
+		LazyPropertyEntity second = template.find(loaded.get(1).getUri(), LazyPropertyEntity.class);
+		second.setTitle("changed");
+		template.save(second);
+		assertEquals(loaded.get(1).getBody(), template.find(second.getUri(), LazyPropertyEntity.class).getBody());
+		
+		long count = sdb.count();
+		template.delete(template.find(second.getUri(), LazyPropertyEntity.class));
+		assertEquals(count - 3, sdb.count());
+	}
+	
+	@Test
+	public void testLazyPropertyCached(){
+		LazyPropertyEntity entity = new LazyPropertyEntity();
+		entity.setUri(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:lazyProperty:cached"));
+		entity.setTitle("title");
+		entity.setBody("body");
+		template.save(entity);
+		template.getEntityCache().clearAll();
+		
+		SemanticPersistentProperty bodyProperty = template.getSemanticMappingContext().getPersistentEntity(LazyPropertyEntity.class).getPersistentProperty("body");
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(template.find(entity.getUri(), LazyPropertyEntity.class), bodyProperty));
+		//the entity is cached with its lazy property deferred, which is loaded on first access to the cached copy
+		LazyPropertyEntity cached = template.getEntityCache().get(entity.getUri(), LazyPropertyEntity.class);
+		assertNotNull(cached);
+		assertEquals("title", cached.getTitle());
+		assertFalse(LazyLoadingProxyFactory.isPropertyLoaded(cached, bodyProperty));
+		assertEquals("body", cached.getBody());
+	}
+	
+}
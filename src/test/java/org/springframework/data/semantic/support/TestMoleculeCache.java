@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollector;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestMoleculeCache {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		template.setMoleculeCacheSize(1000);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setMoleculeCacheSize(0);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testSameResults(){
+		template.setMoleculeCacheSize(0);
+		ModelEntity uncached = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		template.setMoleculeCacheSize(1000);
+		//the first read loads the molecules, the second one is evaluated against them
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		ModelEntity cached = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertNotNull(cached);
+		assertEquals(uncached.getName(), cached.getName());
+		assertEquals(new HashSet<String>(uncached.getSynonyms()), new HashSet<String>(cached.getSynonyms()));
+		assertEquals(getIds(uncached), getIds(cached));
+	}
+	
+	@Test
+	public void testSharedAcrossEntityTypes(){
+		ModelEntityCollector collector = template.find(MODEL_ENTITY.COLLECTOR_ONE, ModelEntityCollector.class);
+		assertEquals(2, collector.getEntities().size());
+		//the molecules of the collected entities are cached with the collector and shared with their own type
+		assertNotNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertEquals("Model Entity One", entity.getName());
+		//the changes bypassing the template are reported by the database
+		sdb.removeStatements(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, null);
+		assertNull(template.getMoleculeCache().get(MODEL_ENTITY.ENTITY_ONE));
+		assertNull(template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+	}
+	
+	@Test
+	public void testInvalidationOnSave(){
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		entity.setName("Model Entity First");
+		template.save(entity);
+		assertEquals("Model Entity First", template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+		
+		entity.setName("Model Entity Upserted");
+		template.upsert(entity);
+		assertEquals("Model Entity Upserted", template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+	}
+	
+	private Set<IRI> getIds(ModelEntity entity){
+		Set<IRI> ids = new HashSet<IRI>();
+		for(ModelEntity related : entity.getRelated()){
+			ids.add(related.getUri());
+		}
+		return ids;
+	}
+
+}
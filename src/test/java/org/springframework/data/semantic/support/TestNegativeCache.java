@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.cache.NegativeCache;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestNegativeCache {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setNegativeCache(0, SemanticTemplateCRUD.DEFAULT_NEGATIVE_CACHE_SIZE, false);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testMissingInvalidatedByCreate(){
+		template.setNegativeCache(60000, 100, false);
+		assertNull(template.find(entity(5), ModelEntity.class));
+		assertFalse(template.exists(entity(5), ModelEntity.class));
+		template.save(newEntity(5));
+		assertTrue(template.exists(entity(5), ModelEntity.class));
+		assertNotNull(template.find(entity(5), ModelEntity.class));
+	}
+	
+	@Test
+	public void testMissingExpires() throws InterruptedException{
+		template.setNegativeCache(200, 100, false);
+		assertFalse(template.exists(entity(5), ModelEntity.class));
+		Thread.sleep(300);
+		assertFalse(template.exists(entity(5), ModelEntity.class));
+		//the changes bypassing the template are reported by the database
+		sdb.addStatement(entity(5), RDF.TYPE, getRDFType(ModelEntity.class));
+		assertTrue(template.exists(entity(5), ModelEntity.class));
+	}
+	
+	@Test
+	public void testMembershipFilter(){
+		template.setNegativeCache(60000, 100, true);
+		assertTrue(template.exists(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		for(int i = 5; i < 100; i++){
+			assertFalse(template.exists(entity(i), ModelEntity.class));
+			assertNull(template.find(entity(i), ModelEntity.class));
+		}
+		template.save(newEntity(5));
+		assertTrue(template.exists(entity(5), ModelEntity.class));
+		template.delete(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertFalse(template.exists(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		sdb.executeUpdateStatement("INSERT DATA { <"+entity(6)+"> a <"+getRDFType(ModelEntity.class)+"> }");
+		assertTrue(template.exists(entity(6), ModelEntity.class));
+	}
+	
+	@Test
+	public void testMembershipFilterUpdatedIncrementally() throws InterruptedException{
+		template.setNegativeCache(60000, 100, true);
+		NegativeCache negativeCache = template.getNegativeCache();
+		IRI type = getRDFType(ModelEntity.class);
+		//the lookups are not filtered until the filter has been read in the background
+		assertFalse(negativeCache.isMissing(entity(5), type));
+		assertTrue(awaitMissing(negativeCache, entity(5), type));
+		assertFalse(negativeCache.isMissing(MODEL_ENTITY.ENTITY_ONE, type));
+		
+		template.save(newEntity(5));
+		assertFalse(negativeCache.isMissing(entity(5), type));
+		//the filter is not read again when entities are written
+		assertTrue(negativeCache.isMissing(entity(6), type));
+		
+		template.delete(entity(5), ModelEntity.class);
+		assertFalse(negativeCache.isMissing(entity(5), type));
+		assertTrue(negativeCache.isMissing(entity(6), type));
+		
+		negativeCache.invalidateFilters();
+		assertFalse(negativeCache.isMissing(entity(6), type));
+		assertTrue(awaitMissing(negativeCache, entity(6), type));
+	}
+	
+	private boolean awaitMissing(NegativeCache negativeCache, IRI resource, IRI type) throws InterruptedException{
+		for(int i = 0; i < 50; i++){
+			if(negativeCache.isMissing(resource, type)){
+				return true;
+			}
+			Thread.sleep(100);
+		}
+		return false;
+	}
+	
+	private ModelEntity newEntity(int i){
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(entity(i));
+		entity.setName("Model Entity "+i);
+		return entity;
+	}
+	
+	private IRI getRDFType(Class<?> clazz){
+		return template.getSemanticMappingContext().getPersistentEntity(clazz).getRDFType();
+	}
+	
+	private IRI entity(int i){
+		return ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:"+i);
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.AggregateFunction;
+import org.springframework.data.semantic.core.BulkWriteProgress;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollectorCascadeAll;
+import org.springframework.data.semantic.model.ProductEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestParallelConversion {
+	
+	private static final int PRODUCTS = 250;
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	private ExecutorService executor;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		executor = Executors.newFixedThreadPool(4);
+		template.setConversionExecutor(executor, 4);
+		template.setBatchSize(10);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setConversionExecutor(null, 1);
+		template.setBatchSize(SemanticTemplateCRUD.DEFAULT_BATCH_SIZE);
+		executor.shutdownNow();
+		sdb.clear();
+	}
+	
+	@Test
+	public void testParallelCreateAndSave(){
+		long count = sdb.count();
+		BulkWriteProgress progress = template.create(products(1).iterator(), null);
+		assertEquals(PRODUCTS, progress.getEntities());
+		assertEquals(progress.getStatements(), sdb.count() - count);
+		assertEquals(PRODUCTS, template.count(ProductEntity.class));
+		
+		count = sdb.count();
+		progress = template.save(products(2).iterator(), null);
+		assertEquals(PRODUCTS, progress.getEntities());
+		assertEquals(count, sdb.count());
+		Integer sum = template.aggregate(ProductEntity.class, new HashMap<String, Object>(), AggregateFunction.SUM, "price", Integer.class);
+		assertEquals(Integer.valueOf(PRODUCTS * (PRODUCTS + 1)), sum);
+	}
+	
+	@Test
+	public void testCascadeAcrossSlices(){
+		ModelEntity shared = new ModelEntity();
+		shared.setUri(MODEL_ENTITY.ENTITY_NOT_EXISTS_TWO);
+		shared.setName("shared entity");
+		List<ModelEntityCollectorCascadeAll> collectors = new ArrayList<ModelEntityCollectorCascadeAll>();
+		for(int i = 0; i < 50; i++){
+			ModelEntityCollectorCascadeAll collector = new ModelEntityCollectorCascadeAll();
+			collector.setUri(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collector:parallel"+i));
+			collector.setEntities(Arrays.asList(shared));
+			collectors.add(collector);
+		}
+		long count = sdb.count();
+		BulkWriteProgress progress = template.create(collectors.iterator(), null);
+		assertEquals(1, progress.getCommits());
+		assertEquals(progress.getStatements(), sdb.count() - count);
+		ModelEntity loaded = template.find(MODEL_ENTITY.ENTITY_NOT_EXISTS_TWO, ModelEntity.class);
+		assertEquals("shared entity", loaded.getName());
+		assertTrue(template.exists(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collector:parallel49"), ModelEntityCollectorCascadeAll.class));
+	}
+	
+	private static List<ProductEntity> products(int factor){
+		List<ProductEntity> products = new ArrayList<ProductEntity>(PRODUCTS);
+		for(int i = 1; i <= PRODUCTS; i++){
+			products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:"+i), "category"+(i % 10), i * factor));
+		}
+		return products;
+	}
+
+}
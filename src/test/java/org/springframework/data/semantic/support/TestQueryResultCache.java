@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollector;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestQueryResultCache {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		template.setQueryCacheSize(100);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setQueryCacheSize(0);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testCountInvalidatedByType(){
+		assertEquals(4, template.count(ModelEntity.class));
+		assertEquals(1, template.count(ModelEntityCollector.class));
+		//the changes bypassing the template are reported by the database
+		sdb.addStatement(entity(5), RDF.TYPE, getRDFType(ModelEntity.class));
+		IRI collector = ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collector:2");
+		sdb.addStatement(collector, RDF.TYPE, getRDFType(ModelEntityCollector.class));
+		sdb.addStatement(collector, template.getSemanticMappingContext().getPersistentEntity(ModelEntityCollector.class).getPersistentProperty("entities").getPredicate(), MODEL_ENTITY.ENTITY_ONE);
+		assertEquals(5, template.count(ModelEntity.class));
+		assertEquals(2, template.count(ModelEntityCollector.class));
+		long collectorEpoch = template.getQueryResultCache().getEpoch(getRDFType(ModelEntityCollector.class));
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(entity(6));
+		entity.setName("Model Entity Six");
+		template.save(entity);
+		assertEquals(6, template.count(ModelEntity.class));
+		//the entities do not refer to collectors, the count of collectors stays cached
+		assertEquals(collectorEpoch, template.getQueryResultCache().getEpoch(getRDFType(ModelEntityCollector.class)));
+		assertEquals(2, template.count(ModelEntityCollector.class));
+	}
+	
+	@Test
+	public void testFindInvalidatedByDelete(){
+		Map<String, Object> name = Collections.<String, Object>singletonMap("name", "Model Entity One");
+		assertEquals(1, template.findByProperty(ModelEntity.class, name).size());
+		assertEquals(Long.valueOf(1), template.countByProperty(ModelEntity.class, name));
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, ((ModelEntity) template.findByProperty(ModelEntity.class, name).iterator().next()).getUri());
+		template.delete(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertEquals(0, template.findByProperty(ModelEntity.class, name).size());
+		assertEquals(Long.valueOf(0), template.countByProperty(ModelEntity.class, name));
+		assertEquals(3, template.findAll(ModelEntity.class).size());
+	}
+	
+	@Test
+	public void testSessionInvalidatesWrittenTypes(){
+		Map<String, Object> name = Collections.<String, Object>singletonMap("name", "Model Entity One");
+		assertEquals(Long.valueOf(1), template.countByProperty(ModelEntity.class, name));
+		long collectorEpoch = template.getQueryResultCache().getEpoch(getRDFType(ModelEntityCollector.class));
+		SemanticSession session = template.openSession();
+		session.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).setName("Model Entity One changed");
+		session.flush();
+		assertEquals(Long.valueOf(0), template.countByProperty(ModelEntity.class, name));
+		//the collectors do not map the written statements, their cached results stay valid
+		assertEquals(collectorEpoch, template.getQueryResultCache().getEpoch(getRDFType(ModelEntityCollector.class)));
+	}
+	
+	@Test
+	public void testInvalidatedByUpdate(){
+		assertEquals(4, template.count(ModelEntity.class));
+		sdb.executeUpdateStatement("INSERT DATA { <"+entity(5)+"> a <"+getRDFType(ModelEntity.class)+"> }");
+		assertEquals(5, template.count(ModelEntity.class));
+	}
+	
+	private IRI getRDFType(Class<?> clazz){
+		return template.getSemanticMappingContext().getPersistentEntity(clazz).getRDFType();
+	}
+	
+	private IRI entity(int i){
+		return ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:"+i);
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityRepository;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.convert.EntityToQueryConverter;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestReachableEntities {
+	
+	private static final IRI ENTITY_FOUR = ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:4");
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Autowired
+	private ModelEntityRepository modelEntityRepository;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testBoundedTraversal(){
+		assertEquals(new HashSet<IRI>(Arrays.asList(MODEL_ENTITY.ENTITY_TWO)), getIds(template.findReachable(ENTITY_FOUR, ModelEntity.class, "related", 1)));
+		assertEquals(new HashSet<IRI>(Arrays.asList(MODEL_ENTITY.ENTITY_ONE, MODEL_ENTITY.ENTITY_TWO, MODEL_ENTITY.ENTITY_THREE)), getIds(template.findReachable(ENTITY_FOUR, ModelEntity.class, "related", 2)));
+	}
+	
+	@Test
+	public void testUnboundedTraversal(){
+		List<ModelEntity> reachable = modelEntityRepository.findReachable(MODEL_ENTITY.ENTITY_ONE, "related", 0);
+		assertEquals(new HashSet<IRI>(Arrays.asList(MODEL_ENTITY.ENTITY_TWO, MODEL_ENTITY.ENTITY_THREE, ENTITY_FOUR)), getIds(reachable));
+		Map<IRI, ModelEntity> idToEntity = new HashMap<IRI, ModelEntity>();
+		for(ModelEntity entity : reachable){
+			idToEntity.put(entity.getUri(), entity);
+		}
+		assertEquals("Model Entity Two", idToEntity.get(MODEL_ENTITY.ENTITY_TWO).getName());
+		//the reached entities share their instances
+		for(ModelEntity related : idToEntity.get(MODEL_ENTITY.ENTITY_TWO).getRelated()){
+			if(idToEntity.containsKey(related.getUri())){
+				assertSame(idToEntity.get(related.getUri()), related);
+			}
+		}
+	}
+	
+	@Test
+	public void testPropertyPath(){
+		EntityToQueryConverter queryConverter = new EntityToQueryConverter(template.getSemanticMappingContext());
+		SemanticPersistentEntity<?> persistentEntity = template.getSemanticMappingContext().getPersistentEntity(ModelEntity.class);
+		String bounded = queryConverter.getGraphQueryForReachableResources(persistentEntity, MODEL_ENTITY.ENTITY_ONE, persistentEntity.getPersistentProperty("related"), 2);
+		String step = "(<urn:spring-data-semantic:related>|^<urn:spring-data-semantic:related>)";
+		assertTrue(bounded.contains("("+step+"/("+step+")?)"));
+		//each further step is nested as optional, the path grows linearly with the depth
+		bounded = queryConverter.getGraphQueryForReachableResources(persistentEntity, MODEL_ENTITY.ENTITY_ONE, persistentEntity.getPersistentProperty("related"), 3);
+		assertTrue(bounded.contains("("+step+"/("+step+"/("+step+")?)?)"));
+		String unbounded = queryConverter.getGraphQueryForReachableResources(persistentEntity, MODEL_ENTITY.ENTITY_ONE, persistentEntity.getPersistentProperty("related"), 0);
+		assertTrue(unbounded.contains(step+"+"));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNotAnAssociation(){
+		template.findReachable(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class, "name", 0);
+	}
+	
+	private Set<IRI> getIds(List<ModelEntity> entities){
+		Set<IRI> ids = new HashSet<IRI>();
+		for(ModelEntity entity : entities){
+			ids.add(entity.getUri());
+		}
+		return ids;
+	}
+
+}
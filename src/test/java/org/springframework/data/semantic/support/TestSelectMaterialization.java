@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.WineBody;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.model.vocabulary.WINE;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestSelectMaterialization {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+		template.setSelectMaterialization(true);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setSelectMaterialization(false);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testFind(){
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertNotNull(entity);
+		assertEquals(MODEL_ENTITY.ENTITY_ONE, entity.getUri());
+		assertEquals("Model Entity One", entity.getName());
+		assertEquals(2, entity.getSynonyms().size());
+		assertEquals(2, entity.getRelated().size());
+		for(ModelEntity related : entity.getRelated()){
+			assertNotNull(related.getUri());
+		}
+	}
+	
+	@Test
+	public void testFindNotExisting(){
+		assertNull(template.find(MODEL_ENTITY.ENTITY_NOT_EXISTS, ModelEntity.class));
+	}
+	
+	@Test
+	public void testFindAll(){
+		List<ModelEntity> entities = template.findAll(ModelEntity.class);
+		assertEquals(template.count(ModelEntity.class), entities.size());
+		for(ModelEntity entity : entities){
+			assertNotNull(entity.getUri());
+			assertNotNull(entity.getRelated());
+		}
+		List<WineBody> wineBodies = template.findAll(WineBody.class);
+		assertEquals(template.count(WineBody.class), wineBodies.size());
+		for(WineBody wineBody : wineBodies){
+			if(WINE.LIGHT.equals(wineBody.getUri())){
+				assertNotNull(wineBody.getLabel());
+				return;
+			}
+		}
+		assertTrue("Light wine body not found", false);
+	}
+
+}
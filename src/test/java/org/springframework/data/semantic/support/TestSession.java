@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ProductEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestSession {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testFlushChangedProperty(){
+		SemanticSession session = template.openSession();
+		ModelEntity entity = session.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		assertSame(entity, session.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class));
+		assertEquals(0, session.flush());
+		
+		long count = sdb.count();
+		entity.setName("Model Entity One changed");
+		assertEquals(2, session.flush());
+		assertEquals(count, sdb.count());
+		List<Statement> names = sdb.getStatementsForTriplePattern(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, null);
+		assertEquals(1, names.size());
+		assertEquals("Model Entity One changed", names.get(0).getObject().stringValue());
+		assertEquals(0, session.flush());
+	}
+	
+	@Test
+	public void testFlushSeveralEntities(){
+		SemanticSession session = template.openSession();
+		List<ModelEntity> entities = session.findAll(ModelEntity.class);
+		assertTrue(session.contains(entities.get(0)));
+		ModelEntity two = session.find(MODEL_ENTITY.ENTITY_TWO, ModelEntity.class);
+		assertTrue(entities.contains(two));
+		two.setSynonyms(Arrays.asList("Model Entity Zwei"));
+		ProductEntity product = new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:1"), "category", 10);
+		session.persist(product);
+		session.flush();
+		assertEquals(1, sdb.getStatementsForTriplePattern(MODEL_ENTITY.ENTITY_TWO, SKOS.ALT_LABEL, null).size());
+		assertEquals(10, template.find(product.getUri(), ProductEntity.class).getPrice());
+		
+		product.setPrice(20);
+		assertEquals(2, session.flush());
+		session.clear();
+		assertEquals(0, session.flush());
+	}
+
+}
@@ -0,0 +1,395 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.cache.EntityCacheSettings;
+import org.springframework.data.semantic.cache.EntityLoader;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.CurrencyEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.cache.EmptyEntityCache;
+import org.springframework.data.semantic.support.cache.StripedEntityCache;
+import org.springframework.data.semantic.support.mapping.SemanticMappingContext;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestStripedEntityCache {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	private SemanticMappingContext mappingContext;
+	
+	private StripedEntityCache cache;
+	
+	@Before
+	public void initMappingContext() {
+		mappingContext = new SemanticMappingContext(sdb.getNamespaces(), sdb.getDefaultNamespace(), true);
+	}
+	
+	@After
+	public void closeCache(){
+		if(cache != null){
+			cache.close();
+		}
+	}
+	
+	@Test
+	public void testSnapshots(){
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 0, 0, true));
+		ModelEntity entity = modelEntity(1);
+		cache.put(entity);
+		assertSame(entity, cache.get(entity.getUri(), ModelEntity.class));
+		//the snapshots are shared, a change made by one caller is seen by the others
+		cache.get(entity.getUri(), ModelEntity.class).setName("changed");
+		assertEquals("changed", cache.get(entity.getUri(), ModelEntity.class).getName());
+		cache.remove(entity);
+		assertNull(cache.get(entity.getUri(), ModelEntity.class));
+	}
+	
+	@Test
+	public void testCopies(){
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings());
+		CurrencyEntity currency = new CurrencyEntity(currency(1), "EUR");
+		cache.put(currency);
+		currency.setCode("USD");
+		CurrencyEntity cached = cache.get(currency.getUri(), CurrencyEntity.class);
+		assertNotSame(currency, cached);
+		assertEquals("EUR", cached.getCode());
+		assertNotSame(cached, cache.get(currency.getUri(), CurrencyEntity.class));
+		//entities which are not serializable are copied as well
+		ModelEntity entity = modelEntity(1);
+		cache.put(entity);
+		ModelEntity cachedEntity = cache.get(entity.getUri(), ModelEntity.class);
+		assertNotSame(entity, cachedEntity);
+		assertEquals(entity.getName(), cachedEntity.getName());
+	}
+	
+	@Test
+	public void testSerializedState(){
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings());
+		ModelEntity entity = modelEntity(1);
+		entity.setName("Model Entity One");
+		entity.setSynonyms(Arrays.asList("One", "Uno"));
+		entity.setRelated(Arrays.asList(modelEntity(2), modelEntity(3)));
+		cache.put(entity);
+		ModelEntity cached = cache.get(entity.getUri(), ModelEntity.class);
+		assertEquals(entity.getName(), cached.getName());
+		assertEquals(entity.getSynonyms(), cached.getSynonyms());
+		//the associated entities are restored by their ids
+		assertEquals(2, cached.getRelated().size());
+		assertEquals(modelEntity(2).getUri(), cached.getRelated().get(0).getUri());
+		assertEquals(modelEntity(3).getUri(), cached.getRelated().get(1).getUri());
+		assertNotSame(entity.getRelated().get(0), cached.getRelated().get(0));
+	}
+	
+	@Test
+	public void testMaximumSize(){
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(32, 0, 0, true));
+		for(int i = 0; i < 1000; i++){
+			cache.put(modelEntity(i));
+		}
+		int hits = 0;
+		for(int i = 0; i < 1000; i++){
+			if(cache.get(modelEntity(i).getUri(), ModelEntity.class) != null){
+				hits++;
+			}
+		}
+		assertTrue(hits > 0);
+		assertTrue(hits <= 32);
+	}
+	
+	@Test
+	public void testExpireAfterWrite() throws InterruptedException{
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 50, 0, true));
+		ModelEntity entity = modelEntity(1);
+		cache.put(entity);
+		assertSame(entity, cache.get(entity.getUri(), ModelEntity.class));
+		Thread.sleep(100);
+		assertNull(cache.get(entity.getUri(), ModelEntity.class));
+	}
+	
+	@Test
+	public void testRefreshAfterWrite() throws InterruptedException{
+		final AtomicInteger loads = new AtomicInteger();
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 0, 50, true));
+		cache.setLoader(new EntityLoader() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> T load(IRI id, Class<T> clazz) {
+				loads.incrementAndGet();
+				ModelEntity entity = new ModelEntity();
+				entity.setUri(id);
+				entity.setName("Refreshed");
+				return (T) entity;
+			}
+
+			@Override
+			public <T> Map<IRI, T> loadAll(Collection<IRI> ids, Class<T> clazz) {
+				throw new UnsupportedOperationException();
+			}
+		});
+		ModelEntity entity = modelEntity(1);
+		cache.put(entity);
+		Thread.sleep(100);
+		//the stale entity is returned while it is reloaded in the background
+		assertSame(entity, cache.get(entity.getUri(), ModelEntity.class));
+		ModelEntity refreshed = null;
+		for(int i = 0; i < 100 && (refreshed == null || refreshed == entity); i++){
+			Thread.sleep(10);
+			refreshed = cache.get(entity.getUri(), ModelEntity.class);
+		}
+		assertNotNull(refreshed);
+		assertEquals("Refreshed", refreshed.getName());
+		assertEquals(1, loads.get());
+	}
+	
+	@Test
+	public void testGetAllLoadsMissesOnce(){
+		final List<Collection<IRI>> loads = new ArrayList<Collection<IRI>>();
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(1000, 0, 0, true));
+		List<IRI> ids = new ArrayList<IRI>();
+		for(int i = 0; i < 500; i++){
+			ModelEntity entity = modelEntity(i);
+			ids.add(entity.getUri());
+			if(i % 10 != 0){
+				cache.put(entity);
+			}
+		}
+		EntityLoader loader = new EntityLoader() {
+			@Override
+			public <T> T load(IRI id, Class<T> clazz) {
+				throw new UnsupportedOperationException();
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> Map<IRI, T> loadAll(Collection<IRI> ids, Class<T> clazz) {
+				loads.add(ids);
+				Map<IRI, T> entities = new HashMap<IRI, T>();
+				for(IRI id : ids){
+					ModelEntity entity = new ModelEntity();
+					entity.setUri(id);
+					entities.put(id, (T) entity);
+				}
+				return entities;
+			}
+		};
+		assertEquals(500, cache.getAll(ids, ModelEntity.class, loader).size());
+		assertEquals(1, loads.size());
+		assertEquals(50, loads.get(0).size());
+		//the loaded entities are cached
+		assertEquals(500, cache.getAll(ids, ModelEntity.class).size());
+		assertEquals(500, cache.getAll(ids, ModelEntity.class, loader).size());
+		assertEquals(1, loads.size());
+	}
+	
+	@Test
+	public void testCoalescedMisses() throws Exception{
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 0, 0, true));
+		final List<Collection<IRI>> loads = Collections.synchronizedList(new ArrayList<Collection<IRI>>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final EntityLoader loader = new BlockingLoader(loads, release);
+		final IRI id = modelEntity(1).getUri();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try{
+			List<Future<ModelEntity>> results = new ArrayList<Future<ModelEntity>>();
+			for(int i = 0; i < 8; i++){
+				results.add(executor.submit(new Callable<ModelEntity>() {
+					@Override
+					public ModelEntity call() {
+						return cache.get(id, ModelEntity.class, loader);
+					}
+				}));
+			}
+			//the concurrent misses join the load which is in flight
+			Thread.sleep(200);
+			release.countDown();
+			for(Future<ModelEntity> result : results){
+				assertNotNull(result.get());
+				assertEquals(id, result.get().getUri());
+			}
+			assertEquals(1, loads.size());
+		} finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testCoalescedBatchMisses() throws Exception{
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 0, 0, true));
+		final List<Collection<IRI>> loads = Collections.synchronizedList(new ArrayList<Collection<IRI>>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final EntityLoader loader = new BlockingLoader(loads, release);
+		final List<IRI> first = new ArrayList<IRI>();
+		final List<IRI> second = new ArrayList<IRI>();
+		for(int i = 0; i < 15; i++){
+			if(i < 10){
+				first.add(modelEntity(i).getUri());
+			}
+			if(i >= 5){
+				second.add(modelEntity(i).getUri());
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try{
+			Future<Map<IRI, ModelEntity>> firstResult = executor.submit(new Callable<Map<IRI, ModelEntity>>() {
+				@Override
+				public Map<IRI, ModelEntity> call() {
+					return cache.getAll(first, ModelEntity.class, loader);
+				}
+			});
+			while(loads.isEmpty()){
+				Thread.sleep(10);
+			}
+			Future<Map<IRI, ModelEntity>> secondResult = executor.submit(new Callable<Map<IRI, ModelEntity>>() {
+				@Override
+				public Map<IRI, ModelEntity> call() {
+					return cache.getAll(second, ModelEntity.class, loader);
+				}
+			});
+			Thread.sleep(200);
+			release.countDown();
+			assertEquals(10, firstResult.get().size());
+			assertEquals(10, secondResult.get().size());
+			//only the ids which were not in flight are loaded by the second lookup
+			assertEquals(2, loads.size());
+			assertEquals(10, loads.get(0).size());
+			assertEquals(5, loads.get(1).size());
+		} finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testConcurrentMissesWithoutCache() throws Exception{
+		final EmptyEntityCache emptyCache = new EmptyEntityCache();
+		final List<Collection<IRI>> loads = Collections.synchronizedList(new ArrayList<Collection<IRI>>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final EntityLoader loader = new BlockingLoader(loads, release);
+		final IRI id = modelEntity(1).getUri();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try{
+			List<Future<ModelEntity>> results = new ArrayList<Future<ModelEntity>>();
+			for(int i = 0; i < 2; i++){
+				results.add(executor.submit(new Callable<ModelEntity>() {
+					@Override
+					public ModelEntity call() {
+						return emptyCache.get(id, ModelEntity.class, loader);
+					}
+				}));
+			}
+			//nothing is cached, so the callers must not share the instance one of them may change
+			for(int i = 0; i < 500 && loads.size() < 2; i++){
+				Thread.sleep(10);
+			}
+			release.countDown();
+			assertNotSame(results.get(0).get(), results.get(1).get());
+		} finally{
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testClearType(){
+		cache = new StripedEntityCache(mappingContext, new EntityCacheSettings(100, 0, 0, true));
+		ModelEntity entity = modelEntity(1);
+		CurrencyEntity currency = new CurrencyEntity(currency(1), "EUR");
+		cache.put(entity);
+		cache.put(currency);
+		cache.clear(ModelEntity.class);
+		assertNull(cache.get(entity.getUri(), ModelEntity.class));
+		assertSame(currency, cache.get(currency.getUri(), CurrencyEntity.class));
+	}
+	
+	private static final class BlockingLoader implements EntityLoader {
+		
+		private final List<Collection<IRI>> loads;
+		private final CountDownLatch release;
+		
+		private BlockingLoader(List<Collection<IRI>> loads, CountDownLatch release) {
+			this.loads = loads;
+			this.release = release;
+		}
+		
+		@Override
+		public <T> T load(IRI id, Class<T> clazz) {
+			return loadAll(Collections.singleton(id), clazz).get(id);
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> Map<IRI, T> loadAll(Collection<IRI> ids, Class<T> clazz) {
+			loads.add(new ArrayList<IRI>(ids));
+			try{
+				release.await();
+			} catch(InterruptedException e){
+				throw new IllegalStateException(e);
+			}
+			Map<IRI, T> entities = new HashMap<IRI, T>();
+			for(IRI id : ids){
+				ModelEntity entity = new ModelEntity();
+				entity.setUri(id);
+				entities.put(id, (T) entity);
+			}
+			return entities;
+		}
+		
+	}
+	
+	private ModelEntity modelEntity(int i){
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:"+i));
+		return entity;
+	}
+	
+	private IRI currency(int i){
+		return ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "currency:"+i);
+	}
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.CollectedEntity;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollector;
+import org.springframework.data.semantic.model.ProductEntity;
+import org.springframework.data.semantic.model.ProductEntityRepository;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestUpsert {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Autowired
+	private ProductEntityRepository productRepository;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		sdb.clear();
+	}
+	
+	@Test
+	public void testUpsertExisting(){
+		ModelEntity entity = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		entity.setName("Model Entity One \"upserted\"");
+		entity.setSynonyms(Arrays.asList("Model Entity Einz"));
+		template.upsert(entity);
+		
+		List<Statement> names = sdb.getStatementsForTriplePattern(MODEL_ENTITY.ENTITY_ONE, SKOS.PREF_LABEL, null);
+		assertEquals(1, names.size());
+		assertEquals("Model Entity One \"upserted\"", names.get(0).getObject().stringValue());
+		List<Statement> synonyms = sdb.getStatementsForTriplePattern(MODEL_ENTITY.ENTITY_ONE, SKOS.ALT_LABEL, null);
+		assertEquals(1, synonyms.size());
+		assertEquals("Model Entity Einz", synonyms.get(0).getObject().stringValue());
+		
+		ModelEntity loaded = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		Set<IRI> related = new HashSet<IRI>();
+		for(ModelEntity relatedEntity : loaded.getRelated()){
+			related.add(relatedEntity.getUri());
+		}
+		assertEquals(new HashSet<IRI>(Arrays.asList(MODEL_ENTITY.ENTITY_TWO, ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "entity:3"))), related);
+	}
+	
+	@Test
+	public void testUpsertNew(){
+		long count = sdb.count();
+		ModelEntity entity = new ModelEntity();
+		entity.setUri(MODEL_ENTITY.ENTITY_NOT_EXISTS);
+		entity.setName("upserted entity");
+		template.upsert(entity);
+		assertTrue(sdb.count() > count);
+		assertEquals("upserted entity", template.find(MODEL_ENTITY.ENTITY_NOT_EXISTS, ModelEntity.class).getName());
+	}
+	
+	@Test
+	public void testUpsertSeveralCached(){
+		ModelEntity one = template.find(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class);
+		ModelEntity two = template.find(MODEL_ENTITY.ENTITY_TWO, ModelEntity.class);
+		one.setName("Model Entity One upserted");
+		two.setName("Model Entity Two upserted");
+		template.upsert(Arrays.asList(one, two));
+		//the upserted states are cached after the update, not the states read while it ran
+		assertEquals("Model Entity One upserted", template.getEntityCache().get(MODEL_ENTITY.ENTITY_ONE, ModelEntity.class).getName());
+		assertEquals("Model Entity Two upserted", template.getEntityCache().get(MODEL_ENTITY.ENTITY_TWO, ModelEntity.class).getName());
+	}
+	
+	@Test
+	public void testUpsertIncomingWithInverse(){
+		IRI entities = template.getSemanticMappingContext().getPersistentEntity(ModelEntityCollector.class).getPersistentProperty("entities").getPredicate();
+		IRI first = ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collector:first");
+		IRI second = ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collector:second");
+		CollectedEntity entity = new CollectedEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "collected:1"), Arrays.asList(collector(first)));
+		template.upsert(entity);
+		assertEquals(1, sdb.getStatementsForTriplePattern(first, entities, entity.getUri()).size());
+		
+		//the incoming links are written with the predicate of the inverse property, the old one must be deleted
+		entity.setCollectors(Arrays.asList(collector(second)));
+		template.upsert(entity);
+		assertEquals(0, sdb.getStatementsForTriplePattern(first, entities, entity.getUri()).size());
+		assertEquals(1, sdb.getStatementsForTriplePattern(second, entities, entity.getUri()).size());
+	}
+	
+	private ModelEntityCollector collector(IRI uri){
+		ModelEntityCollector collector = new ModelEntityCollector();
+		collector.setUri(uri);
+		return collector;
+	}
+	
+	@Test
+	public void testUpsertRepository(){
+		List<ProductEntity> products = new ArrayList<ProductEntity>();
+		for(int i = 1; i <= 10; i++){
+			products.add(new ProductEntity(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:"+i), "category", i));
+		}
+		productRepository.save(products);
+		long count = sdb.count();
+		for(ProductEntity product : products){
+			product.setPrice(product.getPrice() * 10);
+		}
+		productRepository.save(products);
+		assertEquals(count, sdb.count());
+		assertEquals(100, productRepository.findOne(ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "product:10")).getPrice());
+		
+		ProductEntity product = products.get(0);
+		product.setCategory("other");
+		productRepository.save(product);
+		assertEquals(count, sdb.count());
+		assertEquals("other", productRepository.findOne(product.getUri()).getCategory());
+	}
+
+}
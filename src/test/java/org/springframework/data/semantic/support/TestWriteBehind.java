@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.semantic.core.FetchPlan;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.model.PresenceEntity;
+import org.springframework.data.semantic.model.vocabulary.MODEL_ENTITY;
+import org.springframework.data.semantic.support.util.ValueUtils;
+import org.springframework.data.semantic.testutils.Utils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestWriteBehind {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	@Before
+	public void initRepo() throws RepositoryException {
+		Utils.populateTestRepository(sdb);
+		sdb.addNamespace("", MODEL_ENTITY.NAMESPACE);
+	}
+	
+	@After
+	public void clearRepo(){
+		template.setWriteBehind(SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_DELAY, SemanticTemplateCRUD.DEFAULT_WRITE_BEHIND_CAPACITY);
+		sdb.clear();
+	}
+	
+	@Test
+	public void testCoalescedSaves(){
+		template.setWriteBehind(60000, 100);
+		long count = sdb.count();
+		PresenceEntity presence = new PresenceEntity(presence(1), "online", 0);
+		for(int i = 1; i <= 100; i++){
+			presence.setHeartbeats(i);
+			template.save(presence);
+		}
+		assertEquals(count, sdb.count());
+		assertTrue(template.exists(presence(1), PresenceEntity.class));
+		assertSame(presence, template.find(presence(1), PresenceEntity.class));
+		assertSame(presence, template.find(presence(1), PresenceEntity.class, new FetchPlan(0, "status")));
+		
+		template.flushWriteBehind();
+		assertTrue(sdb.count() > count);
+		assertEquals(1, template.count(PresenceEntity.class));
+		presence.setStatus("away");
+		template.save(presence);
+		template.flushWriteBehind();
+		assertEquals(1, sdb.getStatementsForTriplePattern(presence(1), ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "status"), null).size());
+		assertEquals(1, sdb.getStatementsForTriplePattern(presence(1), ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "heartbeats"), null).size());
+		
+		template.setWriteBehind(60000, 100);
+		PresenceEntity loaded = template.find(presence(1), PresenceEntity.class);
+		assertEquals("away", loaded.getStatus());
+		assertEquals(100, loaded.getHeartbeats());
+	}
+	
+	@Test
+	public void testBackpressure(){
+		template.setWriteBehind(60000, 2);
+		for(int i = 1; i <= 3; i++){
+			template.save(new PresenceEntity(presence(i), "online", i));
+		}
+		//the third save has waited for the first two to be written
+		assertTrue(template.exists(presence(1), PresenceEntity.class));
+		assertTrue(template.exists(presence(2), PresenceEntity.class));
+		assertEquals(2, template.count(PresenceEntity.class));
+		template.flushWriteBehind();
+		assertEquals(3, template.count(PresenceEntity.class));
+	}
+	
+	@Test
+	public void testBackgroundFlush() throws InterruptedException{
+		template.setWriteBehind(20, 100);
+		template.save(new PresenceEntity(presence(1), "online", 1));
+		for(int i = 0; i < 250 && !template.exists(presence(1), PresenceEntity.class); i++){
+			Thread.sleep(20);
+		}
+		assertTrue(template.exists(presence(1), PresenceEntity.class));
+	}
+	
+	private static IRI presence(int i){
+		return ValueUtils.createIRI(MODEL_ENTITY.NAMESPACE, "presence:"+i);
+	}
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Test;
+import org.springframework.data.semantic.cache.InvalidationEvent;
+
+public class TestMulticastInvalidationTransport {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+	
+	@Test
+	public void testRoundTrip(){
+		List<IRI> subjects = Arrays.asList(vf.createIRI("urn:test:one"), vf.createIRI("urn:test:two"));
+		List<IRI> types = Collections.singletonList(vf.createIRI("urn:test:Type"));
+		List<byte[]> packets = MulticastInvalidationTransport.encode(new InvalidationEvent("node", subjects, types));
+		assertEquals(1, packets.size());
+		InvalidationEvent event = decode(packets.get(0));
+		assertEquals("node", event.getOrigin());
+		assertFalse(event.isAll());
+		assertEquals(new HashSet<IRI>(subjects), event.getSubjects());
+		assertEquals(new HashSet<IRI>(types), event.getTypes());
+	}
+	
+	@Test
+	public void testRoundTripAll(){
+		List<byte[]> packets = MulticastInvalidationTransport.encode(InvalidationEvent.all("node"));
+		assertEquals(1, packets.size());
+		InvalidationEvent event = decode(packets.get(0));
+		assertEquals("node", event.getOrigin());
+		assertTrue(event.isAll());
+	}
+	
+	@Test
+	public void testEmpty(){
+		List<byte[]> packets = MulticastInvalidationTransport.encode(new InvalidationEvent("node", Collections.<IRI>emptySet(), Collections.<IRI>emptySet()));
+		assertTrue(packets.isEmpty());
+	}
+	
+	@Test
+	public void testSplitInDatagrams(){
+		Set<IRI> subjects = new HashSet<IRI>();
+		for(int i = 0; i < 2000; i++){
+			subjects.add(vf.createIRI("urn:test:subject:"+i));
+		}
+		List<byte[]> packets = MulticastInvalidationTransport.encode(new InvalidationEvent("node", subjects, Collections.<IRI>emptySet()));
+		assertTrue(packets.size() > 1);
+		Set<IRI> decoded = new HashSet<IRI>();
+		for(byte[] packet : packets){
+			assertTrue(packet.length <= MulticastInvalidationTransport.MAXIMUM_PACKET_SIZE);
+			InvalidationEvent event = decode(packet);
+			assertEquals("node", event.getOrigin());
+			assertFalse(event.isAll());
+			decoded.addAll(event.getSubjects());
+		}
+		assertEquals(subjects, decoded);
+	}
+	
+	@Test
+	public void testOversizeIRI(){
+		StringBuilder iri = new StringBuilder("urn:test:");
+		while(iri.length() <= MulticastInvalidationTransport.MAXIMUM_PACKET_SIZE){
+			iri.append("long");
+		}
+		List<IRI> subjects = Arrays.asList(vf.createIRI("urn:test:one"), vf.createIRI(iri.toString()));
+		List<byte[]> packets = MulticastInvalidationTransport.encode(new InvalidationEvent("node", subjects, Collections.<IRI>emptySet()));
+		assertEquals(1, packets.size());
+		InvalidationEvent event = decode(packets.get(0));
+		assertEquals("node", event.getOrigin());
+		assertTrue(event.isAll());
+	}
+	
+	@Test
+	public void testMalformed(){
+		assertNull(MulticastInvalidationTransport.decode(""));
+		assertNull(MulticastInvalidationTransport.decode("node"));
+		assertNull(MulticastInvalidationTransport.decode("node\n"));
+		assertNull(MulticastInvalidationTransport.decode("\nsurn:test:one\n"));
+		assertNull(MulticastInvalidationTransport.decode("node\nxurn:test:one\n"));
+		assertNull(MulticastInvalidationTransport.decode("node\nsnot an iri\n"));
+	}
+	
+	private InvalidationEvent decode(byte[] packet){
+		return MulticastInvalidationTransport.decode(new String(packet, UTF_8));
+	}
+
+}
@@ -51,6 +51,8 @@ public class TestEntityToQueryConverter {
     private String expectedQueryUnion = "CONSTRUCT { "+expectedBindingsUnion+" } WHERE { "+expectedPatternUnion+"}";
 
 
+    private String expectedTupleQuery = "SELECT ?ModelEntity ?ModelEntity_modelentity_name ?ModelEntity_modelentity_synonyms ?ModelEntity_modelentity_related WHERE { VALUES ?ModelEntity { <http://ontotext.com/resource/test> } ?ModelEntity a <urn:spring-data-semantic:ModelEntity> . { } UNION { ?ModelEntity <http://www.w3.org/2004/02/skos/core#prefLabel> ?ModelEntity_modelentity_name . } UNION { ?ModelEntity <http://www.w3.org/2004/02/skos/core#altLabel> ?ModelEntity_modelentity_synonyms . } UNION { ?ModelEntity <urn:spring-data-semantic:related> ?ModelEntity_modelentity_related . } } ORDER BY ?ModelEntity";
+
     private IRI resource = ValueUtils.createIRI("http://ontotext.com/resource/test");
 	
 	private IRI collectionResource = ValueUtils.createIRI("http://ontotext.com/resource/test-collection");
@@ -137,6 +139,12 @@ public class TestEntityToQueryConverter {
 		assertArrayEquals(expected, resultBindings);
 	}
 	
+	@Test
+	public void TestTupleQueryCreation(){
+		String query = entityToQueryConverter.getTupleQueryForResources(testEntityType, Arrays.asList(resource));
+		assertEquals(expectedTupleQuery, query.replaceAll("\\s+", " "));
+	}
+	
 	private class LocaleIndipendentStringComparator implements Comparator<String> {
 
 		private Collator collator = Collator.getInstance(Locale.US);
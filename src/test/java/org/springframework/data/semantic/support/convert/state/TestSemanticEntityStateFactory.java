@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2014 Ontotext AD (info@ontotext.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.semantic.support.convert.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.semantic.convert.access.FieldAccessor;
+import org.springframework.data.semantic.core.SemanticDatabase;
+import org.springframework.data.semantic.mapping.SemanticPersistentProperty;
+import org.springframework.data.semantic.model.ModelEntity;
+import org.springframework.data.semantic.model.ModelEntityCollector;
+import org.springframework.data.semantic.support.SemanticTemplateCRUD;
+import org.springframework.data.semantic.support.convert.access.MockFieldAccessorFactory;
+import org.springframework.data.semantic.support.convert.access.listener.MockFieldAccessListenerFactory;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "classpath*:META-INF/default-context.xml" })
+public class TestSemanticEntityStateFactory {
+	
+	@Autowired
+	private SemanticDatabase sdb;
+	
+	@Autowired
+	private SemanticTemplateCRUD template;
+	
+	private final List<SemanticPersistentProperty> accessedProperties = new ArrayList<SemanticPersistentProperty>();
+	
+	private SemanticEntityStateFactory factory;
+	
+	@Before
+	public void setUp(){
+		MockFieldAccessorFactory fieldAccessorFactory = new MockFieldAccessorFactory(){
+			@Override
+			public FieldAccessor forField(SemanticPersistentProperty property) {
+				accessedProperties.add(property);
+				return super.forField(property);
+			}
+		};
+		factory = new SemanticEntityStateFactory(template.getSemanticMappingContext(), fieldAccessorFactory, new MockFieldAccessListenerFactory(), sdb, new DefaultConversionService());
+	}
+	
+	@Test
+	public void testContextPerClass(){
+		ModelEntity entity = new ModelEntity();
+		SemanticEntityState<ModelEntity> entityState = (SemanticEntityState<ModelEntity>) factory.getEntityState(entity, false);
+		int entityAccessors = accessedProperties.size();
+		assertTrue(entityAccessors > 0);
+		assertSame(entity, entityState.getEntity());
+		assertEquals(ModelEntity.class, entityState.getPersistentEntity().getType());
+		
+		ModelEntityCollector collector = new ModelEntityCollector();
+		SemanticEntityState<ModelEntityCollector> collectorState = (SemanticEntityState<ModelEntityCollector>) factory.getEntityState(collector, false);
+		assertTrue(accessedProperties.size() > entityAccessors);
+		assertSame(collector, collectorState.getEntity());
+		assertEquals(ModelEntityCollector.class, collectorState.getPersistentEntity().getType());
+		assertNotSame(entityState.getContext(), collectorState.getContext());
+		//the tables of each class map only the properties of that class
+		for(SemanticPersistentProperty property : entityState.getContext().getFieldAccessors().keySet()){
+			assertEquals(ModelEntity.class, property.getOwner().getType());
+		}
+		for(SemanticPersistentProperty property : collectorState.getContext().getFieldAccessors().keySet()){
+			assertEquals(ModelEntityCollector.class, property.getOwner().getType());
+		}
+		
+		//the context of a class is built once and shared by its states, which keep their own entity and statements
+		int accessors = accessedProperties.size();
+		ModelEntity otherEntity = new ModelEntity();
+		SemanticEntityState<ModelEntity> otherState = (SemanticEntityState<ModelEntity>) factory.getEntityState(otherEntity, false);
+		assertEquals(accessors, accessedProperties.size());
+		assertSame(entityState.getContext(), otherState.getContext());
+		assertSame(otherEntity, otherState.getEntity());
+		assertNotSame(entityState.getPersistentState(), otherState.getPersistentState());
+	}
+
+}